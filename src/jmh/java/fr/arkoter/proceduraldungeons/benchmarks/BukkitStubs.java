@@ -0,0 +1,89 @@
+package fr.arkoter.proceduraldungeons.benchmarks;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+// Remplaçants des types Bukkit pour exécuter les benchmarks sans serveur
+public final class BukkitStubs {
+
+    private BukkitStubs() {
+    }
+
+    // Monde minimal : nom et UUID, égalité par identité. Tout autre appel échoue
+    public static World world(String name) {
+        UUID uid = UUID.nameUUIDFromBytes(name.getBytes());
+
+        return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getName":
+                            return name;
+                        case "getUID":
+                            return uid;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "StubWorld{" + name + "}";
+                        default:
+                            throw new UnsupportedOperationException("World." + method.getName() + " n'est pas disponible hors serveur");
+                    }
+                });
+    }
+
+    // Serveur minimal pour les ItemStack : l'usine d'objets ne fournit aucune méta (getItemMeta renvoie null,
+    // comme pour AIR), les enchantements et noms personnalisés sont donc ignorés hors serveur
+    public static void installServer() {
+        if (Bukkit.getServer() != null) return;
+
+        Logger logger = Logger.getLogger("BukkitStubs");
+        ItemFactory itemFactory = (ItemFactory) Proxy.newProxyInstance(ItemFactory.class.getClassLoader(),
+                new Class<?>[]{ItemFactory.class}, (proxy, method, args) -> defaultValue(method.getReturnType()));
+
+        Bukkit.setServer((Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[]{Server.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getItemFactory":
+                            return itemFactory;
+                        case "getLogger":
+                            return logger;
+                        case "getName":
+                        case "getVersion":
+                        case "getBukkitVersion":
+                            return "stub";
+                        default:
+                            throw new UnsupportedOperationException("Server." + method.getName() + " n'est pas disponible hors serveur");
+                    }
+                }));
+    }
+
+    // Inventaire qui accepte tout sans rien stocker
+    public static Inventory inventory() {
+        return (Inventory) Proxy.newProxyInstance(Inventory.class.getClassLoader(), new Class<?>[]{Inventory.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "addItem":
+                            return new HashMap<>();
+                        case "clear":
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException("Inventory." + method.getName() + " n'est pas disponible hors serveur");
+                    }
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        return null;
+    }
+}
@@ -0,0 +1,61 @@
+package fr.arkoter.proceduraldungeons.benchmarks;
+
+import fr.arkoter.proceduraldungeons.generators.DungeonPlanner;
+import fr.arkoter.proceduraldungeons.managers.GenerationRun;
+import fr.arkoter.proceduraldungeons.managers.InMemoryWorld;
+import fr.arkoter.proceduraldungeons.models.DungeonTemplate;
+import org.bukkit.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Génération complète dans un InMemoryWorld : calcul du plan seul, puis calcul et pose
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerationBenchmark {
+
+    private static final int DIFFICULTY = 3;
+
+    @Param({"50", "100", "200"})
+    private int size;
+
+    // Donjon simple ou personnalisé (modèle par défaut de l'assistant)
+    @Param({"false", "true"})
+    private boolean custom;
+
+    private DungeonTemplate template;
+    private Location location;
+    private long seed;
+
+    @Setup
+    public void setup() {
+        template = custom ? GenerationRun.template(size, DIFFICULTY) : null;
+        location = new Location(InMemoryWorld.around("plan", 0, 64, 0, size).getWorld(), 0, 64, 0);
+        seed = 42L;
+    }
+
+    @Benchmark
+    public DungeonPlanner.Plan plan() {
+        return new DungeonPlanner(GenerationRun.DEFAULT_SETTINGS)
+                .plan("generation", location, size, DIFFICULTY, template, seed++);
+    }
+
+    @Benchmark
+    public GenerationRun planAndPlace() {
+        return GenerationRun.run(size, DIFFICULTY, template, seed++);
+    }
+}
@@ -0,0 +1,142 @@
+package fr.arkoter.proceduraldungeons.benchmarks;
+
+import fr.arkoter.proceduraldungeons.managers.DungeonSpatialIndex;
+import fr.arkoter.proceduraldungeons.models.Dungeon;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Recherches faites par les listeners à chaque interaction ou déplacement : piège et coffre
+// d'une position, donjon contenant une position
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupBenchmark {
+
+    private static final int DUNGEON_COUNT = 50;
+    private static final int DUNGEON_SIZE = 100;
+    private static final int SPACING = 256;
+    private static final int TRAP_COUNT = 200;
+    private static final int CHEST_COUNT = 40;
+
+    // Puissance de deux : index des sondes par masque
+    private static final int PROBES = 1024;
+
+    private Dungeon dungeon;
+    private DungeonSpatialIndex index;
+
+    private int[][] trapProbes;
+    private int[][] chestProbes;
+    private int[][] emptyProbes;
+    private Location[] locationProbes;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        World world = BukkitStubs.world("benchmark");
+        Random random = new Random(42L);
+
+        index = new DungeonSpatialIndex();
+        for (int i = 0; i < DUNGEON_COUNT; i++) {
+            Dungeon other = new Dungeon("donjon" + i, new Location(world, i * SPACING, 64, 0), DUNGEON_SIZE, 1);
+            index.add(other);
+            if (i == 0) {
+                dungeon = other;
+            }
+        }
+
+        trapProbes = new int[PROBES][];
+        chestProbes = new int[PROBES][];
+        int[][] traps = randomPositions(random, TRAP_COUNT);
+        int[][] chests = randomPositions(random, CHEST_COUNT);
+        for (int[] trap : traps) {
+            dungeon.addTrap(new Location(world, trap[0], trap[1], trap[2]), random.nextInt(3));
+        }
+        for (int[] chest : chests) {
+            dungeon.addTreasureChest(new Location(world, chest[0], chest[1], chest[2]));
+        }
+        for (int i = 0; i < PROBES; i++) {
+            trapProbes[i] = traps[i % traps.length];
+            chestProbes[i] = chests[i % chests.length];
+        }
+
+        // Cas le plus fréquent : un bloc quelconque du donjon, sans piège ni coffre
+        emptyProbes = randomPositions(random, PROBES);
+
+        // Moitié dans un donjon, moitié entre deux emplacements
+        locationProbes = new Location[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            int x = random.nextInt(DUNGEON_COUNT * SPACING) - DUNGEON_SIZE / 2;
+            int z = random.nextInt(DUNGEON_SIZE * 2) - DUNGEON_SIZE;
+            locationProbes[i] = new Location(world, x, 64, z);
+        }
+    }
+
+    private int[][] randomPositions(Random random, int count) {
+        int[][] positions = new int[count][];
+        for (int i = 0; i < count; i++) {
+            positions[i] = new int[]{
+                    dungeon.getMinX() + random.nextInt(DUNGEON_SIZE),
+                    64 + random.nextInt(4),
+                    dungeon.getMinZ() + random.nextInt(DUNGEON_SIZE)
+            };
+        }
+        return positions;
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (PROBES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public Dungeon.Trap trapHit() {
+        int[] probe = trapProbes[next()];
+        return dungeon.getTrapAt(probe[0], probe[1], probe[2]);
+    }
+
+    @Benchmark
+    public Dungeon.Trap trapMiss() {
+        int[] probe = emptyProbes[next()];
+        return dungeon.getTrapAt(probe[0], probe[1], probe[2]);
+    }
+
+    @Benchmark
+    public Dungeon.TreasureChest chestHit() {
+        int[] probe = chestProbes[next()];
+        return dungeon.getTreasureChestAt(probe[0], probe[1], probe[2]);
+    }
+
+    @Benchmark
+    public Dungeon.TreasureChest chestMiss() {
+        int[] probe = emptyProbes[next()];
+        return dungeon.getTreasureChestAt(probe[0], probe[1], probe[2]);
+    }
+
+    // Équivalent de DungeonManager.getDungeonAt
+    @Benchmark
+    public Dungeon dungeonAt() {
+        return index.getDungeonAt(locationProbes[next()]);
+    }
+
+    // Équivalent de DungeonManager.isLocationInDungeon
+    @Benchmark
+    public boolean contains() {
+        return dungeon.contains(locationProbes[next()]);
+    }
+}
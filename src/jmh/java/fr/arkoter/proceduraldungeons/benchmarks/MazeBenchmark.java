@@ -0,0 +1,72 @@
+package fr.arkoter.proceduraldungeons.benchmarks;
+
+import fr.arkoter.proceduraldungeons.generators.MazeAnalysis;
+import fr.arkoter.proceduraldungeons.generators.MazeGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Génération du labyrinthe aux tailles de donjon courantes, jusqu'à la taille maximale
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MazeBenchmark {
+
+    private static final long SEED = 42L;
+
+    // Valeurs par défaut de generation.room-size et d'un modèle à quatre salles spéciales
+    private static final int ROOM_COUNT = 4;
+    private static final int MIN_ROOM_SIZE = 5;
+    private static final int MAX_ROOM_SIZE = 9;
+
+    @Param({"30", "50", "100", "500"})
+    private int size;
+
+    // Labyrinthe déjà généré pour mesurer l'analyse seule
+    private MazeGenerator generated;
+
+    private long seed;
+
+    @Setup
+    public void setup() {
+        generated = new MazeGenerator(size, size, SEED);
+        generated.generate();
+        seed = SEED;
+    }
+
+    // Graine différente à chaque appel : pas de labyrinthe rejoué à l'identique
+    @Benchmark
+    public boolean[][] generate() {
+        return new MazeGenerator(size, size, seed++).generate();
+    }
+
+    @Benchmark
+    public boolean[][] generateWithRooms() {
+        return new MazeGenerator(size, size, seed++).generateWithRooms(ROOM_COUNT, MIN_ROOM_SIZE, MAX_ROOM_SIZE);
+    }
+
+    // MazeGenerator garde son analyse en cache : la mesurer directement
+    @Benchmark
+    public MazeAnalysis analyze() {
+        return MazeAnalysis.of(generated);
+    }
+
+    @Benchmark
+    public List<int[]> getDeadEnds() {
+        return generated.getDeadEnds();
+    }
+}
@@ -0,0 +1,82 @@
+package fr.arkoter.proceduraldungeons.benchmarks;
+
+import fr.arkoter.proceduraldungeons.utils.MessageUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+// Messages envoyés aux joueurs, avec les remplacements des commandes et de la progression
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageBenchmark {
+
+    private static final String RESET_OCCUPIED = "messages.dungeon.reset-occupied";
+    private static final String CREATED = "messages.dungeon.created";
+    private static final String BUILDING = "messages.dungeon.building";
+
+    // Seule clé absente volontairement, pour mesurer le message de repli
+    private static final String MISSING = "messages.dungeon.introuvable";
+
+    private int progress;
+
+    // MessageUtils lit un fichier : le messages.yml livré est copié dans un fichier temporaire
+    @Setup
+    public void setup() throws Exception {
+        File file = File.createTempFile("messages", ".yml");
+        file.deleteOnExit();
+
+        try (InputStream in = MessageBenchmark.class.getClassLoader().getResourceAsStream("messages.yml")) {
+            if (in == null) throw new IllegalStateException("messages.yml introuvable sur le classpath");
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        MessageUtils.loadMessages(file);
+
+        // Une clé mal écrite mesurerait le repli au lieu du vrai message
+        String fallback = MessageUtils.getMessage(MISSING);
+        for (String key : new String[]{RESET_OCCUPIED, CREATED, BUILDING}) {
+            if (MessageUtils.getMessage(key).equals(fallback.replace(MISSING, key))) {
+                throw new IllegalStateException("Message " + key + " absent de messages.yml");
+            }
+        }
+    }
+
+    @Benchmark
+    public String withoutReplacement() {
+        return MessageUtils.getMessage(RESET_OCCUPIED);
+    }
+
+    @Benchmark
+    public String oneReplacement() {
+        return MessageUtils.getMessage(CREATED, "{name}", "crypte");
+    }
+
+    // Envoyé à chaque palier de construction
+    @Benchmark
+    public String twoReplacements() {
+        progress = (progress + 1) % 100;
+        return MessageUtils.getMessage(BUILDING, "{name}", "crypte", "{progress}", String.valueOf(progress));
+    }
+
+    @Benchmark
+    public String missingKey() {
+        return MessageUtils.getMessage(MISSING, "{name}", "crypte");
+    }
+}
@@ -0,0 +1,87 @@
+package fr.arkoter.proceduraldungeons.managers;
+
+import fr.arkoter.proceduraldungeons.benchmarks.BukkitStubs;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Tirages de loot via LootManager sur les tables compilées de loot-tables.yml : nombre de tirages,
+// objets garantis et création des ItemStack. Dans le package managers pour le constructeur hors serveur
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LootBenchmark {
+
+    // Petit donjon (table rare selon la chance) et grand donjon (table rare toujours tirée)
+    @Param({"30", "80"})
+    public int dungeonSize;
+
+    @Param({"1", "5"})
+    public int difficulty;
+
+    // Sans serveur les enchantements nommés sont inconnus : chaque compilation le signalerait
+    private final Logger lootLogger = Logger.getLogger(LootManager.class.getName());
+
+    private YamlConfiguration config;
+    private LootManager lootManager;
+    private Inventory chest;
+
+    @Setup
+    public void setup() throws Exception {
+        BukkitStubs.installServer();
+        lootLogger.setLevel(Level.SEVERE);
+
+        try (InputStream in = LootBenchmark.class.getClassLoader().getResourceAsStream("loot-tables.yml")) {
+            if (in == null) throw new IllegalStateException("loot-tables.yml introuvable sur le classpath");
+            config = YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        lootManager = new LootManager(config, new Random(42L));
+        chest = BukkitStubs.inventory();
+    }
+
+    @Benchmark
+    public Inventory populateChest() {
+        lootManager.populateChest(chest, difficulty, dungeonSize);
+        return chest;
+    }
+
+    @Benchmark
+    public List<ItemStack> rollBossLoot() {
+        return lootManager.rollBossLoot(difficulty);
+    }
+
+    @Benchmark
+    public ItemStack rollBonusLoot() {
+        return lootManager.rollBonusLoot(difficulty);
+    }
+
+    // Compilation complète des tables, refaite à chaque /dungeon reload
+    @Benchmark
+    public LootManager compile() {
+        return new LootManager(config, new Random(42L));
+    }
+}
@@ -4,6 +4,10 @@ import fr.arkoter.proceduraldungeons.commands.DungeonCommand;
 import fr.arkoter.proceduraldungeons.commands.DungeonTabCompleter;
 import fr.arkoter.proceduraldungeons.data.DungeonData;
 import fr.arkoter.proceduraldungeons.data.PlayerData;
+import fr.arkoter.proceduraldungeons.data.SnapshotData;
+import fr.arkoter.proceduraldungeons.data.SqlStorage;
+import fr.arkoter.proceduraldungeons.data.StorageBackend;
+import fr.arkoter.proceduraldungeons.data.YamlStorage;
 import fr.arkoter.proceduraldungeons.listeners.DungeonListener;
 import fr.arkoter.proceduraldungeons.listeners.EntityListener;
 import fr.arkoter.proceduraldungeons.listeners.PlayerListener;
@@ -11,20 +15,39 @@ import fr.arkoter.proceduraldungeons.listeners.WizardListener;
 import fr.arkoter.proceduraldungeons.managers.ConfigManager;
 import fr.arkoter.proceduraldungeons.managers.DungeonCreationWizard;
 import fr.arkoter.proceduraldungeons.managers.DungeonManager;
+import fr.arkoter.proceduraldungeons.managers.DungeonWorldManager;
+import fr.arkoter.proceduraldungeons.managers.GenerationScheduler;
+import fr.arkoter.proceduraldungeons.managers.InstanceManager;
+import fr.arkoter.proceduraldungeons.managers.LootManager;
+import fr.arkoter.proceduraldungeons.managers.MetricsManager;
+import fr.arkoter.proceduraldungeons.managers.MonsterManager;
+import fr.arkoter.proceduraldungeons.managers.PlacementManager;
 import fr.arkoter.proceduraldungeons.managers.TemplateManager;
+import fr.arkoter.proceduraldungeons.managers.TickMonitor;
 import fr.arkoter.proceduraldungeons.managers.PreviewManager;
 import fr.arkoter.proceduraldungeons.utils.MessageUtils;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
+import java.io.IOException;
 
 public class ProceduralDungeons extends JavaPlugin {
 
     private DungeonManager dungeonManager;
+    private PlacementManager placementManager;
+    private GenerationScheduler generationScheduler;
+    private MonsterManager monsterManager;
+    private InstanceManager instanceManager;
+    private DungeonWorldManager dungeonWorldManager;
+    private LootManager lootManager;
+    private MetricsManager metricsManager;
+    private TickMonitor tickMonitor;
     private ConfigManager configManager;
+    private StorageBackend storage;
     private DungeonData dungeonData;
     private PlayerData playerData;
+    private SnapshotData snapshotData;
     private DungeonCreationWizard dungeonCreationWizard;
     private TemplateManager templateManager;
     private PreviewManager previewManager;
@@ -54,8 +77,10 @@ public class ProceduralDungeons extends JavaPlugin {
 
         // Initialisation des gestionnaires de données
         getLogger().info("Chargement des données...");
-        dungeonData = new DungeonData(this);
-        playerData = new PlayerData(this);
+        storage = createStorage();
+        dungeonData = new DungeonData(this, storage);
+        playerData = new PlayerData(this, storage);
+        snapshotData = new SnapshotData(this);
 
         // Charger les messages
         getLogger().info("Chargement des messages...");
@@ -63,17 +88,26 @@ public class ProceduralDungeons extends JavaPlugin {
 
         // Initialisation des gestionnaires principaux
         getLogger().info("Initialisation des gestionnaires...");
+        placementManager = new PlacementManager(this);
+        generationScheduler = new GenerationScheduler(this);
+        lootManager = new LootManager(this);
+        metricsManager = new MetricsManager(this);
+        // Les mondes des instances et des donjons doivent être chargés avant les donjons qu'ils contiennent
+        dungeonWorldManager = new DungeonWorldManager(this);
+        instanceManager = new InstanceManager(this);
         dungeonManager = new DungeonManager(this);
+        monsterManager = new MonsterManager(this);
         dungeonCreationWizard = new DungeonCreationWizard(this);
         templateManager = new TemplateManager(this);
         previewManager = new PreviewManager(this);
 
-        // Enregistrement des événements
+        // Enregistrement des événements, via le moniteur de ticks pour pouvoir chronométrer chaque handler
         getLogger().info("Enregistrement des listeners...");
-        getServer().getPluginManager().registerEvents(new DungeonListener(this), this);
-        getServer().getPluginManager().registerEvents(new EntityListener(this), this);
-        getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
-        getServer().getPluginManager().registerEvents(new WizardListener(this), this);
+        tickMonitor = new TickMonitor(this);
+        tickMonitor.register(new DungeonListener(this));
+        tickMonitor.register(new EntityListener(this));
+        tickMonitor.register(new PlayerListener(this));
+        tickMonitor.register(new WizardListener(this));
 
         // Enregistrement des commandes
         getLogger().info("Enregistrement des commandes...");
@@ -84,6 +118,11 @@ public class ProceduralDungeons extends JavaPlugin {
         // Démarrer la sauvegarde automatique
         startAutoSave();
 
+        // Reprendre les générations interrompues, une fois tous les mondes chargés
+        getServer().getScheduler().runTask(this, generationScheduler::resumeJobs);
+        getServer().getScheduler().runTask(this, dungeonManager::resumeTerrainRestores);
+        getServer().getScheduler().runTask(this, instanceManager::fillPools);
+
         getLogger().info("ProceduralDungeons activé avec succès !");
         getLogger().info("Commandes disponibles: /dungeon help");
     }
@@ -97,19 +136,80 @@ public class ProceduralDungeons extends JavaPlugin {
             autoSaveTask.cancel();
         }
 
+        // Arrêter les fenêtres de mesure des listeners
+        if (tickMonitor != null) {
+            tickMonitor.shutdown();
+        }
+
         // Fermer tous les wizards actifs
         if (dungeonCreationWizard != null) {
             dungeonCreationWizard.shutdown();
         }
 
+        // Figer les générations en cours : elles reprendront au prochain démarrage
+        if (generationScheduler != null) {
+            generationScheduler.shutdown();
+        }
+
+        // Terminer la pose des structures en cours
+        if (placementManager != null) {
+            placementManager.shutdown();
+        }
+
+        // Retirer les monstres en jeu : ils redeviennent des points d'apparition
+        if (monsterManager != null) {
+            monsterManager.shutdown();
+        }
+
         // Sauvegarder et fermer tous les donjons
         if (dungeonManager != null) {
             dungeonManager.shutdown();
         }
 
+        // Écrire les dernières mesures de génération
+        if (metricsManager != null) {
+            metricsManager.shutdown();
+        }
+
+        // Écrire les dernières modifications sur disque
+        if (dungeonData != null) {
+            dungeonData.shutdown();
+        }
+        if (playerData != null) {
+            playerData.shutdown();
+        }
+        if (snapshotData != null) {
+            snapshotData.shutdown();
+        }
+        if (storage != null) {
+            storage.close();
+        }
+
         getLogger().info("ProceduralDungeons désactivé avec succès !");
     }
 
+    // Le type de stockage n'est lu qu'au démarrage (pas de changement à chaud via reload)
+    private StorageBackend createStorage() {
+        String type = configManager.getStorageType();
+
+        if (type.equalsIgnoreCase("sqlite")) {
+            SqlStorage sqlStorage = new SqlStorage(this, new File(getDataFolder(), configManager.getSqliteFile()));
+            try {
+                sqlStorage.open();
+                getLogger().info("Stockage SQLite ouvert: " + configManager.getSqliteFile());
+                return sqlStorage;
+            } catch (IOException e) {
+                getLogger().severe("Impossible d'utiliser SQLite, retour au stockage YAML: " + e.getMessage());
+            }
+        } else if (!type.equalsIgnoreCase("yaml")) {
+            getLogger().warning("Type de stockage inconnu '" + type + "', utilisation de YAML");
+        }
+
+        YamlStorage yamlStorage = new YamlStorage(this);
+        yamlStorage.open();
+        return yamlStorage;
+    }
+
     private void createDefaultMessages() {
         File messagesFile = new File(getDataFolder(), "messages.yml");
         if (!messagesFile.exists()) {
@@ -130,6 +230,19 @@ public class ProceduralDungeons extends JavaPlugin {
         // Recharger les messages
         MessageUtils.loadMessages(new File(getDataFolder(), "messages.yml"));
 
+        // Recompiler les tables de loot
+        if (lootManager != null) {
+            lootManager.reload();
+        }
+
+        // Appliquer le nouvel intervalle d'écriture des mesures
+        if (metricsManager != null) {
+            metricsManager.reload();
+        }
+        if (tickMonitor != null) {
+            tickMonitor.reload();
+        }
+
         // Redémarrer la sauvegarde automatique
         if (autoSaveTask != null) {
             autoSaveTask.cancel();
@@ -161,6 +274,38 @@ public class ProceduralDungeons extends JavaPlugin {
         return dungeonManager;
     }
 
+    public PlacementManager getPlacementManager() {
+        return placementManager;
+    }
+
+    public GenerationScheduler getGenerationScheduler() {
+        return generationScheduler;
+    }
+
+    public MonsterManager getMonsterManager() {
+        return monsterManager;
+    }
+
+    public InstanceManager getInstanceManager() {
+        return instanceManager;
+    }
+
+    public DungeonWorldManager getDungeonWorldManager() {
+        return dungeonWorldManager;
+    }
+
+    public LootManager getLootManager() {
+        return lootManager;
+    }
+
+    public MetricsManager getMetricsManager() {
+        return metricsManager;
+    }
+
+    public TickMonitor getTickMonitor() {
+        return tickMonitor;
+    }
+
     public ConfigManager getConfigManager() {
         return configManager;
     }
@@ -173,6 +318,10 @@ public class ProceduralDungeons extends JavaPlugin {
         return playerData;
     }
 
+    public SnapshotData getSnapshotData() {
+        return snapshotData;
+    }
+
     public DungeonCreationWizard getDungeonCreationWizard() {
         return dungeonCreationWizard;
     }
@@ -87,6 +87,22 @@ public class DungeonCommand implements CommandExecutor {
                 handleReloadCommand(player);
                 break;
 
+            case "stats":
+                handleStatsCommand(player, args);
+                break;
+
+            case "queue":
+                handleQueueCommand(player);
+                break;
+
+            case "cancel":
+                handleCancelCommand(player, args);
+                break;
+
+            case "reset":
+                handleResetCommand(player, args);
+                break;
+
             default:
                 player.sendMessage(MessageUtils.getMessage("messages.general.invalid-arguments"));
                 sendHelpMessage(player);
@@ -105,6 +121,13 @@ public class DungeonCommand implements CommandExecutor {
         player.sendMessage("§a/dungeon list §7- Liste des donjons");
         player.sendMessage("§a/dungeon info <nom> §7- Informations d'un donjon");
         player.sendMessage("§a/dungeon delete <nom> §7- Supprimer un donjon");
+        player.sendMessage("§a/dungeon queue §7- File des générations en cours");
+        player.sendMessage("§a/dungeon cancel <nom> §7- Annuler une génération");
+        player.sendMessage("§a/dungeon reset <nom> §7- Remettre un donjon à neuf");
+        player.sendMessage("§a/dungeon stats [joueur] §7- Statistiques d'un joueur");
+        player.sendMessage("§a/dungeon stats top [catégorie] §7- Classement des joueurs");
+        player.sendMessage("§a/dungeon stats perf §7- Performances de génération (admin)");
+        player.sendMessage("§a/dungeon stats ticks §7- Temps des listeners par tick (admin)");
         player.sendMessage("§a/dungeon reload §7- Recharger la config");
     }
 
@@ -261,6 +284,87 @@ public class DungeonCommand implements CommandExecutor {
         player.sendMessage(MessageUtils.getMessage("messages.general.config-reloaded"));
     }
 
+    private void handleStatsCommand(Player player, String[] args) {
+        if (!player.hasPermission("proceduraldungeons.stats")) {
+            player.sendMessage(MessageUtils.getMessage("messages.general.no-permission"));
+            return;
+        }
+
+        if (args.length >= 2 && args[1].equalsIgnoreCase("top")) {
+            plugin.getDungeonManager().showLeaderboard(player, args.length > 2 ? args[2] : "completes");
+            return;
+        }
+
+        if (args.length >= 2 && args[1].equalsIgnoreCase("perf")) {
+            if (!player.hasPermission("proceduraldungeons.admin")) {
+                player.sendMessage(MessageUtils.getMessage("messages.general.no-permission"));
+                return;
+            }
+
+            plugin.getMetricsManager().showPerformance(player);
+            return;
+        }
+
+        if (args.length >= 2 && args[1].equalsIgnoreCase("ticks")) {
+            if (!player.hasPermission("proceduraldungeons.admin")) {
+                player.sendMessage(MessageUtils.getMessage("messages.general.no-permission"));
+                return;
+            }
+
+            plugin.getTickMonitor().showTicks(player);
+            return;
+        }
+
+        if (args.length >= 2 && !args[1].equalsIgnoreCase(player.getName())) {
+            if (!player.hasPermission("proceduraldungeons.stats.others")) {
+                player.sendMessage(MessageUtils.getMessage("messages.general.no-permission"));
+                return;
+            }
+
+            plugin.getDungeonManager().showPlayerStats(player, args[1]);
+            return;
+        }
+
+        plugin.getDungeonManager().showPlayerStats(player, null);
+    }
+
+    private void handleQueueCommand(Player player) {
+        if (!player.hasPermission("proceduraldungeons.create")) {
+            player.sendMessage(MessageUtils.getMessage("messages.general.no-permission"));
+            return;
+        }
+
+        plugin.getDungeonManager().showGenerationQueue(player);
+    }
+
+    private void handleCancelCommand(Player player, String[] args) {
+        if (!player.hasPermission("proceduraldungeons.create")) {
+            player.sendMessage(MessageUtils.getMessage("messages.general.no-permission"));
+            return;
+        }
+
+        if (args.length < 2) {
+            player.sendMessage(MessageUtils.getMessage("messages.usage.cancel"));
+            return;
+        }
+
+        plugin.getDungeonManager().cancelGeneration(player, args[1]);
+    }
+
+    private void handleResetCommand(Player player, String[] args) {
+        if (!player.hasPermission("proceduraldungeons.create")) {
+            player.sendMessage(MessageUtils.getMessage("messages.general.no-permission"));
+            return;
+        }
+
+        if (args.length < 2) {
+            player.sendMessage(MessageUtils.getMessage("messages.usage.reset"));
+            return;
+        }
+
+        plugin.getDungeonManager().resetDungeon(player, args[1]);
+    }
+
     private int parseIntSafe(String str, int defaultValue) {
         try {
             return Integer.parseInt(str);
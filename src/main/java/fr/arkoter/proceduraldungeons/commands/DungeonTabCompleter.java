@@ -27,7 +27,7 @@ public class DungeonTabCompleter implements TabCompleter {
             // Première argument : sous-commandes
             List<String> subCommands = Arrays.asList(
                     "help", "wizard", "create", "enter", "leave", "list",
-                    "info", "delete", "share", "copy", "preview", "template", "reload", "stats"
+                    "info", "delete", "share", "copy", "preview", "template", "reload", "stats", "queue", "cancel", "reset"
             );
 
             return subCommands.stream()
@@ -40,9 +40,17 @@ public class DungeonTabCompleter implements TabCompleter {
 
             switch (subCommand) {
                 case "enter":
+                    // Donjons existants et réserves d'instances
+                    List<String> targets = new ArrayList<>(plugin.getDungeonManager().getDungeonNames());
+                    targets.addAll(plugin.getInstanceManager().getPoolNames());
+                    return targets.stream()
+                            .filter(name -> name.toLowerCase().startsWith(args[1].toLowerCase()))
+                            .collect(Collectors.toList());
+
                 case "info":
                 case "delete":
                 case "preview":
+                case "reset":
                     // Noms des donjons existants
                     return plugin.getDungeonManager().getDungeonNames().stream()
                             .filter(name -> name.toLowerCase().startsWith(args[1].toLowerCase()))
@@ -67,10 +75,24 @@ public class DungeonTabCompleter implements TabCompleter {
                             .filter(template -> template.toLowerCase().startsWith(args[1].toLowerCase()))
                             .collect(Collectors.toList());
 
+                case "cancel":
+                    // Générations visibles par le joueur
+                    return plugin.getGenerationScheduler().getAllJobs().stream()
+                            .filter(job -> sender.hasPermission("proceduraldungeons.admin") ||
+                                    (sender instanceof Player && job.getOwnerId().equals(((Player) sender).getUniqueId())))
+                            .map(job -> job.getDungeonName())
+                            .filter(name -> name.toLowerCase().startsWith(args[1].toLowerCase()))
+                            .collect(Collectors.toList());
+
                 case "stats":
-                    // Noms des joueurs en ligne
-                    return plugin.getServer().getOnlinePlayers().stream()
-                            .map(Player::getName)
+                    // Classement ou noms des joueurs en ligne
+                    completions.add("top");
+                    if (sender.hasPermission("proceduraldungeons.admin")) {
+                        completions.add("perf");
+                        completions.add("ticks");
+                    }
+                    plugin.getServer().getOnlinePlayers().forEach(online -> completions.add(online.getName()));
+                    return completions.stream()
                             .filter(name -> name.toLowerCase().startsWith(args[1].toLowerCase()))
                             .collect(Collectors.toList());
             }
@@ -96,6 +118,15 @@ public class DungeonTabCompleter implements TabCompleter {
                     // Nouveau nom pour la copie
                     completions.add("<nouveau_nom>");
                     return completions;
+
+                case "stats":
+                    // Catégories du classement
+                    if (args[1].equalsIgnoreCase("top")) {
+                        return plugin.getDungeonManager().getLeaderboardCategories().stream()
+                                .filter(category -> category.startsWith(args[2].toLowerCase()))
+                                .collect(Collectors.toList());
+                    }
+                    return completions;
             }
         }
 
@@ -4,62 +4,146 @@ import fr.arkoter.proceduraldungeons.ProceduralDungeons;
 import fr.arkoter.proceduraldungeons.models.Dungeon;
 import fr.arkoter.proceduraldungeons.utils.LocationUtils;
 import org.bukkit.Location;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.scheduler.BukkitTask;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DungeonData {
 
+    // Marqueur de suppression dans la file d'écriture
+    private static final Map<String, Object> DELETED = Collections.emptyMap();
+
     private final ProceduralDungeons plugin;
-    private final File dataFile;
-    private YamlConfiguration config;
+    private final StorageBackend storage;
+
+    // Donjons modifiés depuis la dernière écriture (marqués depuis n'importe quel thread)
+    private final Map<String, Dungeon> dirtyDungeons;
+    private final Set<String> deletedDungeons;
+
+    // Instantanés prêts à être écrits, fusionnés par nom de donjon
+    private final Map<String, Map<String, Object>> pendingWrites;
+    private final AtomicBoolean writeScheduled;
+    private final ExecutorService ioExecutor;
+    private BukkitTask flushTask;
 
-    public DungeonData(ProceduralDungeons plugin) {
+    public DungeonData(ProceduralDungeons plugin, StorageBackend storage) {
         this.plugin = plugin;
-        this.dataFile = new File(plugin.getDataFolder(), "dungeons.yml");
-        loadData();
+        this.storage = storage;
+        this.dirtyDungeons = new ConcurrentHashMap<>();
+        this.deletedDungeons = ConcurrentHashMap.newKeySet();
+        this.pendingWrites = new ConcurrentHashMap<>();
+        this.writeScheduled = new AtomicBoolean(false);
+        this.ioExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ProceduralDungeons-DungeonData");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        int interval = Math.max(1, plugin.getConfigManager().getSaveFlushInterval()) * 20;
+        this.flushTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::flush, interval, interval);
+    }
+
+    // ================================
+    // ÉCRITURE DIFFÉRÉE
+    // ================================
+
+    // Marque le donjon comme modifié : il sera écrit au prochain flush
+    public void saveDungeon(Dungeon dungeon) {
+        deletedDungeons.remove(dungeon.getName());
+        dirtyDungeons.put(dungeon.getName(), dungeon);
+    }
+
+    public void deleteDungeon(String name) {
+        dirtyDungeons.remove(name);
+        deletedDungeons.add(name);
     }
 
-    public void loadData() {
-        if (!dataFile.exists()) {
-            try {
-                dataFile.getParentFile().mkdirs();
-                dataFile.createNewFile();
-            } catch (IOException e) {
-                plugin.getLogger().severe("Impossible de créer le fichier dungeons.yml: " + e.getMessage());
+    public void saveAllDungeons(Map<String, Dungeon> dungeons) {
+        for (Dungeon dungeon : dungeons.values()) {
+            saveDungeon(dungeon);
+        }
+    }
+
+    // Thread principal : capture l'état des donjons modifiés et confie l'écriture au thread d'E/S
+    public void flush() {
+        for (String name : deletedDungeons) {
+            deletedDungeons.remove(name);
+            pendingWrites.put(name, DELETED);
+        }
+
+        for (String name : dirtyDungeons.keySet()) {
+            Dungeon dungeon = dirtyDungeons.remove(name);
+            if (dungeon != null) {
+                pendingWrites.put(name, snapshot(dungeon));
             }
         }
 
-        config = YamlConfiguration.loadConfiguration(dataFile);
+        if (!pendingWrites.isEmpty() && writeScheduled.compareAndSet(false, true)) {
+            ioExecutor.execute(this::writePending);
+        }
     }
 
-    public void saveData() {
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+
+        flush();
+        ioExecutor.shutdown();
+
         try {
-            config.save(dataFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Impossible de sauvegarder les données des donjons: " + e.getMessage());
+            if (!ioExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("L'écriture des donjons n'a pas pu se terminer à temps");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
-    public void saveDungeon(Dungeon dungeon) {
-        String path = "dungeons." + dungeon.getName();
+    private Map<String, Object> snapshot(Dungeon dungeon) {
+        Map<String, Object> values = new LinkedHashMap<>();
 
         // Informations de base
-        config.set(path + ".location", LocationUtils.locationToString(dungeon.getLocation()));
-        config.set(path + ".size", dungeon.getSize());
-        config.set(path + ".difficulty", dungeon.getDifficulty());
-        config.set(path + ".created-at", System.currentTimeMillis());
-        config.set(path + ".boss-alive", dungeon.isBossAlive());
+        values.put("location", LocationUtils.locationToString(dungeon.getLocation()));
+        values.put("size", dungeon.getSize());
+        values.put("difficulty", dungeon.getDifficulty());
+        values.put("created-at", dungeon.getCreatedAt());
+        values.put("boss-alive", dungeon.isBossAlive());
+        values.put("seed", dungeon.getSeed());
+        values.put("generator-version", dungeon.getGeneratorVersion());
+        if (dungeon.getInstancePool() != null) {
+            values.put("instance-pool", dungeon.getInstancePool());
+        }
+        if (dungeon.getTemplate() != null) {
+            values.put("template", dungeon.getTemplate().toMap());
+        }
 
         // Position du boss
         if (dungeon.getBossLocation() != null) {
-            config.set(path + ".boss-location", LocationUtils.locationToString(dungeon.getBossLocation()));
+            values.put("boss-location", LocationUtils.locationToString(dungeon.getBossLocation()));
+        }
+
+        // Sauvegarde par graine : la disposition sera recalculée, seuls les changements sont gardés
+        // Un donjon pas encore reconstruit reste sous cette forme, quel que soit le mode choisi
+        if (dungeon.getSeed() != 0 && (!dungeon.isLayoutLoaded() || plugin.getConfigManager().isSeedOnlyLayout())) {
+            values.put("layout", "seed");
+            values.put("opened-chests", toList(dungeon.getOpenedChestKeys()));
+            values.put("fired-traps", toList(dungeon.getFiredTrapKeys()));
+            putStats(values, dungeon);
+            return values;
         }
 
         // Coffres au trésor
@@ -67,7 +151,7 @@ public class DungeonData {
         for (Location chestLoc : dungeon.getTreasureChests()) {
             chestLocations.add(LocationUtils.locationToString(chestLoc));
         }
-        config.set(path + ".treasure-chests", chestLocations);
+        values.put("treasure-chests", chestLocations);
 
         // Pièges
         List<Map<String, Object>> trapData = new ArrayList<>();
@@ -78,164 +162,72 @@ public class DungeonData {
             trapMap.put("activated", trap.isActivated());
             trapData.add(trapMap);
         }
-        config.set(path + ".traps", trapData);
-
-        // Statistiques
-        config.set(path + ".stats.times-entered", dungeon.getTimesEntered());
-        config.set(path + ".stats.times-completed", dungeon.getTimesCompleted());
-        config.set(path + ".stats.total-monsters-killed", dungeon.getTotalMonstersKilled());
-        config.set(path + ".stats.fastest-completion", dungeon.getFastestCompletion());
+        values.put("traps", trapData);
 
-        // Joueurs actifs
-        List<String> activePlayers = new ArrayList<>();
-        for (String playerId : dungeon.getActivePlayers()) {
-            activePlayers.add(playerId);
+        // Points d'apparition des monstres pas encore tués
+        List<Map<String, Object>> spawnData = new ArrayList<>();
+        for (Dungeon.MonsterSpawn spawn : dungeon.getMonsterSpawns()) {
+            Map<String, Object> spawnMap = new HashMap<>();
+            spawnMap.put("location", LocationUtils.locationToString(spawn.getLocation()));
+            spawnMap.put("type", spawn.getType().name());
+            spawnMap.put("role", spawn.getRole().name());
+            spawnData.add(spawnMap);
         }
-        config.set(path + ".active-players", activePlayers);
+        values.put("monster-spawns", spawnData);
 
-        saveData();
+        putStats(values, dungeon);
+        return values;
     }
 
-    public Dungeon loadDungeon(String name) {
-        String path = "dungeons." + name;
-        ConfigurationSection section = config.getConfigurationSection(path);
-
-        if (section == null) {
-            return null;
-        }
-
-        // Charger les informations de base
-        Location location = LocationUtils.stringToLocation(section.getString("location"));
-        if (location == null) {
-            plugin.getLogger().warning("Location invalide pour le donjon: " + name);
-            return null;
-        }
-
-        int size = section.getInt("size", 50);
-        int difficulty = section.getInt("difficulty", 1);
-
-        Dungeon dungeon = new Dungeon(name, location, size, difficulty);
-
-        // Charger les autres propriétés
-        dungeon.setBossAlive(section.getBoolean("boss-alive", false));
-
-        String bossLocationStr = section.getString("boss-location");
-        if (bossLocationStr != null) {
-            Location bossLoc = LocationUtils.stringToLocation(bossLocationStr);
-            if (bossLoc != null) {
-                dungeon.setBossLocation(bossLoc);
-            }
-        }
-
-        // Charger les coffres
-        List<String> chestLocations = section.getStringList("treasure-chests");
-        for (String chestLocStr : chestLocations) {
-            Location chestLoc = LocationUtils.stringToLocation(chestLocStr);
-            if (chestLoc != null) {
-                dungeon.addTreasureChest(chestLoc);
-            }
-        }
-
-        // Charger les pièges - CORRECTION ICI
-        List<?> trapDataList = section.getList("traps");
-        if (trapDataList != null) {
-            for (Object trapObj : trapDataList) {
-                if (trapObj instanceof Map) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> trapMap = (Map<String, Object>) trapObj;
-
-                    String trapLocStr = (String) trapMap.get("location");
-                    Object trapTypeObj = trapMap.get("type");
-                    Object activatedObj = trapMap.get("activated");
-
-                    if (trapLocStr != null && trapTypeObj != null) {
-                        int trapType = trapTypeObj instanceof Integer ? (Integer) trapTypeObj : 0;
-                        boolean activated = activatedObj instanceof Boolean ? (Boolean) activatedObj : false;
-
-                        Location trapLoc = LocationUtils.stringToLocation(trapLocStr);
-                        if (trapLoc != null) {
-                            Dungeon.Trap trap = new Dungeon.Trap(trapLoc, trapType);
-                            trap.setActivated(activated);
-                            dungeon.addTrap(trap);
-                        }
-                    }
-                }
-            }
-        }
-
-        // Charger les statistiques
-        ConfigurationSection statsSection = section.getConfigurationSection("stats");
-        if (statsSection != null) {
-            dungeon.setTimesEntered(statsSection.getInt("times-entered", 0));
-            dungeon.setTimesCompleted(statsSection.getInt("times-completed", 0));
-            dungeon.setTotalMonstersKilled(statsSection.getInt("total-monsters-killed", 0));
-            dungeon.setFastestCompletion(statsSection.getLong("fastest-completion", 0));
-        }
-
-        // Charger les joueurs actifs
-        List<String> activePlayers = section.getStringList("active-players");
-        for (String playerId : activePlayers) {
-            dungeon.addActivePlayer(playerId);
-        }
-
-        return dungeon;
-    }
+    private static void putStats(Map<String, Object> values, Dungeon dungeon) {
+        // Statistiques
+        values.put("stats.times-entered", dungeon.getTimesEntered());
+        values.put("stats.times-completed", dungeon.getTimesCompleted());
+        values.put("stats.total-monsters-killed", dungeon.getTotalMonstersKilled());
+        values.put("stats.fastest-completion", dungeon.getFastestCompletion());
 
-    public void deleteDungeon(String name) {
-        config.set("dungeons." + name, null);
-        saveData();
+        // Joueurs actifs
+        values.put("active-players", new ArrayList<>(dungeon.getActivePlayers()));
     }
 
-    public List<String> getAllDungeonNames() {
-        ConfigurationSection dungeonsSection = config.getConfigurationSection("dungeons");
-        if (dungeonsSection == null) {
-            return new ArrayList<>();
+    private static List<Long> toList(long[] keys) {
+        List<Long> list = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            list.add(key);
         }
-
-        return new ArrayList<>(dungeonsSection.getKeys(false));
+        return list;
     }
 
-    public Map<String, Dungeon> loadAllDungeons() {
-        Map<String, Dungeon> dungeons = new HashMap<>();
+    // Thread d'E/S : confie au stockage tous les instantanés en attente en un seul lot
+    private void writePending() {
+        writeScheduled.set(false);
 
-        for (String dungeonName : getAllDungeonNames()) {
-            Dungeon dungeon = loadDungeon(dungeonName);
-            if (dungeon != null) {
-                dungeons.put(dungeonName, dungeon);
+        Map<String, Map<String, Object>> batch = new LinkedHashMap<>();
+        for (String name : pendingWrites.keySet()) {
+            Map<String, Object> values = pendingWrites.remove(name);
+            if (values != null) {
+                batch.put(name, values);
             }
         }
+        if (batch.isEmpty()) return;
 
-        return dungeons;
-    }
-
-    public boolean dungeonExists(String name) {
-        return config.contains("dungeons." + name);
-    }
+        try {
+            storage.writeDungeons(batch);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Impossible de sauvegarder les données des donjons: " + e.getMessage());
 
-    public void saveAllDungeons(Map<String, Dungeon> dungeons) {
-        for (Dungeon dungeon : dungeons.values()) {
-            saveDungeon(dungeon);
+            // Réessayer au prochain flush, sauf si un instantané plus récent est déjà en attente
+            for (Map.Entry<String, Map<String, Object>> entry : batch.entrySet()) {
+                pendingWrites.putIfAbsent(entry.getKey(), entry.getValue());
+            }
         }
     }
 
-    public void cleanupOldDungeons(long maxAge) {
-        ConfigurationSection dungeonsSection = config.getConfigurationSection("dungeons");
-        if (dungeonsSection == null) return;
-
-        long currentTime = System.currentTimeMillis();
-        List<String> dungeonsToDelete = new ArrayList<>();
+    // ================================
+    // LECTURE
+    // ================================
 
-        for (String dungeonName : dungeonsSection.getKeys(false)) {
-            long createdAt = config.getLong("dungeons." + dungeonName + ".created-at", 0);
-
-            if (currentTime - createdAt > maxAge) {
-                dungeonsToDelete.add(dungeonName);
-            }
-        }
-
-        for (String dungeonName : dungeonsToDelete) {
-            deleteDungeon(dungeonName);
-            plugin.getLogger().info("Donjon ancien supprimé: " + dungeonName);
-        }
+    public Map<String, Dungeon> loadAllDungeons() {
+        return storage.loadDungeons();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package fr.arkoter.proceduraldungeons.data;
+
+import fr.arkoter.proceduraldungeons.ProceduralDungeons;
+import fr.arkoter.proceduraldungeons.utils.FileUtils;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Points de sauvegarde des générations en cours (generation-jobs.yml), réécrits en entier :
+// le fichier ne contient que les quelques générations pas encore terminées
+public class GenerationData {
+
+    private final ProceduralDungeons plugin;
+    private final File file;
+    private final File tempFile;
+    private final ExecutorService ioExecutor;
+
+    public GenerationData(ProceduralDungeons plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), "generation-jobs.yml");
+        this.tempFile = new File(plugin.getDataFolder(), "generation-jobs.yml.tmp");
+        this.ioExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ProceduralDungeons-GenerationData");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public YamlConfiguration load() {
+        return YamlConfiguration.loadConfiguration(file);
+    }
+
+    // Thread principal : les instantanés sont déjà figés, l'écriture se fait sur le thread d'E/S
+    public void save(Map<String, Map<String, Object>> jobs) {
+        ioExecutor.execute(() -> write(jobs));
+    }
+
+    public void shutdown() {
+        ioExecutor.shutdown();
+
+        try {
+            if (!ioExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("L'écriture des générations en cours n'a pas pu se terminer à temps");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(Map<String, Map<String, Object>> jobs) {
+        try {
+            if (jobs.isEmpty()) {
+                Files.deleteIfExists(file.toPath());
+                return;
+            }
+
+            YamlConfiguration config = new YamlConfiguration();
+            for (Map.Entry<String, Map<String, Object>> job : jobs.entrySet()) {
+                for (Map.Entry<String, Object> value : job.getValue().entrySet()) {
+                    config.set(job.getKey() + "." + value.getKey(), value.getValue());
+                }
+            }
+
+            file.getParentFile().mkdirs();
+            FileUtils.writeAtomically(config.saveToString(), tempFile, file);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Impossible de sauvegarder les générations en cours: " + e.getMessage());
+        }
+    }
+}
@@ -3,185 +3,435 @@ package fr.arkoter.proceduraldungeons.data;
 import fr.arkoter.proceduraldungeons.ProceduralDungeons;
 import fr.arkoter.proceduraldungeons.models.DungeonPlayer;
 import fr.arkoter.proceduraldungeons.utils.LocationUtils;
-import org.bukkit.Location;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.YamlConfiguration;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class PlayerData {
 
+    // Compteurs cumulés par joueur (clé YAML sous "players.<uuid>.stats", colonne SQL équivalente)
+    public enum Stat {
+        DUNGEONS_ENTERED("total-dungeons-entered"),
+        DUNGEONS_COMPLETED("total-dungeons-completed"),
+        MONSTERS_KILLED("total-monsters-killed"),
+        TREASURES_FOUND("total-treasures-found"),
+        TIME_IN_DUNGEONS("total-time-in-dungeons");
+
+        private final String key;
+
+        Stat(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
     private final ProceduralDungeons plugin;
-    private final File dataFile;
-    private YamlConfiguration config;
+    private final StorageBackend storage;
+    private final File journalFile;
 
-    public PlayerData(ProceduralDungeons plugin) {
+    // Modifications en attente (protégées par le verrou de l'instance, modifiées par le thread d'E/S uniquement)
+    private Map<UUID, long[]> pendingStats;
+    private Map<UUID, Map<String, Object>> pendingProfiles;
+    private Set<UUID> pendingDeletions;
+    private long journalSequence;
+
+    // Lot détaché en cours d'écriture, encore visible des lectures jusqu'à sa consolidation
+    private Map<UUID, long[]> writingStats;
+    private Map<UUID, Map<String, Object>> writingProfiles;
+    private long writingSequence;
+
+    // Thread unique d'E/S : journal, écritures vers le stockage
+    private final ScheduledExecutorService ioExecutor;
+    private BufferedWriter journalWriter;
+
+    public PlayerData(ProceduralDungeons plugin, StorageBackend storage) {
         this.plugin = plugin;
-        this.dataFile = new File(plugin.getDataFolder(), "players.yml");
-        loadData();
+        this.storage = storage;
+        this.journalFile = new File(plugin.getDataFolder(), "players.journal");
+        this.pendingStats = new HashMap<>();
+        this.pendingProfiles = new HashMap<>();
+        this.pendingDeletions = new HashSet<>();
+        this.writingStats = Collections.emptyMap();
+        this.writingProfiles = Collections.emptyMap();
+        this.ioExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ProceduralDungeons-PlayerData");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.journalSequence = storage.getJournalSequence();
+
+        // Rejouer les compteurs non encore consolidés (arrêt brutal)
+        replayJournal();
+        writePending();
+
+        int interval = Math.max(1, plugin.getConfigManager().getPlayerFlushInterval());
+        ioExecutor.scheduleWithFixedDelay(this::writePending, interval, interval, TimeUnit.SECONDS);
     }
 
-    public void loadData() {
-        if (!dataFile.exists()) {
-            try {
-                dataFile.getParentFile().mkdirs();
-                dataFile.createNewFile();
-            } catch (IOException e) {
-                plugin.getLogger().severe("Impossible de créer le fichier players.yml: " + e.getMessage());
-            }
-        }
+    // ================================
+    // ÉCRITURE DIFFÉRÉE
+    // ================================
 
-        config = YamlConfiguration.loadConfiguration(dataFile);
+    // Capture l'état de session du joueur ; les compteurs passent par recordStat
+    public void savePlayer(DungeonPlayer player) {
+        Map<String, Object> profile = new LinkedHashMap<>();
+        profile.put("current-dungeon", player.getCurrentDungeon());
+        profile.put("exit-location", player.getExitLocation() != null ?
+                LocationUtils.locationToString(player.getExitLocation()) : null);
+        profile.put("enter-time", player.getEnterTime());
+        profile.put("monsters-killed", player.getMonstersKilled());
+        profile.put("treasures-found", player.getTreasuresFound());
+        profile.put("has-boss-key", player.hasBossKey());
+
+        UUID playerId = player.getPlayerId();
+        ioExecutor.execute(() -> {
+            int pending;
+            synchronized (this) {
+                pendingProfiles.put(playerId, profile);
+                pending = pendingRecordCount();
+            }
+            flushIfFull(pending);
+        });
     }
 
-    public void saveData() {
-        try {
-            config.save(dataFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Impossible de sauvegarder les données des joueurs: " + e.getMessage());
-        }
+    public void recordStat(UUID playerId, Stat stat, long amount) {
+        ioExecutor.execute(() -> {
+            int pending;
+            synchronized (this) {
+                long sequence = ++journalSequence;
+                appendJournal(sequence + "," + playerId + "," + stat.name() + "," + amount);
+                pendingStats.computeIfAbsent(playerId, id -> new long[Stat.values().length])[stat.ordinal()] += amount;
+                pending = pendingRecordCount();
+            }
+            flushIfFull(pending);
+        });
     }
 
-    public void savePlayer(DungeonPlayer player) {
-        String path = "players." + player.getPlayerId().toString();
+    public void incrementDungeonsEntered(UUID playerId) {
+        recordStat(playerId, Stat.DUNGEONS_ENTERED, 1);
+    }
 
-        // Données actuelles
-        config.set(path + ".current-dungeon", player.getCurrentDungeon());
+    public void incrementDungeonsCompleted(UUID playerId) {
+        recordStat(playerId, Stat.DUNGEONS_COMPLETED, 1);
+    }
 
-        if (player.getExitLocation() != null) {
-            config.set(path + ".exit-location", LocationUtils.locationToString(player.getExitLocation()));
-        } else {
-            config.set(path + ".exit-location", null);
-        }
+    public void incrementMonstersKilled(UUID playerId) {
+        recordStat(playerId, Stat.MONSTERS_KILLED, 1);
+    }
 
-        config.set(path + ".enter-time", player.getEnterTime());
-        config.set(path + ".monsters-killed", player.getMonstersKilled());
-        config.set(path + ".treasures-found", player.getTreasuresFound());
-        config.set(path + ".has-boss-key", player.hasBossKey());
+    public void incrementTreasuresFound(UUID playerId) {
+        recordStat(playerId, Stat.TREASURES_FOUND, 1);
+    }
 
-        // Statistiques globales
-        config.set(path + ".stats.total-dungeons-entered",
-                config.getInt(path + ".stats.total-dungeons-entered", 0) +
-                        (player.isInDungeon() ? 1 : 0));
-        config.set(path + ".stats.total-dungeons-completed",
-                config.getInt(path + ".stats.total-dungeons-completed", 0));
-        config.set(path + ".stats.total-monsters-killed",
-                config.getInt(path + ".stats.total-monsters-killed", 0) + player.getMonstersKilled());
-        config.set(path + ".stats.total-treasures-found",
-                config.getInt(path + ".stats.total-treasures-found", 0) + player.getTreasuresFound());
-        config.set(path + ".stats.total-time-in-dungeons",
-                config.getLong(path + ".stats.total-time-in-dungeons", 0) + player.getTimeInDungeon());
-        config.set(path + ".stats.last-activity", System.currentTimeMillis());
+    public void addTimeInDungeons(UUID playerId, long additionalTime) {
+        recordStat(playerId, Stat.TIME_IN_DUNGEONS, additionalTime);
+    }
 
-        saveData();
+    public void deletePlayer(UUID playerId) {
+        ioExecutor.execute(() -> {
+            synchronized (this) {
+                pendingProfiles.remove(playerId);
+                pendingStats.remove(playerId);
+                pendingDeletions.add(playerId);
+            }
+            writePending();
+        });
     }
 
-    public DungeonPlayer loadPlayer(UUID playerId) {
-        String path = "players." + playerId.toString();
-        ConfigurationSection section = config.getConfigurationSection(path);
+    public void cleanupInactivePlayers(long inactivityThreshold) {
+        ioExecutor.execute(() -> {
+            List<UUID> inactive = storage.findInactivePlayers(System.currentTimeMillis() - inactivityThreshold);
 
-        DungeonPlayer player = new DungeonPlayer(playerId);
+            synchronized (this) {
+                for (UUID playerId : inactive) {
+                    // Un joueur avec des modifications en attente vient d'être actif
+                    if (pendingProfiles.containsKey(playerId) || pendingStats.containsKey(playerId)) continue;
 
-        if (section == null) {
-            return player; // Nouveau joueur
-        }
+                    pendingDeletions.add(playerId);
+                    plugin.getLogger().info("Données de joueur inactif supprimées: " + playerId);
+                }
+            }
+            writePending();
+        });
+    }
 
-        // Charger les données actuelles
-        player.setCurrentDungeon(section.getString("current-dungeon"));
+    public void shutdown() {
+        ioExecutor.execute(this::writePending);
+        ioExecutor.shutdown();
 
-        String exitLocationStr = section.getString("exit-location");
-        if (exitLocationStr != null) {
-            Location exitLoc = LocationUtils.stringToLocation(exitLocationStr);
-            player.setExitLocation(exitLoc);
+        try {
+            if (!ioExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("L'écriture des données joueurs n'a pas pu se terminer à temps");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
 
-        player.setEnterTime(section.getLong("enter-time", 0));
-        player.setMonstersKilled(section.getInt("monsters-killed", 0));
-        player.setTreasuresFound(section.getInt("treasures-found", 0));
-        player.setBossKey(section.getBoolean("has-boss-key", false));
+        closeJournal();
+    }
 
-        return player;
+    private int pendingRecordCount() {
+        return pendingProfiles.size() + pendingStats.size();
     }
 
-    public void deletePlayer(UUID playerId) {
-        config.set("players." + playerId.toString(), null);
-        saveData();
+    private void flushIfFull(int pending) {
+        if (pending >= plugin.getConfigManager().getPlayerFlushBatchSize()) {
+            writePending();
+        }
     }
 
-    public Map<UUID, DungeonPlayer> loadAllPlayers() {
-        Map<UUID, DungeonPlayer> players = new HashMap<>();
-        ConfigurationSection playersSection = config.getConfigurationSection("players");
+    // Thread d'E/S : consolide uniquement les joueurs modifiés en un seul lot puis vide le journal
+    // Le lot est détaché sous le verrou puis écrit sans lui : les lectures n'attendent jamais le disque
+    private void writePending() {
+        Map<UUID, Map<String, Object>> profiles;
+        Map<UUID, long[]> stats;
+        Set<UUID> deletions;
+        long sequence;
+
+        synchronized (this) {
+            if (pendingProfiles.isEmpty() && pendingStats.isEmpty() && pendingDeletions.isEmpty()) {
+                return;
+            }
 
-        if (playersSection == null) {
-            return players;
+            profiles = pendingProfiles;
+            stats = pendingStats;
+            deletions = pendingDeletions;
+            sequence = journalSequence;
+
+            pendingProfiles = new HashMap<>();
+            pendingStats = new HashMap<>();
+            pendingDeletions = new HashSet<>();
+            writingProfiles = profiles;
+            writingStats = stats;
+            writingSequence = sequence;
         }
 
-        for (String playerIdStr : playersSection.getKeys(false)) {
-            try {
-                UUID playerId = UUID.fromString(playerIdStr);
-                DungeonPlayer player = loadPlayer(playerId);
-                players.put(playerId, player);
-            } catch (IllegalArgumentException e) {
-                plugin.getLogger().warning("UUID invalide dans players.yml: " + playerIdStr);
+        boolean written = false;
+        try {
+            if (!deletions.isEmpty()) {
+                storage.deletePlayers(deletions);
+                deletions.clear();
+            }
+            storage.writePlayers(profiles, stats, sequence, System.currentTimeMillis());
+            written = true;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Impossible de sauvegarder les données des joueurs: " + e.getMessage());
+        }
+
+        synchronized (this) {
+            writingProfiles = Collections.emptyMap();
+            writingStats = Collections.emptyMap();
+
+            if (!written) {
+                // Garder les modifications et le journal pour la prochaine tentative
+                restoreBatch(profiles, stats, deletions);
+                return;
             }
         }
 
-        return players;
+        // Seul le thread d'E/S ajoute au journal : tout ce qu'il contient est maintenant consolidé
+        truncateJournal();
     }
 
-    public PlayerStats getPlayerStats(UUID playerId) {
-        String path = "players." + playerId.toString() + ".stats";
-        ConfigurationSection statsSection = config.getConfigurationSection(path);
+    // Sous le verrou : le lot en échec passe sous les modifications arrivées depuis son détachement
+    private void restoreBatch(Map<UUID, Map<String, Object>> profiles, Map<UUID, long[]> stats, Set<UUID> deletions) {
+        for (Map.Entry<UUID, Map<String, Object>> entry : profiles.entrySet()) {
+            pendingProfiles.putIfAbsent(entry.getKey(), entry.getValue());
+        }
 
-        if (statsSection == null) {
-            return new PlayerStats();
+        for (Map.Entry<UUID, long[]> entry : stats.entrySet()) {
+            long[] newer = pendingStats.get(entry.getKey());
+            if (newer == null) {
+                pendingStats.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            for (int i = 0; i < newer.length; i++) {
+                newer[i] += entry.getValue()[i];
+            }
         }
 
-        PlayerStats stats = new PlayerStats();
-        stats.totalDungeonsEntered = statsSection.getInt("total-dungeons-entered", 0);
-        stats.totalDungeonsCompleted = statsSection.getInt("total-dungeons-completed", 0);
-        stats.totalMonstersKilled = statsSection.getInt("total-monsters-killed", 0);
-        stats.totalTreasuresFound = statsSection.getInt("total-treasures-found", 0);
-        stats.totalTimeInDungeons = statsSection.getLong("total-time-in-dungeons", 0);
-        stats.lastActivity = statsSection.getLong("last-activity", 0);
+        pendingDeletions.addAll(deletions);
+    }
 
-        return stats;
+    // ================================
+    // JOURNAL
+    // ================================
+
+    private void appendJournal(String line) {
+        try {
+            if (journalWriter == null) {
+                journalWriter = Files.newBufferedWriter(journalFile.toPath(), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            journalWriter.write(line);
+            journalWriter.newLine();
+            journalWriter.flush();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Impossible d'écrire dans le journal des joueurs: " + e.getMessage());
+        }
     }
 
-    public void incrementDungeonsCompleted(UUID playerId) {
-        String path = "players." + playerId.toString() + ".stats.total-dungeons-completed";
-        int current = config.getInt(path, 0);
-        config.set(path, current + 1);
-        saveData();
+    private void truncateJournal() {
+        closeJournal();
+        try {
+            Files.deleteIfExists(journalFile.toPath());
+        } catch (IOException e) {
+            plugin.getLogger().warning("Impossible de vider le journal des joueurs: " + e.getMessage());
+        }
     }
 
-    public void addTimeInDungeons(UUID playerId, long additionalTime) {
-        String path = "players." + playerId.toString() + ".stats.total-time-in-dungeons";
-        long current = config.getLong(path, 0);
-        config.set(path, current + additionalTime);
-        saveData();
+    private void closeJournal() {
+        if (journalWriter == null) return;
+
+        try {
+            journalWriter.close();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Impossible de fermer le journal des joueurs: " + e.getMessage());
+        }
+        journalWriter = null;
     }
 
-    public void cleanupInactivePlayers(long inactivityThreshold) {
-        ConfigurationSection playersSection = config.getConfigurationSection("players");
-        if (playersSection == null) return;
+    private synchronized void replayJournal() {
+        if (!journalFile.exists()) return;
+
+        long applied = journalSequence;
+        int replayed = 0;
 
-        long currentTime = System.currentTimeMillis();
+        try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length != 4) continue; // Ligne tronquée par l'arrêt
 
-        for (String playerIdStr : playersSection.getKeys(false)) {
-            long lastActivity = config.getLong("players." + playerIdStr + ".stats.last-activity", 0);
+                try {
+                    long sequence = Long.parseLong(parts[0]);
+                    if (sequence <= applied) continue; // Déjà présent dans le stockage
 
-            if (currentTime - lastActivity > inactivityThreshold) {
-                config.set("players." + playerIdStr, null);
-                plugin.getLogger().info("Données de joueur inactif supprimées: " + playerIdStr);
+                    UUID playerId = UUID.fromString(parts[1]);
+                    Stat stat = Stat.valueOf(parts[2]);
+                    long amount = Long.parseLong(parts[3]);
+
+                    pendingStats.computeIfAbsent(playerId, id -> new long[Stat.values().length])[stat.ordinal()] += amount;
+                    journalSequence = Math.max(journalSequence, sequence);
+                    replayed++;
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Entrée invalide dans players.journal: " + line);
+                }
             }
+        } catch (IOException e) {
+            plugin.getLogger().severe("Impossible de lire le journal des joueurs: " + e.getMessage());
+        }
+
+        if (replayed > 0) {
+            plugin.getLogger().info("Journal des joueurs rejoué: " + replayed + " entrées");
+        }
+    }
+
+    // ================================
+    // LECTURE
+    // ================================
+
+    // Peut lire le stockage : à appeler hors du thread principal
+    public DungeonPlayer loadPlayer(UUID playerId) {
+        // L'état en attente ou en cours d'écriture est plus récent que le stockage
+        Map<String, Object> pending;
+        synchronized (this) {
+            pending = pendingProfiles.get(playerId);
+            if (pending == null) {
+                pending = writingProfiles.get(playerId);
+            }
+        }
+
+        if (pending != null) {
+            DungeonPlayer player = new DungeonPlayer(playerId);
+            applyProfile(player, pending);
+            return player;
         }
 
-        saveData();
+        DungeonPlayer stored = storage.loadPlayer(playerId);
+        return stored != null ? stored : new DungeonPlayer(playerId); // Nouveau joueur si absent du stockage
+    }
+
+    private void applyProfile(DungeonPlayer player, Map<String, Object> profile) {
+        player.setCurrentDungeon((String) profile.get("current-dungeon"));
+
+        Object exitLocation = profile.get("exit-location");
+        if (exitLocation != null) {
+            player.setExitLocation(LocationUtils.stringToLocation((String) exitLocation));
+        }
+
+        player.setEnterTime((Long) profile.get("enter-time"));
+        player.setMonstersKilled((Integer) profile.get("monsters-killed"));
+        player.setTreasuresFound((Integer) profile.get("treasures-found"));
+        player.setBossKey((Boolean) profile.get("has-boss-key"));
+    }
+
+    // Statistiques exactes : valeurs du stockage plus les compteurs pas encore écrits
+    // Peut interroger la base : à appeler hors du thread principal
+    public PlayerStats getPlayerStats(UUID playerId) {
+        long[] writing;
+        long[] pending;
+        long batchSequence;
+        long pendingSequence;
+
+        synchronized (this) {
+            writing = copyDeltas(writingStats.get(playerId));
+            pending = copyDeltas(pendingStats.get(playerId));
+            batchSequence = writingSequence;
+            pendingSequence = journalSequence;
+        }
+
+        // Un lot est consolidé d'un bloc avec son numéro de journal : le numéro lu avec les compteurs
+        // indique lesquels des deltas copiés y sont déjà, même si une écriture s'est terminée entre-temps
+        PlayerStats stats = storage.loadPlayerStats(playerId);
+        if (stats.journalSequence < batchSequence) {
+            addDeltas(stats, writing);
+        }
+        if (stats.journalSequence < pendingSequence) {
+            addDeltas(stats, pending);
+        }
+
+        return stats;
+    }
+
+    private static long[] copyDeltas(long[] deltas) {
+        return deltas != null ? deltas.clone() : null;
+    }
+
+    private static void addDeltas(PlayerStats stats, long[] deltas) {
+        if (deltas == null) return;
+
+        stats.totalDungeonsEntered += (int) deltas[Stat.DUNGEONS_ENTERED.ordinal()];
+        stats.totalDungeonsCompleted += (int) deltas[Stat.DUNGEONS_COMPLETED.ordinal()];
+        stats.totalMonstersKilled += (int) deltas[Stat.MONSTERS_KILLED.ordinal()];
+        stats.totalTreasuresFound += (int) deltas[Stat.TREASURES_FOUND.ordinal()];
+        stats.totalTimeInDungeons += deltas[Stat.TIME_IN_DUNGEONS.ordinal()];
+    }
+
+    // Classement sur un compteur, à partir des valeurs consolidées (au plus un intervalle d'écriture de retard)
+    // Peut interroger la base : à appeler hors du thread principal
+    public List<LeaderboardEntry> getTopPlayers(Stat stat, int limit) {
+        return storage.getTopPlayers(stat, limit);
     }
 
     public static class PlayerStats {
@@ -192,6 +442,9 @@ public class PlayerData {
         public long totalTimeInDungeons = 0;
         public long lastActivity = 0;
 
+        // Dernière entrée du journal incluse dans ces compteurs, lue avec eux par le stockage
+        public long journalSequence = 0;
+
         public double getCompletionRate() {
             if (totalDungeonsEntered == 0) return 0.0;
             return (double) totalDungeonsCompleted / totalDungeonsEntered * 100.0;
@@ -202,4 +455,14 @@ public class PlayerData {
             return totalTimeInDungeons / totalDungeonsCompleted;
         }
     }
-}
\ No newline at end of file
+
+    public static class LeaderboardEntry {
+        public final UUID playerId;
+        public final long value;
+
+        public LeaderboardEntry(UUID playerId, long value) {
+            this.playerId = playerId;
+            this.value = value;
+        }
+    }
+}
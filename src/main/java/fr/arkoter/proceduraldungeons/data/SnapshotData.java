@@ -0,0 +1,357 @@
+package fr.arkoter.proceduraldungeons.data;
+
+import fr.arkoter.proceduraldungeons.ProceduralDungeons;
+import fr.arkoter.proceduraldungeons.generators.BlockSnapshot;
+import fr.arkoter.proceduraldungeons.generators.TerrainLog;
+import fr.arkoter.proceduraldungeons.utils.FileUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// Instantanés de blocs des donjons (snapshots/<nom>.snapshot) et journaux du terrain d'origine
+// (snapshots/<nom>.terrain, mis de côté en .restore le temps de la restauration), des fichiers binaires
+// compressés par donjon. Lectures et écritures passent
+// par un seul thread d'E/S : une suppression suivie d'une nouvelle capture s'exécute toujours dans l'ordre
+public class SnapshotData {
+
+    // Journal de terrain : en-tête (marque, nom du monde) puis enregistrements [longueur][CRC32][section compressée]
+    private static final int TERRAIN_MAGIC = 0x50445454;
+    private static final int MAX_TERRAIN_RECORD = 1 << 20;
+    private static final String RESTORE_EXTENSION = ".restore";
+
+    private final ProceduralDungeons plugin;
+    private final File folder;
+    private final ExecutorService ioExecutor;
+
+    // Journaux de terrain ouverts pendant une génération, et tampons de compression (thread d'E/S uniquement)
+    private final Map<String, DataOutputStream> terrainWriters;
+    private final ByteArrayOutputStream terrainBuffer;
+    private final Deflater terrainDeflater;
+    private final CRC32 terrainCrc;
+
+    public SnapshotData(ProceduralDungeons plugin) {
+        this.plugin = plugin;
+        this.folder = new File(plugin.getDataFolder(), "snapshots");
+        this.ioExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ProceduralDungeons-Snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.terrainWriters = new HashMap<>();
+        this.terrainBuffer = new ByteArrayOutputStream();
+        this.terrainDeflater = new Deflater();
+        this.terrainCrc = new CRC32();
+    }
+
+    // ================================
+    // INSTANTANÉS DE BLOCS
+    // ================================
+
+    public void save(String dungeonName, BlockSnapshot snapshot) {
+        ioExecutor.execute(() -> write(dungeonName, snapshot));
+    }
+
+    // Le callback reçoit null si le donjon n'a pas d'instantané lisible ; il est appelé sur le thread d'E/S
+    public void load(String dungeonName, Consumer<BlockSnapshot> callback) {
+        ioExecutor.execute(() -> callback.accept(read(dungeonName)));
+    }
+
+    public void delete(String dungeonName) {
+        ioExecutor.execute(() -> {
+            try {
+                Files.deleteIfExists(getFile(dungeonName).toPath());
+            } catch (IOException e) {
+                plugin.getLogger().warning("Impossible de supprimer l'instantané du donjon " + dungeonName + ": " + e.getMessage());
+            }
+        });
+    }
+
+    public boolean exists(String dungeonName) {
+        return getFile(dungeonName).isFile();
+    }
+
+    // ================================
+    // TERRAIN D'ORIGINE
+    // ================================
+
+    // Ajoute une section au journal du donjon ; le fichier reste ouvert jusqu'à closeTerrain.
+    // Une génération reprise ou reconstruite ajoute à la suite des enregistrements valides
+    public void appendTerrain(String dungeonName, String worldName, BlockSnapshot.Section record) {
+        ioExecutor.execute(() -> {
+            try {
+                DataOutputStream out = terrainWriters.get(dungeonName);
+                if (out == null) {
+                    out = openTerrainWriter(getTerrainFile(dungeonName), worldName);
+                    terrainWriters.put(dungeonName, out);
+                }
+
+                // Section compressée à part puis écrite d'un bloc, précédée de sa longueur et de son CRC32
+                terrainBuffer.reset();
+                terrainDeflater.reset();
+                DataOutputStream section = new DataOutputStream(new DeflaterOutputStream(terrainBuffer, terrainDeflater));
+                record.write(section);
+                section.close();
+
+                terrainCrc.reset();
+                terrainCrc.update(terrainBuffer.toByteArray(), 0, terrainBuffer.size());
+                out.writeInt(terrainBuffer.size());
+                out.writeInt((int) terrainCrc.getValue());
+                terrainBuffer.writeTo(out);
+                out.flush();
+            } catch (IOException e) {
+                plugin.getLogger().warning("Impossible d'enregistrer le terrain du donjon " + dungeonName + ": " + e.getMessage());
+            }
+        });
+    }
+
+    public void closeTerrain(String dungeonName) {
+        ioExecutor.execute(() -> closeTerrainWriter(dungeonName));
+    }
+
+    public boolean hasTerrain(String dungeonName) {
+        return getTerrainFile(dungeonName).isFile();
+    }
+
+    // Met le journal de côté sous un nom de restauration puis le lit : le nom du donjon est aussitôt libre
+    // pour un nouveau journal. Le callback reçoit l'identifiant de la restauration et le terrain, sur le thread
+    // d'E/S ; il n'est pas appelé si le donjon n'a pas de journal. Le fichier reste en place jusqu'à finishRestore
+    public void loadTerrain(String dungeonName, BiConsumer<String, TerrainLog> callback) {
+        ioExecutor.execute(() -> {
+            closeTerrainWriter(dungeonName);
+
+            File file = getTerrainFile(dungeonName);
+            if (!file.isFile()) return;
+
+            String baseName = file.getName().substring(0, file.getName().length() - ".terrain".length());
+            File restoreFile = new File(folder, baseName + "-" + System.currentTimeMillis() + RESTORE_EXTENSION);
+            try {
+                FileUtils.moveAtomically(file, restoreFile);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Impossible de préparer la restauration du terrain du donjon " + dungeonName + ": " + e.getMessage());
+                return;
+            }
+
+            TerrainRead terrain = readTerrain(restoreFile, true);
+            if (terrain != null) {
+                callback.accept(restoreFile.getName(), new TerrainLog(terrain.worldName, terrain.records));
+            }
+        });
+    }
+
+    // Restaurations interrompues par un arrêt du serveur, à reprendre depuis le début
+    public void loadPendingRestores(BiConsumer<String, TerrainLog> callback) {
+        ioExecutor.execute(() -> {
+            File[] files = folder.listFiles((dir, name) -> name.endsWith(RESTORE_EXTENSION));
+            if (files == null) return;
+
+            for (File file : files) {
+                TerrainRead terrain = readTerrain(file, true);
+                if (terrain != null) {
+                    callback.accept(file.getName(), new TerrainLog(terrain.worldName, terrain.records));
+                }
+            }
+        });
+    }
+
+    // Appelé une fois tout le terrain reposé
+    public void finishRestore(String restoreId) {
+        ioExecutor.execute(() -> {
+            try {
+                Files.deleteIfExists(new File(folder, restoreId).toPath());
+            } catch (IOException e) {
+                plugin.getLogger().warning("Impossible de supprimer le journal de terrain " + restoreId + ": " + e.getMessage());
+            }
+        });
+    }
+
+    // Un arrêt brutal peut laisser un enregistrement incomplet en fin de fichier : il est coupé avant d'ajouter
+    private DataOutputStream openTerrainWriter(File file, String worldName) throws IOException {
+        folder.mkdirs();
+
+        long validLength = 0;
+        if (file.isFile() && file.length() > 0) {
+            TerrainRead terrain = readTerrain(file, false);
+            validLength = terrain != null ? terrain.validLength : 0;
+
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+        if (validLength == 0) {
+            byte[] world = worldName.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(TERRAIN_MAGIC);
+            out.writeShort(world.length);
+            out.write(world);
+            out.flush();
+        }
+        return out;
+    }
+
+    // Lit l'en-tête puis les enregistrements jusqu'au premier incomplet ou corrompu. Sans décodage, seuls
+    // la longueur et le CRC sont vérifiés. Retourne null si l'en-tête lui-même est illisible
+    private TerrainRead readTerrain(File file, boolean decode) {
+        TerrainRead result = new TerrainRead();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != TERRAIN_MAGIC) {
+                plugin.getLogger().warning("Journal de terrain " + file.getName() + " illisible: en-tête inconnu");
+                return null;
+            }
+            byte[] world = new byte[in.readUnsignedShort()];
+            in.readFully(world);
+            result.worldName = new String(world, StandardCharsets.UTF_8);
+            result.validLength = 6 + world.length;
+        } catch (IOException e) {
+            plugin.getLogger().warning("Journal de terrain " + file.getName() + " illisible: " + e.getMessage());
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            in.skipNBytes(result.validLength);
+
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[0];
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length <= 0 || length > MAX_TERRAIN_RECORD) {
+                    throw new IOException("longueur d'enregistrement invalide");
+                }
+                int expected = in.readInt();
+                if (buffer.length < length) {
+                    buffer = new byte[length];
+                }
+                in.readFully(buffer, 0, length);
+
+                crc.reset();
+                crc.update(buffer, 0, length);
+                if ((int) crc.getValue() != expected) {
+                    throw new IOException("CRC invalide");
+                }
+
+                if (decode) {
+                    result.records.add(BlockSnapshot.Section.read(new DataInputStream(
+                            new InflaterInputStream(new ByteArrayInputStream(buffer, 0, length)))));
+                }
+                result.validLength += 8 + length;
+            }
+        } catch (IOException e) {
+            // Fin tronquée par un arrêt brutal : les enregistrements précédents restent valides
+            plugin.getLogger().warning("Journal de terrain " + file.getName() + " incomplet, lu jusqu'à l'octet "
+                    + result.validLength + ": " + e.getMessage());
+        }
+        return result;
+    }
+
+    private void closeTerrainWriter(String dungeonName) {
+        DataOutputStream out = terrainWriters.remove(dungeonName);
+        if (out == null) return;
+
+        try {
+            out.close();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Impossible de fermer le journal de terrain du donjon " + dungeonName + ": " + e.getMessage());
+        }
+    }
+
+    public void shutdown() {
+        // Les générations interrompues rouvriront leur journal à la reprise
+        ioExecutor.execute(() -> {
+            for (String dungeonName : new ArrayList<>(terrainWriters.keySet())) {
+                closeTerrainWriter(dungeonName);
+            }
+            terrainDeflater.end();
+        });
+        ioExecutor.shutdown();
+
+        try {
+            if (!ioExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("L'écriture des instantanés de donjons n'a pas pu se terminer à temps");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(String dungeonName, BlockSnapshot snapshot) {
+        File file = getFile(dungeonName);
+        File tempFile = new File(folder, file.getName() + ".tmp");
+
+        try {
+            folder.mkdirs();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(tempFile.toPath()))))) {
+                snapshot.write(out);
+            }
+
+            FileUtils.moveAtomically(tempFile, file);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Impossible de sauvegarder l'instantané du donjon " + dungeonName + ": " + e.getMessage());
+        }
+    }
+
+    private BlockSnapshot read(String dungeonName) {
+        File file = getFile(dungeonName);
+        if (!file.isFile()) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file.toPath()))))) {
+            return BlockSnapshot.read(in);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Instantané du donjon " + dungeonName + " illisible: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private File getTerrainFile(String dungeonName) {
+        return new File(folder, dungeonName.replaceAll("[^A-Za-z0-9_-]", "_") + ".terrain");
+    }
+
+    // Les noms de donjons sont déjà limités à lettres, chiffres et '_' (et '-' pour les instances)
+    private File getFile(String dungeonName) {
+        return new File(folder, dungeonName.replaceAll("[^A-Za-z0-9_-]", "_") + ".snapshot");
+    }
+
+    // Classe interne TerrainRead
+
+    private static class TerrainRead {
+        private final List<BlockSnapshot.Section> records = new ArrayList<>();
+        private String worldName;
+
+        // Octets valides depuis le début du fichier, en-tête compris
+        private long validLength;
+    }
+}
@@ -0,0 +1,684 @@
+package fr.arkoter.proceduraldungeons.data;
+
+import fr.arkoter.proceduraldungeons.ProceduralDungeons;
+import fr.arkoter.proceduraldungeons.models.Dungeon;
+import fr.arkoter.proceduraldungeons.models.DungeonPlayer;
+import fr.arkoter.proceduraldungeons.models.DungeonTemplate;
+import fr.arkoter.proceduraldungeons.utils.LocationUtils;
+import org.bukkit.Location;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.EntityType;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Stockage SQLite embarqué (pilote fourni par le serveur) : tables indexées, écritures par lots préparés
+// Une seule connexion partagée, protégée par le verrou de l'instance
+public class SqlStorage implements StorageBackend {
+
+    private static final String JOURNAL_SEQUENCE_KEY = "journal-sequence";
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS dungeons ("
+                    + "name TEXT PRIMARY KEY, "
+                    + "location TEXT NOT NULL, "
+                    + "size INTEGER NOT NULL, "
+                    + "difficulty INTEGER NOT NULL, "
+                    + "created_at INTEGER NOT NULL, "
+                    + "boss_alive INTEGER NOT NULL, "
+                    + "boss_location TEXT, "
+                    + "seed INTEGER NOT NULL DEFAULT 0, "
+                    + "template TEXT, "
+                    + "generator_version INTEGER NOT NULL DEFAULT 0, "
+                    + "layout TEXT, "
+                    + "opened_chests TEXT, "
+                    + "fired_traps TEXT, "
+                    + "instance_pool TEXT, "
+                    + "times_entered INTEGER NOT NULL DEFAULT 0, "
+                    + "times_completed INTEGER NOT NULL DEFAULT 0, "
+                    + "total_monsters_killed INTEGER NOT NULL DEFAULT 0, "
+                    + "fastest_completion INTEGER NOT NULL DEFAULT 0, "
+                    + "active_players TEXT)",
+            "CREATE TABLE IF NOT EXISTS dungeon_chests ("
+                    + "dungeon TEXT NOT NULL, "
+                    + "location TEXT NOT NULL, "
+                    + "PRIMARY KEY (dungeon, location))",
+            "CREATE TABLE IF NOT EXISTS dungeon_traps ("
+                    + "dungeon TEXT NOT NULL, "
+                    + "location TEXT NOT NULL, "
+                    + "type INTEGER NOT NULL, "
+                    + "activated INTEGER NOT NULL, "
+                    + "PRIMARY KEY (dungeon, location))",
+            // Plusieurs monstres peuvent partager une position : pas de clé primaire
+            "CREATE TABLE IF NOT EXISTS dungeon_monsters ("
+                    + "dungeon TEXT NOT NULL, "
+                    + "location TEXT NOT NULL, "
+                    + "type TEXT NOT NULL, "
+                    + "role TEXT NOT NULL DEFAULT 'REGULAR')",
+            "CREATE INDEX IF NOT EXISTS idx_dungeon_monsters_dungeon ON dungeon_monsters (dungeon)",
+            "CREATE TABLE IF NOT EXISTS player_profiles ("
+                    + "uuid TEXT PRIMARY KEY, "
+                    + "current_dungeon TEXT, "
+                    + "exit_location TEXT, "
+                    + "enter_time INTEGER NOT NULL DEFAULT 0, "
+                    + "monsters_killed INTEGER NOT NULL DEFAULT 0, "
+                    + "treasures_found INTEGER NOT NULL DEFAULT 0, "
+                    + "has_boss_key INTEGER NOT NULL DEFAULT 0)",
+            "CREATE TABLE IF NOT EXISTS player_stats ("
+                    + "uuid TEXT PRIMARY KEY, "
+                    + "total_dungeons_entered INTEGER NOT NULL DEFAULT 0, "
+                    + "total_dungeons_completed INTEGER NOT NULL DEFAULT 0, "
+                    + "total_monsters_killed INTEGER NOT NULL DEFAULT 0, "
+                    + "total_treasures_found INTEGER NOT NULL DEFAULT 0, "
+                    + "total_time_in_dungeons INTEGER NOT NULL DEFAULT 0, "
+                    + "last_activity INTEGER NOT NULL DEFAULT 0)",
+            // Classements et nettoyage des inactifs sans parcours de table
+            "CREATE INDEX IF NOT EXISTS idx_player_stats_entered ON player_stats (total_dungeons_entered DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_player_stats_completed ON player_stats (total_dungeons_completed DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_player_stats_monsters ON player_stats (total_monsters_killed DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_player_stats_treasures ON player_stats (total_treasures_found DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_player_stats_time ON player_stats (total_time_in_dungeons DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_player_stats_activity ON player_stats (last_activity)",
+            "CREATE TABLE IF NOT EXISTS meta ("
+                    + "key TEXT PRIMARY KEY, "
+                    + "value INTEGER NOT NULL)"
+    };
+
+    // Colonnes ajoutées après la première version du schéma ; l'erreur "duplicate column" est ignorée
+    private static final String[] MIGRATIONS = {
+            "ALTER TABLE dungeons ADD COLUMN seed INTEGER NOT NULL DEFAULT 0",
+            "ALTER TABLE dungeons ADD COLUMN template TEXT",
+            "ALTER TABLE dungeons ADD COLUMN generator_version INTEGER NOT NULL DEFAULT 0",
+            "ALTER TABLE dungeons ADD COLUMN layout TEXT",
+            "ALTER TABLE dungeons ADD COLUMN opened_chests TEXT",
+            "ALTER TABLE dungeons ADD COLUMN fired_traps TEXT",
+            "ALTER TABLE dungeon_monsters ADD COLUMN role TEXT NOT NULL DEFAULT 'REGULAR'",
+            "ALTER TABLE dungeons ADD COLUMN instance_pool TEXT"
+    };
+
+    private final ProceduralDungeons plugin;
+    private final File databaseFile;
+    private Connection connection;
+
+    public SqlStorage(ProceduralDungeons plugin, File databaseFile) {
+        this.plugin = plugin;
+        this.databaseFile = databaseFile;
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+
+            try (Statement statement = connection.createStatement()) {
+                // WAL : les lectures (stats, classements) ne bloquent pas les écritures par lots
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                for (String sql : SCHEMA) {
+                    statement.execute(sql);
+                }
+                for (String sql : MIGRATIONS) {
+                    try {
+                        statement.execute(sql);
+                    } catch (SQLException ignored) {
+                        // Colonne déjà présente
+                    }
+                }
+            }
+
+            connection.setAutoCommit(false);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Pilote SQLite introuvable", e);
+        } catch (SQLException e) {
+            throw new IOException("Impossible d'ouvrir " + databaseFile.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (connection == null) return;
+
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Impossible de fermer la base SQLite: " + e.getMessage());
+        }
+        connection = null;
+    }
+
+    @Override
+    public String getName() {
+        return "sqlite";
+    }
+
+    // Colonne de player_stats correspondant au compteur
+    private static String column(PlayerData.Stat stat) {
+        return stat.getKey().replace('-', '_');
+    }
+
+    // ================================
+    // DONJONS
+    // ================================
+
+    @Override
+    public synchronized Map<String, Dungeon> loadDungeons() {
+        Map<String, Dungeon> dungeons = new HashMap<>();
+
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rows = statement.executeQuery("SELECT * FROM dungeons")) {
+                while (rows.next()) {
+                    String name = rows.getString("name");
+                    Location location = LocationUtils.stringToLocation(rows.getString("location"));
+                    if (location == null) {
+                        plugin.getLogger().warning("Location invalide pour le donjon: " + name);
+                        continue;
+                    }
+
+                    Dungeon dungeon = new Dungeon(name, location, rows.getInt("size"), rows.getInt("difficulty"));
+                    dungeon.setBossAlive(rows.getInt("boss_alive") != 0);
+                    dungeon.setSeed(rows.getLong("seed"));
+                    dungeon.setTemplate(readTemplate(name, rows.getString("template")));
+                    dungeon.setGeneratorVersion(rows.getInt("generator_version"));
+                    dungeon.setInstancePool(rows.getString("instance_pool"));
+
+                    // Sauvegarde par graine : coffres et pièges seront recalculés à la première entrée
+                    if ("seed".equals(rows.getString("layout"))) {
+                        dungeon.setPendingLayout(readKeys(rows.getString("opened_chests")),
+                                readKeys(rows.getString("fired_traps")));
+                    }
+
+                    String bossLocation = rows.getString("boss_location");
+                    if (bossLocation != null) {
+                        Location bossLoc = LocationUtils.stringToLocation(bossLocation);
+                        if (bossLoc != null) {
+                            dungeon.setBossLocation(bossLoc);
+                        }
+                    }
+
+                    dungeon.setTimesEntered(rows.getInt("times_entered"));
+                    dungeon.setTimesCompleted(rows.getInt("times_completed"));
+                    dungeon.setTotalMonstersKilled(rows.getInt("total_monsters_killed"));
+                    dungeon.setFastestCompletion(rows.getLong("fastest_completion"));
+
+                    String activePlayers = rows.getString("active_players");
+                    if (activePlayers != null && !activePlayers.isEmpty()) {
+                        for (String playerId : activePlayers.split(",")) {
+                            dungeon.addActivePlayer(playerId);
+                        }
+                    }
+
+                    dungeons.put(name, dungeon);
+                }
+            }
+
+            try (ResultSet rows = statement.executeQuery("SELECT dungeon, location FROM dungeon_chests")) {
+                while (rows.next()) {
+                    Dungeon dungeon = dungeons.get(rows.getString("dungeon"));
+                    Location chestLoc = LocationUtils.stringToLocation(rows.getString("location"));
+                    if (dungeon != null && chestLoc != null) {
+                        dungeon.addTreasureChest(chestLoc);
+                    }
+                }
+            }
+
+            try (ResultSet rows = statement.executeQuery("SELECT dungeon, location, type, activated FROM dungeon_traps")) {
+                while (rows.next()) {
+                    Dungeon dungeon = dungeons.get(rows.getString("dungeon"));
+                    Location trapLoc = LocationUtils.stringToLocation(rows.getString("location"));
+                    if (dungeon != null && trapLoc != null) {
+                        Dungeon.Trap trap = new Dungeon.Trap(trapLoc, rows.getInt("type"));
+                        trap.setActivated(rows.getInt("activated") != 0);
+                        dungeon.addTrap(trap);
+                    }
+                }
+            }
+
+            try (ResultSet rows = statement.executeQuery("SELECT dungeon, location, type, role FROM dungeon_monsters")) {
+                while (rows.next()) {
+                    Dungeon dungeon = dungeons.get(rows.getString("dungeon"));
+                    Location spawnLoc = LocationUtils.stringToLocation(rows.getString("location"));
+                    EntityType spawnType = parseEntityType(rows.getString("type"));
+                    if (dungeon != null && spawnLoc != null && spawnType != null) {
+                        dungeon.addMonsterSpawn(spawnLoc, spawnType, parseRole(rows.getString("role")));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Impossible de charger les donjons depuis SQLite: " + e.getMessage());
+        }
+
+        return dungeons;
+    }
+
+    @Override
+    public synchronized void writeDungeons(Map<String, Map<String, Object>> snapshots) throws IOException {
+        try (PreparedStatement deleteChests = connection.prepareStatement("DELETE FROM dungeon_chests WHERE dungeon = ?");
+             PreparedStatement deleteTraps = connection.prepareStatement("DELETE FROM dungeon_traps WHERE dungeon = ?");
+             PreparedStatement deleteMonsters = connection.prepareStatement("DELETE FROM dungeon_monsters WHERE dungeon = ?");
+             PreparedStatement deleteDungeon = connection.prepareStatement("DELETE FROM dungeons WHERE name = ?");
+             PreparedStatement upsertDungeon = connection.prepareStatement(
+                     "INSERT OR REPLACE INTO dungeons (name, location, size, difficulty, created_at, boss_alive, "
+                             + "boss_location, times_entered, times_completed, total_monsters_killed, "
+                             + "fastest_completion, active_players, seed, template, generator_version, "
+                             + "layout, opened_chests, fired_traps, instance_pool) "
+                             + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement insertChest = connection.prepareStatement(
+                     "INSERT OR REPLACE INTO dungeon_chests (dungeon, location) VALUES (?, ?)");
+             PreparedStatement insertTrap = connection.prepareStatement(
+                     "INSERT OR REPLACE INTO dungeon_traps (dungeon, location, type, activated) VALUES (?, ?, ?, ?)");
+             PreparedStatement insertMonster = connection.prepareStatement(
+                     "INSERT INTO dungeon_monsters (dungeon, location, type, role) VALUES (?, ?, ?, ?)")) {
+
+            for (Map.Entry<String, Map<String, Object>> snapshot : snapshots.entrySet()) {
+                String name = snapshot.getKey();
+                Map<String, Object> values = snapshot.getValue();
+
+                // Coffres, pièges et monstres sont réécrits en entier avec le donjon
+                deleteChests.setString(1, name);
+                deleteChests.addBatch();
+                deleteTraps.setString(1, name);
+                deleteTraps.addBatch();
+                deleteMonsters.setString(1, name);
+                deleteMonsters.addBatch();
+
+                if (values.isEmpty()) {
+                    deleteDungeon.setString(1, name);
+                    deleteDungeon.addBatch();
+                    continue;
+                }
+
+                upsertDungeon.setString(1, name);
+                upsertDungeon.setString(2, (String) values.get("location"));
+                upsertDungeon.setInt(3, (int) number(values, "size"));
+                upsertDungeon.setInt(4, (int) number(values, "difficulty"));
+                upsertDungeon.setLong(5, number(values, "created-at"));
+                upsertDungeon.setInt(6, Boolean.TRUE.equals(values.get("boss-alive")) ? 1 : 0);
+                setNullableString(upsertDungeon, 7, (String) values.get("boss-location"));
+                upsertDungeon.setLong(8, number(values, "stats.times-entered"));
+                upsertDungeon.setLong(9, number(values, "stats.times-completed"));
+                upsertDungeon.setLong(10, number(values, "stats.total-monsters-killed"));
+                upsertDungeon.setLong(11, number(values, "stats.fastest-completion"));
+                upsertDungeon.setString(12, String.join(",", stringList(values.get("active-players"))));
+                upsertDungeon.setLong(13, number(values, "seed"));
+                setNullableString(upsertDungeon, 14, writeTemplate(values.get("template")));
+                upsertDungeon.setInt(15, (int) number(values, "generator-version"));
+                setNullableString(upsertDungeon, 16, (String) values.get("layout"));
+                setNullableString(upsertDungeon, 17, writeKeys(values.get("opened-chests")));
+                setNullableString(upsertDungeon, 18, writeKeys(values.get("fired-traps")));
+                setNullableString(upsertDungeon, 19, (String) values.get("instance-pool"));
+                upsertDungeon.addBatch();
+
+                for (String chestLocation : stringList(values.get("treasure-chests"))) {
+                    insertChest.setString(1, name);
+                    insertChest.setString(2, chestLocation);
+                    insertChest.addBatch();
+                }
+
+                Object traps = values.get("traps");
+                if (traps instanceof List) {
+                    for (Object trapObj : (List<?>) traps) {
+                        if (!(trapObj instanceof Map)) continue;
+                        Map<?, ?> trapMap = (Map<?, ?>) trapObj;
+
+                        insertTrap.setString(1, name);
+                        insertTrap.setString(2, (String) trapMap.get("location"));
+                        insertTrap.setInt(3, trapMap.get("type") instanceof Number ? ((Number) trapMap.get("type")).intValue() : 0);
+                        insertTrap.setInt(4, Boolean.TRUE.equals(trapMap.get("activated")) ? 1 : 0);
+                        insertTrap.addBatch();
+                    }
+                }
+
+                Object spawns = values.get("monster-spawns");
+                if (spawns instanceof List) {
+                    for (Object spawnObj : (List<?>) spawns) {
+                        if (!(spawnObj instanceof Map)) continue;
+                        Map<?, ?> spawnMap = (Map<?, ?>) spawnObj;
+
+                        insertMonster.setString(1, name);
+                        insertMonster.setString(2, (String) spawnMap.get("location"));
+                        insertMonster.setString(3, (String) spawnMap.get("type"));
+                        insertMonster.setString(4, String.valueOf(spawnMap.get("role")));
+                        insertMonster.addBatch();
+                    }
+                }
+            }
+
+            deleteChests.executeBatch();
+            deleteTraps.executeBatch();
+            deleteMonsters.executeBatch();
+            deleteDungeon.executeBatch();
+            upsertDungeon.executeBatch();
+            insertChest.executeBatch();
+            insertTrap.executeBatch();
+            insertMonster.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            throw new IOException("Écriture des donjons annulée: " + e.getMessage(), e);
+        }
+    }
+
+    // ================================
+    // JOUEURS
+    // ================================
+
+    @Override
+    public synchronized DungeonPlayer loadPlayer(UUID playerId) {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT current_dungeon, exit_location, enter_time, monsters_killed, treasures_found, has_boss_key "
+                        + "FROM player_profiles WHERE uuid = ?")) {
+            select.setString(1, playerId.toString());
+
+            try (ResultSet row = select.executeQuery()) {
+                if (!row.next()) {
+                    return null;
+                }
+
+                DungeonPlayer player = new DungeonPlayer(playerId);
+                player.setCurrentDungeon(row.getString("current_dungeon"));
+
+                String exitLocation = row.getString("exit_location");
+                if (exitLocation != null) {
+                    player.setExitLocation(LocationUtils.stringToLocation(exitLocation));
+                }
+
+                player.setEnterTime(row.getLong("enter_time"));
+                player.setMonstersKilled(row.getInt("monsters_killed"));
+                player.setTreasuresFound(row.getInt("treasures_found"));
+                player.setBossKey(row.getInt("has_boss_key") != 0);
+                return player;
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Impossible de charger le joueur " + playerId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized PlayerData.PlayerStats loadPlayerStats(UUID playerId) {
+        PlayerData.PlayerStats stats = new PlayerData.PlayerStats();
+
+        try (PreparedStatement select = connection.prepareStatement("SELECT * FROM player_stats WHERE uuid = ?")) {
+            select.setString(1, playerId.toString());
+
+            try (ResultSet row = select.executeQuery()) {
+                if (row.next()) {
+                    stats.totalDungeonsEntered = row.getInt(column(PlayerData.Stat.DUNGEONS_ENTERED));
+                    stats.totalDungeonsCompleted = row.getInt(column(PlayerData.Stat.DUNGEONS_COMPLETED));
+                    stats.totalMonstersKilled = row.getInt(column(PlayerData.Stat.MONSTERS_KILLED));
+                    stats.totalTreasuresFound = row.getInt(column(PlayerData.Stat.TREASURES_FOUND));
+                    stats.totalTimeInDungeons = row.getLong(column(PlayerData.Stat.TIME_IN_DUNGEONS));
+                    stats.lastActivity = row.getLong("last_activity");
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Impossible de charger les statistiques de " + playerId + ": " + e.getMessage());
+        }
+
+        // Même verrou que writePlayers : compteurs et numéro proviennent du même état de la base
+        stats.journalSequence = getJournalSequence();
+        return stats;
+    }
+
+    @Override
+    public synchronized long getJournalSequence() {
+        try (PreparedStatement select = connection.prepareStatement("SELECT value FROM meta WHERE key = ?")) {
+            select.setString(1, JOURNAL_SEQUENCE_KEY);
+
+            try (ResultSet row = select.executeQuery()) {
+                return row.next() ? row.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Impossible de lire la position du journal: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public synchronized void writePlayers(Map<UUID, Map<String, Object>> profiles, Map<UUID, long[]> statDeltas,
+                                          long journalSequence, long timestamp) throws IOException {
+        StringBuilder addDeltas = new StringBuilder("UPDATE player_stats SET ");
+        for (PlayerData.Stat stat : PlayerData.Stat.values()) {
+            addDeltas.append(column(stat)).append(" = ").append(column(stat)).append(" + ?, ");
+        }
+        addDeltas.append("last_activity = ? WHERE uuid = ?");
+
+        try (PreparedStatement upsertProfile = connection.prepareStatement(
+                "INSERT OR REPLACE INTO player_profiles (uuid, current_dungeon, exit_location, enter_time, "
+                        + "monsters_killed, treasures_found, has_boss_key) VALUES (?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement ensureStats = connection.prepareStatement(
+                     "INSERT OR IGNORE INTO player_stats (uuid) VALUES (?)");
+             PreparedStatement touchStats = connection.prepareStatement(
+                     "UPDATE player_stats SET last_activity = ? WHERE uuid = ?");
+             PreparedStatement updateStats = connection.prepareStatement(addDeltas.toString());
+             PreparedStatement saveSequence = connection.prepareStatement(
+                     "INSERT OR REPLACE INTO meta (key, value) VALUES (?, ?)")) {
+
+            for (Map.Entry<UUID, Map<String, Object>> entry : profiles.entrySet()) {
+                String uuid = entry.getKey().toString();
+                Map<String, Object> profile = entry.getValue();
+
+                upsertProfile.setString(1, uuid);
+                setNullableString(upsertProfile, 2, (String) profile.get("current-dungeon"));
+                setNullableString(upsertProfile, 3, (String) profile.get("exit-location"));
+                upsertProfile.setLong(4, number(profile, "enter-time"));
+                upsertProfile.setLong(5, number(profile, "monsters-killed"));
+                upsertProfile.setLong(6, number(profile, "treasures-found"));
+                upsertProfile.setInt(7, Boolean.TRUE.equals(profile.get("has-boss-key")) ? 1 : 0);
+                upsertProfile.addBatch();
+
+                ensureStats.setString(1, uuid);
+                ensureStats.addBatch();
+                touchStats.setLong(1, timestamp);
+                touchStats.setString(2, uuid);
+                touchStats.addBatch();
+            }
+
+            for (Map.Entry<UUID, long[]> entry : statDeltas.entrySet()) {
+                String uuid = entry.getKey().toString();
+                long[] deltas = entry.getValue();
+
+                ensureStats.setString(1, uuid);
+                ensureStats.addBatch();
+
+                int index = 1;
+                for (PlayerData.Stat stat : PlayerData.Stat.values()) {
+                    updateStats.setLong(index++, deltas[stat.ordinal()]);
+                }
+                updateStats.setLong(index++, timestamp);
+                updateStats.setString(index, uuid);
+                updateStats.addBatch();
+            }
+
+            // Les entrées du journal jusqu'à ce numéro sont incluses dans la base
+            saveSequence.setString(1, JOURNAL_SEQUENCE_KEY);
+            saveSequence.setLong(2, journalSequence);
+
+            upsertProfile.executeBatch();
+            ensureStats.executeBatch();
+            touchStats.executeBatch();
+            updateStats.executeBatch();
+            saveSequence.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            throw new IOException("Écriture des joueurs annulée: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void deletePlayers(Collection<UUID> playerIds) throws IOException {
+        try (PreparedStatement deleteProfile = connection.prepareStatement("DELETE FROM player_profiles WHERE uuid = ?");
+             PreparedStatement deleteStats = connection.prepareStatement("DELETE FROM player_stats WHERE uuid = ?")) {
+
+            for (UUID playerId : playerIds) {
+                deleteProfile.setString(1, playerId.toString());
+                deleteProfile.addBatch();
+                deleteStats.setString(1, playerId.toString());
+                deleteStats.addBatch();
+            }
+
+            deleteProfile.executeBatch();
+            deleteStats.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            throw new IOException("Suppression des joueurs annulée: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized List<UUID> findInactivePlayers(long lastActivityBefore) {
+        List<UUID> inactive = new ArrayList<>();
+
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT uuid FROM player_stats WHERE last_activity < ?")) {
+            select.setLong(1, lastActivityBefore);
+
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    inactive.add(UUID.fromString(rows.getString(1)));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Impossible de rechercher les joueurs inactifs: " + e.getMessage());
+        }
+
+        return inactive;
+    }
+
+    @Override
+    public synchronized List<PlayerData.LeaderboardEntry> getTopPlayers(PlayerData.Stat stat, int limit) {
+        List<PlayerData.LeaderboardEntry> entries = new ArrayList<>();
+        String column = column(stat);
+
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT uuid, " + column + " FROM player_stats WHERE " + column + " > 0 ORDER BY " + column + " DESC LIMIT ?")) {
+            select.setInt(1, limit);
+
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    entries.add(new PlayerData.LeaderboardEntry(UUID.fromString(rows.getString(1)), rows.getLong(2)));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Impossible de calculer le classement: " + e.getMessage());
+        }
+
+        return entries;
+    }
+
+    // ================================
+    // UTILITAIRES
+    // ================================
+
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Impossible d'annuler la transaction SQLite: " + e.getMessage());
+        }
+    }
+
+    private static long number(Map<String, Object> values, String key) {
+        Object value = values.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private static List<String> stringList(Object value) {
+        List<String> strings = new ArrayList<>();
+        if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                strings.add(String.valueOf(element));
+            }
+        }
+        return strings;
+    }
+
+    // Clés de blocs séparées par des virgules
+    private static String writeKeys(Object keys) {
+        if (!(keys instanceof Collection)) return null;
+        return String.join(",", stringList(keys));
+    }
+
+    private static long[] readKeys(String text) {
+        if (text == null || text.isEmpty()) return new long[0];
+
+        String[] parts = text.split(",");
+        long[] keys = new long[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                keys[i] = Long.parseLong(parts[i]);
+            }
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+        return keys;
+    }
+
+    private static EntityType parseEntityType(String name) {
+        if (name == null) return null;
+
+        try {
+            return EntityType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Rôle inconnu : monstre ordinaire
+    private static Dungeon.MonsterRole parseRole(String name) {
+        try {
+            return name != null ? Dungeon.MonsterRole.valueOf(name) : Dungeon.MonsterRole.REGULAR;
+        } catch (IllegalArgumentException e) {
+            return Dungeon.MonsterRole.REGULAR;
+        }
+    }
+
+    // Le template est rangé tel quel, en YAML, dans une seule colonne
+    private static String writeTemplate(Object template) {
+        if (!(template instanceof Map)) return null;
+
+        YamlConfiguration config = new YamlConfiguration();
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) template).entrySet()) {
+            config.set(String.valueOf(entry.getKey()), entry.getValue());
+        }
+        return config.saveToString();
+    }
+
+    private DungeonTemplate readTemplate(String dungeonName, String text) {
+        if (text == null || text.isEmpty()) return null;
+
+        try {
+            YamlConfiguration config = new YamlConfiguration();
+            config.loadFromString(text);
+            return new DungeonTemplate(dungeonName, config);
+        } catch (InvalidConfigurationException | IllegalArgumentException e) {
+            plugin.getLogger().warning("Template invalide pour le donjon " + dungeonName + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void setNullableString(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value);
+        }
+    }
+}
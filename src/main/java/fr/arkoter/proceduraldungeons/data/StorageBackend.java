@@ -0,0 +1,54 @@
+package fr.arkoter.proceduraldungeons.data;
+
+import fr.arkoter.proceduraldungeons.models.Dungeon;
+import fr.arkoter.proceduraldungeons.models.DungeonPlayer;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Support de stockage des donjons et des joueurs (YAML ou SQLite, voir storage.type)
+// DungeonData et PlayerData gèrent l'écriture différée et appellent les écritures depuis leur thread d'E/S.
+// Les implémentations doivent être thread-safe ; une écriture qui lève IOException ne laisse aucune trace.
+public interface StorageBackend {
+
+    void open() throws IOException;
+
+    void close();
+
+    String getName();
+
+    // ================================
+    // DONJONS
+    // ================================
+
+    Map<String, Dungeon> loadDungeons();
+
+    // Instantanés produits par DungeonData, indexés par nom ; une map vide signifie "supprimé"
+    void writeDungeons(Map<String, Map<String, Object>> snapshots) throws IOException;
+
+    // ================================
+    // JOUEURS
+    // ================================
+
+    // Retourne null pour un joueur inconnu
+    DungeonPlayer loadPlayer(UUID playerId);
+
+    // Compteurs consolidés uniquement (sans les deltas encore en attente)
+    PlayerData.PlayerStats loadPlayerStats(UUID playerId);
+
+    // Numéro de la dernière entrée du journal des joueurs déjà incluse dans le stockage
+    long getJournalSequence();
+
+    // Profils de session et deltas de compteurs (indexés par Stat.ordinal()), appliqués en une seule fois
+    void writePlayers(Map<UUID, Map<String, Object>> profiles, Map<UUID, long[]> statDeltas,
+                      long journalSequence, long timestamp) throws IOException;
+
+    void deletePlayers(Collection<UUID> playerIds) throws IOException;
+
+    List<UUID> findInactivePlayers(long lastActivityBefore);
+
+    List<PlayerData.LeaderboardEntry> getTopPlayers(PlayerData.Stat stat, int limit);
+}
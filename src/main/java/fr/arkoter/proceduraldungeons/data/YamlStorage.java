@@ -0,0 +1,436 @@
+package fr.arkoter.proceduraldungeons.data;
+
+import fr.arkoter.proceduraldungeons.ProceduralDungeons;
+import fr.arkoter.proceduraldungeons.models.Dungeon;
+import fr.arkoter.proceduraldungeons.models.DungeonPlayer;
+import fr.arkoter.proceduraldungeons.models.DungeonTemplate;
+import fr.arkoter.proceduraldungeons.utils.FileUtils;
+import fr.arkoter.proceduraldungeons.utils.LocationUtils;
+import org.bukkit.Location;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.EntityType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Stockage historique : dungeons.yml et players.yml, réécrits entièrement à chaque lot
+public class YamlStorage implements StorageBackend {
+
+    private final ProceduralDungeons plugin;
+    private final File dungeonFile;
+    private final File dungeonTempFile;
+    private final File playerFile;
+    private final File playerTempFile;
+
+    // Un verrou par fichier : les deux threads d'E/S écrivent en parallèle
+    private final Object dungeonLock = new Object();
+    private final Object playerLock = new Object();
+    private YamlConfiguration dungeonConfig;
+    private YamlConfiguration playerConfig;
+
+    public YamlStorage(ProceduralDungeons plugin) {
+        this.plugin = plugin;
+        this.dungeonFile = new File(plugin.getDataFolder(), "dungeons.yml");
+        this.dungeonTempFile = new File(plugin.getDataFolder(), "dungeons.yml.tmp");
+        this.playerFile = new File(plugin.getDataFolder(), "players.yml");
+        this.playerTempFile = new File(plugin.getDataFolder(), "players.yml.tmp");
+    }
+
+    @Override
+    public void open() {
+        createIfMissing(dungeonFile);
+        createIfMissing(playerFile);
+
+        synchronized (dungeonLock) {
+            dungeonConfig = YamlConfiguration.loadConfiguration(dungeonFile);
+        }
+        synchronized (playerLock) {
+            playerConfig = YamlConfiguration.loadConfiguration(playerFile);
+        }
+    }
+
+    @Override
+    public void close() {
+        // Rien à libérer : chaque écriture est déjà sur disque
+    }
+
+    @Override
+    public String getName() {
+        return "yaml";
+    }
+
+    private void createIfMissing(File file) {
+        if (file.exists()) return;
+
+        try {
+            file.getParentFile().mkdirs();
+            file.createNewFile();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Impossible de créer le fichier " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    // ================================
+    // DONJONS
+    // ================================
+
+    @Override
+    public Map<String, Dungeon> loadDungeons() {
+        Map<String, Dungeon> dungeons = new HashMap<>();
+
+        synchronized (dungeonLock) {
+            ConfigurationSection dungeonsSection = dungeonConfig.getConfigurationSection("dungeons");
+            if (dungeonsSection == null) {
+                return dungeons;
+            }
+
+            for (String name : dungeonsSection.getKeys(false)) {
+                Dungeon dungeon = loadDungeon(name, dungeonsSection.getConfigurationSection(name));
+                if (dungeon != null) {
+                    dungeons.put(name, dungeon);
+                }
+            }
+        }
+
+        return dungeons;
+    }
+
+    private Dungeon loadDungeon(String name, ConfigurationSection section) {
+        if (section == null) {
+            return null;
+        }
+
+        // Charger les informations de base
+        Location location = LocationUtils.stringToLocation(section.getString("location"));
+        if (location == null) {
+            plugin.getLogger().warning("Location invalide pour le donjon: " + name);
+            return null;
+        }
+
+        int size = section.getInt("size", 50);
+        int difficulty = section.getInt("difficulty", 1);
+
+        Dungeon dungeon = new Dungeon(name, location, size, difficulty);
+
+        // Charger les autres propriétés
+        dungeon.setBossAlive(section.getBoolean("boss-alive", false));
+        dungeon.setSeed(section.getLong("seed", 0));
+        dungeon.setGeneratorVersion(section.getInt("generator-version", 0));
+        dungeon.setInstancePool(section.getString("instance-pool"));
+
+        ConfigurationSection templateSection = section.getConfigurationSection("template");
+        if (templateSection != null) {
+            try {
+                dungeon.setTemplate(new DungeonTemplate(name, templateSection));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Template invalide pour le donjon " + name + ": " + e.getMessage());
+            }
+        }
+
+        String bossLocationStr = section.getString("boss-location");
+        if (bossLocationStr != null) {
+            Location bossLoc = LocationUtils.stringToLocation(bossLocationStr);
+            if (bossLoc != null) {
+                dungeon.setBossLocation(bossLoc);
+            }
+        }
+
+        // Sauvegarde par graine : coffres et pièges seront recalculés à la première entrée
+        if ("seed".equals(section.getString("layout"))) {
+            dungeon.setPendingLayout(toKeys(section.getList("opened-chests")), toKeys(section.getList("fired-traps")));
+            loadStats(dungeon, section);
+            return dungeon;
+        }
+
+        // Charger les coffres
+        List<String> chestLocations = section.getStringList("treasure-chests");
+        for (String chestLocStr : chestLocations) {
+            Location chestLoc = LocationUtils.stringToLocation(chestLocStr);
+            if (chestLoc != null) {
+                dungeon.addTreasureChest(chestLoc);
+            }
+        }
+
+        // Charger les pièges
+        List<?> trapDataList = section.getList("traps");
+        if (trapDataList != null) {
+            for (Object trapObj : trapDataList) {
+                if (trapObj instanceof Map) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> trapMap = (Map<String, Object>) trapObj;
+
+                    String trapLocStr = (String) trapMap.get("location");
+                    Object trapTypeObj = trapMap.get("type");
+                    Object activatedObj = trapMap.get("activated");
+
+                    if (trapLocStr != null && trapTypeObj != null) {
+                        int trapType = trapTypeObj instanceof Integer ? (Integer) trapTypeObj : 0;
+                        boolean activated = activatedObj instanceof Boolean ? (Boolean) activatedObj : false;
+
+                        Location trapLoc = LocationUtils.stringToLocation(trapLocStr);
+                        if (trapLoc != null) {
+                            Dungeon.Trap trap = new Dungeon.Trap(trapLoc, trapType);
+                            trap.setActivated(activated);
+                            dungeon.addTrap(trap);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Charger les points d'apparition des monstres
+        List<?> spawnDataList = section.getList("monster-spawns");
+        if (spawnDataList != null) {
+            for (Object spawnObj : spawnDataList) {
+                if (!(spawnObj instanceof Map)) continue;
+                Map<?, ?> spawnMap = (Map<?, ?>) spawnObj;
+
+                Location spawnLoc = LocationUtils.stringToLocation((String) spawnMap.get("location"));
+                EntityType spawnType = parseEntityType(spawnMap.get("type"));
+                if (spawnLoc != null && spawnType != null) {
+                    dungeon.addMonsterSpawn(spawnLoc, spawnType, parseRole(spawnMap.get("role")));
+                }
+            }
+        }
+
+        loadStats(dungeon, section);
+        return dungeon;
+    }
+
+    private static EntityType parseEntityType(Object value) {
+        if (!(value instanceof String)) return null;
+
+        try {
+            return EntityType.valueOf((String) value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Rôle absent ou inconnu : monstre ordinaire
+    private static Dungeon.MonsterRole parseRole(Object value) {
+        if (!(value instanceof String)) return Dungeon.MonsterRole.REGULAR;
+
+        try {
+            return Dungeon.MonsterRole.valueOf((String) value);
+        } catch (IllegalArgumentException e) {
+            return Dungeon.MonsterRole.REGULAR;
+        }
+    }
+
+    private void loadStats(Dungeon dungeon, ConfigurationSection section) {
+        // Charger les statistiques
+        ConfigurationSection statsSection = section.getConfigurationSection("stats");
+        if (statsSection != null) {
+            dungeon.setTimesEntered(statsSection.getInt("times-entered", 0));
+            dungeon.setTimesCompleted(statsSection.getInt("times-completed", 0));
+            dungeon.setTotalMonstersKilled(statsSection.getInt("total-monsters-killed", 0));
+            dungeon.setFastestCompletion(statsSection.getLong("fastest-completion", 0));
+        }
+
+        // Charger les joueurs actifs
+        List<String> activePlayers = section.getStringList("active-players");
+        for (String playerId : activePlayers) {
+            dungeon.addActivePlayer(playerId);
+        }
+    }
+
+    private static long[] toKeys(List<?> values) {
+        if (values == null) return new long[0];
+
+        long[] keys = new long[values.size()];
+        int count = 0;
+        for (Object value : values) {
+            if (value instanceof Number) {
+                keys[count++] = ((Number) value).longValue();
+            }
+        }
+        return count == keys.length ? keys : Arrays.copyOf(keys, count);
+    }
+
+    @Override
+    public void writeDungeons(Map<String, Map<String, Object>> snapshots) throws IOException {
+        synchronized (dungeonLock) {
+            for (Map.Entry<String, Map<String, Object>> snapshot : snapshots.entrySet()) {
+                String path = "dungeons." + snapshot.getKey();
+                dungeonConfig.set(path, null);
+
+                for (Map.Entry<String, Object> entry : snapshot.getValue().entrySet()) {
+                    dungeonConfig.set(path + "." + entry.getKey(), entry.getValue());
+                }
+            }
+
+            try {
+                FileUtils.writeAtomically(dungeonConfig.saveToString(), dungeonTempFile, dungeonFile);
+            } catch (IOException e) {
+                // Revenir au dernier état écrit : l'appelant représentera le lot
+                dungeonConfig = YamlConfiguration.loadConfiguration(dungeonFile);
+                throw e;
+            }
+        }
+    }
+
+    // ================================
+    // JOUEURS
+    // ================================
+
+    @Override
+    public DungeonPlayer loadPlayer(UUID playerId) {
+        synchronized (playerLock) {
+            ConfigurationSection section = playerConfig.getConfigurationSection("players." + playerId.toString());
+            if (section == null) {
+                return null;
+            }
+
+            DungeonPlayer player = new DungeonPlayer(playerId);
+            player.setCurrentDungeon(section.getString("current-dungeon"));
+
+            String exitLocationStr = section.getString("exit-location");
+            if (exitLocationStr != null) {
+                player.setExitLocation(LocationUtils.stringToLocation(exitLocationStr));
+            }
+
+            player.setEnterTime(section.getLong("enter-time", 0));
+            player.setMonstersKilled(section.getInt("monsters-killed", 0));
+            player.setTreasuresFound(section.getInt("treasures-found", 0));
+            player.setBossKey(section.getBoolean("has-boss-key", false));
+
+            return player;
+        }
+    }
+
+    @Override
+    public PlayerData.PlayerStats loadPlayerStats(UUID playerId) {
+        PlayerData.PlayerStats stats = new PlayerData.PlayerStats();
+
+        synchronized (playerLock) {
+            ConfigurationSection statsSection = playerConfig.getConfigurationSection("players." + playerId.toString() + ".stats");
+            if (statsSection != null) {
+                stats.totalDungeonsEntered = statsSection.getInt("total-dungeons-entered", 0);
+                stats.totalDungeonsCompleted = statsSection.getInt("total-dungeons-completed", 0);
+                stats.totalMonstersKilled = statsSection.getInt("total-monsters-killed", 0);
+                stats.totalTreasuresFound = statsSection.getInt("total-treasures-found", 0);
+                stats.totalTimeInDungeons = statsSection.getLong("total-time-in-dungeons", 0);
+                stats.lastActivity = statsSection.getLong("last-activity", 0);
+            }
+            stats.journalSequence = playerConfig.getLong("journal-sequence", 0);
+        }
+
+        return stats;
+    }
+
+    @Override
+    public long getJournalSequence() {
+        synchronized (playerLock) {
+            return playerConfig.getLong("journal-sequence", 0);
+        }
+    }
+
+    @Override
+    public void writePlayers(Map<UUID, Map<String, Object>> profiles, Map<UUID, long[]> statDeltas,
+                             long journalSequence, long timestamp) throws IOException {
+        synchronized (playerLock) {
+            for (Map.Entry<UUID, Map<String, Object>> entry : profiles.entrySet()) {
+                String path = "players." + entry.getKey().toString();
+                for (Map.Entry<String, Object> value : entry.getValue().entrySet()) {
+                    playerConfig.set(path + "." + value.getKey(), value.getValue());
+                }
+                playerConfig.set(path + ".stats.last-activity", timestamp);
+            }
+
+            for (Map.Entry<UUID, long[]> entry : statDeltas.entrySet()) {
+                String path = "players." + entry.getKey().toString() + ".stats.";
+                long[] deltas = entry.getValue();
+                for (PlayerData.Stat stat : PlayerData.Stat.values()) {
+                    if (deltas[stat.ordinal()] != 0) {
+                        playerConfig.set(path + stat.getKey(), playerConfig.getLong(path + stat.getKey(), 0) + deltas[stat.ordinal()]);
+                    }
+                }
+                playerConfig.set(path + "last-activity", timestamp);
+            }
+
+            // Les entrées du journal jusqu'à ce numéro sont incluses dans le fichier
+            playerConfig.set("journal-sequence", journalSequence);
+
+            savePlayers();
+        }
+    }
+
+    @Override
+    public void deletePlayers(Collection<UUID> playerIds) throws IOException {
+        synchronized (playerLock) {
+            for (UUID playerId : playerIds) {
+                playerConfig.set("players." + playerId.toString(), null);
+            }
+
+            savePlayers();
+        }
+    }
+
+    // Appelé sous playerLock
+    private void savePlayers() throws IOException {
+        try {
+            FileUtils.writeAtomically(playerConfig.saveToString(), playerTempFile, playerFile);
+        } catch (IOException e) {
+            // Les deltas restent en attente chez l'appelant : repartir du dernier état écrit
+            playerConfig = YamlConfiguration.loadConfiguration(playerFile);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<UUID> findInactivePlayers(long lastActivityBefore) {
+        List<UUID> inactive = new ArrayList<>();
+
+        synchronized (playerLock) {
+            ConfigurationSection playersSection = playerConfig.getConfigurationSection("players");
+            if (playersSection == null) return inactive;
+
+            for (String playerIdStr : playersSection.getKeys(false)) {
+                long lastActivity = playersSection.getLong(playerIdStr + ".stats.last-activity", 0);
+                if (lastActivity < lastActivityBefore) {
+                    try {
+                        inactive.add(UUID.fromString(playerIdStr));
+                    } catch (IllegalArgumentException e) {
+                        plugin.getLogger().warning("UUID invalide dans players.yml: " + playerIdStr);
+                    }
+                }
+            }
+        }
+
+        return inactive;
+    }
+
+    // Le format YAML n'a pas d'index : parcours complet de players.yml
+    @Override
+    public List<PlayerData.LeaderboardEntry> getTopPlayers(PlayerData.Stat stat, int limit) {
+        List<PlayerData.LeaderboardEntry> entries = new ArrayList<>();
+
+        synchronized (playerLock) {
+            ConfigurationSection playersSection = playerConfig.getConfigurationSection("players");
+            if (playersSection == null) return entries;
+
+            for (String playerIdStr : playersSection.getKeys(false)) {
+                long value = playersSection.getLong(playerIdStr + ".stats." + stat.getKey(), 0);
+                if (value <= 0) continue;
+
+                try {
+                    entries.add(new PlayerData.LeaderboardEntry(UUID.fromString(playerIdStr), value));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("UUID invalide dans players.yml: " + playerIdStr);
+                }
+            }
+        }
+
+        entries.sort((a, b) -> Long.compare(b.value, a.value));
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+}
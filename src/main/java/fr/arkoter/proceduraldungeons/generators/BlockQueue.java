@@ -0,0 +1,173 @@
+package fr.arkoter.proceduraldungeons.generators;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+public class BlockQueue {
+
+    private final World world;
+    private final Map<Long, Section> sections;
+    private int size;
+
+    // Dernière section utilisée : les écritures consécutives tombent presque toujours dans la même
+    private long lastKey;
+    private Section lastSection;
+
+    public BlockQueue(World world) {
+        this.world = world;
+        this.sections = new HashMap<>();
+        this.size = 0;
+    }
+
+    public void set(Location location, Material material) {
+        set(location.getBlockX(), location.getBlockY(), location.getBlockZ(), material);
+    }
+
+    public void set(int x, int y, int z, Material material) {
+        int chunkX = x >> 4;
+        int sectionY = y >> 4;
+        int chunkZ = z >> 4;
+        long key = sectionKey(chunkX, sectionY, chunkZ);
+
+        Section section = lastSection;
+        if (section == null || lastKey != key) {
+            section = sections.get(key);
+            if (section == null) {
+                section = new Section(chunkX, sectionY, chunkZ);
+                sections.put(key, section);
+            }
+            lastKey = key;
+            lastSection = section;
+        }
+
+        // La dernière écriture sur une position remplace les précédentes
+        if (section.set(x & 15, y & 15, z & 15, material)) {
+            size++;
+        }
+    }
+
+    // Retire les sections que filter accepte, avec leurs blocs
+    public void removeIf(Predicate<Section> filter) {
+        Iterator<Section> iterator = sections.values().iterator();
+        while (iterator.hasNext()) {
+            Section section = iterator.next();
+            if (filter.test(section)) {
+                size -= section.getCount();
+                iterator.remove();
+            }
+        }
+        lastSection = null;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    // Sections triées par chunk puis par hauteur, pour poser un chunk entier avant de passer au suivant
+    public List<Section> getSections() {
+        List<Section> sorted = new ArrayList<>(sections.values());
+        sorted.sort(Comparator.comparingInt(Section::getChunkX)
+                .thenComparingInt(Section::getChunkZ)
+                .thenComparingInt(Section::getSectionY));
+        return sorted;
+    }
+
+    public int getSectionCount() {
+        return sections.size();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static long sectionKey(int chunkX, int sectionY, int chunkZ) {
+        return ((long) chunkX & 0x3FFFFFL) << 42 | ((long) chunkZ & 0x3FFFFFL) << 20 | (sectionY & 0xFFFFFL);
+    }
+
+    // Classe interne Section
+
+    public static class Section {
+        public static final int VOLUME = 16 * 16 * 16;
+
+        private final int chunkX;
+        private final int sectionY;
+        private final int chunkZ;
+        private final List<Material> palette;
+        private final short[] blocks;
+        private int count;
+
+        private Section(int chunkX, int sectionY, int chunkZ) {
+            this.chunkX = chunkX;
+            this.sectionY = sectionY;
+            this.chunkZ = chunkZ;
+            this.palette = new ArrayList<>();
+            this.palette.add(null); // L'indice 0 signifie "aucune modification"
+            this.blocks = new short[VOLUME];
+        }
+
+        private boolean set(int localX, int localY, int localZ, Material material) {
+            int index = (localY << 8) | (localZ << 4) | localX;
+            boolean added = blocks[index] == 0;
+            blocks[index] = (short) paletteIndex(material);
+            if (added) count++;
+            return added;
+        }
+
+        private int paletteIndex(Material material) {
+            for (int i = 1; i < palette.size(); i++) {
+                if (palette.get(i) == material) {
+                    return i;
+                }
+            }
+            palette.add(material);
+            return palette.size() - 1;
+        }
+
+        // Retourne null si la position n'est pas modifiée
+        public Material get(int index) {
+            return palette.get(blocks[index]);
+        }
+
+        // Nombre de positions modifiées dans la section
+        public int getCount() {
+            return count;
+        }
+
+        public int getChunkX() {
+            return chunkX;
+        }
+
+        public int getSectionY() {
+            return sectionY;
+        }
+
+        public int getChunkZ() {
+            return chunkZ;
+        }
+
+        public static int getLocalX(int index) {
+            return index & 15;
+        }
+
+        public static int getLocalY(int index) {
+            return index >> 8;
+        }
+
+        public static int getLocalZ(int index) {
+            return (index >> 4) & 15;
+        }
+    }
+}
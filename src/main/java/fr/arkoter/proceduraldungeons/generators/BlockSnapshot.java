@@ -0,0 +1,268 @@
+package fr.arkoter.proceduraldungeons.generators;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Instantané du volume d'un donjon pris juste après sa génération : une palette de matériaux
+// et un tableau d'indices compactés sur le nombre de bits minimal, par section de 16x16x16.
+// Sert à remettre le donjon à neuf en ne reposant que les blocs qui ont changé.
+// Seul le matériau est gardé, comme lors de la pose (orientation et états ne sont pas conservés)
+public class BlockSnapshot {
+
+    private static final int MAGIC = 0x50445342; // "PDSB"
+    private static final int FORMAT_VERSION = 1;
+
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int maxX;
+    private final int maxY;
+    private final int maxZ;
+    private final List<Section> sections;
+
+    private BlockSnapshot(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, List<Section> sections) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        this.sections = sections;
+    }
+
+    // ================================
+    // CAPTURE ET COMPARAISON
+    // ================================
+
+    // Thread asynchrone : les instantanés de chunks sont figés sur le thread principal (clé chunkKey)
+    public static BlockSnapshot capture(Map<Long, ChunkSnapshot> chunks,
+                                        int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        List<Section> sections = new ArrayList<>();
+        Material[] blocks = new Material[Section.VOLUME];
+
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                ChunkSnapshot chunk = chunks.get(chunkKey(chunkX, chunkZ));
+                if (chunk == null) continue;
+
+                for (int sectionY = minY >> 4; sectionY <= maxY >> 4; sectionY++) {
+                    // Les positions hors de l'emprise gardent l'indice 0 et ne sont jamais comparées
+                    for (int index = 0; index < Section.VOLUME; index++) {
+                        int x = (chunkX << 4) + BlockQueue.Section.getLocalX(index);
+                        int y = (sectionY << 4) + BlockQueue.Section.getLocalY(index);
+                        int z = (chunkZ << 4) + BlockQueue.Section.getLocalZ(index);
+
+                        blocks[index] = x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ ?
+                                chunk.getBlockType(x & 15, y, z & 15) : null;
+                    }
+                    sections.add(Section.pack(chunkX, sectionY, chunkZ, blocks));
+                }
+            }
+        }
+
+        return new BlockSnapshot(minX, minY, minZ, maxX, maxY, maxZ, sections);
+    }
+
+    // Thread asynchrone : blocs de l'emprise qui diffèrent de l'instantané, prêts à être reposés
+    public BlockQueue diff(Map<Long, ChunkSnapshot> current, World world) {
+        BlockQueue queue = new BlockQueue(world);
+
+        for (Section section : sections) {
+            ChunkSnapshot chunk = current.get(chunkKey(section.chunkX, section.chunkZ));
+            if (chunk == null) continue;
+
+            int baseX = section.chunkX << 4;
+            int baseY = section.sectionY << 4;
+            int baseZ = section.chunkZ << 4;
+
+            for (int index = 0; index < Section.VOLUME; index++) {
+                int x = baseX + BlockQueue.Section.getLocalX(index);
+                int y = baseY + BlockQueue.Section.getLocalY(index);
+                int z = baseZ + BlockQueue.Section.getLocalZ(index);
+                if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) continue;
+
+                // Matériau inconnu de cette version du serveur : laissé tel quel
+                Material expected = section.get(index);
+                if (expected == null) continue;
+
+                if (chunk.getBlockType(x & 15, y, z & 15) != expected) {
+                    queue.set(x, y, z, expected);
+                }
+            }
+        }
+
+        return queue;
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    // ================================
+    // FORMAT BINAIRE
+    // ================================
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(minX);
+        out.writeInt(minY);
+        out.writeInt(minZ);
+        out.writeInt(maxX);
+        out.writeInt(maxY);
+        out.writeInt(maxZ);
+
+        out.writeInt(sections.size());
+        for (Section section : sections) {
+            section.write(out);
+        }
+    }
+
+    public static BlockSnapshot read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("fichier d'instantané invalide");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("version d'instantané non prise en charge: " + version);
+        }
+
+        int minX = in.readInt();
+        int minY = in.readInt();
+        int minZ = in.readInt();
+        int maxX = in.readInt();
+        int maxY = in.readInt();
+        int maxZ = in.readInt();
+
+        int count = in.readInt();
+        List<Section> sections = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sections.add(Section.read(in));
+        }
+
+        return new BlockSnapshot(minX, minY, minZ, maxX, maxY, maxZ, sections);
+    }
+
+    // Classe interne Section
+
+    // Les indices ne chevauchent jamais deux longs : 64 / bits indices par long
+    public static class Section {
+        public static final int VOLUME = BlockQueue.Section.VOLUME;
+
+        private final int chunkX;
+        private final int sectionY;
+        private final int chunkZ;
+        private final Material[] palette;
+        private final int bits;
+        private final long[] data;
+
+        private Section(int chunkX, int sectionY, int chunkZ, Material[] palette, int bits, long[] data) {
+            this.chunkX = chunkX;
+            this.sectionY = sectionY;
+            this.chunkZ = chunkZ;
+            this.palette = palette;
+            this.bits = bits;
+            this.data = data;
+        }
+
+        // blocks contient null pour les positions non enregistrées
+        public static Section pack(int chunkX, int sectionY, int chunkZ, Material[] blocks) {
+            List<Material> palette = new ArrayList<>();
+            int[] indices = new int[VOLUME];
+
+            for (int index = 0; index < VOLUME; index++) {
+                int paletteIndex = palette.indexOf(blocks[index]);
+                if (paletteIndex < 0) {
+                    palette.add(blocks[index]);
+                    paletteIndex = palette.size() - 1;
+                }
+                indices[index] = paletteIndex;
+            }
+
+            // Section d'un seul matériau : aucun indice à stocker
+            int bits = palette.size() <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(palette.size() - 1);
+            long[] data = new long[dataLength(bits)];
+            if (bits > 0) {
+                int perLong = 64 / bits;
+                for (int index = 0; index < VOLUME; index++) {
+                    data[index / perLong] |= (long) indices[index] << ((index % perLong) * bits);
+                }
+            }
+
+            return new Section(chunkX, sectionY, chunkZ, palette.toArray(new Material[0]), bits, data);
+        }
+
+        public void write(DataOutputStream out) throws IOException {
+            out.writeInt(chunkX);
+            out.writeInt(sectionY);
+            out.writeInt(chunkZ);
+
+            // Les matériaux sont écrits par nom : l'ordre de l'énumération change d'une version à l'autre
+            out.writeShort(palette.length);
+            for (Material material : palette) {
+                out.writeUTF(material == null ? "" : material.name());
+            }
+
+            out.writeByte(bits);
+            for (long word : data) {
+                out.writeLong(word);
+            }
+        }
+
+        public static Section read(DataInputStream in) throws IOException {
+            int chunkX = in.readInt();
+            int sectionY = in.readInt();
+            int chunkZ = in.readInt();
+
+            Material[] palette = new Material[in.readUnsignedShort()];
+            for (int p = 0; p < palette.length; p++) {
+                String name = in.readUTF();
+                palette[p] = name.isEmpty() ? null : Material.matchMaterial(name);
+            }
+
+            int bits = in.readUnsignedByte();
+            long[] data = new long[dataLength(bits)];
+            for (int w = 0; w < data.length; w++) {
+                data[w] = in.readLong();
+            }
+
+            return new Section(chunkX, sectionY, chunkZ, palette, bits, data);
+        }
+
+        private static int dataLength(int bits) {
+            if (bits == 0) return 0;
+            int perLong = 64 / bits;
+            return (VOLUME + perLong - 1) / perLong;
+        }
+
+        // Matériau à cette position, null si elle n'est pas enregistrée ou inconnue
+        public Material get(int index) {
+            if (bits == 0) return palette[0];
+
+            int perLong = 64 / bits;
+            long word = data[index / perLong];
+            int paletteIndex = (int) ((word >>> ((index % perLong) * bits)) & ((1L << bits) - 1));
+            return palette[paletteIndex];
+        }
+
+        public int getChunkX() {
+            return chunkX;
+        }
+
+        public int getSectionY() {
+            return sectionY;
+        }
+
+        public int getChunkZ() {
+            return chunkZ;
+        }
+    }
+}
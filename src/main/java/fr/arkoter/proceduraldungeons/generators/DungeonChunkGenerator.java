@@ -0,0 +1,44 @@
+package fr.arkoter.proceduraldungeons.generators;
+
+import org.bukkit.generator.ChunkGenerator;
+import org.bukkit.generator.WorldInfo;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Générateur du monde des donjons : un monde vide dans lequel les chunks d'un labyrinthe enregistré
+// naissent avec ses sols, murs et plafonds. La pose de la structure revient ainsi à la génération
+// de chunks du serveur, parallèle et hors du budget de pose par tick
+public class DungeonChunkGenerator extends ChunkGenerator {
+
+    // Labyrinthes à émettre, par nom de donjon : lus depuis les threads de génération du serveur
+    private final Map<String, MazeLayout> layouts;
+
+    public DungeonChunkGenerator() {
+        this.layouts = new ConcurrentHashMap<>();
+    }
+
+    // Doit précéder le premier chargement d'un chunk de l'emprise
+    public void register(String dungeonName, MazeLayout layout) {
+        layouts.put(dungeonName, layout);
+    }
+
+    public void unregister(String dungeonName) {
+        layouts.remove(dungeonName);
+    }
+
+    @Override
+    public void generateNoise(WorldInfo worldInfo, Random random, int chunkX, int chunkZ, ChunkData chunkData) {
+        for (MazeLayout layout : layouts.values()) {
+            if (layout.intersects(chunkX, chunkZ)) {
+                layout.emit(chunkX, chunkZ, chunkData);
+            }
+        }
+    }
+
+    @Override
+    public boolean isParallelCapable() {
+        return true;
+    }
+}
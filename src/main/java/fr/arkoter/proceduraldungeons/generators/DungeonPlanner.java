@@ -0,0 +1,427 @@
+package fr.arkoter.proceduraldungeons.generators;
+
+import fr.arkoter.proceduraldungeons.models.Dungeon;
+import fr.arkoter.proceduraldungeons.models.DungeonTemplate;
+import fr.arkoter.proceduraldungeons.models.DungeonTheme;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Calcul complet d'un donjon (labyrinthe, salles, pièges, monstres) sans accès au serveur : les blocs
+// sont rangés dans un BlockQueue par étape de pose. Utilisable depuis n'importe quel thread
+public class DungeonPlanner {
+
+    // Étapes du calcul, chronométrées séparément
+    public enum Phase {
+        MAZE,
+        STRUCTURE,
+        SPECIAL_ROOMS,
+        BOSS_ROOM,
+        TRAPS,
+        MONSTERS
+    }
+
+    // Distance minimale aux bords pour le centre d'une salle spéciale
+    private static final int ROOM_MARGIN = 5;
+
+    private final Settings settings;
+    private final RoomGenerator roomGenerator;
+    private final TrapGenerator trapGenerator;
+
+    public DungeonPlanner(Settings settings) {
+        this.settings = settings;
+        this.roomGenerator = new RoomGenerator();
+        this.trapGenerator = new TrapGenerator();
+    }
+
+    // Chaque étape tire dans son propre flux dérivé de la graine, le plan est donc identique à chaque calcul
+    public Plan plan(String name, Location location, int size, int difficulty, DungeonTemplate template, long seed) {
+        Dungeon dungeon = new Dungeon(name, location, size, difficulty);
+        dungeon.setSeed(seed);
+        dungeon.setTemplate(template);
+        Location center = dungeon.getLocation();
+        long phaseStart = System.nanoTime();
+
+        // Générer le labyrinthe
+        MazeGenerator mazeGen = new MazeGenerator(size, size, DungeonRandom.seed(seed, DungeonRandom.Stream.MAZE));
+        boolean[][] maze = template == null ? mazeGen.generate() :
+                mazeGen.generateWithRooms(template.getTotalSpecialRooms(),
+                        settings.minRoomSize, settings.maxRoomSize);
+
+        // Distances depuis l'entrée : salles, boss et pièges sont placés sur des cases accessibles
+        MazeAnalysis analysis = mazeGen.analyze();
+
+        Plan plan = new Plan(dungeon, maze, analysis, center.getWorld());
+        phaseStart = plan.endPhase(Phase.MAZE, phaseStart);
+
+        // Construire les murs et sols du labyrinthe
+        plan.layout = new MazeLayout(center.getBlockX() - size/2, center.getBlockY(), center.getBlockZ() - size/2,
+                maze, settings.wallHeight,
+                template == null ? DungeonTheme.MEDIEVAL : template.getTheme(),
+                DungeonRandom.create(seed, DungeonRandom.Stream.DECORATION));
+        plan.layout.place(plan.structure);
+        phaseStart = plan.endPhase(Phase.STRUCTURE, phaseStart);
+
+        // Générer les salles spéciales, puis le boss au fond du donjon
+        Random roomRandom = DungeonRandom.create(seed, DungeonRandom.Stream.ROOMS);
+        if (template == null) {
+            generateSpecialRooms(dungeon, plan.rooms, analysis, plan.combatRooms, roomRandom);
+        } else {
+            generateTemplateRooms(dungeon, template, plan.rooms, analysis, plan.combatRooms, roomRandom);
+        }
+        phaseStart = plan.endPhase(Phase.SPECIAL_ROOMS, phaseStart);
+
+        if (template == null || template.hasBossRoom()) {
+            placeBossRoom(dungeon, plan.rooms, analysis);
+        }
+        phaseStart = plan.endPhase(Phase.BOSS_ROOM, phaseStart);
+
+        // Ajouter des pièges
+        trapGenerator.generateTraps(dungeon, plan.traps, analysis,
+                DungeonRandom.create(seed, DungeonRandom.Stream.TRAPS));
+        phaseStart = plan.endPhase(Phase.TRAPS, phaseStart);
+
+        // Points d'apparition des monstres, matérialisés à l'approche des joueurs
+        Random monsterRandom = DungeonRandom.create(seed, DungeonRandom.Stream.MONSTERS);
+        if (template == null) {
+            planInitialMonsters(dungeon, maze, monsterRandom);
+            for (Location roomCenter : plan.combatRooms) {
+                planRoomMonsters(dungeon, roomCenter, monsterRandom);
+            }
+        } else {
+            planCustomMonsters(dungeon, template, maze, monsterRandom);
+            for (Location roomCenter : plan.combatRooms) {
+                planTemplateMonsters(dungeon, roomCenter, template, monsterRandom);
+            }
+        }
+        plan.endPhase(Phase.MONSTERS, phaseStart);
+
+        return plan;
+    }
+
+    // ================================
+    // SALLES SPÉCIALES
+    // ================================
+
+    // Salles au trésor au bout des culs-de-sac, les autres sur n'importe quelle case accessible
+    private void generateSpecialRooms(Dungeon dungeon, BlockQueue blocks, MazeAnalysis analysis,
+                                      List<Location> combatRooms, Random random) {
+        MazeAnalysis.CellPool deadEnds = analysis.pool(analysis.within(analysis.getDeadEnds(), ROOM_MARGIN));
+        MazeAnalysis.CellPool cells = analysis.pool(analysis.within(analysis.getReachable(), ROOM_MARGIN));
+        int roomCount = random.nextInt(settings.maxSpecialRooms - settings.minSpecialRooms + 1) +
+                settings.minSpecialRooms;
+
+        for (int i = 0; i < roomCount; i++) {
+            // Déterminer le type de salle
+            int roomType = random.nextInt(3);
+            Location roomCenter = takeRoomLocation(dungeon, analysis, roomType == 0 ? deadEnds : cells, cells, random);
+            if (roomCenter == null) continue;
+
+            switch (roomType) {
+                case 0: // Salle au trésor
+                    List<Location> chests = roomGenerator.generateTreasureRoom(blocks, roomCenter, 7, random);
+                    for (Location chestLoc : chests) {
+                        dungeon.addTreasureChest(chestLoc);
+                    }
+                    break;
+
+                case 1: // Salle de combat
+                    generateCombatRoom(blocks, roomCenter, 6);
+                    combatRooms.add(roomCenter);
+                    break;
+
+                case 2: // Salle puzzle
+                    roomGenerator.generatePuzzleRoom(blocks, roomCenter, 5, random);
+                    break;
+            }
+        }
+    }
+
+    private void generateTemplateRooms(Dungeon dungeon, DungeonTemplate template, BlockQueue blocks,
+                                       MazeAnalysis analysis, List<Location> combatRooms, Random random) {
+        MazeAnalysis.CellPool deadEnds = analysis.pool(analysis.within(analysis.getDeadEnds(), ROOM_MARGIN));
+        MazeAnalysis.CellPool cells = analysis.pool(analysis.within(analysis.getReachable(), ROOM_MARGIN));
+
+        // Générer les salles de trésor
+        for (int i = 0; i < template.getTreasureRooms(); i++) {
+            Location roomLoc = takeRoomLocation(dungeon, analysis, deadEnds, cells, random);
+            if (roomLoc != null) {
+                List<Location> chests = roomGenerator.generateTreasureRoom(blocks, roomLoc, 7, random);
+                for (Location chestLoc : chests) {
+                    dungeon.addTreasureChest(chestLoc);
+                }
+            }
+        }
+
+        // Générer les salles de combat
+        for (int i = 0; i < template.getCombatRooms(); i++) {
+            Location roomLoc = takeRoomLocation(dungeon, analysis, cells, cells, random);
+            if (roomLoc != null) {
+                generateCombatRoom(blocks, roomLoc, 6);
+                combatRooms.add(roomLoc);
+            }
+        }
+
+        // Générer les salles puzzle
+        for (int i = 0; i < template.getPuzzleRooms(); i++) {
+            Location roomLoc = takeRoomLocation(dungeon, analysis, cells, cells, random);
+            if (roomLoc != null) {
+                roomGenerator.generatePuzzleRoom(blocks, roomLoc, 5, random);
+            }
+        }
+    }
+
+    private void generateCombatRoom(BlockQueue blocks, Location center, int size) {
+        // Générer une salle de combat basique
+        for (int x = -size/2; x <= size/2; x++) {
+            for (int z = -size/2; z <= size/2; z++) {
+                Location loc = center.clone().add(x, 0, z);
+
+                // Sol en pierre
+                blocks.set(loc, Material.STONE);
+
+                // Nettoyer l'air au-dessus
+                for (int y = 1; y <= 4; y++) {
+                    blocks.set(loc.clone().add(0, y, 0), Material.AIR);
+                }
+
+                // Murs extérieurs
+                if (x == -size/2 || x == size/2 || z == -size/2 || z == size/2) {
+                    for (int y = 1; y <= 3; y++) {
+                        blocks.set(loc.clone().add(0, y, 0), Material.COBBLESTONE);
+                    }
+                }
+            }
+        }
+
+        // Ajouter quelques torches
+        blocks.set(center.clone().add(-size/2 + 1, 2, -size/2 + 1), Material.TORCH);
+        blocks.set(center.clone().add(size/2 - 1, 2, size/2 - 1), Material.TORCH);
+    }
+
+    // Case tirée dans le premier lot, ou dans le second une fois le premier épuisé
+    private Location takeRoomLocation(Dungeon dungeon, MazeAnalysis analysis, MazeAnalysis.CellPool preferred,
+                                      MazeAnalysis.CellPool fallback, Random random) {
+        int cell = preferred.isEmpty() ? fallback.take(random) : preferred.take(random);
+        if (cell == MazeAnalysis.UNREACHABLE) return null;
+
+        return toLocation(dungeon.getLocation(), analysis, cell, 1);
+    }
+
+    private void placeBossRoom(Dungeon dungeon, BlockQueue blocks, MazeAnalysis analysis) {
+        Location center = dungeon.getLocation();
+
+        // Placer la salle du boss sur la case accessible la plus éloignée de l'entrée où elle tient entière
+        int bossCell = analysis.farthestWithin(settings.bossRoomSize / 2 + 1);
+        if (bossCell == MazeAnalysis.UNREACHABLE) {
+            // Labyrinthe trop petit pour la salle entière : la case accessible la plus éloignée malgré tout
+            bossCell = analysis.getFarthest();
+        }
+        if (bossCell == MazeAnalysis.UNREACHABLE) {
+            bossCell = analysis.getEntrance();
+        }
+
+        Location bossRoomCenter = toLocation(center, analysis, bossCell, 1);
+        Location bossLocation = roomGenerator.generateBossRoom(blocks, bossRoomCenter, settings.bossRoomSize);
+
+        dungeon.setBossLocation(bossLocation);
+    }
+
+    // Position d'une case du labyrinthe, centré sur le donjon
+    static Location toLocation(Location center, MazeAnalysis analysis, int cell, int y) {
+        return center.clone().add(analysis.getRow(cell) - analysis.getHeight()/2, y,
+                analysis.getColumn(cell) - analysis.getWidth()/2);
+    }
+
+    // ================================
+    // MONSTRES
+    // ================================
+
+    // Les monstres ne sont que des points d'apparition : MonsterManager les fait exister
+    // quand un joueur approche de leur section
+
+    private void planInitialMonsters(Dungeon dungeon, boolean[][] maze, Random random) {
+        Location center = dungeon.getLocation();
+
+        int monsterCount = (dungeon.getSize() * dungeon.getDifficulty()) / 10;
+        monsterCount = Math.min(monsterCount, settings.maxMonsters);
+
+        EntityType[] monsterTypes = {EntityType.ZOMBIE, EntityType.SKELETON, EntityType.SPIDER, EntityType.CREEPER};
+
+        for (int i = 0; i < monsterCount; i++) {
+            Location spawnLoc = findValidSpawnLocation(center, maze, random);
+            if (spawnLoc != null) {
+                EntityType monsterType = monsterTypes[random.nextInt(monsterTypes.length)];
+                dungeon.addMonsterSpawn(spawnLoc, monsterType, Dungeon.MonsterRole.REGULAR);
+            }
+        }
+    }
+
+    private void planCustomMonsters(Dungeon dungeon, DungeonTemplate template, boolean[][] maze, Random random) {
+        Location center = dungeon.getLocation();
+
+        int monsterCount = (template.getSize() * template.getDifficulty()) / 8;
+        monsterCount = Math.min(monsterCount, settings.maxMonsters);
+
+        EntityType[] monsterTypes = template.getMonsterTypes();
+
+        for (int i = 0; i < monsterCount; i++) {
+            Location spawnLoc = findValidSpawnLocation(center, maze, random);
+            if (spawnLoc != null && monsterTypes.length > 0) {
+                EntityType monsterType = monsterTypes[random.nextInt(monsterTypes.length)];
+                dungeon.addMonsterSpawn(spawnLoc, monsterType, Dungeon.MonsterRole.REGULAR);
+            }
+        }
+    }
+
+    private void planRoomMonsters(Dungeon dungeon, Location roomCenter, Random random) {
+        EntityType[] roomMonsters = {EntityType.ZOMBIE, EntityType.SKELETON, EntityType.SPIDER};
+        int count = 2 + dungeon.getDifficulty();
+
+        for (int i = 0; i < count; i++) {
+            Location spawnLoc = roomCenter.clone().add(
+                    random.nextGaussian() * 3, 0, random.nextGaussian() * 3);
+
+            EntityType monsterType = roomMonsters[random.nextInt(roomMonsters.length)];
+            dungeon.addMonsterSpawn(spawnLoc, monsterType, Dungeon.MonsterRole.ROOM);
+        }
+    }
+
+    private void planTemplateMonsters(Dungeon dungeon, Location roomCenter, DungeonTemplate template, Random random) {
+        EntityType[] monsterTypes = template.getMonsterTypes();
+        if (monsterTypes.length == 0) return;
+
+        int count = 2 + template.getDifficulty();
+
+        for (int i = 0; i < count; i++) {
+            Location spawnLoc = roomCenter.clone().add(
+                    random.nextGaussian() * 3, 0, random.nextGaussian() * 3);
+
+            EntityType monsterType = monsterTypes[random.nextInt(monsterTypes.length)];
+            dungeon.addMonsterSpawn(spawnLoc, monsterType, Dungeon.MonsterRole.ROOM);
+        }
+    }
+
+    // Les cellules ouvertes du labyrinthe sont vides une fois posées : pas besoin de lire le monde
+    private Location findValidSpawnLocation(Location center, boolean[][] maze, Random random) {
+        for (int attempts = 0; attempts < 30; attempts++) {
+            int x = random.nextInt(maze.length - 4) + 2;
+            int z = random.nextInt(maze[0].length - 4) + 2;
+
+            if (maze[x][z]) {
+                return center.clone().add(x - maze.length/2, 1, z - maze[0].length/2);
+            }
+        }
+        return null;
+    }
+
+    // Classe interne Settings
+
+    // Réglages de config.yml utilisés par le calcul, lus une fois par donjon
+    public static class Settings {
+        private final int wallHeight;
+        private final int minRoomSize;
+        private final int maxRoomSize;
+        private final int minSpecialRooms;
+        private final int maxSpecialRooms;
+        private final int bossRoomSize;
+        private final int maxMonsters;
+
+        public Settings(int wallHeight, int minRoomSize, int maxRoomSize, int minSpecialRooms,
+                        int maxSpecialRooms, int bossRoomSize, int maxMonsters) {
+            this.wallHeight = wallHeight;
+            this.minRoomSize = minRoomSize;
+            this.maxRoomSize = maxRoomSize;
+            this.minSpecialRooms = minSpecialRooms;
+            this.maxSpecialRooms = maxSpecialRooms;
+            this.bossRoomSize = bossRoomSize;
+            this.maxMonsters = maxMonsters;
+        }
+    }
+
+    // Classe interne Plan
+
+    // Résultat du calcul : un lot de blocs par étape de pose
+    public static class Plan {
+        private final Dungeon dungeon;
+        private final boolean[][] maze;
+        private final MazeAnalysis analysis;
+        private final BlockQueue structure;
+        private final BlockQueue rooms;
+        private final BlockQueue traps;
+        private final List<Location> combatRooms;
+        private final long[] phaseNanos;
+        private MazeLayout layout;
+
+        private Plan(Dungeon dungeon, boolean[][] maze, MazeAnalysis analysis, World world) {
+            this.dungeon = dungeon;
+            this.maze = maze;
+            this.analysis = analysis;
+            this.structure = new BlockQueue(world);
+            this.rooms = new BlockQueue(world);
+            this.traps = new BlockQueue(world);
+            this.combatRooms = new ArrayList<>();
+            this.phaseNanos = new long[Phase.values().length];
+        }
+
+        private long endPhase(Phase phase, long start) {
+            long now = System.nanoTime();
+            phaseNanos[phase.ordinal()] = now - start;
+            return now;
+        }
+
+        public Dungeon getDungeon() {
+            return dungeon;
+        }
+
+        public boolean[][] getMaze() {
+            return maze;
+        }
+
+        public MazeAnalysis getAnalysis() {
+            return analysis;
+        }
+
+        public BlockQueue getStructure() {
+            return structure;
+        }
+
+        public BlockQueue getRooms() {
+            return rooms;
+        }
+
+        public BlockQueue getTraps() {
+            return traps;
+        }
+
+        public List<Location> getCombatRooms() {
+            return combatRooms;
+        }
+
+        public MazeLayout getLayout() {
+            return layout;
+        }
+
+        public long getPhaseNanos(Phase phase) {
+            return phaseNanos[phase.ordinal()];
+        }
+
+        // Chunks distincts recouverts par au moins un bloc, toutes étapes confondues
+        public int countChunks() {
+            Set<Long> chunks = new HashSet<>();
+            for (BlockQueue queue : new BlockQueue[]{structure, rooms, traps}) {
+                for (BlockQueue.Section section : queue.getSections()) {
+                    chunks.add(BlockSnapshot.chunkKey(section.getChunkX(), section.getChunkZ()));
+                }
+            }
+            return chunks.size();
+        }
+    }
+}
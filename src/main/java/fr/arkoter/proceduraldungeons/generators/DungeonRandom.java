@@ -0,0 +1,36 @@
+package fr.arkoter.proceduraldungeons.generators;
+
+import java.util.Random;
+
+// Un flux de tirages indépendant par étape de génération, dérivé de la graine du donjon
+// (mélange SplitMix64) : une étape qui consomme plus ou moins de tirages ne décale pas les autres
+public final class DungeonRandom {
+
+    // L'ordre des flux fait partie de la graine : n'ajouter de nouveaux flux qu'à la fin
+    public enum Stream {
+        MAZE,
+        ROOMS,
+        TRAPS,
+        MONSTERS,
+        DECORATION
+    }
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private DungeonRandom() {
+    }
+
+    public static long seed(long dungeonSeed, Stream stream) {
+        return mix(dungeonSeed + (stream.ordinal() + 1) * GOLDEN_GAMMA);
+    }
+
+    public static Random create(long dungeonSeed, Stream stream) {
+        return new Random(seed(dungeonSeed, stream));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,267 @@
+package fr.arkoter.proceduraldungeons.generators;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Analyse d'un labyrinthe généré : un parcours en largeur depuis l'entrée sur la grille compactée donne
+// la distance de chaque case, les culs-de-sac, la case la plus éloignée, le chemin principal (entrée vers
+// case la plus éloignée) et la profondeur de chaque embranchement par rapport à ce chemin
+// Cases indexées comme la grille de MazeGenerator : indice = ligne * largeur + colonne, soit maze[ligne][colonne]
+// Tout est rangé dans des tableaux d'entiers, sans objet par case. Utilisable depuis n'importe quel thread
+public class MazeAnalysis {
+
+    public static final int UNREACHABLE = -1;
+
+    private final int width;
+    private final int height;
+
+    // Distance à l'entrée en nombre de pas, UNREACHABLE pour les murs et les poches isolées
+    private final int[] distance;
+
+    // Profondeur d'embranchement : pas jusqu'au chemin principal (0 sur le chemin)
+    private final int[] branchDepth;
+
+    // Cases accessibles dans l'ordre du parcours, donc par distance croissante
+    private final int[] reachable;
+    private final int[] deadEnds;
+    private final int[] criticalPath;
+    private final int entrance;
+    private final int farthest;
+
+    // Directions : Nord, Est, Sud, Ouest, en décalage d'indice calculé à partir de la largeur
+    private final int[] steps;
+
+    public MazeAnalysis(long[] passages, int width, int height, int entrance) {
+        this.width = width;
+        this.height = height;
+        this.entrance = entrance;
+        this.steps = new int[]{-width, 1, width, -1};
+
+        int cells = width * height;
+        this.distance = new int[cells];
+        this.branchDepth = new int[cells];
+        Arrays.fill(distance, UNREACHABLE);
+        Arrays.fill(branchDepth, UNREACHABLE);
+
+        // File du parcours : chaque case y entre au plus une fois
+        int[] queue = new int[cells];
+        int count = 0;
+
+        if (entrance >= 0 && entrance < cells && getBit(passages, entrance)) {
+            distance[entrance] = 0;
+            queue[count++] = entrance;
+        }
+
+        // Parcours en largeur depuis l'entrée
+        for (int head = 0; head < count; head++) {
+            int cell = queue[head];
+            for (int dir = 0; dir < 4; dir++) {
+                int next = neighbor(cell, dir);
+                if (next >= 0 && getBit(passages, next) && distance[next] == UNREACHABLE) {
+                    distance[next] = distance[cell] + 1;
+                    queue[count++] = next;
+                }
+            }
+        }
+        this.reachable = Arrays.copyOf(queue, count);
+
+        // Dernière case sortie de la file : la plus éloignée de l'entrée
+        this.farthest = count > 0 ? reachable[count - 1] : UNREACHABLE;
+        this.deadEnds = findDeadEnds(queue);
+
+        this.criticalPath = traceCriticalPath();
+        computeBranchDepth(queue);
+    }
+
+    // Entrée posée par MazeGenerator en (1, 0)
+    public static MazeAnalysis of(MazeGenerator generator) {
+        return new MazeAnalysis(generator.getPassageBits(), generator.getWidth(), generator.getHeight(), 1);
+    }
+
+    // Cases accessibles à un seul voisin ouvert ; l'entrée n'en fait pas partie. La file sert de tampon
+    private int[] findDeadEnds(int[] buffer) {
+        int count = 0;
+        for (int cell : reachable) {
+            if (cell == entrance) continue;
+
+            int degree = 0;
+            for (int dir = 0; dir < 4; dir++) {
+                int next = neighbor(cell, dir);
+                if (next >= 0 && distance[next] != UNREACHABLE) {
+                    degree++;
+                }
+            }
+            if (degree == 1) {
+                buffer[count++] = cell;
+            }
+        }
+        return Arrays.copyOf(buffer, count);
+    }
+
+    // Remonte depuis la case la plus éloignée en suivant les distances décroissantes, dans l'ordre des directions
+    private int[] traceCriticalPath() {
+        if (farthest == UNREACHABLE) return new int[0];
+
+        int[] path = new int[distance[farthest] + 1];
+        int cell = farthest;
+        for (int step = path.length - 1; step > 0; step--) {
+            path[step] = cell;
+            for (int dir = 0; dir < 4; dir++) {
+                int next = neighbor(cell, dir);
+                if (next >= 0 && distance[next] == distance[cell] - 1) {
+                    cell = next;
+                    break;
+                }
+            }
+        }
+        path[0] = cell;
+        return path;
+    }
+
+    // Second parcours en largeur, parti de toutes les cases du chemin principal ; la file est réutilisée
+    private void computeBranchDepth(int[] queue) {
+        int count = 0;
+        for (int cell : criticalPath) {
+            branchDepth[cell] = 0;
+            queue[count++] = cell;
+        }
+
+        for (int head = 0; head < count; head++) {
+            int cell = queue[head];
+            for (int dir = 0; dir < 4; dir++) {
+                int next = neighbor(cell, dir);
+                if (next >= 0 && distance[next] != UNREACHABLE && branchDepth[next] == UNREACHABLE) {
+                    branchDepth[next] = branchDepth[cell] + 1;
+                    queue[count++] = next;
+                }
+            }
+        }
+    }
+
+    private int neighbor(int cell, int dir) {
+        int column = cell % width;
+        if ((dir == 1 && column == width - 1) || (dir == 3 && column == 0)) return -1;
+
+        int next = cell + steps[dir];
+        return next >= 0 && next < width * height ? next : -1;
+    }
+
+    // ================================
+    // SÉLECTION DE CASES
+    // ================================
+
+    // Cases d'une liste situées à au moins margin cases des bords : une salle de rayon margin y tient
+    public int[] within(int[] cells, int margin) {
+        int[] result = new int[cells.length];
+        int count = 0;
+        for (int cell : cells) {
+            int row = getRow(cell);
+            int column = getColumn(cell);
+            if (row >= margin && row < height - margin && column >= margin && column < width - margin) {
+                result[count++] = cell;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    public CellPool pool(int[] cells) {
+        return new CellPool(cells);
+    }
+
+    // Case accessible la plus éloignée de l'entrée parmi celles qui laissent la place à une salle de rayon margin
+    public int farthestWithin(int margin) {
+        for (int i = reachable.length - 1; i >= 0; i--) {
+            int cell = reachable[i];
+            int row = getRow(cell);
+            int column = getColumn(cell);
+            if (row >= margin && row < height - margin && column >= margin && column < width - margin) {
+                return cell;
+            }
+        }
+        return UNREACHABLE;
+    }
+
+    // ================================
+    // ACCESSEURS
+    // ================================
+
+    public int getRow(int cell) {
+        return cell / width;
+    }
+
+    public int getColumn(int cell) {
+        return cell % width;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getEntrance() {
+        return entrance;
+    }
+
+    public int getFarthest() {
+        return farthest;
+    }
+
+    public int getDistance(int cell) {
+        return distance[cell];
+    }
+
+    public int getBranchDepth(int cell) {
+        return branchDepth[cell];
+    }
+
+    public boolean isReachable(int cell) {
+        return distance[cell] != UNREACHABLE;
+    }
+
+    // Tableaux partagés, ne pas modifier
+    public int[] getReachable() {
+        return reachable;
+    }
+
+    public int[] getDeadEnds() {
+        return deadEnds;
+    }
+
+    public int[] getCriticalPath() {
+        return criticalPath;
+    }
+
+    private static boolean getBit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    // Classe interne CellPool
+
+    // Tirage sans remise parmi des cases : chaque case tirée est échangée avec la dernière encore disponible
+    public static class CellPool {
+        private final int[] cells;
+        private int size;
+
+        private CellPool(int[] cells) {
+            this.cells = cells.clone();
+            this.size = cells.length;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public int take(Random random) {
+            if (size == 0) return UNREACHABLE;
+
+            int index = random.nextInt(size);
+            int cell = cells[index];
+            cells[index] = cells[--size];
+            cells[size] = cell;
+            return cell;
+        }
+    }
+}
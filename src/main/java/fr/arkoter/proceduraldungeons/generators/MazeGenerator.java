@@ -1,40 +1,61 @@
 package fr.arkoter.proceduraldungeons.generators;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
-import java.util.Stack;
 
 public class MazeGenerator {
 
     private final int width;
     private final int height;
-    private final boolean[][] maze;
     private final Random random;
-    private final boolean[][] visited;
+
+    // Grilles compactées : un bit par case, indice = y * width + x (1 = passage / visitée)
+    private final long[] passages;
+    private final long[] visited;
+
+    // Pile de cases (indices compactés) pour le backtracking, réutilisée d'une génération à l'autre
+    private final int[] stack;
+
+    // Tampon des voisins candidats, évite toute allocation pendant le creusement
+    private final int[] candidates = new int[4];
+
+    // Analyse du labyrinthe courant, calculée à la première demande et oubliée dès qu'une case change
+    private MazeAnalysis analysis;
 
     // Directions : Nord, Est, Sud, Ouest
     private final int[][] directions = {{-1, 0}, {0, 1}, {1, 0}, {0, -1}};
 
     public MazeGenerator(int width, int height) {
-        this.width = width;
-        this.height = height;
-        this.maze = new boolean[height][width];
-        this.visited = new boolean[height][width];
-        this.random = new Random();
+        this(width, height, new Random());
     }
 
     public MazeGenerator(int width, int height, long seed) {
+        this(width, height, new Random(seed));
+    }
+
+    private MazeGenerator(int width, int height, Random random) {
         this.width = width;
         this.height = height;
-        this.maze = new boolean[height][width];
-        this.visited = new boolean[height][width];
-        this.random = new Random(seed);
+        this.random = random;
+
+        int words = (width * height + 63) >>> 6;
+        this.passages = new long[words];
+        this.visited = new long[words];
+
+        // Seules les cases de coordonnées impaires sont empilées
+        this.stack = new int[((width + 1) / 2) * ((height + 1) / 2) + 1];
     }
 
     public boolean[][] generate() {
-        // Initialiser le labyrinthe avec des murs (false = mur, true = passage)
+        generateGrid();
+        return toArray();
+    }
+
+    // Génère le labyrinthe sans matérialiser de tableau boolean[][] (grands donjons d'événement)
+    public long[] generateGrid() {
+        // Initialiser le labyrinthe avec des murs (0 = mur, 1 = passage)
         initializeMaze();
 
         // Générer le labyrinthe avec l'algorithme de backtracking récursif
@@ -46,75 +67,68 @@ public class MazeGenerator {
         // S'assurer qu'il y a une entrée et une sortie
         createEntranceAndExit();
 
-        return maze;
+        return passages;
     }
 
     private void initializeMaze() {
         // Tout est initialement un mur
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                maze[y][x] = false;
-                visited[y][x] = false;
-            }
-        }
+        Arrays.fill(passages, 0L);
+        analysis = null;
+        Arrays.fill(visited, 0L);
     }
 
     private void generateMaze(int startX, int startY) {
-        Stack<int[]> stack = new Stack<>();
-        int[] current = {startX, startY};
+        if (!isValidCell(startX, startY)) {
+            return;
+        }
+
+        int top = 0;
+        int current = startY * width + startX;
 
         // Marquer la case de départ comme visitée et passage
-        visited[current[1]][current[0]] = true;
-        maze[current[1]][current[0]] = true;
-        stack.push(current);
+        setBit(visited, current);
+        setBit(passages, current);
+        stack[top++] = current;
 
-        while (!stack.isEmpty()) {
-            current = stack.peek();
-            List<int[]> neighbors = getUnvisitedNeighbors(current[0], current[1]);
+        while (top > 0) {
+            current = stack[top - 1];
+            int count = collectUnvisitedNeighbors(current % width, current / width);
 
-            if (!neighbors.isEmpty()) {
+            if (count > 0) {
                 // Choisir un voisin aléatoire
-                int[] next = neighbors.get(random.nextInt(neighbors.size()));
+                int next = candidates[random.nextInt(count)];
 
-                // Supprimer le mur entre la cellule actuelle et le voisin
-                removeWallBetween(current[0], current[1], next[0], next[1]);
+                // Supprimer le mur entre la cellule actuelle et le voisin (case du milieu)
+                setBit(passages, (current + next) >>> 1);
 
                 // Marquer le voisin comme visité
-                visited[next[1]][next[0]] = true;
-                maze[next[1]][next[0]] = true;
+                setBit(visited, next);
+                setBit(passages, next);
 
-                stack.push(next);
+                stack[top++] = next;
             } else {
                 // Backtrack si aucun voisin non visité
-                stack.pop();
+                top--;
             }
         }
     }
 
-    private List<int[]> getUnvisitedNeighbors(int x, int y) {
-        List<int[]> neighbors = new ArrayList<>();
+    private int collectUnvisitedNeighbors(int x, int y) {
+        int count = 0;
 
         for (int[] dir : directions) {
             int newX = x + dir[1] * 2; // Multiplier par 2 pour sauter le mur
             int newY = y + dir[0] * 2;
 
-            if (isValidCell(newX, newY) && !visited[newY][newX]) {
-                neighbors.add(new int[]{newX, newY});
+            if (isValidCell(newX, newY)) {
+                int index = newY * width + newX;
+                if (!getBit(visited, index)) {
+                    candidates[count++] = index;
+                }
             }
         }
 
-        // Mélanger pour un choix aléatoire
-        Collections.shuffle(neighbors, random);
-        return neighbors;
-    }
-
-    private void removeWallBetween(int x1, int y1, int x2, int y2) {
-        int wallX = (x1 + x2) / 2;
-        int wallY = (y1 + y2) / 2;
-
-        if (isValidCell(wallX, wallY)) {
-            maze[wallY][wallX] = true;
-        }
+        return count;
     }
 
     private boolean isValidCell(int x, int y) {
@@ -130,44 +144,41 @@ public class MazeGenerator {
             int y = random.nextInt(height - 2) + 1;
 
             // Si c'est un mur et qu'il y a des passages adjacents
-            if (!maze[y][x] && hasAdjacentPassages(x, y)) {
-                maze[y][x] = true;
+            if (!isPassage(x, y) && countAdjacentPassages(x, y) >= 2) {
+                setPassage(x, y);
             }
         }
     }
 
-    private boolean hasAdjacentPassages(int x, int y) {
+    private int countAdjacentPassages(int x, int y) {
         int passageCount = 0;
 
         for (int[] dir : directions) {
-            int newX = x + dir[1];
-            int newY = y + dir[0];
-
-            if (isValidCell(newX, newY) && maze[newY][newX]) {
+            if (isPassage(x + dir[1], y + dir[0])) {
                 passageCount++;
             }
         }
 
-        return passageCount >= 2;
+        return passageCount;
     }
 
     private void createEntranceAndExit() {
         // Créer une entrée en haut
         if (height > 0) {
-            maze[0][1] = true; // Entrée
+            setPassage(1, 0); // Entrée
         }
 
         // Créer une sortie en bas
         if (height > 1) {
-            maze[height - 1][width - 2] = true; // Sortie
+            setPassage(width - 2, height - 1); // Sortie
         }
 
         // S'assurer qu'il y a un chemin vers l'entrée et la sortie
         if (height > 1) {
-            maze[1][1] = true; // Connexion à l'entrée
+            setPassage(1, 1); // Connexion à l'entrée
         }
         if (height > 2) {
-            maze[height - 2][width - 2] = true; // Connexion à la sortie
+            setPassage(width - 2, height - 2); // Connexion à la sortie
         }
     }
 
@@ -175,14 +186,14 @@ public class MazeGenerator {
 
     public boolean[][] generateWithRooms(int roomCount, int minRoomSize, int maxRoomSize) {
         // Générer le labyrinthe de base
-        generate();
+        generateGrid();
 
         // Ajouter des salles
         for (int i = 0; i < roomCount; i++) {
             addRandomRoom(minRoomSize, maxRoomSize);
         }
 
-        return maze;
+        return toArray();
     }
 
     private void addRandomRoom(int minSize, int maxSize) {
@@ -203,20 +214,15 @@ public class MazeGenerator {
     }
 
     private boolean canPlaceRoom(int x, int y, int roomWidth, int roomHeight) {
-        // Vérifier qu'on ne chevauche pas avec des passages existants
-        for (int ry = y; ry < y + roomHeight; ry++) {
-            for (int rx = x; rx < x + roomWidth; rx++) {
-                if (!isValidCell(rx, ry)) return false;
-            }
-        }
-        return true;
+        // Vérifier que la salle reste dans les limites
+        return isValidCell(x, y) && isValidCell(x + roomWidth - 1, y + roomHeight - 1);
     }
 
     private void placeRoom(int x, int y, int roomWidth, int roomHeight) {
         // Créer la salle
         for (int ry = y; ry < y + roomHeight; ry++) {
             for (int rx = x; rx < x + roomWidth; rx++) {
-                maze[ry][rx] = true;
+                setPassage(rx, ry);
             }
         }
 
@@ -225,43 +231,48 @@ public class MazeGenerator {
     }
 
     private void connectRoomToMaze(int roomX, int roomY, int roomWidth, int roomHeight) {
-        // Trouver un point de connexion avec le labyrinthe existant
-        List<int[]> connectionPoints = new ArrayList<>();
+        // Compter les points de connexion avec le labyrinthe existant
+        int connectionPoints = 0;
 
         // Vérifier les bords de la salle
         for (int x = roomX; x < roomX + roomWidth; x++) {
             // Bord haut
-            if (roomY > 0 && maze[roomY - 1][x]) {
-                connectionPoints.add(new int[]{x, roomY});
-            }
+            if (isPassage(x, roomY - 1)) connectionPoints++;
             // Bord bas
-            if (roomY + roomHeight < height && maze[roomY + roomHeight][x]) {
-                connectionPoints.add(new int[]{x, roomY + roomHeight - 1});
-            }
+            if (isPassage(x, roomY + roomHeight)) connectionPoints++;
         }
 
         for (int y = roomY; y < roomY + roomHeight; y++) {
             // Bord gauche
-            if (roomX > 0 && maze[y][roomX - 1]) {
-                connectionPoints.add(new int[]{roomX, y});
-            }
+            if (isPassage(roomX - 1, y)) connectionPoints++;
             // Bord droit
-            if (roomX + roomWidth < width && maze[y][roomX + roomWidth]) {
-                connectionPoints.add(new int[]{roomX + roomWidth - 1, y});
-            }
+            if (isPassage(roomX + roomWidth, y)) connectionPoints++;
         }
 
         // Faire au moins une connexion
-        if (!connectionPoints.isEmpty()) {
-            int[] connection = connectionPoints.get(random.nextInt(connectionPoints.size()));
+        if (connectionPoints > 0) {
+            random.nextInt(connectionPoints);
             // La connexion est déjà faite car on a créé la salle
         }
     }
 
+    private boolean[][] toArray() {
+        boolean[][] maze = new boolean[height][width];
+
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                maze[y][x] = getBit(passages, row + x);
+            }
+        }
+
+        return maze;
+    }
+
     public void printMaze() {
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
-                System.out.print(maze[y][x] ? "  " : "██");
+                System.out.print(isPassage(x, y) ? "  " : "██");
             }
             System.out.println();
         }
@@ -275,37 +286,50 @@ public class MazeGenerator {
         return height;
     }
 
+    // Grille compactée du dernier labyrinthe généré (partagée, ne pas modifier)
+    public long[] getPassageBits() {
+        return passages;
+    }
+
     public boolean isPassage(int x, int y) {
         if (!isValidCell(x, y)) return false;
-        return maze[y][x];
+        return getBit(passages, y * width + x);
     }
 
+    // Distances, culs-de-sac et chemin principal du dernier labyrinthe généré, calculés depuis l'entrée.
+    // Une seule analyse par labyrinthe, partagée entre les appels
+    public MazeAnalysis analyze() {
+        if (analysis == null) {
+            analysis = MazeAnalysis.of(this);
+        }
+        return analysis;
+    }
+
+    // Culs-de-sac accessibles depuis l'entrée, en coordonnées {x, y}. L'entrée et les poches isolées
+    // du reste du labyrinthe n'en font pas partie
     public List<int[]> getDeadEnds() {
-        List<int[]> deadEnds = new ArrayList<>();
+        MazeAnalysis analysis = analyze();
+        List<int[]> deadEnds = new ArrayList<>(analysis.getDeadEnds().length);
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (maze[y][x] && isDeadEnd(x, y)) {
-                    deadEnds.add(new int[]{x, y});
-                }
-            }
+        for (int cell : analysis.getDeadEnds()) {
+            deadEnds.add(new int[]{analysis.getColumn(cell), analysis.getRow(cell)});
         }
 
         return deadEnds;
     }
 
-    private boolean isDeadEnd(int x, int y) {
-        int openDirections = 0;
-
-        for (int[] dir : directions) {
-            int newX = x + dir[1];
-            int newY = y + dir[0];
-
-            if (isValidCell(newX, newY) && maze[newY][newX]) {
-                openDirections++;
-            }
+    private void setPassage(int x, int y) {
+        if (isValidCell(x, y)) {
+            analysis = null;
+            setBit(passages, y * width + x);
         }
+    }
+
+    private static boolean getBit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
 
-        return openDirections == 1;
+    private static void setBit(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
     }
-}
\ No newline at end of file
+}
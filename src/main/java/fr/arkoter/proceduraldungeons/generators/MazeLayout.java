@@ -0,0 +1,131 @@
+package fr.arkoter.proceduraldungeons.generators;
+
+import fr.arkoter.proceduraldungeons.models.DungeonTheme;
+import org.bukkit.Material;
+import org.bukkit.generator.ChunkGenerator;
+
+import java.util.Random;
+
+// Sols, murs et plafonds d'un labyrinthe, entièrement décrits par sa grille : posés bloc par bloc
+// dans un monde existant, ou émis par DungeonChunkGenerator pendant la génération des chunks
+public class MazeLayout {
+
+    // Hauteur de la torche au-dessus du sol (posée même si le plafond est plus bas)
+    private static final int TORCH_HEIGHT = 2;
+
+    private final int originX;
+    private final int originY;
+    private final int originZ;
+    private final int size;
+    private final int wallHeight;
+    private final boolean[][] maze;
+    private final boolean[][] torches;
+    private final Material floorMaterial;
+    private final Material wallMaterial;
+    private final Material decorationMaterial;
+
+    // Les torches sont tirées dans l'ordre de la pose d'origine : même graine, même éclairage
+    public MazeLayout(int originX, int originY, int originZ, boolean[][] maze, int wallHeight,
+                      DungeonTheme theme, Random random) {
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+        this.size = maze.length;
+        this.wallHeight = wallHeight;
+        this.maze = maze;
+        this.torches = new boolean[size][size];
+        this.floorMaterial = theme.getFloorMaterial();
+        this.wallMaterial = theme.getWallMaterial();
+        this.decorationMaterial = theme.getDecorationMaterial();
+
+        for (int x = 0; x < size; x++) {
+            for (int z = 0; z < size; z++) {
+                if (maze[x][z] && random.nextInt(20) == 0) {
+                    torches[x][z] = true;
+                }
+            }
+        }
+    }
+
+    // Matériau posé à cette position, null si elle n'appartient pas au labyrinthe
+    public Material getMaterial(int x, int y, int z) {
+        int localX = x - originX;
+        int localZ = z - originZ;
+        int height = y - originY;
+        if (localX < 0 || localX >= size || localZ < 0 || localZ >= size) return null;
+
+        if (maze[localX][localZ]) {
+            if (height == TORCH_HEIGHT && torches[localX][localZ]) return Material.TORCH;
+            if (height < 0 || height > wallHeight) return null;
+
+            // Sol, air entre sol et plafond, plafond
+            if (height == 0) return floorMaterial;
+            return height == wallHeight ? decorationMaterial : Material.AIR;
+        }
+
+        if (height < 0 || height > wallHeight) return null;
+        return height == 0 ? floorMaterial : wallMaterial;
+    }
+
+    // Pose dans un monde existant : l'air entre sol et plafond efface le terrain
+    public void place(BlockQueue blocks) {
+        int top = getTopHeight();
+
+        for (int x = originX; x < originX + size; x++) {
+            for (int z = originZ; z < originZ + size; z++) {
+                for (int y = originY; y <= originY + top; y++) {
+                    Material material = getMaterial(x, y, z);
+                    if (material != null) {
+                        blocks.set(x, y, z, material);
+                    }
+                }
+            }
+        }
+    }
+
+    // Threads de génération du serveur : le chunk est vide, l'air n'a pas besoin d'être écrit
+    public void emit(int chunkX, int chunkZ, ChunkGenerator.ChunkData chunkData) {
+        int minX = Math.max(originX, chunkX << 4);
+        int maxX = Math.min(originX + size - 1, (chunkX << 4) + 15);
+        int minZ = Math.max(originZ, chunkZ << 4);
+        int maxZ = Math.min(originZ + size - 1, (chunkZ << 4) + 15);
+        int minY = Math.max(originY, chunkData.getMinHeight());
+        int maxY = Math.min(originY + getTopHeight(), chunkData.getMaxHeight() - 1);
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int y = minY; y <= maxY; y++) {
+                    Material material = getMaterial(x, y, z);
+                    if (material != null && material != Material.AIR) {
+                        chunkData.setBlock(x & 15, y, z & 15, material);
+                    }
+                }
+            }
+        }
+    }
+
+    public boolean intersects(int chunkX, int chunkZ) {
+        return (chunkX << 4) + 15 >= originX && chunkX << 4 < originX + size
+                && (chunkZ << 4) + 15 >= originZ && chunkZ << 4 < originZ + size;
+    }
+
+    public int getMinChunkX() {
+        return originX >> 4;
+    }
+
+    public int getMaxChunkX() {
+        return (originX + size - 1) >> 4;
+    }
+
+    public int getMinChunkZ() {
+        return originZ >> 4;
+    }
+
+    public int getMaxChunkZ() {
+        return (originZ + size - 1) >> 4;
+    }
+
+    private int getTopHeight() {
+        return Math.max(wallHeight, TORCH_HEIGHT);
+    }
+}
@@ -2,22 +2,15 @@ package fr.arkoter.proceduraldungeons.generators;
 
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.World;
-import org.bukkit.block.Block;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
+// Les tirages passent par le Random fourni : même graine, même salle
 public class RoomGenerator {
 
-    private final Random random;
-
-    public RoomGenerator() {
-        this.random = new Random();
-    }
-
-    public List<Location> generateTreasureRoom(World world, Location center, int size) {
+    public List<Location> generateTreasureRoom(BlockQueue blocks, Location center, int size, Random random) {
         List<Location> chestLocations = new ArrayList<>();
 
         // Créer une salle rectangulaire
@@ -27,15 +20,15 @@ public class RoomGenerator {
 
                 // Murs
                 if (x == -size/2 || x == size/2 || z == -size/2 || z == size/2) {
-                    world.getBlockAt(loc).setType(Material.STONE_BRICKS);
-                    world.getBlockAt(loc.clone().add(0, 1, 0)).setType(Material.STONE_BRICKS);
-                    world.getBlockAt(loc.clone().add(0, 2, 0)).setType(Material.STONE_BRICKS);
-                    world.getBlockAt(loc.clone().add(0, 3, 0)).setType(Material.STONE_BRICKS);
+                    blocks.set(loc, Material.STONE_BRICKS);
+                    blocks.set(loc.clone().add(0, 1, 0), Material.STONE_BRICKS);
+                    blocks.set(loc.clone().add(0, 2, 0), Material.STONE_BRICKS);
+                    blocks.set(loc.clone().add(0, 3, 0), Material.STONE_BRICKS);
                 } else {
                     // Sol et air
-                    world.getBlockAt(loc).setType(Material.POLISHED_ANDESITE);
-                    world.getBlockAt(loc.clone().add(0, 1, 0)).setType(Material.AIR);
-                    world.getBlockAt(loc.clone().add(0, 2, 0)).setType(Material.AIR);
+                    blocks.set(loc, Material.POLISHED_ANDESITE);
+                    blocks.set(loc.clone().add(0, 1, 0), Material.AIR);
+                    blocks.set(loc.clone().add(0, 2, 0), Material.AIR);
                 }
             }
         }
@@ -50,17 +43,17 @@ public class RoomGenerator {
             } while (x == 0 && z == 0); // Éviter le centre
 
             Location chestLoc = center.clone().add(x, 1, z);
-            world.getBlockAt(chestLoc).setType(Material.CHEST);
+            blocks.set(chestLoc, Material.CHEST);
             chestLocations.add(chestLoc);
         }
 
         // Ajouter de la décoration
-        addRoomDecoration(world, center, size);
+        addRoomDecoration(blocks, center, size);
 
         return chestLocations;
     }
 
-    public Location generateBossRoom(World world, Location center, int size) {
+    public Location generateBossRoom(BlockQueue blocks, Location center, int size) {
         // Créer une grande salle circulaire pour le boss
         for (int x = -size/2; x <= size/2; x++) {
             for (int z = -size/2; z <= size/2; z++) {
@@ -70,16 +63,16 @@ public class RoomGenerator {
                 if (distance <= size/2) {
                     if (distance >= size/2 - 1) {
                         // Murs circulaires
-                        world.getBlockAt(loc).setType(Material.OBSIDIAN);
-                        world.getBlockAt(loc.clone().add(0, 1, 0)).setType(Material.OBSIDIAN);
-                        world.getBlockAt(loc.clone().add(0, 2, 0)).setType(Material.OBSIDIAN);
-                        world.getBlockAt(loc.clone().add(0, 3, 0)).setType(Material.OBSIDIAN);
-                        world.getBlockAt(loc.clone().add(0, 4, 0)).setType(Material.OBSIDIAN);
+                        blocks.set(loc, Material.OBSIDIAN);
+                        blocks.set(loc.clone().add(0, 1, 0), Material.OBSIDIAN);
+                        blocks.set(loc.clone().add(0, 2, 0), Material.OBSIDIAN);
+                        blocks.set(loc.clone().add(0, 3, 0), Material.OBSIDIAN);
+                        blocks.set(loc.clone().add(0, 4, 0), Material.OBSIDIAN);
                     } else {
                         // Sol de la salle
-                        world.getBlockAt(loc).setType(Material.BLACKSTONE);
+                        blocks.set(loc, Material.BLACKSTONE);
                         for (int y = 1; y <= 4; y++) {
-                            world.getBlockAt(loc.clone().add(0, y, 0)).setType(Material.AIR);
+                            blocks.set(loc.clone().add(0, y, 0), Material.AIR);
                         }
                     }
                 }
@@ -87,13 +80,13 @@ public class RoomGenerator {
         }
 
         // Placer des piliers décoratifs
-        placeBossRoomPillars(world, center, size);
+        placeBossRoomPillars(blocks, center, size);
 
         // Retourner la position du boss au centre
         return center.clone().add(0, 1, 0);
     }
 
-    public void generatePuzzleRoom(World world, Location center, int size) {
+    public void generatePuzzleRoom(BlockQueue blocks, Location center, int size, Random random) {
         // Créer une salle avec un puzzle de pression plates
         for (int x = -size/2; x <= size/2; x++) {
             for (int z = -size/2; z <= size/2; z++) {
@@ -101,37 +94,37 @@ public class RoomGenerator {
 
                 if (x == -size/2 || x == size/2 || z == -size/2 || z == size/2) {
                     // Murs
-                    world.getBlockAt(loc).setType(Material.COBBLESTONE);
-                    world.getBlockAt(loc.clone().add(0, 1, 0)).setType(Material.COBBLESTONE);
-                    world.getBlockAt(loc.clone().add(0, 2, 0)).setType(Material.COBBLESTONE);
-                    world.getBlockAt(loc.clone().add(0, 3, 0)).setType(Material.COBBLESTONE);
+                    blocks.set(loc, Material.COBBLESTONE);
+                    blocks.set(loc.clone().add(0, 1, 0), Material.COBBLESTONE);
+                    blocks.set(loc.clone().add(0, 2, 0), Material.COBBLESTONE);
+                    blocks.set(loc.clone().add(0, 3, 0), Material.COBBLESTONE);
                 } else {
                     // Sol
-                    world.getBlockAt(loc).setType(Material.STONE);
-                    world.getBlockAt(loc.clone().add(0, 1, 0)).setType(Material.AIR);
-                    world.getBlockAt(loc.clone().add(0, 2, 0)).setType(Material.AIR);
+                    blocks.set(loc, Material.STONE);
+                    blocks.set(loc.clone().add(0, 1, 0), Material.AIR);
+                    blocks.set(loc.clone().add(0, 2, 0), Material.AIR);
                 }
             }
         }
 
         // Ajouter des pressure plates pour le puzzle
-        addPuzzleElements(world, center, size);
+        addPuzzleElements(blocks, center, size, random);
     }
 
-    private void addRoomDecoration(World world, Location center, int size) {
+    private void addRoomDecoration(BlockQueue blocks, Location center, int size) {
         // Ajouter des torches
         Location torch1 = center.clone().add(-size/2 + 1, 2, 0);
         Location torch2 = center.clone().add(size/2 - 1, 2, 0);
         Location torch3 = center.clone().add(0, 2, -size/2 + 1);
         Location torch4 = center.clone().add(0, 2, size/2 - 1);
 
-        world.getBlockAt(torch1).setType(Material.TORCH);
-        world.getBlockAt(torch2).setType(Material.TORCH);
-        world.getBlockAt(torch3).setType(Material.TORCH);
-        world.getBlockAt(torch4).setType(Material.TORCH);
+        blocks.set(torch1, Material.TORCH);
+        blocks.set(torch2, Material.TORCH);
+        blocks.set(torch3, Material.TORCH);
+        blocks.set(torch4, Material.TORCH);
     }
 
-    private void placeBossRoomPillars(World world, Location center, int size) {
+    private void placeBossRoomPillars(BlockQueue blocks, Location center, int size) {
         int pillarDistance = size/3;
 
         Location[] pillarPositions = {
@@ -143,13 +136,13 @@ public class RoomGenerator {
 
         for (Location pillarPos : pillarPositions) {
             for (int y = 0; y <= 3; y++) {
-                world.getBlockAt(pillarPos.clone().add(0, y, 0)).setType(Material.BLACKSTONE);
+                blocks.set(pillarPos.clone().add(0, y, 0), Material.BLACKSTONE);
             }
-            world.getBlockAt(pillarPos.clone().add(0, 4, 0)).setType(Material.TORCH);
+            blocks.set(pillarPos.clone().add(0, 4, 0), Material.TORCH);
         }
     }
 
-    private void addPuzzleElements(World world, Location center, int size) {
+    private void addPuzzleElements(BlockQueue blocks, Location center, int size, Random random) {
         // Créer un pattern de pressure plates
         List<Location> platePositions = new ArrayList<>();
 
@@ -158,7 +151,7 @@ public class RoomGenerator {
             int z = random.nextInt(size - 2) - (size/2 - 1);
 
             Location plateLoc = center.clone().add(x, 1, z);
-            world.getBlockAt(plateLoc).setType(Material.STONE_PRESSURE_PLATE);
+            blocks.set(plateLoc, Material.STONE_PRESSURE_PLATE);
             platePositions.add(plateLoc);
         }
     }
@@ -0,0 +1,81 @@
+package fr.arkoter.proceduraldungeons.generators;
+
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.List;
+
+// Terrain d'origine d'un donjon, enregistré section par section juste avant la pose de ses blocs
+// et ajouté au fichier au fil de la génération. Seules les positions que la pose modifie sont gardées
+public class TerrainLog {
+
+    // Monde du donjon, enregistré en tête du journal pour reprendre une restauration au démarrage
+    private final String worldName;
+    private final List<BlockSnapshot.Section> records;
+
+    public TerrainLog(String worldName, List<BlockSnapshot.Section> records) {
+        this.worldName = worldName;
+        this.records = records;
+    }
+
+    // Thread principal : lit le terrain des positions que la section va modifier
+    public static BlockSnapshot.Section record(BlockQueue.Section section, Chunk chunk) {
+        Material[] blocks = new Material[BlockQueue.Section.VOLUME];
+        int baseY = section.getSectionY() << 4;
+
+        for (int index = 0; index < BlockQueue.Section.VOLUME; index++) {
+            if (section.get(index) == null) continue;
+
+            blocks[index] = chunk.getBlock(BlockQueue.Section.getLocalX(index),
+                    baseY + BlockQueue.Section.getLocalY(index),
+                    BlockQueue.Section.getLocalZ(index)).getType();
+        }
+
+        return BlockSnapshot.Section.pack(section.getChunkX(), section.getSectionY(), section.getChunkZ(), blocks);
+    }
+
+    // Section posée dans un chunk qui n'existait pas encore : le terrain d'origine est uniforme
+    public static BlockSnapshot.Section record(BlockQueue.Section section, Material terrain) {
+        Material[] blocks = new Material[BlockQueue.Section.VOLUME];
+        for (int index = 0; index < BlockQueue.Section.VOLUME; index++) {
+            if (section.get(index) != null) {
+                blocks[index] = terrain;
+            }
+        }
+
+        return BlockSnapshot.Section.pack(section.getChunkX(), section.getSectionY(), section.getChunkZ(), blocks);
+    }
+
+    // Thread asynchrone : blocs à reposer. Une position peut être enregistrée plusieurs fois (étapes
+    // successives, reprise, reconstruction) : le journal est parcouru à rebours pour que le plus ancien l'emporte
+    public BlockQueue toQueue(World world) {
+        BlockQueue queue = new BlockQueue(world);
+
+        for (int i = records.size() - 1; i >= 0; i--) {
+            BlockSnapshot.Section record = records.get(i);
+            int baseX = record.getChunkX() << 4;
+            int baseY = record.getSectionY() << 4;
+            int baseZ = record.getChunkZ() << 4;
+
+            for (int index = 0; index < BlockQueue.Section.VOLUME; index++) {
+                Material material = record.get(index);
+                if (material == null) continue;
+
+                queue.set(baseX + BlockQueue.Section.getLocalX(index),
+                        baseY + BlockQueue.Section.getLocalY(index),
+                        baseZ + BlockQueue.Section.getLocalZ(index), material);
+            }
+        }
+
+        return queue;
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    public int getRecordCount() {
+        return records.size();
+    }
+}
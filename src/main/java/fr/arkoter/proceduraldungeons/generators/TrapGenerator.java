@@ -3,30 +3,32 @@ package fr.arkoter.proceduraldungeons.generators;
 import fr.arkoter.proceduraldungeons.models.Dungeon;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.World;
 
+import java.util.Arrays;
 import java.util.Random;
 
+// Les tirages passent par le Random fourni : même graine, mêmes pièges
 public class TrapGenerator {
 
-    private final Random random;
+    // Aucun piège dans les premières cases après l'entrée
+    private static final int SAFE_DISTANCE = 3;
 
-    public TrapGenerator() {
-        this.random = new Random();
-    }
-
-    public void generateTraps(Dungeon dungeon, boolean[][] maze) {
-        World world = dungeon.getLocation().getWorld();
+    // Un piège sur deux sur le chemin principal, que tout joueur emprunte ; les autres dans les embranchements
+    public void generateTraps(Dungeon dungeon, BlockQueue blocks, MazeAnalysis analysis, Random random) {
         Location center = dungeon.getLocation();
         int trapCount = calculateTrapCount(dungeon);
+        MazeAnalysis.CellPool path = analysis.pool(selectTrapCells(analysis, analysis.getCriticalPath(), true));
+        MazeAnalysis.CellPool branches = analysis.pool(selectTrapCells(analysis, analysis.getReachable(), false));
 
         for (int i = 0; i < trapCount; i++) {
-            Location trapLocation = findValidTrapLocation(maze, center);
-            if (trapLocation != null) {
-                int trapType = selectTrapType(dungeon.getDifficulty());
-                createTrap(world, trapLocation, trapType);
-                dungeon.addTrap(trapLocation, trapType);
-            }
+            MazeAnalysis.CellPool preferred = i % 2 == 0 ? path : branches;
+            int cell = preferred.isEmpty() ? (i % 2 == 0 ? branches : path).take(random) : preferred.take(random);
+            if (cell == MazeAnalysis.UNREACHABLE) break; // Plus aucune case libre
+
+            Location trapLocation = DungeonPlanner.toLocation(center, analysis, cell, 0);
+            int trapType = selectTrapType(dungeon.getDifficulty(), random);
+            createTrap(blocks, trapLocation, trapType);
+            dungeon.addTrap(trapLocation, trapType);
         }
     }
 
@@ -38,96 +40,96 @@ public class TrapGenerator {
         return baseTraps + difficultyBonus + sizeBonus;
     }
 
-    private Location findValidTrapLocation(boolean[][] maze, Location center) {
-        int attempts = 50;
-
-        for (int i = 0; i < attempts; i++) {
-            int x = random.nextInt(maze.length);
-            int z = random.nextInt(maze[0].length);
+    // Cases du chemin principal, ou hors chemin, assez loin de l'entrée
+    private int[] selectTrapCells(MazeAnalysis analysis, int[] cells, boolean onPath) {
+        int[] result = new int[cells.length];
+        int count = 0;
 
-            if (maze[x][z]) { // Position valide (couloir)
-                return center.clone().add(x - maze.length/2, 0, z - maze[0].length/2);
+        for (int cell : cells) {
+            if (analysis.getDistance(cell) < SAFE_DISTANCE) continue;
+            if (onPath == (analysis.getBranchDepth(cell) == 0)) {
+                result[count++] = cell;
             }
         }
 
-        return null; // Aucune position valide trouvée
+        return Arrays.copyOf(result, count);
     }
 
-    private int selectTrapType(int difficulty) {
+    private int selectTrapType(int difficulty, Random random) {
         // Plus la difficulté est élevée, plus les pièges sont dangereux
         int maxTrapType = Math.min(difficulty + 2, 6);
         return random.nextInt(maxTrapType);
     }
 
-    private void createTrap(World world, Location location, int trapType) {
+    private void createTrap(BlockQueue blocks, Location location, int trapType) {
         switch (trapType) {
             case 0: // Piège à pression basique
-                createPressureTrap(world, location);
+                createPressureTrap(blocks, location);
                 break;
             case 1: // Piège avec TNT
-                createTNTTrap(world, location);
+                createTNTTrap(blocks, location);
                 break;
             case 2: // Fosse de lave
-                createLavaPit(world, location);
+                createLavaPit(blocks, location);
                 break;
             case 3: // Piège à flèches
-                createArrowTrap(world, location);
+                createArrowTrap(blocks, location);
                 break;
             case 4: // Piège d'empoisonnement
-                createPoisonTrap(world, location);
+                createPoisonTrap(blocks, location);
                 break;
             case 5: // Piège de téléportation
-                createTeleportTrap(world, location);
+                createTeleportTrap(blocks, location);
                 break;
             default:
-                createPressureTrap(world, location);
+                createPressureTrap(blocks, location);
                 break;
         }
     }
 
-    private void createPressureTrap(World world, Location location) {
-        world.getBlockAt(location.clone().add(0, 1, 0)).setType(Material.STONE_PRESSURE_PLATE);
+    private void createPressureTrap(BlockQueue blocks, Location location) {
+        blocks.set(location.clone().add(0, 1, 0), Material.STONE_PRESSURE_PLATE);
     }
 
-    private void createTNTTrap(World world, Location location) {
-        world.getBlockAt(location.clone().add(0, -1, 0)).setType(Material.TNT);
-        world.getBlockAt(location.clone().add(0, 1, 0)).setType(Material.STONE_PRESSURE_PLATE);
+    private void createTNTTrap(BlockQueue blocks, Location location) {
+        blocks.set(location.clone().add(0, -1, 0), Material.TNT);
+        blocks.set(location.clone().add(0, 1, 0), Material.STONE_PRESSURE_PLATE);
 
         // Redstone pour activer
-        world.getBlockAt(location.clone().add(0, -2, 0)).setType(Material.REDSTONE_BLOCK);
+        blocks.set(location.clone().add(0, -2, 0), Material.REDSTONE_BLOCK);
     }
 
-    private void createLavaPit(World world, Location location) {
+    private void createLavaPit(BlockQueue blocks, Location location) {
         // Creuser une fosse 3x3
         for (int x = -1; x <= 1; x++) {
             for (int z = -1; z <= 1; z++) {
                 Location pitLoc = location.clone().add(x, 0, z);
-                world.getBlockAt(pitLoc).setType(Material.AIR);
-                world.getBlockAt(pitLoc.clone().add(0, -1, 0)).setType(Material.AIR);
-                world.getBlockAt(pitLoc.clone().add(0, -2, 0)).setType(Material.LAVA);
+                blocks.set(pitLoc, Material.AIR);
+                blocks.set(pitLoc.clone().add(0, -1, 0), Material.AIR);
+                blocks.set(pitLoc.clone().add(0, -2, 0), Material.LAVA);
             }
         }
     }
 
-    private void createArrowTrap(World world, Location location) {
-        world.getBlockAt(location.clone().add(0, 1, 0)).setType(Material.TRIPWIRE_HOOK);
+    private void createArrowTrap(BlockQueue blocks, Location location) {
+        blocks.set(location.clone().add(0, 1, 0), Material.TRIPWIRE_HOOK);
 
         // Dispensers dans les murs
-        world.getBlockAt(location.clone().add(2, 1, 0)).setType(Material.DISPENSER);
-        world.getBlockAt(location.clone().add(-2, 1, 0)).setType(Material.DISPENSER);
+        blocks.set(location.clone().add(2, 1, 0), Material.DISPENSER);
+        blocks.set(location.clone().add(-2, 1, 0), Material.DISPENSER);
     }
 
-    private void createPoisonTrap(World world, Location location) {
-        world.getBlockAt(location.clone().add(0, 1, 0)).setType(Material.STONE_PRESSURE_PLATE);
+    private void createPoisonTrap(BlockQueue blocks, Location location) {
+        blocks.set(location.clone().add(0, 1, 0), Material.STONE_PRESSURE_PLATE);
 
         // Marquer comme piège poison (géré dans les listeners)
-        world.getBlockAt(location.clone().add(0, -1, 0)).setType(Material.EMERALD_BLOCK);
+        blocks.set(location.clone().add(0, -1, 0), Material.EMERALD_BLOCK);
     }
 
-    private void createTeleportTrap(World world, Location location) {
-        world.getBlockAt(location.clone().add(0, 1, 0)).setType(Material.STONE_PRESSURE_PLATE);
+    private void createTeleportTrap(BlockQueue blocks, Location location) {
+        blocks.set(location.clone().add(0, 1, 0), Material.STONE_PRESSURE_PLATE);
 
         // Marquer comme piège téléportation
-        world.getBlockAt(location.clone().add(0, -1, 0)).setType(Material.DIAMOND_BLOCK);
+        blocks.set(location.clone().add(0, -1, 0), Material.DIAMOND_BLOCK);
     }
 }
\ No newline at end of file
@@ -3,7 +3,6 @@ package fr.arkoter.proceduraldungeons.listeners;
 import fr.arkoter.proceduraldungeons.ProceduralDungeons;
 import fr.arkoter.proceduraldungeons.models.Dungeon;
 import fr.arkoter.proceduraldungeons.models.DungeonPlayer;
-import fr.arkoter.proceduraldungeons.utils.LootUtils;
 import fr.arkoter.proceduraldungeons.utils.MessageUtils;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -47,11 +46,9 @@ public class DungeonListener implements Listener {
             return;
         }
 
-        Location blockLocation = clickedBlock.getLocation();
-
         // Gestion des pièges
         if (clickedBlock.getType() == Material.STONE_PRESSURE_PLATE) {
-            handleTrapActivation(player, blockLocation, dungeonPlayer);
+            handleTrapActivation(player, clickedBlock, dungeonPlayer);
         }
     }
 
@@ -80,15 +77,16 @@ public class DungeonListener implements Listener {
             return;
         }
 
-        Location chestLocation = event.getClickedBlock().getLocation();
+        Block chestBlock = event.getClickedBlock();
 
         // Vérifier si ce coffre fait partie du donjon
-        if (dungeon.getTreasureChests().contains(chestLocation)) {
-            handleTreasureChest(player, chestLocation, dungeon, dungeonPlayer);
+        Dungeon.TreasureChest treasureChest = dungeon.getTreasureChestAt(chestBlock.getX(), chestBlock.getY(), chestBlock.getZ());
+        if (treasureChest != null) {
+            handleTreasureChest(player, chestBlock.getLocation(), treasureChest, dungeon, dungeonPlayer);
         }
     }
 
-    private void handleTrapActivation(Player player, Location trapLocation, DungeonPlayer dungeonPlayer) {
+    private void handleTrapActivation(Player player, Block trapBlock, DungeonPlayer dungeonPlayer) {
         String dungeonName = dungeonPlayer.getCurrentDungeon();
         Dungeon dungeon = plugin.getDungeonManager().getDungeon(dungeonName);
 
@@ -97,13 +95,7 @@ public class DungeonListener implements Listener {
         }
 
         // Trouver le piège correspondant
-        Dungeon.Trap activatedTrap = null;
-        for (Dungeon.Trap trap : dungeon.getTraps()) {
-            if (trap.getLocation().equals(trapLocation)) {
-                activatedTrap = trap;
-                break;
-            }
-        }
+        Dungeon.Trap activatedTrap = dungeon.getTrapAt(trapBlock.getX(), trapBlock.getY(), trapBlock.getZ());
 
         if (activatedTrap == null || activatedTrap.isActivated()) {
             return; // Piège déjà activé ou non trouvé
@@ -117,7 +109,7 @@ public class DungeonListener implements Listener {
 
         // Message et son
         player.sendMessage(MessageUtils.getMessage("messages.traps.activated"));
-        player.getWorld().playSound(trapLocation, Sound.BLOCK_NOTE_BLOCK_BASS, 1.0f, 0.5f);
+        player.getWorld().playSound(trapBlock.getLocation(), Sound.BLOCK_NOTE_BLOCK_BASS, 1.0f, 0.5f);
     }
 
     private void applyTrapEffect(Player player, Dungeon.Trap trap, Dungeon dungeon) {
@@ -188,7 +180,8 @@ public class DungeonListener implements Listener {
         player.teleport(dungeonCenter.clone().add(0, 2, 0));
     }
 
-    private void handleTreasureChest(Player player, Location chestLocation, Dungeon dungeon, DungeonPlayer dungeonPlayer) {
+    private void handleTreasureChest(Player player, Location chestLocation, Dungeon.TreasureChest treasureChest,
+                                     Dungeon dungeon, DungeonPlayer dungeonPlayer) {
         Chest chest = (Chest) chestLocation.getBlock().getState();
         Inventory inventory = chest.getInventory();
 
@@ -198,11 +191,12 @@ public class DungeonListener implements Listener {
         }
 
         // Remplir le coffre avec du loot
-        LootUtils.populateChest(inventory, dungeon.getDifficulty(), dungeon.getSize());
+        plugin.getLootManager().populateChest(inventory, dungeon.getDifficulty(), dungeon.getSize());
+        treasureChest.setLooted(true);
 
         // Chance d'obtenir une clé de boss
         if (!dungeonPlayer.hasBossKey() && random.nextInt(100) < getBossKeyChance(dungeon.getDifficulty())) {
-            ItemStack bossKey = LootUtils.createBossKey(dungeon.getName());
+            ItemStack bossKey = plugin.getLootManager().createBossKey(dungeon.getName());
             inventory.addItem(bossKey);
             dungeonPlayer.setBossKey(true);
             player.sendMessage(MessageUtils.getMessage("messages.treasure.key-obtained"));
@@ -210,6 +204,7 @@ public class DungeonListener implements Listener {
 
         // Incrémenter le compteur de trésors trouvés
         dungeonPlayer.incrementTreasuresFound();
+        plugin.getPlayerData().incrementTreasuresFound(player.getUniqueId());
 
         // Messages et effets
         player.sendMessage(MessageUtils.getMessage("messages.treasure.found"));
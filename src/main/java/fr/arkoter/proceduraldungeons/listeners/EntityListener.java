@@ -3,10 +3,8 @@ package fr.arkoter.proceduraldungeons.listeners;
 import fr.arkoter.proceduraldungeons.ProceduralDungeons;
 import fr.arkoter.proceduraldungeons.models.Dungeon;
 import fr.arkoter.proceduraldungeons.models.DungeonPlayer;
-import fr.arkoter.proceduraldungeons.utils.LootUtils;
 import fr.arkoter.proceduraldungeons.utils.MessageUtils;
 import org.bukkit.Location;
-import org.bukkit.Material;
 import org.bukkit.Sound;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.LivingEntity;
@@ -18,7 +16,6 @@ import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.event.entity.EntitySpawnEvent;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class EntityListener implements Listener {
@@ -32,86 +29,55 @@ public class EntityListener implements Listener {
     @EventHandler(priority = EventPriority.HIGH)
     public void onEntityDeath(EntityDeathEvent event) {
         LivingEntity entity = event.getEntity();
-        Player killer = entity.getKiller();
 
-        if (killer == null) {
-            return;
-        }
+        // Donjon et rôle lus sur l'entité : seuls les monstres du donjon comptent
+        Dungeon dungeon = plugin.getMonsterManager().getDungeon(entity);
+        Dungeon.MonsterRole role = plugin.getMonsterManager().getRole(entity);
 
-        DungeonPlayer dungeonPlayer = plugin.getDungeonManager().getDungeonPlayer(killer.getUniqueId());
+        // Le point d'apparition disparaît même si le monstre meurt sans tueur (lave, piège)
+        plugin.getMonsterManager().onMonsterDeath(entity);
 
-        if (!dungeonPlayer.isInDungeon()) {
+        if (dungeon == null) {
             return;
         }
 
-        String dungeonName = dungeonPlayer.getCurrentDungeon();
-        Dungeon dungeon = plugin.getDungeonManager().getDungeon(dungeonName);
-
-        if (dungeon == null) {
+        Player killer = entity.getKiller();
+        if (killer == null) {
             return;
         }
 
-        // Vérifier si l'entité est dans les limites du donjon
-        if (!plugin.getDungeonManager().isLocationInDungeon(entity.getLocation(), dungeonName)) {
+        DungeonPlayer dungeonPlayer = plugin.getDungeonManager().getDungeonPlayer(killer.getUniqueId());
+
+        if (!dungeon.getName().equals(dungeonPlayer.getCurrentDungeon())) {
             return;
         }
 
         // Incrémenter le compteur de monstres tués
         dungeonPlayer.incrementMonstersKilled();
+        plugin.getPlayerData().incrementMonstersKilled(killer.getUniqueId());
         dungeon.incrementTotalMonstersKilled();
 
-        // Vérifier si c'est le boss du donjon
-        if (isBossEntity(entity, dungeon)) {
+        if (role == Dungeon.MonsterRole.BOSS) {
             handleBossKill(killer, entity, dungeon, dungeonPlayer, event);
         } else {
             handleRegularMonsterKill(killer, entity, dungeon, event);
         }
     }
 
-    @EventHandler(priority = EventPriority.MONITOR)
+    // HIGH et non MONITOR : l'annulation change l'issue de l'événement, MONITOR ne sert qu'à l'observer
+    @EventHandler(priority = EventPriority.HIGH)
     public void onEntitySpawn(EntitySpawnEvent event) {
-        // Empêcher le spawn naturel de monstres dans les donjons
-        Location spawnLocation = event.getLocation();
-
-        for (Dungeon dungeon : plugin.getDungeonManager().getDungeons().values()) {
-            if (plugin.getDungeonManager().isLocationInDungeon(spawnLocation, dungeon.getName())) {
-                // Permettre seulement certains types d'entités
-                if (!isAllowedInDungeon(event.getEntityType())) {
-                    event.setCancelled(true);
-                }
-                break;
-            }
-        }
-    }
-
-    private boolean isBossEntity(LivingEntity entity, Dungeon dungeon) {
-        if (dungeon.getBossLocation() == null) {
-            return false;
-        }
-
-        // Vérifier la proximité avec la position du boss
-        double distance = entity.getLocation().distance(dungeon.getBossLocation());
-
-        // Le boss doit être dans un rayon de 5 blocs de sa position de spawn
-        if (distance > 5.0) {
-            return false;
+        // Monstres du plugin : étiquetés avant l'événement par MonsterManager.spawn, quel que soit leur type
+        if (plugin.getMonsterManager().isTagged(event.getEntity())) {
+            return;
         }
 
-        // Vérifier le type d'entité selon la difficulté
-        EntityType expectedBossType = getBossTypeForDifficulty(dungeon.getDifficulty());
-        return entity.getType() == expectedBossType;
-    }
+        // Empêcher le spawn naturel de monstres dans les donjons
+        Dungeon dungeon = plugin.getDungeonManager().getDungeonAt(event.getLocation());
 
-    private EntityType getBossTypeForDifficulty(int difficulty) {
-        switch (difficulty) {
-            case 1:
-                return EntityType.ZOMBIE;
-            case 2:
-                return EntityType.SKELETON;
-            case 3:
-                return EntityType.WITHER_SKELETON;
-            default:
-                return EntityType.WITHER;
+        // Hors monstres étiquetés, permettre seulement certains types d'entités
+        if (dungeon != null && !isAllowedInDungeon(event.getEntityType())) {
+            event.setCancelled(true);
         }
     }
 
@@ -126,7 +92,7 @@ public class EntityListener implements Listener {
         killer.getWorld().playSound(killer.getLocation(), Sound.UI_TOAST_CHALLENGE_COMPLETE, 1.0f, 1.0f);
 
         // Récompenses spéciales du boss
-        List<ItemStack> bossLoot = generateBossLoot(dungeon.getDifficulty());
+        List<ItemStack> bossLoot = plugin.getLootManager().rollBossLoot(dungeon.getDifficulty());
 
         // Remplacer le loot normal par le loot du boss
         event.getDrops().clear();
@@ -137,6 +103,7 @@ public class EntityListener implements Listener {
 
         // Incrémenter les statistiques
         dungeon.incrementTimesCompleted();
+        plugin.getPlayerData().incrementDungeonsCompleted(killer.getUniqueId());
         dungeonPlayer.setCompletionTime(System.currentTimeMillis() - dungeonPlayer.getEnterTime());
 
         // Mettre à jour le record de vitesse si nécessaire
@@ -159,7 +126,7 @@ public class EntityListener implements Listener {
         // Bonus de loot basé sur la difficulté
         if (plugin.getConfigManager().getRandom().nextInt(100) < dungeon.getDifficulty() * 5) {
             // Ajouter un objet bonus
-            ItemStack bonusLoot = generateBonusLoot(dungeon.getDifficulty());
+            ItemStack bonusLoot = plugin.getLootManager().rollBonusLoot(dungeon.getDifficulty());
             if (bonusLoot != null) {
                 event.getDrops().add(bonusLoot);
             }
@@ -170,58 +137,6 @@ public class EntityListener implements Listener {
         event.setDroppedExp(event.getDroppedExp() + bonusExp);
     }
 
-    private List<ItemStack> generateBossLoot(int difficulty) {
-        List<ItemStack> loot = new ArrayList<>();
-
-        // Loot de base
-        loot.add(new ItemStack(Material.DIAMOND, 3 + difficulty));
-        loot.add(new ItemStack(Material.EMERALD, 2 + difficulty));
-        loot.add(new ItemStack(Material.GOLD_INGOT, 5 + difficulty * 2));
-
-        // Loot rare basé sur la difficulté
-        if (difficulty >= 3) {
-            loot.add(new ItemStack(Material.NETHER_STAR));
-        }
-
-        if (difficulty >= 5) {
-            loot.add(new ItemStack(Material.ANCIENT_DEBRIS, 1 + plugin.getConfigManager().getRandom().nextInt(2)));
-        }
-
-        // Équipement enchanté
-        ItemStack enchantedItem = generateEnchantedEquipment(difficulty);
-        if (enchantedItem != null) {
-            loot.add(enchantedItem);
-        }
-
-        return loot;
-    }
-
-    private ItemStack generateBonusLoot(int difficulty) {
-        Material[] possibleLoot = {
-                Material.IRON_INGOT, Material.GOLD_INGOT, Material.DIAMOND,
-                Material.EMERALD, Material.REDSTONE, Material.LAPIS_LAZULI
-        };
-
-        Material selectedMaterial = possibleLoot[plugin.getConfigManager().getRandom().nextInt(possibleLoot.length)];
-        int amount = 1 + plugin.getConfigManager().getRandom().nextInt(difficulty);
-
-        return new ItemStack(selectedMaterial, amount);
-    }
-
-    private ItemStack generateEnchantedEquipment(int difficulty) {
-        Material[] equipment = {
-                Material.DIAMOND_SWORD, Material.DIAMOND_AXE, Material.DIAMOND_PICKAXE,
-                Material.DIAMOND_CHESTPLATE, Material.DIAMOND_HELMET, Material.BOW
-        };
-
-        Material selectedEquipment = equipment[plugin.getConfigManager().getRandom().nextInt(equipment.length)];
-        ItemStack item = new ItemStack(selectedEquipment);
-
-        // Utiliser LootUtils pour ajouter des enchantements
-        // Cette méthode devrait être implémentée dans LootUtils
-        return item;
-    }
-
     private boolean isAllowedInDungeon(EntityType entityType) {
         // Types d'entités autorisés dans les donjons
         switch (entityType) {
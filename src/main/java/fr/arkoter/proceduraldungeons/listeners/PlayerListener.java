@@ -24,21 +24,19 @@ public class PlayerListener implements Listener {
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
 
-        // Charger les données du joueur
-        plugin.getDungeonManager().loadPlayerData(player.getUniqueId());
-
-        // Vérifier si le joueur était dans un donjon lors de sa déconnexion
-        DungeonPlayer dungeonPlayer = plugin.getDungeonManager().getDungeonPlayer(player.getUniqueId());
-
-        if (dungeonPlayer.isInDungeon()) {
-            // Téléporter le joueur à sa position de sortie si elle existe
-            if (dungeonPlayer.getExitLocation() != null) {
-                player.teleport(dungeonPlayer.getExitLocation());
-                dungeonPlayer.reset();
-                player.sendMessage(MessageUtils.getMessage("messages.dungeon.left"));
-                plugin.getDungeonManager().savePlayerData(player.getUniqueId());
+        // Charger les données du joueur en asynchrone
+        plugin.getDungeonManager().loadPlayerData(player.getUniqueId(), dungeonPlayer -> {
+            // Vérifier si le joueur était dans un donjon lors de sa déconnexion
+            if (dungeonPlayer.isInDungeon()) {
+                // Téléporter le joueur à sa position de sortie si elle existe
+                if (dungeonPlayer.getExitLocation() != null) {
+                    player.teleport(dungeonPlayer.getExitLocation());
+                    dungeonPlayer.reset();
+                    player.sendMessage(MessageUtils.getMessage("messages.dungeon.left"));
+                    plugin.getDungeonManager().savePlayerData(player.getUniqueId());
+                }
             }
-        }
+        });
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
@@ -55,8 +53,8 @@ public class PlayerListener implements Listener {
             plugin.getDungeonManager().removePlayerFromDungeon(player.getUniqueId(), dungeonName);
         }
 
-        // Sauvegarder les données du joueur
-        plugin.getDungeonManager().savePlayerData(player.getUniqueId());
+        // Sauvegarder les données du joueur et libérer son profil
+        plugin.getDungeonManager().unloadPlayerData(player.getUniqueId());
     }
 
     @EventHandler(priority = EventPriority.HIGH)
@@ -97,10 +97,41 @@ public class ConfigManager {
         // ================================
         // PARAMÈTRES DE PERFORMANCE
         // ================================
-        config.addDefault("performance.generation-delay", 50);
-        config.addDefault("performance.max-active-dungeons", 10);
+        config.addDefault("performance.generation-delay", 10);
+        config.addDefault("performance.max-active-dungeons", 2);
+        config.addDefault("performance.generation-queue-size", 20);
+        config.addDefault("performance.generation-queue-per-player", 1);
         config.addDefault("performance.cleanup-threshold", 3600000);
         config.addDefault("performance.auto-save-interval", 300);
+        config.addDefault("performance.save-flush-interval", 5);
+        config.addDefault("performance.player-flush-interval", 30);
+        config.addDefault("performance.player-flush-batch-size", 200);
+        config.addDefault("performance.offline-profile-cache-size", 500);
+        config.addDefault("performance.metrics-interval", 300);
+
+        // ================================
+        // PARAMÈTRES DE STOCKAGE
+        // ================================
+        config.addDefault("storage.type", "yaml");
+        config.addDefault("storage.sqlite-file", "data.db");
+        config.addDefault("storage.layout", "full");
+        config.addDefault("storage.block-snapshots", true);
+        config.addDefault("storage.terrain-restore", true);
+
+        // ================================
+        // PARAMÈTRES DES INSTANCES
+        // ================================
+        config.addDefault("instances.enabled", false);
+        config.addDefault("instances.world", "dungeon_instances");
+        config.addDefault("instances.spacing", 512);
+
+        // ================================
+        // PARAMÈTRES DU MONDE DES DONJONS
+        // ================================
+        config.addDefault("dungeon-world.enabled", false);
+        config.addDefault("dungeon-world.name", "procedural_dungeons");
+        config.addDefault("dungeon-world.height", 64);
+        config.addDefault("dungeon-world.spacing", 256);
 
         // ================================
         // PARAMÈTRES D'EXPÉRIENCE
@@ -115,6 +146,10 @@ public class ConfigManager {
         config.addDefault("debug.enabled", false);
         config.addDefault("debug.show-generation-info", false);
         config.addDefault("debug.show-performance-stats", false);
+        config.addDefault("debug.tick-monitor.enabled", false);
+        config.addDefault("debug.tick-monitor.window-ticks", 100);
+        config.addDefault("debug.tick-monitor.warn-threshold", 5.0);
+        config.addDefault("debug.tick-monitor.log-max-size", 1024);
 
         // ================================
         // PARAMÈTRES AVANCÉS
@@ -124,6 +159,9 @@ public class ConfigManager {
         config.addDefault("advanced.max-monsters-per-dungeon", 50);
         config.addDefault("advanced.monster-respawn", true);
         config.addDefault("advanced.monster-respawn-delay", 300);
+        config.addDefault("advanced.monster-activation-radius", 32);
+        config.addDefault("advanced.monster-despawn-margin", 16);
+        config.addDefault("advanced.monster-check-interval", 20);
 
         // ================================
         // PARAMÈTRES DE LIMITES
@@ -384,11 +422,19 @@ public class ConfigManager {
     // ================================
 
     public int getGenerationDelay() {
-        return config.getInt("performance.generation-delay", 50);
+        return config.getInt("performance.generation-delay", 10);
     }
 
     public int getMaxActiveDungeons() {
-        return config.getInt("performance.max-active-dungeons", 10);
+        return config.getInt("performance.max-active-dungeons", 2);
+    }
+
+    public int getGenerationQueueSize() {
+        return config.getInt("performance.generation-queue-size", 20);
+    }
+
+    public int getGenerationQueuePerPlayer() {
+        return config.getInt("performance.generation-queue-per-player", 1);
     }
 
     public long getCleanupThreshold() {
@@ -399,6 +445,50 @@ public class ConfigManager {
         return config.getInt("performance.auto-save-interval", 300);
     }
 
+    public int getSaveFlushInterval() {
+        return config.getInt("performance.save-flush-interval", 5);
+    }
+
+    public int getPlayerFlushInterval() {
+        return config.getInt("performance.player-flush-interval", 30);
+    }
+
+    public int getPlayerFlushBatchSize() {
+        return config.getInt("performance.player-flush-batch-size", 200);
+    }
+
+    public int getOfflineProfileCacheSize() {
+        return config.getInt("performance.offline-profile-cache-size", 500);
+    }
+
+    public int getMetricsInterval() {
+        return config.getInt("performance.metrics-interval", 300);
+    }
+
+    // ================================
+    // GETTERS POUR LES PARAMÈTRES DE STOCKAGE
+    // ================================
+
+    public String getStorageType() {
+        return config.getString("storage.type", "yaml");
+    }
+
+    public String getSqliteFile() {
+        return config.getString("storage.sqlite-file", "data.db");
+    }
+
+    public boolean isSeedOnlyLayout() {
+        return "seed".equalsIgnoreCase(config.getString("storage.layout", "full"));
+    }
+
+    public boolean isBlockSnapshotsEnabled() {
+        return config.getBoolean("storage.block-snapshots", true);
+    }
+
+    public boolean isTerrainRestoreEnabled() {
+        return config.getBoolean("storage.terrain-restore", true);
+    }
+
     // ================================
     // GETTERS POUR LES PARAMÈTRES D'EXPÉRIENCE
     // ================================
@@ -435,6 +525,22 @@ public class ConfigManager {
         return config.getBoolean("debug.show-performance-stats", false);
     }
 
+    public boolean isTickMonitorEnabled() {
+        return config.getBoolean("debug.tick-monitor.enabled", false);
+    }
+
+    public int getTickMonitorWindow() {
+        return config.getInt("debug.tick-monitor.window-ticks", 100);
+    }
+
+    public double getTickMonitorThreshold() {
+        return config.getDouble("debug.tick-monitor.warn-threshold", 5.0);
+    }
+
+    public int getTickMonitorLogSize() {
+        return config.getInt("debug.tick-monitor.log-max-size", 1024);
+    }
+
     // ================================
     // GETTERS POUR LES PARAMÈTRES AVANCÉS
     // ================================
@@ -459,6 +565,52 @@ public class ConfigManager {
         return config.getInt("advanced.monster-respawn-delay", 300);
     }
 
+    public boolean isInstancesEnabled() {
+        return config.getBoolean("instances.enabled", false);
+    }
+
+    public String getInstanceWorld() {
+        return config.getString("instances.world", "dungeon_instances");
+    }
+
+    // Distance entre deux instances voisines, en blocs
+    public int getInstanceSpacing() {
+        return Math.max(64, config.getInt("instances.spacing", 512));
+    }
+
+    public ConfigurationSection getInstancePools() {
+        return config.getConfigurationSection("instances.pools");
+    }
+
+    public boolean isDungeonWorldEnabled() {
+        return config.getBoolean("dungeon-world.enabled", false);
+    }
+
+    public String getDungeonWorldName() {
+        return config.getString("dungeon-world.name", "procedural_dungeons");
+    }
+
+    public int getDungeonWorldHeight() {
+        return config.getInt("dungeon-world.height", 64);
+    }
+
+    // Distance entre deux emplacements voisins, en blocs (relevée à la taille maximale si besoin)
+    public int getDungeonWorldSpacing() {
+        return Math.max(64, config.getInt("dungeon-world.spacing", 256));
+    }
+
+    public int getMonsterActivationRadius() {
+        return config.getInt("advanced.monster-activation-radius", 32);
+    }
+
+    public int getMonsterDespawnMargin() {
+        return config.getInt("advanced.monster-despawn-margin", 16);
+    }
+
+    public int getMonsterCheckInterval() {
+        return config.getInt("advanced.monster-check-interval", 20);
+    }
+
     // ================================
     // GETTERS POUR LES PARAMÈTRES DE LIMITES
     // ================================
@@ -1,17 +1,24 @@
 package fr.arkoter.proceduraldungeons.managers;
 
 import fr.arkoter.proceduraldungeons.ProceduralDungeons;
+import fr.arkoter.proceduraldungeons.data.PlayerData;
 import fr.arkoter.proceduraldungeons.models.Dungeon;
 import fr.arkoter.proceduraldungeons.models.DungeonPlayer;
 import fr.arkoter.proceduraldungeons.models.DungeonTemplate;
-import fr.arkoter.proceduraldungeons.models.DungeonTheme;
-import fr.arkoter.proceduraldungeons.generators.MazeGenerator;
-import fr.arkoter.proceduraldungeons.generators.RoomGenerator;
-import fr.arkoter.proceduraldungeons.generators.TrapGenerator;
+import fr.arkoter.proceduraldungeons.models.GenerationJob;
+import fr.arkoter.proceduraldungeons.generators.BlockQueue;
+import fr.arkoter.proceduraldungeons.generators.BlockSnapshot;
+import fr.arkoter.proceduraldungeons.generators.DungeonPlanner;
+import fr.arkoter.proceduraldungeons.generators.MazeLayout;
+import fr.arkoter.proceduraldungeons.generators.TerrainLog;
 import fr.arkoter.proceduraldungeons.utils.MessageUtils;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Chest;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
@@ -19,27 +26,50 @@ import org.bukkit.scheduler.BukkitRunnable;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 public class DungeonManager {
 
+    // Catégories de /dungeon stats top, dans l'ordre de PlayerData.Stat
+    private static final List<String> LEADERBOARD_CATEGORIES = Arrays.asList("entres", "completes", "monstres", "tresors", "temps");
+    private static final int LEADERBOARD_SIZE = 10;
+
+    // À incrémenter dès qu'un changement du générateur modifie la disposition obtenue pour une graine :
+    // les donjons sauvegardés par graine avec une autre version ne peuvent plus être recalculés
+    public static final int GENERATOR_VERSION = 2;
+
     private final ProceduralDungeons plugin;
     private final Map<String, Dungeon> dungeons;
     private final Map<UUID, DungeonPlayer> dungeonPlayers;
+    private final Map<UUID, DungeonPlayer> offlineProfiles;
     private final Map<String, UUID> dungeonOwners;
-    private final Random random;
-    private final RoomGenerator roomGenerator;
-    private final TrapGenerator trapGenerator;
+
+    // Donjons dont la disposition est en cours de recalcul, avec les actions qui l'attendent (thread principal)
+    private final Map<String, List<Runnable>> pendingLayouts;
+
+    // Donjons en cours de remise à neuf : fermés aux joueurs jusqu'à la fin de la pose (thread principal)
+    private final Set<String> resettingDungeons;
+    private final DungeonSpatialIndex spatialIndex;
 
     public DungeonManager(ProceduralDungeons plugin) {
         this.plugin = plugin;
         this.dungeons = new ConcurrentHashMap<>();
         this.dungeonPlayers = new ConcurrentHashMap<>();
+
+        // Profils des joueurs déconnectés récemment, les plus anciens sont évincés
+        this.offlineProfiles = Collections.synchronizedMap(new LinkedHashMap<UUID, DungeonPlayer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, DungeonPlayer> eldest) {
+                return size() > plugin.getConfigManager().getOfflineProfileCacheSize();
+            }
+        });
         this.dungeonOwners = new ConcurrentHashMap<>();
-        this.random = new Random();
-        this.roomGenerator = new RoomGenerator();
-        this.trapGenerator = new TrapGenerator();
+        this.pendingLayouts = new HashMap<>();
+        this.resettingDungeons = new HashSet<>();
+        this.spatialIndex = new DungeonSpatialIndex();
 
-        // Charger les donjons et joueurs depuis les fichiers
+        // Charger les donjons depuis les fichiers (les joueurs sont chargés à la connexion)
         loadData();
     }
 
@@ -48,7 +78,7 @@ public class DungeonManager {
     // ================================
 
     public void createDungeon(Player player, String name, int size, int difficulty) {
-        if (dungeons.containsKey(name)) {
+        if (dungeons.containsKey(name) || plugin.getGenerationScheduler().isNameReserved(name)) {
             player.sendMessage(MessageUtils.getMessage("messages.dungeon.already-exists", "{name}", name));
             return;
         }
@@ -72,428 +102,489 @@ public class DungeonManager {
             return;
         }
 
-        Location location = player.getLocation();
-
-        // Créer des variables final pour utilisation dans BukkitRunnable
-        final int finalSize = Math.max(plugin.getConfigManager().getMinDungeonSize(),
+        int finalSize = Math.max(plugin.getConfigManager().getMinDungeonSize(),
                 Math.min(size, plugin.getConfigManager().getMaxDungeonSize()));
-        final int finalDifficulty = Math.max(1, Math.min(difficulty, plugin.getConfigManager().getMaxDifficulty()));
-        final String finalName = name;
-        final Player finalPlayer = player;
-        final UUID finalPlayerId = player.getUniqueId();
-
-        player.sendMessage(MessageUtils.getMessage("messages.dungeon.creating", "{name}", name));
-
-        // Générer le donjon de manière asynchrone
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                long startTime = System.currentTimeMillis();
-
-                Dungeon dungeon = new Dungeon(finalName, location, finalSize, finalDifficulty);
-                generateDungeonStructure(dungeon);
-
-                // Revenir au thread principal pour finaliser
-                new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        dungeons.put(finalName, dungeon);
-                        dungeonOwners.put(finalName, finalPlayerId);
-                        plugin.getDungeonData().saveDungeon(dungeon);
-
-                        long duration = System.currentTimeMillis() - startTime;
-                        finalPlayer.sendMessage(MessageUtils.getMessage("messages.dungeon.created", "{name}", finalName));
-                        finalPlayer.sendMessage(MessageUtils.getMessage("messages.dungeon.generation-complete",
-                                "{time}", String.valueOf(duration)));
+        int finalDifficulty = Math.max(1, Math.min(difficulty, plugin.getConfigManager().getMaxDifficulty()));
 
-                        plugin.logPerformance("Dungeon creation: " + finalName, startTime);
-                    }
-                }.runTask(plugin);
-            }
-        }.runTaskAsynchronously(plugin);
+        // La génération attend son tour dans la file (limite performance.max-active-dungeons)
+        plugin.getGenerationScheduler().submit(player, name, getCreationLocation(player), finalSize, finalDifficulty, null, 0);
     }
 
     public void createCustomDungeon(Player player, DungeonTemplate template) {
-        if (dungeons.containsKey(template.getName())) {
+        if (dungeons.containsKey(template.getName()) || plugin.getGenerationScheduler().isNameReserved(template.getName())) {
             player.sendMessage(MessageUtils.getMessage("messages.dungeon.already-exists",
                     "{name}", template.getName()));
             return;
         }
 
-        Location location = player.getLocation();
+        plugin.getGenerationScheduler().submit(player, template.getName(), getCreationLocation(player),
+                template.getSize(), template.getDifficulty(), template, 0);
+    }
 
-        // Variables final pour BukkitRunnable
-        final Player finalPlayer = player;
-        final UUID finalPlayerId = player.getUniqueId();
-        final DungeonTemplate finalTemplate = template;
+    // Emplacement libre du monde des donjons s'il est activé, sinon la position du créateur
+    private Location getCreationLocation(Player player) {
+        DungeonWorldManager worldManager = plugin.getDungeonWorldManager();
+        return worldManager.isEnabled() ? worldManager.allocate() : player.getLocation();
+    }
 
-        player.sendMessage(MessageUtils.getMessage("messages.dungeon.creating",
-                "{name}", template.getName()));
+    // Lancé par la file de génération. Le plan est recalculé depuis la graine du job,
+    // puis chaque étape reprend au point de sauvegarde atteint avant un éventuel arrêt
+    void runGeneration(GenerationJob job) {
+        Player owner = plugin.getServer().getPlayer(job.getOwnerId());
+        if (owner != null) {
+            if (job.isResumed()) {
+                owner.sendMessage(MessageUtils.getMessage("messages.generation.resumed",
+                        "{name}", job.getDungeonName(), "{stage}", job.getStage().getDisplayName()));
+            } else {
+                owner.sendMessage(MessageUtils.getMessage("messages.dungeon.creating", "{name}", job.getDungeonName()));
+            }
+        }
 
+        // Calculer le donjon de manière asynchrone
         new BukkitRunnable() {
             @Override
             public void run() {
                 long startTime = System.currentTimeMillis();
 
-                Dungeon dungeon = new Dungeon(finalTemplate.getName(), location,
-                        finalTemplate.getSize(), finalTemplate.getDifficulty());
-                generateCustomDungeonStructure(dungeon, finalTemplate);
+                GenerationPlan plan;
+                try {
+                    plan = computePlan(job.getDungeonName(), job.getLocation(), job.getSize(),
+                            job.getDifficulty(), job.getTemplate(), job.getSeed());
+                } catch (RuntimeException e) {
+                    failGeneration(job, e);
+                    return;
+                }
+                if (job.isCancelled()) return;
 
+                // Revenir au thread principal pour poser les blocs tick par tick
                 new BukkitRunnable() {
                     @Override
                     public void run() {
-                        dungeons.put(finalTemplate.getName(), dungeon);
-                        dungeonOwners.put(finalTemplate.getName(), finalPlayerId);
-                        plugin.getDungeonData().saveDungeon(dungeon);
-
-                        long duration = System.currentTimeMillis() - startTime;
-                        finalPlayer.sendMessage(MessageUtils.getMessage("messages.wizard.dungeon-created",
-                                "{name}", finalTemplate.getName()));
-                        finalPlayer.sendMessage(MessageUtils.getMessage("messages.dungeon.generation-complete",
-                                "{time}", String.valueOf(duration)));
+                        if (job.isCancelled()) return;
 
-                        plugin.logPerformance("Custom dungeon creation: " + finalTemplate.getName(), startTime);
+                        if (job.getStage() == GenerationJob.Stage.MAZE) {
+                            job.advance(GenerationJob.Stage.STRUCTURE);
+                        }
+                        if (plugin.getDungeonWorldManager().isDungeonWorld(job.getLocation().getWorld())) {
+                            prepareWorldGeneration(job, plan);
+                        }
+                        job.setState(GenerationJob.State.PLACING);
+                        runStage(job, plan, startTime);
                     }
                 }.runTask(plugin);
             }
         }.runTaskAsynchronously(plugin);
     }
 
-    // ================================
-    // GÉNÉRATION DE STRUCTURE
-    // ================================
-
-    private void generateDungeonStructure(Dungeon dungeon) {
-        Location center = dungeon.getLocation();
-        World world = center.getWorld();
-        int size = dungeon.getSize();
-
-        plugin.debug("Generating maze for dungeon: " + dungeon.getName());
-
-        // Générer le labyrinthe
-        long seed = plugin.getConfigManager().getGenerationSeed();
-        if (seed == 0) seed = System.currentTimeMillis();
-
-        MazeGenerator mazeGen = new MazeGenerator(size, size, seed);
-        boolean[][] maze = mazeGen.generate();
-
-        // Construire les murs et sols du labyrinthe
-        buildMazeStructure(world, center, maze, size, DungeonTheme.MEDIEVAL);
-
-        // Générer les salles spéciales
-        generateSpecialRooms(dungeon, maze);
-
-        // Placer le boss
-        placeBossRoom(dungeon, maze);
+    // Thread principal : pose le lot de blocs de l'étape courante puis enchaîne sur la suivante
+    private void runStage(GenerationJob job, GenerationPlan plan, long startTime) {
+        // Les chunks du labyrinthe naissent avec leur structure : les faire générer avant toute pose
+        if (job.getStage() == GenerationJob.Stage.STRUCTURE && !plan.pendingChunks.isEmpty()) {
+            preloadChunks(job, plan, () -> runStage(job, plan, startTime));
+            return;
+        }
 
-        // Ajouter des pièges
-        trapGenerator.generateTraps(dungeon, maze);
+        GenerationJob.Stage next;
+        switch (job.getStage()) {
+            case STRUCTURE:
+                next = GenerationJob.Stage.ROOMS;
+                break;
+            case ROOMS:
+                next = GenerationJob.Stage.POPULATE;
+                break;
+            default:
+                next = null;
+                break;
+        }
 
-        // Spawner les monstres initiaux
-        spawnInitialMonsters(dungeon, maze);
+        // Le terrain de chaque section est enregistré juste avant d'être recouvert, pour la suppression du donjon
+        String worldName = job.getLocation().getWorld().getName();
+        PlacementManager.SectionListener terrainRecorder = plugin.getConfigManager().isTerrainRestoreEnabled() ?
+                (section, chunk) -> plugin.getSnapshotData().appendTerrain(job.getDungeonName(), worldName, TerrainLog.record(section, chunk)) :
+                null;
+
+        BlockQueue blocks = plan.getBlocks(job.getStage());
+        PlacementManager.PlacementTask task = plugin.getPlacementManager().submit(blocks, job.getPlacedSections(), terrainRecorder,
+                createProgressReporter(job, plan.getBlocksBefore(job.getStage()), blocks.size(), plan.getTotalBlocks()),
+                () -> {
+                    plan.placementNanos += job.getPlacement().getActiveNanos();
+                    if (next != null) {
+                        job.advance(next);
+                        runStage(job, plan, startTime);
+                    } else {
+                        finishGeneration(job, plan, startTime);
+                    }
+                });
+        job.setPlacement(task);
     }
 
-    private void generateCustomDungeonStructure(Dungeon dungeon, DungeonTemplate template) {
-        Location center = dungeon.getLocation();
-        World world = center.getWorld();
-        int size = dungeon.getSize();
+    private void finishGeneration(GenerationJob job, GenerationPlan plan, long startTime) {
+        job.setState(GenerationJob.State.FINISHING);
+        job.setPlacement(null);
 
-        plugin.debug("Generating custom dungeon: " + dungeon.getName() + " with theme: " + template.getTheme());
+        Dungeon dungeon = plan.dungeon;
+        DungeonTemplate template = job.getTemplate();
+        dungeon.setInstancePool(job.getInstancePool());
 
-        // Générer le labyrinthe
-        long seed = plugin.getConfigManager().getGenerationSeed();
-        if (seed == 0) seed = System.currentTimeMillis();
+        long persistenceStart = System.nanoTime();
+        registerDungeon(dungeon);
+        dungeonOwners.put(dungeon.getName(), job.getOwnerId());
+        plugin.getDungeonData().saveDungeon(dungeon);
+        plugin.getGenerationScheduler().complete(job);
+        plugin.getSnapshotData().closeTerrain(dungeon.getName());
 
-        MazeGenerator mazeGen = new MazeGenerator(size, size, seed);
-        boolean[][] maze = mazeGen.generateWithRooms(template.getTotalSpecialRooms(),
-                plugin.getConfigManager().getMinRoomSize(),
-                plugin.getConfigManager().getMaxRoomSize());
+        if (plugin.getConfigManager().isBlockSnapshotsEnabled()) {
+            captureSnapshot(dungeon);
+        }
+        long persistenceNanos = System.nanoTime() - persistenceStart;
 
-        // Construire avec le thème sélectionné
-        buildMazeStructure(world, center, maze, size, template.getTheme());
+        if (dungeon.isInstance()) {
+            plugin.getInstanceManager().onInstanceReady(dungeon);
+        }
 
-        // Générer les salles selon le template
-        generateTemplateRooms(dungeon, template, maze);
+        long duration = System.currentTimeMillis() - startTime;
+        recordMetrics(plan, persistenceNanos, duration);
 
-        // Placer le boss si demandé
-        if (template.hasBossRoom()) {
-            placeBossRoom(dungeon, maze);
+        Player owner = plugin.getServer().getPlayer(job.getOwnerId());
+        if (owner != null) {
+            owner.sendMessage(MessageUtils.getMessage(template == null ?
+                    "messages.dungeon.created" : "messages.wizard.dungeon-created", "{name}", dungeon.getName()));
+            owner.sendMessage(MessageUtils.getMessage("messages.dungeon.generation-complete",
+                    "{time}", String.valueOf(duration)));
         }
 
-        // Ajouter des pièges selon la configuration
-        trapGenerator.generateTraps(dungeon, maze);
-
-        // Spawner les monstres sélectionnés
-        spawnCustomMonsters(dungeon, template, maze);
+        plugin.logPerformance((template == null ? "Dungeon creation: " : "Custom dungeon creation: ") + dungeon.getName(), startTime);
     }
 
-    private void buildMazeStructure(World world, Location center, boolean[][] maze, int size, DungeonTheme theme) {
-        Material floorMaterial = theme.getFloorMaterial();
-        Material wallMaterial = theme.getWallMaterial();
-        Material decorationMaterial = theme.getDecorationMaterial();
-
-        int wallHeight = plugin.getConfigManager().getWallHeight();
-
-        for (int x = 0; x < size; x++) {
-            for (int z = 0; z < size; z++) {
-                Location blockLoc = center.clone().add(x - size/2, 0, z - size/2);
-
-                if (maze[x][z]) {
-                    // Sol du donjon (passage)
-                    world.getBlockAt(blockLoc).setType(floorMaterial);
+    // Étapes du calcul (thread asynchrone), pose et sauvegarde (thread principal) ; la sauvegarde ne compte
+    // que la part du thread principal, l'écriture sur disque se fait plus tard hors du thread principal
+    private void recordMetrics(GenerationPlan plan, long persistenceNanos, long duration) {
+        MetricsManager.Sample sample = new MetricsManager.Sample();
+        for (DungeonPlanner.Phase phase : DungeonPlanner.Phase.values()) {
+            sample.addNanos(MetricsManager.Metric.of(phase), plan.computed.getPhaseNanos(phase));
+        }
+        sample.addNanos(MetricsManager.Metric.PLACEMENT, plan.placementNanos);
+        sample.addNanos(MetricsManager.Metric.PERSISTENCE, persistenceNanos);
+        sample.addNanos(MetricsManager.Metric.TOTAL, duration * 1_000_000L);
+        sample.set(MetricsManager.Metric.BLOCKS, plan.blockCount);
+        sample.set(MetricsManager.Metric.MONSTER_SPAWNS, plan.dungeon.getMonsterSpawnCount());
+        sample.set(MetricsManager.Metric.CHUNKS, plan.chunkCount);
+
+        plugin.getMetricsManager().record(plan.dungeon.getSize(), sample);
+    }
 
-                    // Nettoyer l'air au-dessus
-                    for (int y = 1; y < wallHeight; y++) {
-                        world.getBlockAt(blockLoc.clone().add(0, y, 0)).setType(Material.AIR);
-                    }
+    // Thread asynchrone : libère la place du job dans la file et prévient le joueur
+    private void failGeneration(GenerationJob job, RuntimeException cause) {
+        plugin.getLogger().severe("Échec de la génération du donjon " + job.getDungeonName() + ": " + cause.getMessage());
 
-                    // Plafond/toit
-                    world.getBlockAt(blockLoc.clone().add(0, wallHeight, 0)).setType(decorationMaterial);
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                if (job.isCancelled()) return;
 
-                    // Ajouter de l'éclairage occasionnel
-                    if (random.nextInt(20) == 0) {
-                        world.getBlockAt(blockLoc.clone().add(0, 2, 0)).setType(Material.TORCH);
-                    }
-                } else {
-                    // Murs du donjon
-                    for (int y = 0; y <= wallHeight; y++) {
-                        Material material = (y == 0) ? floorMaterial : wallMaterial;
-                        world.getBlockAt(blockLoc.clone().add(0, y, 0)).setType(material);
-                    }
+                plugin.getGenerationScheduler().complete(job);
+                Player owner = plugin.getServer().getPlayer(job.getOwnerId());
+                if (owner != null) {
+                    owner.sendMessage(MessageUtils.getMessage("messages.dungeon.generation-failed"));
                 }
             }
-        }
+        }.runTask(plugin);
     }
 
-    private void generateSpecialRooms(Dungeon dungeon, boolean[][] maze) {
-        Location center = dungeon.getLocation();
-        World world = center.getWorld();
-        int roomCount = random.nextInt(plugin.getConfigManager().getMaxSpecialRooms() -
-                plugin.getConfigManager().getMinSpecialRooms() + 1) +
-                plugin.getConfigManager().getMinSpecialRooms();
-
-        for (int i = 0; i < roomCount; i++) {
-            int x, z;
-            int attempts = 0;
-            do {
-                x = random.nextInt(maze.length - 10) + 5;
-                z = random.nextInt(maze[0].length - 10) + 5;
-                attempts++;
-            } while (!maze[x][z] && attempts < 50);
-
-            if (attempts < 50) {
-                Location roomCenter = center.clone().add(x - maze.length/2, 1, z - maze[0].length/2);
-
-                // Déterminer le type de salle
-                int roomType = random.nextInt(3);
-                switch (roomType) {
-                    case 0: // Salle au trésor
-                        List<Location> chests = roomGenerator.generateTreasureRoom(world, roomCenter, 7);
-                        for (Location chestLoc : chests) {
-                            dungeon.addTreasureChest(chestLoc);
-                        }
-                        break;
-
-                    case 1: // Salle de combat
-                        generateCombatRoom(world, roomCenter, 6);
-                        spawnRoomMonsters(world, roomCenter, dungeon.getDifficulty());
-                        break;
-
-                    case 2: // Salle puzzle
-                        roomGenerator.generatePuzzleRoom(world, roomCenter, 5);
-                        break;
+    // Avancement global : chaque étape pèse son nombre de blocs
+    private IntConsumer createProgressReporter(GenerationJob job, int blocksBefore, int stageBlocks, int totalBlocks) {
+        return progress -> {
+            int overall = totalBlocks == 0 ? 100 :
+                    (int) ((blocksBefore + (long) stageBlocks * progress / 100) * 100 / totalBlocks);
+            int previous = job.getProgress();
+            job.setProgress(overall);
+
+            // Prévenir le joueur tous les 25% seulement
+            if (overall / 25 > previous / 25 && plugin.getConfigManager().isShowProgress()) {
+                Player owner = plugin.getServer().getPlayer(job.getOwnerId());
+                if (owner != null) {
+                    owner.sendMessage(MessageUtils.getMessage("messages.dungeon.building",
+                            "{name}", job.getDungeonName(), "{progress}", String.valueOf(overall / 25 * 25)));
                 }
             }
-        }
+        };
     }
 
-    private void generateTemplateRooms(Dungeon dungeon, DungeonTemplate template, boolean[][] maze) {
-        Location center = dungeon.getLocation();
-        World world = center.getWorld();
+    // ================================
+    // GÉNÉRATION DE STRUCTURE
+    // ================================
 
-        // Générer les salles de trésor
-        for (int i = 0; i < template.getTreasureRooms(); i++) {
-            Location roomLoc = findValidRoomLocation(center, maze);
-            if (roomLoc != null) {
-                List<Location> chests = roomGenerator.generateTreasureRoom(world, roomLoc, 7);
-                for (Location chestLoc : chests) {
-                    dungeon.addTreasureChest(chestLoc);
-                }
-            }
+    // Thread asynchrone : chaque étape tire dans son propre flux dérivé de la graine,
+    // le plan est donc identique à chaque calcul
+    private GenerationPlan computePlan(String name, Location location, int size, int difficulty,
+                                       DungeonTemplate template, long seed) {
+        if (template == null) {
+            plugin.debug("Generating maze for dungeon: " + name);
+        } else {
+            plugin.debug("Generating custom dungeon: " + name + " with theme: " + template.getTheme());
         }
 
-        // Générer les salles de combat
-        for (int i = 0; i < template.getCombatRooms(); i++) {
-            Location roomLoc = findValidRoomLocation(center, maze);
-            if (roomLoc != null) {
-                generateCombatRoom(world, roomLoc, 6);
-                spawnTemplateMonsters(world, roomLoc, template);
-            }
-        }
+        DungeonPlanner.Plan computed = new DungeonPlanner(createPlannerSettings())
+                .plan(name, location, size, difficulty, template, seed);
+        computed.getDungeon().setGeneratorVersion(GENERATOR_VERSION);
+        return new GenerationPlan(computed);
+    }
 
-        // Générer les salles puzzle
-        for (int i = 0; i < template.getPuzzleRooms(); i++) {
-            Location roomLoc = findValidRoomLocation(center, maze);
-            if (roomLoc != null) {
-                roomGenerator.generatePuzzleRoom(world, roomLoc, 5);
-            }
-        }
+    // Relu à chaque calcul : un /dungeon reload s'applique aux générations suivantes
+    private DungeonPlanner.Settings createPlannerSettings() {
+        ConfigManager config = plugin.getConfigManager();
+        return new DungeonPlanner.Settings(config.getWallHeight(), config.getMinRoomSize(), config.getMaxRoomSize(),
+                config.getMinSpecialRooms(), config.getMaxSpecialRooms(), config.getBossRoomSize(),
+                config.getMaxMonstersPerDungeon());
     }
 
-    private void generateCombatRoom(World world, Location center, int size) {
-        // Générer une salle de combat basique
-        for (int x = -size/2; x <= size/2; x++) {
-            for (int z = -size/2; z <= size/2; z++) {
-                Location loc = center.clone().add(x, 0, z);
+    // Recalcule coffres et pièges d'un donjon sauvegardé par graine, puis lance la suite sur le thread principal
+    public void ensureLayout(Dungeon dungeon, Runnable then) {
+        if (dungeon.isLayoutLoaded()) {
+            then.run();
+            return;
+        }
 
-                // Sol en pierre
-                world.getBlockAt(loc).setType(Material.STONE);
+        List<Runnable> waiting = pendingLayouts.get(dungeon.getName());
+        if (waiting != null) {
+            waiting.add(then);
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(then);
+        pendingLayouts.put(dungeon.getName(), waiting);
+
+        if (dungeon.getGeneratorVersion() != GENERATOR_VERSION) {
+            plugin.getLogger().warning("Le donjon " + dungeon.getName() + " a été généré par une autre version du générateur : "
+                    + "coffres et pièges ne peuvent pas être recalculés");
+            completeLayout(dungeon, null);
+            return;
+        }
 
-                // Nettoyer l'air au-dessus
-                for (int y = 1; y <= 4; y++) {
-                    world.getBlockAt(loc.clone().add(0, y, 0)).setType(Material.AIR);
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                Dungeon rebuilt = null;
+                try {
+                    rebuilt = computePlan(dungeon.getName(), dungeon.getLocation(), dungeon.getSize(),
+                            dungeon.getDifficulty(), dungeon.getTemplate(), dungeon.getSeed()).dungeon;
+                } catch (RuntimeException e) {
+                    plugin.getLogger().severe("Impossible de recalculer le donjon " + dungeon.getName() + ": " + e.getMessage());
                 }
 
-                // Murs extérieurs
-                if (x == -size/2 || x == size/2 || z == -size/2 || z == size/2) {
-                    for (int y = 1; y <= 3; y++) {
-                        world.getBlockAt(loc.clone().add(0, y, 0)).setType(Material.COBBLESTONE);
+                Dungeon result = rebuilt;
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        completeLayout(dungeon, result);
                     }
-                }
+                }.runTask(plugin);
             }
-        }
-
-        // Ajouter quelques torches
-        world.getBlockAt(center.clone().add(-size/2 + 1, 2, -size/2 + 1)).setType(Material.TORCH);
-        world.getBlockAt(center.clone().add(size/2 - 1, 2, size/2 - 1)).setType(Material.TORCH);
+        }.runTaskAsynchronously(plugin);
     }
 
-    private Location findValidRoomLocation(Location center, boolean[][] maze) {
-        for (int attempts = 0; attempts < 50; attempts++) {
-            int x = random.nextInt(maze.length - 10) + 5;
-            int z = random.nextInt(maze[0].length - 10) + 5;
+    // ================================
+    // MONDE DES DONJONS
+    // ================================
+
+    // Thread principal : les chunks pas encore générés recevront la structure de DungeonChunkGenerator,
+    // seuls les chunks déjà existants (emplacement réutilisé, reprise) la reçoivent bloc par bloc
+    private void prepareWorldGeneration(GenerationJob job, GenerationPlan plan) {
+        World world = job.getLocation().getWorld();
+        MazeLayout layout = plan.layout;
+        plugin.getDungeonWorldManager().getGenerator().register(job.getDungeonName(), layout);
+
+        for (int chunkX = layout.getMinChunkX(); chunkX <= layout.getMaxChunkX(); chunkX++) {
+            for (int chunkZ = layout.getMinChunkZ(); chunkZ <= layout.getMaxChunkZ(); chunkZ++) {
+                if (!world.isChunkGenerated(chunkX, chunkZ)) {
+                    plan.pendingChunks.add(BlockSnapshot.chunkKey(chunkX, chunkZ));
+                }
+            }
+        }
 
-            if (maze[x][z]) {
-                return center.clone().add(x - maze.length/2, 1, z - maze[0].length/2);
+        // Le terrain d'un chunk généré avec la structure est le vide : l'enregistrer tel quel
+        boolean recordTerrain = plugin.getConfigManager().isTerrainRestoreEnabled();
+        for (BlockQueue.Section section : plan.structure.getSections()) {
+            if (recordTerrain && plan.pendingChunks.contains(BlockSnapshot.chunkKey(section.getChunkX(), section.getChunkZ()))) {
+                plugin.getSnapshotData().appendTerrain(job.getDungeonName(), world.getName(), TerrainLog.record(section, Material.AIR));
             }
         }
-        return null;
+        plan.structure.removeIf(section ->
+                plan.pendingChunks.contains(BlockSnapshot.chunkKey(section.getChunkX(), section.getChunkZ())));
+
+        // La liste des sections a changé depuis le dernier point de sauvegarde : tout reposer
+        if (job.isResumed() && job.getStage() == GenerationJob.Stage.STRUCTURE) {
+            job.setPlacedSections(0);
+        }
     }
 
-    private void placeBossRoom(Dungeon dungeon, boolean[][] maze) {
-        Location center = dungeon.getLocation();
-        World world = center.getWorld();
+    // Thread principal : les chunks sont chargés de façon synchrone (Spigot n'a pas de chargement asynchrone),
+    // répartis sur plusieurs ticks dans le budget de pose partagé avec les autres tâches de PlacementManager
+    private void preloadChunks(GenerationJob job, GenerationPlan plan, Runnable then) {
+        plugin.getPlacementManager().loadChunks(job.getLocation().getWorld(), plan.pendingChunks, job::isCancelled, () -> {
+            plugin.getDungeonWorldManager().getGenerator().unregister(job.getDungeonName());
+            if (job.isCancelled()) return;
 
-        // Placer la salle du boss au fond du donjon
-        int bossX = maze.length - 12;
-        int bossZ = maze[0].length - 12;
+            plan.pendingChunks.clear();
+            then.run();
+        });
+    }
 
-        Location bossRoomCenter = center.clone().add(bossX - maze.length/2, 1, bossZ - maze[0].length/2);
-        Location bossLocation = roomGenerator.generateBossRoom(world, bossRoomCenter,
-                plugin.getConfigManager().getBossRoomSize());
+    private void completeLayout(Dungeon dungeon, Dungeon rebuilt) {
+        dungeon.restoreLayout(rebuilt);
 
-        dungeon.setBossLocation(bossLocation);
+        List<Runnable> waiting = pendingLayouts.remove(dungeon.getName());
+        if (waiting != null) {
+            for (Runnable action : waiting) {
+                action.run();
+            }
+        }
     }
 
     // ================================
-    // GESTION DES MONSTRES
+    // REMISE À NEUF
     // ================================
 
-    private void spawnInitialMonsters(Dungeon dungeon, boolean[][] maze) {
-        Location center = dungeon.getLocation();
-        World world = center.getWorld();
+    // Thread principal : fige les chunks de l'emprise sur plusieurs ticks ; compactage et écriture se font
+    // hors du thread principal
+    private void captureSnapshot(Dungeon dungeon) {
+        World world = dungeon.getLocation().getWorld();
+        int minY = Math.max(dungeon.getMinY(), world.getMinHeight());
+        int maxY = Math.min(dungeon.getMaxY(), world.getMaxHeight() - 1);
 
-        int monsterCount = (dungeon.getSize() * dungeon.getDifficulty()) / 10;
-        monsterCount = Math.min(monsterCount, plugin.getConfigManager().getMaxMonstersPerDungeon());
-
-        EntityType[] monsterTypes = {EntityType.ZOMBIE, EntityType.SKELETON, EntityType.SPIDER, EntityType.CREEPER};
-
-        for (int i = 0; i < monsterCount; i++) {
-            Location spawnLoc = findValidSpawnLocation(center, maze);
-            if (spawnLoc != null) {
-                EntityType monsterType = monsterTypes[random.nextInt(monsterTypes.length)];
-                LivingEntity monster = (LivingEntity) world.spawnEntity(spawnLoc, monsterType);
-                enhanceMonster(monster, dungeon.getDifficulty());
+        takeChunkSnapshots(dungeon, chunks -> new BukkitRunnable() {
+            @Override
+            public void run() {
+                BlockSnapshot snapshot = BlockSnapshot.capture(chunks, dungeon.getMinX(), minY, dungeon.getMinZ(),
+                        dungeon.getMaxX(), maxY, dungeon.getMaxZ());
+                plugin.getSnapshotData().save(dungeon.getName(), snapshot);
             }
-        }
+        }.runTaskAsynchronously(plugin));
     }
 
-    private void spawnCustomMonsters(Dungeon dungeon, DungeonTemplate template, boolean[][] maze) {
-        Location center = dungeon.getLocation();
-        World world = center.getWorld();
-
-        int monsterCount = (template.getSize() * template.getDifficulty()) / 8;
-        monsterCount = Math.min(monsterCount, plugin.getConfigManager().getMaxMonstersPerDungeon());
+    // Copies réparties sur plusieurs ticks sous le budget de pose : un grand donjon couvre plus d'une centaine de chunks
+    private void takeChunkSnapshots(Dungeon dungeon, Consumer<Map<Long, ChunkSnapshot>> then) {
+        plugin.getPlacementManager().snapshotChunks(dungeon.getLocation().getWorld(),
+                dungeon.getMinX() >> 4, dungeon.getMinZ() >> 4, dungeon.getMaxX() >> 4, dungeon.getMaxZ() >> 4, then);
+    }
 
-        EntityType[] monsterTypes = template.getMonsterTypes();
+    // Réservé au propriétaire et aux administrateurs, sur un donjon vide
+    public void resetDungeon(Player player, String name) {
+        Dungeon dungeon = dungeons.get(name);
+        if (dungeon == null) {
+            player.sendMessage(MessageUtils.getMessage("messages.dungeon.not-found"));
+            return;
+        }
 
-        for (int i = 0; i < monsterCount; i++) {
-            Location spawnLoc = findValidSpawnLocation(center, maze);
-            if (spawnLoc != null && monsterTypes.length > 0) {
-                EntityType monsterType = monsterTypes[random.nextInt(monsterTypes.length)];
-                LivingEntity monster = (LivingEntity) world.spawnEntity(spawnLoc, monsterType);
-                enhanceMonster(monster, template.getDifficulty());
-            }
+        UUID owner = dungeonOwners.get(name);
+        if (owner != null && !owner.equals(player.getUniqueId()) &&
+                !player.hasPermission("proceduraldungeons.admin")) {
+            player.sendMessage(MessageUtils.getMessage("messages.general.no-permission"));
+            return;
         }
-    }
 
-    private void spawnRoomMonsters(World world, Location roomCenter, int difficulty) {
-        EntityType[] roomMonsters = {EntityType.ZOMBIE, EntityType.SKELETON, EntityType.SPIDER};
-        int count = 2 + difficulty;
+        if (resettingDungeons.contains(name)) {
+            player.sendMessage(MessageUtils.getMessage("messages.dungeon.resetting", "{name}", name));
+            return;
+        }
+        if (!dungeon.isEmpty()) {
+            player.sendMessage(MessageUtils.getMessage("messages.dungeon.reset-occupied", "{name}", name));
+            return;
+        }
+        if (!plugin.getSnapshotData().exists(name)) {
+            player.sendMessage(MessageUtils.getMessage("messages.dungeon.reset-no-snapshot", "{name}", name));
+            return;
+        }
 
-        for (int i = 0; i < count; i++) {
-            Location spawnLoc = roomCenter.clone().add(
-                    random.nextGaussian() * 3, 0, random.nextGaussian() * 3);
+        player.sendMessage(MessageUtils.getMessage("messages.dungeon.reset-started", "{name}", name));
+        UUID playerId = player.getUniqueId();
+        resetDungeon(dungeon, restored -> {
+            Player target = plugin.getServer().getPlayer(playerId);
+            if (target == null) return;
+
+            target.sendMessage(restored < 0 ?
+                    MessageUtils.getMessage("messages.dungeon.reset-no-snapshot", "{name}", name) :
+                    MessageUtils.getMessage("messages.dungeon.reset-complete",
+                            "{name}", name, "{count}", String.valueOf(restored)));
+        });
+    }
 
-            if (spawnLoc.getBlock().getType().isAir()) {
-                EntityType monsterType = roomMonsters[random.nextInt(roomMonsters.length)];
-                LivingEntity monster = (LivingEntity) world.spawnEntity(spawnLoc, monsterType);
-                enhanceMonster(monster, difficulty);
-            }
+    // Remet le donjon dans l'état capturé après sa génération en ne reposant que les blocs modifiés,
+    // puis remplit les coffres, réarme les pièges et replace les monstres. then reçoit le nombre
+    // de blocs reposés, ou -1 sans instantané utilisable. Thread principal
+    public void resetDungeon(Dungeon dungeon, IntConsumer then) {
+        if (!plugin.isEnabled() || !resettingDungeons.add(dungeon.getName())) {
+            then.accept(-1);
+            return;
         }
+
+        ensureLayout(dungeon, () -> startReset(dungeon, then));
     }
 
-    private void spawnTemplateMonsters(World world, Location roomCenter, DungeonTemplate template) {
-        EntityType[] monsterTypes = template.getMonsterTypes();
-        if (monsterTypes.length == 0) return;
+    private void startReset(Dungeon dungeon, IntConsumer then) {
+        plugin.getMonsterManager().despawnDungeon(dungeon);
 
-        int count = 2 + template.getDifficulty();
+        World world = dungeon.getLocation().getWorld();
+        boolean replan = dungeon.getSeed() != 0 && dungeon.getGeneratorVersion() == GENERATOR_VERSION;
 
-        for (int i = 0; i < count; i++) {
-            Location spawnLoc = roomCenter.clone().add(
-                    random.nextGaussian() * 3, 0, random.nextGaussian() * 3);
+        takeChunkSnapshots(dungeon, chunks -> plugin.getSnapshotData().load(dungeon.getName(), snapshot -> new BukkitRunnable() {
+            @Override
+            public void run() {
+                BlockQueue changes = null;
+                Dungeon rebuilt = null;
+                if (snapshot != null) {
+                    try {
+                        changes = snapshot.diff(chunks, world);
+
+                        // Les monstres tués sont recalculés depuis la graine ; sans graine, ceux qui restent sont gardés
+                        if (replan) {
+                            rebuilt = computePlan(dungeon.getName(), dungeon.getLocation(), dungeon.getSize(),
+                                    dungeon.getDifficulty(), dungeon.getTemplate(), dungeon.getSeed()).dungeon;
+                        }
+                    } catch (RuntimeException e) {
+                        plugin.getLogger().severe("Impossible de remettre à neuf le donjon " + dungeon.getName() + ": " + e.getMessage());
+                        changes = null;
+                    }
+                }
 
-            if (spawnLoc.getBlock().getType().isAir()) {
-                EntityType monsterType = monsterTypes[random.nextInt(monsterTypes.length)];
-                LivingEntity monster = (LivingEntity) world.spawnEntity(spawnLoc, monsterType);
-                enhanceMonster(monster, template.getDifficulty());
+                BlockQueue result = changes;
+                Dungeon plan = rebuilt;
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        if (result == null) {
+                            resettingDungeons.remove(dungeon.getName());
+                            then.accept(-1);
+                            return;
+                        }
+
+                        plugin.getPlacementManager().submit(result, null,
+                                () -> finishReset(dungeon, plan, result.size(), then));
+                    }
+                }.runTask(plugin);
             }
-        }
+        }.runTaskAsynchronously(plugin)));
     }
 
-    private void enhanceMonster(LivingEntity monster, int difficulty) {
-        // Augmenter la vie selon la difficulté
-        double healthMultiplier = 1.0 + (difficulty * 0.5);
-        monster.setMaxHealth(monster.getMaxHealth() * healthMultiplier);
-        monster.setHealth(monster.getMaxHealth());
+    private void finishReset(Dungeon dungeon, Dungeon rebuilt, int restored, IntConsumer then) {
+        resettingDungeons.remove(dungeon.getName());
 
-        // Ajouter des équipements/effets selon le type et la difficulté
-        // Cette partie peut être étendue selon les besoins
-    }
+        // Supprimé pendant la pose : les blocs sont reposés mais il n'y a plus d'état à remettre à zéro
+        if (dungeons.get(dungeon.getName()) != dungeon) return;
 
-    private Location findValidSpawnLocation(Location center, boolean[][] maze) {
-        for (int attempts = 0; attempts < 30; attempts++) {
-            int x = random.nextInt(maze.length - 4) + 2;
-            int z = random.nextInt(maze[0].length - 4) + 2;
+        dungeon.resetState(rebuilt);
 
-            if (maze[x][z]) {
-                Location spawnLoc = center.clone().add(x - maze.length/2, 1, z - maze[0].length/2);
-                if (spawnLoc.getBlock().getType().isAir()) {
-                    return spawnLoc;
-                }
+        // Coffres vidés : ils se remplissent à leur prochaine ouverture
+        for (Location chestLoc : dungeon.getTreasureChests()) {
+            BlockState state = chestLoc.getBlock().getState();
+            if (state instanceof Chest) {
+                ((Chest) state).getInventory().clear();
             }
         }
-        return null;
+
+        plugin.getDungeonData().saveDungeon(dungeon);
+        plugin.debug("Donjon " + dungeon.getName() + " remis à neuf : " + restored + " bloc(s) reposé(s)");
+        then.accept(restored);
     }
 
     // ================================
@@ -502,12 +593,44 @@ public class DungeonManager {
 
     public void enterDungeon(Player player, String name) {
         Dungeon dungeon = dungeons.get(name);
+
+        // Nom de réserve : une instance libre est attribuée au joueur
+        if (dungeon == null && plugin.getInstanceManager().isPool(name)) {
+            plugin.getInstanceManager().enterPool(player, name);
+            return;
+        }
+
         if (dungeon == null) {
             player.sendMessage(MessageUtils.getMessage("messages.dungeon.not-found"));
             return;
         }
 
-        DungeonPlayer dungeonPlayer = getDungeonPlayer(player.getUniqueId());
+        if (resettingDungeons.contains(name)) {
+            player.sendMessage(MessageUtils.getMessage("messages.dungeon.resetting", "{name}", name));
+            return;
+        }
+
+        // Donjon sauvegardé par graine : reprendre l'entrée une fois coffres et pièges recalculés
+        if (!dungeon.isLayoutLoaded()) {
+            player.sendMessage(MessageUtils.getMessage("messages.dungeon.loading-layout", "{name}", name));
+            ensureLayout(dungeon, () -> {
+                if (player.isOnline()) {
+                    enterDungeon(player, name);
+                }
+            });
+            return;
+        }
+
+        // Profil encore en chargement (connexion récente) : reprendre l'entrée une fois chargé
+        DungeonPlayer dungeonPlayer = getLoadedPlayer(player.getUniqueId());
+        if (dungeonPlayer == null) {
+            loadPlayerData(player.getUniqueId(), loaded -> {
+                if (player.isOnline()) {
+                    enterDungeon(player, name);
+                }
+            });
+            return;
+        }
 
         if (dungeonPlayer.isInDungeon()) {
             player.sendMessage(MessageUtils.getMessage("messages.dungeon.already-in-dungeon"));
@@ -537,6 +660,10 @@ public class DungeonManager {
         // Ajouter le joueur au donjon
         dungeon.addActivePlayer(player.getUniqueId().toString());
         dungeon.incrementTimesEntered();
+        if (dungeon.isInstance()) {
+            plugin.getInstanceManager().claim(dungeon);
+        }
+        plugin.getPlayerData().incrementDungeonsEntered(player.getUniqueId());
 
         // Messages
         player.sendMessage(MessageUtils.getMessage("messages.dungeon.entered", "{name}", name));
@@ -556,7 +683,15 @@ public class DungeonManager {
     }
 
     public void leaveDungeon(Player player) {
-        DungeonPlayer dungeonPlayer = getDungeonPlayer(player.getUniqueId());
+        DungeonPlayer dungeonPlayer = getLoadedPlayer(player.getUniqueId());
+        if (dungeonPlayer == null) {
+            loadPlayerData(player.getUniqueId(), loaded -> {
+                if (player.isOnline()) {
+                    leaveDungeon(player);
+                }
+            });
+            return;
+        }
 
         if (!dungeonPlayer.isInDungeon()) {
             player.sendMessage(MessageUtils.getMessage("messages.dungeon.not-in-dungeon"));
@@ -581,6 +716,7 @@ public class DungeonManager {
 
             if (dungeon.getActivePlayerCount() == 0) {
                 notifyDungeonPlayers(dungeon, MessageUtils.getMessage("messages.notifications.dungeon-empty"), null);
+                releaseIfInstance(dungeon);
             }
         }
 
@@ -615,10 +751,9 @@ public class DungeonManager {
     private void spawnBoss(Dungeon dungeon) {
         Location bossLoc = dungeon.getBossLocation();
         if (bossLoc != null) {
-            World world = bossLoc.getWorld();
-
             EntityType bossType = getBossTypeForDifficulty(dungeon.getDifficulty());
-            LivingEntity boss = (LivingEntity) world.spawnEntity(bossLoc, bossType);
+            LivingEntity boss = plugin.getMonsterManager().spawn(bossLoc, bossType, dungeon, Dungeon.MonsterRole.BOSS);
+            if (boss == null) return;
 
             // Améliorer le boss
             double healthMultiplier = plugin.getConfigManager().getBossHealthMultiplier();
@@ -628,6 +763,7 @@ public class DungeonManager {
             // Nom personnalisé pour le boss
             boss.setCustomName("§4Boss du Donjon " + dungeon.getName());
             boss.setCustomNameVisible(true);
+            plugin.getMonsterManager().track(boss, dungeon, Dungeon.MonsterRole.BOSS);
 
             dungeon.setBossAlive(true);
 
@@ -675,19 +811,23 @@ public class DungeonManager {
             return;
         }
 
-        if (dungeons.containsKey(newName)) {
+        if (dungeons.containsKey(newName) || plugin.getGenerationScheduler().isNameReserved(newName)) {
             player.sendMessage(MessageUtils.getMessage("messages.dungeon.already-exists", "{name}", newName));
             return;
         }
 
-        // Créer une copie
-        Dungeon copy = new Dungeon(newName, player.getLocation(), source.getSize(), source.getDifficulty());
-
-        dungeons.put(newName, copy);
-        dungeonOwners.put(newName, player.getUniqueId());
-        plugin.getDungeonData().saveDungeon(copy);
+        // Sans graine, la disposition d'origine ne peut pas être recalculée
+        if (source.getSeed() == 0) {
+            player.sendMessage(MessageUtils.getMessage("messages.dungeon.copy-no-seed", "{name}", sourceName));
+            return;
+        }
 
-        player.sendMessage("§aDonjon '" + sourceName + "' copié vers '" + newName + "'");
+        // Même graine, même taille et même template : la copie est identique à l'original
+        GenerationJob job = plugin.getGenerationScheduler().submit(player, newName, getCreationLocation(player),
+                source.getSize(), source.getDifficulty(), source.getTemplate(), source.getSeed());
+        if (job != null) {
+            player.sendMessage("§aCopie du donjon '" + sourceName + "' vers '" + newName + "' lancée");
+        }
     }
 
     // ================================
@@ -736,13 +876,188 @@ public class DungeonManager {
         player.sendMessage("§7Fois entré: §f" + dungeon.getTimesEntered());
         player.sendMessage("§7Fois complété: §f" + dungeon.getTimesCompleted());
         player.sendMessage("§7Taux de réussite: §f" + String.format("%.1f%%", dungeon.getCompletionRate()));
-        player.sendMessage("§7Coffres au trésor: §f" + dungeon.getTreasureChests().size());
-        player.sendMessage("§7Pièges: §f" + dungeon.getTraps().size());
+        if (dungeon.isLayoutLoaded()) {
+            player.sendMessage("§7Coffres au trésor: §f" + dungeon.getTreasureChestCount());
+            player.sendMessage("§7Pièges: §f" + dungeon.getTrapCount());
+            player.sendMessage("§7Monstres restants: §f" + dungeon.getMonsterSpawnCount());
+        } else {
+            player.sendMessage("§7Coffres et pièges: §fcalculés à la première entrée");
+        }
         player.sendMessage("§7Record de vitesse: §f" + dungeon.getFormattedFastestCompletion());
         player.sendMessage("§7Créé le: §f" + dungeon.getFormattedCreationDate());
         player.sendMessage("§7Boss vivant: §f" + (dungeon.isBossAlive() ? "§aOui" : "§cNon"));
     }
 
+    // Générations du joueur (toutes pour un administrateur) avec leur position et leur avancement
+    public void showGenerationQueue(Player player) {
+        GenerationScheduler scheduler = plugin.getGenerationScheduler();
+        List<GenerationJob> jobs = player.hasPermission("proceduraldungeons.admin") ?
+                scheduler.getAllJobs() : scheduler.getJobs(player.getUniqueId());
+
+        player.sendMessage(MessageUtils.getMessage("messages.generation.header",
+                "{running}", String.valueOf(scheduler.getRunningCount()),
+                "{queued}", String.valueOf(scheduler.getQueuedCount())));
+
+        if (jobs.isEmpty()) {
+            player.sendMessage(MessageUtils.getMessage("messages.generation.empty"));
+            return;
+        }
+
+        for (GenerationJob job : jobs) {
+            String detail = job.getState() == GenerationJob.State.QUEUED ?
+                    "#" + scheduler.getQueuePosition(job) : job.getProgress() + "%";
+            player.sendMessage(MessageUtils.getMessage("messages.generation.entry",
+                    "{name}", job.getDungeonName(),
+                    "{state}", job.getState().getDisplayName(),
+                    "{detail}", detail));
+        }
+    }
+
+    // Réservé au propriétaire de la génération et aux administrateurs
+    public void cancelGeneration(Player player, String name) {
+        GenerationScheduler scheduler = plugin.getGenerationScheduler();
+        GenerationJob job = scheduler.getJob(name);
+
+        if (job == null) {
+            player.sendMessage(MessageUtils.getMessage("messages.generation.not-found", "{name}", name));
+            return;
+        }
+
+        if (!job.getOwnerId().equals(player.getUniqueId()) && !player.hasPermission("proceduraldungeons.admin")) {
+            player.sendMessage(MessageUtils.getMessage("messages.general.no-permission"));
+            return;
+        }
+
+        boolean started = job.getState() != GenerationJob.State.QUEUED;
+        if (!scheduler.cancel(job)) return;
+
+        String message = !started ? "messages.generation.cancelled" :
+                plugin.getConfigManager().isTerrainRestoreEnabled() ? "messages.generation.cancelled-restoring" :
+                "messages.generation.cancelled-partial";
+        player.sendMessage(MessageUtils.getMessage(message, "{name}", name));
+    }
+
+    // ================================
+    // STATISTIQUES ET CLASSEMENTS
+    // ================================
+
+    // Les lectures passent par le stockage (éventuellement SQLite) : hors du thread principal
+    public void showPlayerStats(Player viewer, String targetName) {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                OfflinePlayer target = targetName == null ? viewer : plugin.getServer().getOfflinePlayer(targetName);
+                boolean known = target.isOnline() || target.hasPlayedBefore();
+                PlayerData.PlayerStats stats = known ? plugin.getPlayerData().getPlayerStats(target.getUniqueId()) : null;
+                String name = target.getName() != null ? target.getName() : targetName;
+
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        if (!viewer.isOnline()) return;
+
+                        if (stats == null || stats.totalDungeonsEntered == 0) {
+                            viewer.sendMessage(MessageUtils.getMessage("messages.stats.no-stats"));
+                            return;
+                        }
+
+                        viewer.sendMessage(MessageUtils.getMessage("messages.stats.header", "{player}", name));
+                        viewer.sendMessage(MessageUtils.getMessage("messages.stats.dungeons-entered",
+                                "{count}", String.valueOf(stats.totalDungeonsEntered)));
+                        viewer.sendMessage(MessageUtils.getMessage("messages.stats.dungeons-completed",
+                                "{count}", String.valueOf(stats.totalDungeonsCompleted)));
+                        viewer.sendMessage(MessageUtils.getMessage("messages.stats.monsters-killed",
+                                "{count}", String.valueOf(stats.totalMonstersKilled)));
+                        viewer.sendMessage(MessageUtils.getMessage("messages.stats.treasures-found",
+                                "{count}", String.valueOf(stats.totalTreasuresFound)));
+                        viewer.sendMessage(MessageUtils.getMessage("messages.stats.time-played",
+                                "{time}", formatDuration(stats.totalTimeInDungeons)));
+                        viewer.sendMessage(MessageUtils.getMessage("messages.stats.footer"));
+                    }
+                }.runTask(plugin);
+            }
+        }.runTaskAsynchronously(plugin);
+    }
+
+    public void showLeaderboard(Player viewer, String category) {
+        PlayerData.Stat stat = parseLeaderboardCategory(category);
+        if (stat == null) {
+            viewer.sendMessage("§cCatégorie inconnue. Catégories: " + String.join(", ", LEADERBOARD_CATEGORIES));
+            return;
+        }
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                List<PlayerData.LeaderboardEntry> entries = plugin.getPlayerData().getTopPlayers(stat, LEADERBOARD_SIZE);
+
+                List<String> lines = new ArrayList<>();
+                int rank = 1;
+                for (PlayerData.LeaderboardEntry entry : entries) {
+                    String name = plugin.getServer().getOfflinePlayer(entry.playerId).getName();
+                    String value = stat == PlayerData.Stat.TIME_IN_DUNGEONS ?
+                            formatDuration(entry.value) : String.valueOf(entry.value);
+                    lines.add(MessageUtils.getMessage("messages.stats.leaderboard-entry",
+                            "{rank}", String.valueOf(rank++),
+                            "{player}", name != null ? name : entry.playerId.toString(),
+                            "{value}", value));
+                }
+
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        if (!viewer.isOnline()) return;
+
+                        if (lines.isEmpty()) {
+                            viewer.sendMessage(MessageUtils.getMessage("messages.stats.no-stats"));
+                            return;
+                        }
+
+                        viewer.sendMessage(MessageUtils.getMessage("messages.stats.leaderboard-header",
+                                "{category}", category.toLowerCase()));
+                        for (String line : lines) {
+                            viewer.sendMessage(line);
+                        }
+                        viewer.sendMessage(MessageUtils.getMessage("messages.stats.leaderboard-footer"));
+                    }
+                }.runTask(plugin);
+            }
+        }.runTaskAsynchronously(plugin);
+    }
+
+    public List<String> getLeaderboardCategories() {
+        return LEADERBOARD_CATEGORIES;
+    }
+
+    private PlayerData.Stat parseLeaderboardCategory(String category) {
+        switch (category.toLowerCase()) {
+            case "entres":
+                return PlayerData.Stat.DUNGEONS_ENTERED;
+            case "completes":
+                return PlayerData.Stat.DUNGEONS_COMPLETED;
+            case "monstres":
+                return PlayerData.Stat.MONSTERS_KILLED;
+            case "tresors":
+                return PlayerData.Stat.TREASURES_FOUND;
+            case "temps":
+                return PlayerData.Stat.TIME_IN_DUNGEONS;
+            default:
+                return null;
+        }
+    }
+
+    private String formatDuration(long millis) {
+        long minutes = millis / 60000;
+        long hours = minutes / 60;
+        minutes = minutes % 60;
+
+        if (hours > 0) {
+            return hours + "h " + minutes + "m";
+        } else {
+            return minutes + "m";
+        }
+    }
+
     public void deleteDungeon(Player player, String name) {
         if (!dungeons.containsKey(name)) {
             player.sendMessage(MessageUtils.getMessage("messages.dungeon.not-found"));
@@ -759,6 +1074,12 @@ public class DungeonManager {
 
         Dungeon dungeon = dungeons.get(name);
 
+        // Une remise à neuf en cours reposerait le donjon par-dessus le terrain restauré
+        if (resettingDungeons.contains(name)) {
+            player.sendMessage(MessageUtils.getMessage("messages.dungeon.resetting", "{name}", name));
+            return;
+        }
+
         // Faire sortir tous les joueurs du donjon
         for (String playerId : new HashSet<>(dungeon.getActivePlayers())) {
             try {
@@ -772,24 +1093,130 @@ public class DungeonManager {
             }
         }
 
-        dungeons.remove(name);
+        plugin.getMonsterManager().despawnDungeon(dungeon);
+        unregisterDungeon(dungeon);
         dungeonOwners.remove(name);
         plugin.getDungeonData().deleteDungeon(name);
+        plugin.getSnapshotData().delete(name);
 
         player.sendMessage(MessageUtils.getMessage("messages.dungeon.deleted", "{name}", name));
+
+        if (plugin.getConfigManager().isTerrainRestoreEnabled() && plugin.getSnapshotData().hasTerrain(name)) {
+            player.sendMessage(MessageUtils.getMessage("messages.dungeon.terrain-restoring", "{name}", name));
+            restoreTerrain(name);
+        }
+    }
+
+    // Repose le terrain d'origine par lots, sous le même budget par tick que la génération. Le journal n'est
+    // supprimé qu'une fois tout posé : une restauration interrompue par un arrêt reprend au démarrage
+    public void restoreTerrain(String name) {
+        plugin.getSnapshotData().loadTerrain(name, this::placeTerrain);
+    }
+
+    public void resumeTerrainRestores() {
+        plugin.getSnapshotData().loadPendingRestores((restoreId, terrain) -> {
+            plugin.getLogger().info("Reprise de la restauration du terrain " + restoreId);
+            placeTerrain(restoreId, terrain);
+        });
+    }
+
+    // Thread d'E/S : le monde est résolu sur le thread principal, la file de blocs construite en asynchrone
+    private void placeTerrain(String restoreId, TerrainLog terrain) {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                World world = plugin.getServer().getWorld(terrain.getWorldName());
+                if (world == null) {
+                    plugin.getLogger().warning("Monde " + terrain.getWorldName() + " introuvable, restauration du terrain "
+                            + restoreId + " reportée");
+                    return;
+                }
+
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        BlockQueue blocks = terrain.toQueue(world);
+
+                        new BukkitRunnable() {
+                            @Override
+                            public void run() {
+                                long startTime = System.currentTimeMillis();
+                                PlacementManager.PlacementTask task = plugin.getPlacementManager().submit(blocks, null, () -> {
+                                    plugin.getSnapshotData().finishRestore(restoreId);
+                                    plugin.logPerformance("Terrain restore: " + restoreId + " (" + blocks.size() + " blocks)", startTime);
+                                });
+                                task.setResumable(true);
+                            }
+                        }.runTask(plugin);
+                    }
+                }.runTaskAsynchronously(plugin);
+            }
+        }.runTask(plugin);
     }
 
     // ================================
     // MÉTHODES DE DONNÉES
     // ================================
 
+    // Thread principal : le stockage n'est jamais lu ici. Tant que le chargement asynchrone de la connexion
+    // n'est pas terminé, le profil retourné est vide (hors donjon) et n'est pas conservé : les listeners
+    // l'ignorent, les actions qui modifient le profil passent par loadPlayerData
     public DungeonPlayer getDungeonPlayer(UUID playerId) {
-        return dungeonPlayers.computeIfAbsent(playerId, DungeonPlayer::new);
+        DungeonPlayer player = getLoadedPlayer(playerId);
+        return player != null ? player : new DungeonPlayer(playerId);
     }
 
-    public void loadPlayerData(UUID playerId) {
-        DungeonPlayer player = plugin.getPlayerData().loadPlayer(playerId);
-        dungeonPlayers.put(playerId, player);
+    // Profil en mémoire ou en attente de sauvegarde, null s'il n'est pas encore chargé
+    public DungeonPlayer getLoadedPlayer(UUID playerId) {
+        DungeonPlayer player = dungeonPlayers.get(playerId);
+        return player != null ? player : offlineProfiles.get(playerId);
+    }
+
+    // Charge le profil en asynchrone puis appelle le callback sur le thread principal
+    public void loadPlayerData(UUID playerId, Consumer<DungeonPlayer> callback) {
+        DungeonPlayer cached = dungeonPlayers.get(playerId);
+        if (cached == null) {
+            cached = offlineProfiles.remove(playerId);
+            if (cached != null) {
+                dungeonPlayers.put(playerId, cached);
+            }
+        }
+
+        if (cached != null) {
+            callback.accept(cached);
+            return;
+        }
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                DungeonPlayer loaded = plugin.getPlayerData().loadPlayer(playerId);
+
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        // Le joueur a pu se déconnecter pendant le chargement
+                        if (plugin.getServer().getPlayer(playerId) == null) {
+                            offlineProfiles.put(playerId, loaded);
+                            return;
+                        }
+
+                        DungeonPlayer existing = dungeonPlayers.putIfAbsent(playerId, loaded);
+                        callback.accept(existing != null ? existing : loaded);
+                    }
+                }.runTask(plugin);
+            }
+        }.runTaskAsynchronously(plugin);
+    }
+
+    // Sauvegarde le profil et le retire des joueurs en ligne
+    public void unloadPlayerData(UUID playerId) {
+        savePlayerData(playerId);
+
+        DungeonPlayer player = dungeonPlayers.remove(playerId);
+        if (player != null) {
+            offlineProfiles.put(playerId, player);
+        }
     }
 
     public void savePlayerData(UUID playerId) {
@@ -803,6 +1230,9 @@ public class DungeonManager {
         Dungeon dungeon = dungeons.get(dungeonName);
         if (dungeon != null) {
             dungeon.removeActivePlayer(playerId.toString());
+            if (dungeon.isEmpty()) {
+                releaseIfInstance(dungeon);
+            }
         }
 
         DungeonPlayer player = dungeonPlayers.get(playerId);
@@ -811,25 +1241,56 @@ public class DungeonManager {
         }
     }
 
+    // Instance vidée : elle repart en reconstruction pour sa réserve
+    private void releaseIfInstance(Dungeon dungeon) {
+        if (dungeon.isInstance() && dungeons.get(dungeon.getName()) == dungeon) {
+            plugin.getInstanceManager().release(dungeon);
+        }
+    }
+
+    // Retire une instance du jeu avant sa reconstruction ; le job qui la remplace réserve son nom
+    public void discardInstance(Dungeon dungeon) {
+        plugin.getMonsterManager().despawnDungeon(dungeon);
+        unregisterDungeon(dungeon);
+        dungeonOwners.remove(dungeon.getName());
+        plugin.getDungeonData().deleteDungeon(dungeon.getName());
+        plugin.getSnapshotData().delete(dungeon.getName());
+    }
+
     public boolean isLocationInDungeon(Location location, String dungeonName) {
         Dungeon dungeon = dungeons.get(dungeonName);
         if (dungeon == null) return false;
 
-        Location dungeonCenter = dungeon.getLocation();
-        if (!location.getWorld().equals(dungeonCenter.getWorld())) return false;
+        return dungeon.contains(location);
+    }
+
+    // Donjon dont l'emprise contient la position, ou null
+    public Dungeon getDungeonAt(Location location) {
+        return spatialIndex.getDungeonAt(location);
+    }
+
+    // Donjons à moins de margin blocs de la position, rangés dans result (index spatial, aucune copie)
+    public void collectDungeonsNear(Location location, int margin, List<Dungeon> result) {
+        spatialIndex.collectNear(location, margin, result);
+    }
 
-        double distance = location.distance(dungeonCenter);
-        double maxDistance = dungeon.getSize() * Math.sqrt(2) / 2; // Rayon du donjon
+    private void registerDungeon(Dungeon dungeon) {
+        dungeons.put(dungeon.getName(), dungeon);
+        spatialIndex.add(dungeon);
+    }
 
-        return distance <= maxDistance;
+    private void unregisterDungeon(Dungeon dungeon) {
+        dungeons.remove(dungeon.getName());
+        spatialIndex.remove(dungeon);
     }
 
     public Dungeon getDungeon(String name) {
         return dungeons.get(name);
     }
 
+    // Vue en lecture seule, sans copie : la map est concurrente, son parcours reste sûr pendant une modification
     public Map<String, Dungeon> getDungeons() {
-        return new HashMap<>(dungeons);
+        return Collections.unmodifiableMap(dungeons);
     }
 
     public List<String> getDungeonNames() {
@@ -849,17 +1310,15 @@ public class DungeonManager {
     }
 
     private void loadData() {
-        plugin.debug("Loading dungeons and players data...");
+        plugin.debug("Loading dungeons data...");
 
         // Charger les donjons
         Map<String, Dungeon> loadedDungeons = plugin.getDungeonData().loadAllDungeons();
-        dungeons.putAll(loadedDungeons);
-
-        // Charger les joueurs
-        Map<UUID, DungeonPlayer> loadedPlayers = plugin.getPlayerData().loadAllPlayers();
-        dungeonPlayers.putAll(loadedPlayers);
+        for (Dungeon dungeon : loadedDungeons.values()) {
+            registerDungeon(dungeon);
+        }
 
-        plugin.getLogger().info("Chargés: " + dungeons.size() + " donjons et " + dungeonPlayers.size() + " joueurs");
+        plugin.getLogger().info("Chargés: " + dungeons.size() + " donjons");
     }
 
     public void saveAllData() {
@@ -893,4 +1352,63 @@ public class DungeonManager {
 
         plugin.getLogger().info("DungeonManager shutdown complete");
     }
-}
\ No newline at end of file
+
+    // Classe interne GenerationPlan
+
+    // Résultat du calcul d'un donjon, avec l'état propre à sa pose
+    private static class GenerationPlan {
+        private final DungeonPlanner.Plan computed;
+        private final Dungeon dungeon;
+        private final BlockQueue structure;
+        private final BlockQueue rooms;
+        private final BlockQueue traps;
+
+        // Mesures : blocs et chunks avant que DungeonChunkGenerator ne reprenne une partie de la structure
+        private final int blockCount;
+        private final int chunkCount;
+        private long placementNanos;
+
+        // Chunks à faire générer par DungeonChunkGenerator avant la pose (monde des donjons uniquement)
+        private final Set<Long> pendingChunks;
+        private final MazeLayout layout;
+
+        private GenerationPlan(DungeonPlanner.Plan computed) {
+            this.computed = computed;
+            this.dungeon = computed.getDungeon();
+            this.structure = computed.getStructure();
+            this.rooms = computed.getRooms();
+            this.traps = computed.getTraps();
+            this.layout = computed.getLayout();
+            this.pendingChunks = new LinkedHashSet<>();
+            this.blockCount = structure.size() + rooms.size() + traps.size();
+            this.chunkCount = computed.countChunks();
+            this.placementNanos = 0;
+        }
+
+        private BlockQueue getBlocks(GenerationJob.Stage stage) {
+            switch (stage) {
+                case STRUCTURE:
+                    return structure;
+                case ROOMS:
+                    return rooms;
+                default:
+                    return traps;
+            }
+        }
+
+        private int getBlocksBefore(GenerationJob.Stage stage) {
+            switch (stage) {
+                case STRUCTURE:
+                    return 0;
+                case ROOMS:
+                    return structure.size();
+                default:
+                    return structure.size() + rooms.size();
+            }
+        }
+
+        private int getTotalBlocks() {
+            return structure.size() + rooms.size() + traps.size();
+        }
+    }
+}
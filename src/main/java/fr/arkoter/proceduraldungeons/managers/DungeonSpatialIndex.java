@@ -0,0 +1,130 @@
+package fr.arkoter.proceduraldungeons.managers;
+
+import fr.arkoter.proceduraldungeons.models.Dungeon;
+import fr.arkoter.proceduraldungeons.utils.LongHashMap;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Index monde + chunk -> donjons dont l'emprise recouvre ce chunk
+// Utilisé depuis le thread principal uniquement
+public class DungeonSpatialIndex {
+
+    private final Map<UUID, LongHashMap<List<Dungeon>>> worlds;
+
+    public DungeonSpatialIndex() {
+        this.worlds = new HashMap<>();
+    }
+
+    public void add(Dungeon dungeon) {
+        World world = dungeon.getLocation().getWorld();
+        if (world == null) return;
+
+        LongHashMap<List<Dungeon>> chunks = worlds.computeIfAbsent(world.getUID(), id -> new LongHashMap<>());
+
+        for (int chunkX = dungeon.getMinX() >> 4; chunkX <= dungeon.getMaxX() >> 4; chunkX++) {
+            for (int chunkZ = dungeon.getMinZ() >> 4; chunkZ <= dungeon.getMaxZ() >> 4; chunkZ++) {
+                long key = chunkKey(chunkX, chunkZ);
+                List<Dungeon> list = chunks.get(key);
+                if (list == null) {
+                    list = new ArrayList<>(1);
+                    chunks.put(key, list);
+                }
+                if (!list.contains(dungeon)) {
+                    list.add(dungeon);
+                }
+            }
+        }
+    }
+
+    public void remove(Dungeon dungeon) {
+        World world = dungeon.getLocation().getWorld();
+        if (world == null) return;
+
+        LongHashMap<List<Dungeon>> chunks = worlds.get(world.getUID());
+        if (chunks == null) return;
+
+        for (int chunkX = dungeon.getMinX() >> 4; chunkX <= dungeon.getMaxX() >> 4; chunkX++) {
+            for (int chunkZ = dungeon.getMinZ() >> 4; chunkZ <= dungeon.getMaxZ() >> 4; chunkZ++) {
+                long key = chunkKey(chunkX, chunkZ);
+                List<Dungeon> list = chunks.get(key);
+                if (list != null) {
+                    list.remove(dungeon);
+                    if (list.isEmpty()) {
+                        chunks.remove(key);
+                    }
+                }
+            }
+        }
+
+        if (chunks.isEmpty()) {
+            worlds.remove(world.getUID());
+        }
+    }
+
+    // Donjon contenant la position, ou null (aucune allocation)
+    public Dungeon getDungeonAt(Location location) {
+        World world = location.getWorld();
+        if (world == null) return null;
+
+        LongHashMap<List<Dungeon>> chunks = worlds.get(world.getUID());
+        if (chunks == null) return null;
+
+        int x = location.getBlockX();
+        int y = location.getBlockY();
+        int z = location.getBlockZ();
+
+        List<Dungeon> candidates = chunks.get(chunkKey(x >> 4, z >> 4));
+        if (candidates == null) return null;
+
+        for (int i = 0; i < candidates.size(); i++) {
+            Dungeon dungeon = candidates.get(i);
+            if (dungeon.contains(x, y, z)) {
+                return dungeon;
+            }
+        }
+
+        return null;
+    }
+
+    // Donjons à moins de margin blocs de la position, rangés dans result (vidée avant, aucune allocation)
+    public void collectNear(Location location, int margin, List<Dungeon> result) {
+        result.clear();
+
+        World world = location.getWorld();
+        if (world == null) return;
+
+        LongHashMap<List<Dungeon>> chunks = worlds.get(world.getUID());
+        if (chunks == null) return;
+
+        int x = location.getBlockX();
+        int z = location.getBlockZ();
+
+        for (int chunkX = (x - margin) >> 4; chunkX <= (x + margin) >> 4; chunkX++) {
+            for (int chunkZ = (z - margin) >> 4; chunkZ <= (z + margin) >> 4; chunkZ++) {
+                List<Dungeon> candidates = chunks.get(chunkKey(chunkX, chunkZ));
+                if (candidates == null) continue;
+
+                for (int i = 0; i < candidates.size(); i++) {
+                    Dungeon dungeon = candidates.get(i);
+                    if (!result.contains(dungeon) && dungeon.isNear(location, margin)) {
+                        result.add(dungeon);
+                    }
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,96 @@
+package fr.arkoter.proceduraldungeons.managers;
+
+import fr.arkoter.proceduraldungeons.ProceduralDungeons;
+import fr.arkoter.proceduraldungeons.generators.DungeonChunkGenerator;
+import fr.arkoter.proceduraldungeons.models.Dungeon;
+import fr.arkoter.proceduraldungeons.models.GenerationJob;
+import org.bukkit.GameRule;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// Monde dédié aux donjons : vide, créé par le plugin avec DungeonChunkGenerator. Les donjons y sont
+// placés sur des emplacements alignés plutôt qu'à la position du créateur
+// Utilisé depuis le thread principal uniquement
+public class DungeonWorldManager {
+
+    private final ProceduralDungeons plugin;
+    private final DungeonChunkGenerator generator;
+    private World world;
+
+    public DungeonWorldManager(ProceduralDungeons plugin) {
+        this.plugin = plugin;
+        this.generator = new DungeonChunkGenerator();
+        loadWorld();
+    }
+
+    // Le monde doit exister avant le chargement des donjons, sans quoi leurs positions sont invalides
+    private void loadWorld() {
+        if (!plugin.getConfigManager().isDungeonWorldEnabled()) return;
+
+        String worldName = plugin.getConfigManager().getDungeonWorldName();
+        world = plugin.getServer().getWorld(worldName);
+        if (world == null) {
+            world = new WorldCreator(worldName)
+                    .generator(generator)
+                    .generateStructures(false)
+                    .createWorld();
+        }
+
+        if (world == null) {
+            plugin.getLogger().severe("Impossible de créer le monde des donjons " + worldName);
+            return;
+        }
+
+        world.setGameRule(GameRule.DO_MOB_SPAWNING, false);
+        plugin.getLogger().info("Monde des donjons: " + worldName);
+    }
+
+    public boolean isEnabled() {
+        return world != null;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public boolean isDungeonWorld(World other) {
+        return world != null && world.equals(other);
+    }
+
+    public DungeonChunkGenerator getGenerator() {
+        return generator;
+    }
+
+    // Premier emplacement libre le long de l'axe X, donjons et générations en file compris
+    public Location allocate() {
+        int spacing = getSpacing();
+        Set<Integer> used = new HashSet<>();
+
+        for (Dungeon dungeon : plugin.getDungeonManager().getDungeons().values()) {
+            if (isDungeonWorld(dungeon.getLocation().getWorld())) {
+                used.add(Math.floorDiv(dungeon.getLocation().getBlockX(), spacing));
+            }
+        }
+        for (GenerationJob job : plugin.getGenerationScheduler().getAllJobs()) {
+            if (isDungeonWorld(job.getLocation().getWorld())) {
+                used.add(Math.floorDiv(job.getLocation().getBlockX(), spacing));
+            }
+        }
+
+        int slot = 0;
+        while (used.contains(slot)) {
+            slot++;
+        }
+        return new Location(world, (double) slot * spacing, plugin.getConfigManager().getDungeonWorldHeight(), 0);
+    }
+
+    // Deux emplacements voisins ne doivent jamais se chevaucher, même à la taille maximale
+    private int getSpacing() {
+        return Math.max(plugin.getConfigManager().getDungeonWorldSpacing(),
+                plugin.getConfigManager().getMaxDungeonSize() + 32);
+    }
+}
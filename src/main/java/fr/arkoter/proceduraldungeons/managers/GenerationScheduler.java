@@ -0,0 +1,350 @@
+package fr.arkoter.proceduraldungeons.managers;
+
+import fr.arkoter.proceduraldungeons.ProceduralDungeons;
+import fr.arkoter.proceduraldungeons.data.GenerationData;
+import fr.arkoter.proceduraldungeons.models.DungeonTemplate;
+import fr.arkoter.proceduraldungeons.models.GenerationJob;
+import fr.arkoter.proceduraldungeons.utils.LocationUtils;
+import fr.arkoter.proceduraldungeons.utils.MessageUtils;
+import org.bukkit.Location;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.UUID;
+
+// File des générations de donjons : au plus performance.max-active-dungeons en cours,
+// les demandes des administrateurs passent devant, puis ordre d'arrivée
+// Utilisé depuis le thread principal uniquement
+public class GenerationScheduler {
+
+    private static final Comparator<GenerationJob> ORDER = Comparator
+            .comparing((GenerationJob job) -> !job.isPriority())
+            .thenComparingInt(GenerationJob::getId);
+
+    // Propriétaire des générations lancées par le plugin lui-même (réserves d'instances)
+    public static final UUID SYSTEM_OWNER = new UUID(0L, 0L);
+
+    private final ProceduralDungeons plugin;
+    private final PriorityQueue<GenerationJob> queue;
+    private final List<GenerationJob> running;
+    private final GenerationData checkpoints;
+    private final Random random;
+    private int nextId;
+
+    // Dernier état écrit sur disque, pour ne réécrire le fichier que s'il a changé
+    private Map<String, Map<String, Object>> lastCheckpoint;
+    private BukkitTask checkpointTask;
+
+    public GenerationScheduler(ProceduralDungeons plugin) {
+        this.plugin = plugin;
+        this.queue = new PriorityQueue<>(ORDER);
+        this.running = new ArrayList<>();
+        this.checkpoints = new GenerationData(plugin);
+        this.random = new Random();
+        this.nextId = 1;
+        this.lastCheckpoint = new LinkedHashMap<>();
+
+        int interval = Math.max(1, plugin.getConfigManager().getSaveFlushInterval()) * 20;
+        this.checkpointTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::saveCheckpoints, interval, interval);
+    }
+
+    // ================================
+    // SOUMISSION ET ANNULATION
+    // ================================
+
+    // template vaut null pour un donjon créé sans l'assistant, seed vaut 0 pour tirer une nouvelle graine
+    public GenerationJob submit(Player player, String dungeonName, Location location,
+                                int size, int difficulty, DungeonTemplate template, long seed) {
+        boolean priority = player.hasPermission("proceduraldungeons.admin");
+
+        if (!priority && !player.hasPermission("proceduraldungeons.bypass.limits")) {
+            if (queue.size() >= plugin.getConfigManager().getGenerationQueueSize()) {
+                player.sendMessage(MessageUtils.getMessage("messages.generation.queue-full"));
+                return null;
+            }
+
+            int perPlayer = plugin.getConfigManager().getGenerationQueuePerPlayer();
+            if (getJobs(player.getUniqueId()).size() >= perPlayer) {
+                player.sendMessage(MessageUtils.getMessage("messages.generation.player-limit",
+                        "{max}", String.valueOf(perPlayer)));
+                return null;
+            }
+        }
+
+        if (seed == 0) seed = plugin.getConfigManager().getGenerationSeed();
+        while (seed == 0) seed = random.nextLong();
+
+        GenerationJob job = new GenerationJob(nextId++, dungeonName, player.getUniqueId(), priority,
+                location, size, difficulty, template, seed);
+        queue.add(job);
+        pump();
+
+        if (job.getState() == GenerationJob.State.QUEUED) {
+            reportPositions();
+        }
+        return job;
+    }
+
+    // Génération d'une instance pour une réserve : hors limites de file, jamais prioritaire
+    public GenerationJob submitInstance(String pool, String dungeonName, Location location, DungeonTemplate template) {
+        long seed = random.nextLong();
+        while (seed == 0) seed = random.nextLong();
+
+        return submitInstance(pool, dungeonName, location, template, seed);
+    }
+
+    // Remise à neuf d'une instance : même graine, donc même disposition
+    public GenerationJob submitInstance(String pool, String dungeonName, Location location,
+                                        DungeonTemplate template, long seed) {
+        GenerationJob job = new GenerationJob(nextId++, dungeonName, SYSTEM_OWNER, false,
+                location, template.getSize(), template.getDifficulty(), template, seed);
+        job.setInstancePool(pool);
+        queue.add(job);
+        pump();
+        return job;
+    }
+
+    public void complete(GenerationJob job) {
+        if (!running.remove(job)) return;
+
+        pump();
+        reportPositions();
+    }
+
+    // Retire le job de la file ou arrête sa pose ; les blocs déjà posés sont retirés en reposant le terrain
+    // d'origine enregistré jusque-là (sans journal de terrain, ils restent en place)
+    public boolean cancel(GenerationJob job) {
+        if (!queue.remove(job) && !running.remove(job)) return false;
+
+        job.setCancelled(true);
+        if (job.getPlacement() != null) {
+            plugin.getPlacementManager().cancel(job.getPlacement());
+        }
+        plugin.getDungeonManager().restoreTerrain(job.getDungeonName());
+
+        pump();
+        reportPositions();
+        return true;
+    }
+
+    public GenerationJob getJob(String dungeonName) {
+        for (GenerationJob job : getAllJobs()) {
+            if (job.getDungeonName().equals(dungeonName)) return job;
+        }
+        return null;
+    }
+
+    // Un nom en file ou en cours de génération est réservé
+    public boolean isNameReserved(String dungeonName) {
+        return getJob(dungeonName) != null;
+    }
+
+    public List<GenerationJob> getJobs(UUID ownerId) {
+        List<GenerationJob> jobs = new ArrayList<>();
+        for (GenerationJob job : getAllJobs()) {
+            if (job.getOwnerId().equals(ownerId)) {
+                jobs.add(job);
+            }
+        }
+        return jobs;
+    }
+
+    // Générations en cours puis file, dans l'ordre de passage
+    public List<GenerationJob> getAllJobs() {
+        List<GenerationJob> jobs = new ArrayList<>(running);
+        jobs.addAll(getOrderedQueue());
+        return jobs;
+    }
+
+    // Position dans la file (1 = prochaine lancée), 0 si la génération a déjà commencé
+    public int getQueuePosition(GenerationJob job) {
+        if (job.getState() != GenerationJob.State.QUEUED) return 0;
+        return getOrderedQueue().indexOf(job) + 1;
+    }
+
+    public int getRunningCount() {
+        return running.size();
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    // ================================
+    // POINTS DE SAUVEGARDE
+    // ================================
+
+    // Remet en file les générations interrompues par le dernier arrêt, dans leur ordre d'origine
+    public void resumeJobs() {
+        YamlConfiguration saved = checkpoints.load();
+        int resumed = 0;
+
+        for (String name : saved.getKeys(false)) {
+            ConfigurationSection section = saved.getConfigurationSection(name);
+            if (section == null) continue;
+
+            if (plugin.getDungeonManager().getDungeon(name) != null || isNameReserved(name)) {
+                plugin.getLogger().warning("Génération de " + name + " ignorée : le donjon existe déjà");
+                continue;
+            }
+
+            Location location = LocationUtils.stringToLocation(section.getString("location"));
+            if (location == null) {
+                plugin.getLogger().warning("Génération de " + name + " abandonnée : monde introuvable");
+                continue;
+            }
+
+            GenerationJob job;
+            try {
+                DungeonTemplate template = section.isConfigurationSection("template") ?
+                        new DungeonTemplate(name, section.getConfigurationSection("template")) : null;
+
+                job = new GenerationJob(nextId++, name,
+                        UUID.fromString(section.getString("owner")),
+                        section.getBoolean("priority"),
+                        location,
+                        section.getInt("size"),
+                        section.getInt("difficulty"),
+                        template,
+                        section.getLong("seed"));
+                job.setStage(GenerationJob.Stage.valueOf(section.getString("stage", "MAZE")));
+                job.setInstancePool(section.getString("instance-pool"));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                plugin.getLogger().warning("Génération de " + name + " illisible, abandonnée: " + e.getMessage());
+                continue;
+            }
+
+            job.setPlacedSections(section.getInt("placed-sections"));
+            job.setResumed(true);
+            queue.add(job);
+            resumed++;
+        }
+
+        if (resumed > 0) {
+            plugin.getLogger().info("Reprise de " + resumed + " génération(s) interrompue(s)");
+        }
+        pump();
+    }
+
+    // Thread principal : fige l'état de chaque génération et l'écrit s'il a changé
+    private void saveCheckpoints() {
+        Map<String, Map<String, Object>> snapshot = new LinkedHashMap<>();
+        for (GenerationJob job : getAllJobs()) {
+            snapshot.put(job.getDungeonName(), snapshot(job));
+        }
+
+        if (snapshot.equals(lastCheckpoint)) return;
+
+        lastCheckpoint = snapshot;
+        checkpoints.save(snapshot);
+    }
+
+    private Map<String, Object> snapshot(GenerationJob job) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("owner", job.getOwnerId().toString());
+        values.put("priority", job.isPriority());
+        values.put("location", LocationUtils.locationToString(job.getLocation()));
+        values.put("size", job.getSize());
+        values.put("difficulty", job.getDifficulty());
+        values.put("seed", job.getSeed());
+        values.put("stage", job.getStage().name());
+        values.put("placed-sections", job.getPlacedSections());
+
+        if (job.getTemplate() != null) {
+            values.put("template", job.getTemplate().toMap());
+        }
+        if (job.getInstancePool() != null) {
+            values.put("instance-pool", job.getInstancePool());
+        }
+        return values;
+    }
+
+    // Fige les poses en cours sans les terminer : elles reprendront au prochain démarrage
+    public void shutdown() {
+        if (checkpointTask != null) {
+            checkpointTask.cancel();
+            checkpointTask = null;
+        }
+
+        for (GenerationJob job : running) {
+            if (job.getPlacement() != null) {
+                plugin.getPlacementManager().cancel(job.getPlacement());
+            }
+        }
+
+        saveCheckpoints();
+
+        // Les calculs asynchrones encore en vol s'arrêteront d'eux-mêmes
+        for (GenerationJob job : getAllJobs()) {
+            job.setCancelled(true);
+        }
+        queue.clear();
+        running.clear();
+
+        checkpoints.shutdown();
+    }
+
+    // ================================
+    // FILE D'ATTENTE
+    // ================================
+
+    private void pump() {
+        int maxActive = Math.max(1, plugin.getConfigManager().getMaxActiveDungeons());
+
+        while (running.size() < maxActive && !queue.isEmpty()) {
+            GenerationJob job = queue.poll();
+            job.setState(GenerationJob.State.GENERATING);
+            running.add(job);
+
+            Player owner = plugin.getServer().getPlayer(job.getOwnerId());
+            if (owner != null && job.getLastReportedPosition() > 0) {
+                owner.sendMessage(MessageUtils.getMessage("messages.generation.started", "{name}", job.getDungeonName()));
+            }
+
+            try {
+                plugin.getDungeonManager().runGeneration(job);
+            } catch (RuntimeException e) {
+                plugin.getLogger().severe("Échec du lancement de la génération de " + job.getDungeonName() + ": " + e.getMessage());
+                running.remove(job);
+                if (owner != null) {
+                    owner.sendMessage(MessageUtils.getMessage("messages.dungeon.generation-failed"));
+                }
+            }
+        }
+    }
+
+    // Prévient chaque joueur en attente dont la position a changé
+    private void reportPositions() {
+        List<GenerationJob> ordered = getOrderedQueue();
+
+        for (int i = 0; i < ordered.size(); i++) {
+            GenerationJob job = ordered.get(i);
+            int position = i + 1;
+            if (position == job.getLastReportedPosition()) continue;
+
+            job.setLastReportedPosition(position);
+            Player owner = plugin.getServer().getPlayer(job.getOwnerId());
+            if (owner != null) {
+                owner.sendMessage(MessageUtils.getMessage("messages.generation.queued",
+                        "{name}", job.getDungeonName(),
+                        "{position}", String.valueOf(position),
+                        "{total}", String.valueOf(ordered.size())));
+            }
+        }
+    }
+
+    private List<GenerationJob> getOrderedQueue() {
+        List<GenerationJob> ordered = new ArrayList<>(queue);
+        ordered.sort(ORDER);
+        return ordered;
+    }
+}
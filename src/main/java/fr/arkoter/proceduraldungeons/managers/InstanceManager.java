@@ -0,0 +1,284 @@
+package fr.arkoter.proceduraldungeons.managers;
+
+import fr.arkoter.proceduraldungeons.ProceduralDungeons;
+import fr.arkoter.proceduraldungeons.models.Dungeon;
+import fr.arkoter.proceduraldungeons.models.DungeonPlayer;
+import fr.arkoter.proceduraldungeons.models.DungeonTemplate;
+import fr.arkoter.proceduraldungeons.models.GenerationJob;
+import fr.arkoter.proceduraldungeons.utils.MessageUtils;
+import org.bukkit.GameRule;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+import org.bukkit.WorldType;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Réserves d'instances : chaque réserve garde N donjons déjà construits dans le monde des donjons s'il est
+// activé (emplacements donnés par DungeonWorldManager), sinon dans un monde dédié aux instances,
+// un groupe qui entre en prend un pour lui seul, et l'instance est remise à neuf une fois vidée.
+// L'entrée ne coûte donc qu'une téléportation.
+// Utilisé depuis le thread principal uniquement
+public class InstanceManager {
+
+    // Altitude des instances dans le monde dédié
+    private static final int INSTANCE_HEIGHT = 100;
+
+    private final ProceduralDungeons plugin;
+    private final Map<String, Pool> pools;
+
+    // Instances occupées par un groupe
+    private final Set<String> claimed;
+    private World world;
+
+    public InstanceManager(ProceduralDungeons plugin) {
+        this.plugin = plugin;
+        this.pools = new LinkedHashMap<>();
+        this.claimed = new HashSet<>();
+        loadPools();
+    }
+
+    // ================================
+    // CONFIGURATION
+    // ================================
+
+    // Le monde doit exister avant le chargement des donjons, sans quoi leurs positions sont invalides
+    private void loadPools() {
+        pools.clear();
+        if (!plugin.getConfigManager().isInstancesEnabled()) return;
+
+        ConfigurationSection section = plugin.getConfigManager().getInstancePools();
+        if (section == null) return;
+
+        for (String name : section.getKeys(false)) {
+            ConfigurationSection poolSection = section.getConfigurationSection(name);
+            if (poolSection == null) continue;
+
+            try {
+                DungeonTemplate template = new DungeonTemplate(name, poolSection);
+                if (template.getSize() < plugin.getConfigManager().getMinDungeonSize()) {
+                    plugin.getLogger().warning("Réserve d'instances " + name + " ignorée : taille trop petite");
+                    continue;
+                }
+                pools.put(name.toLowerCase(), new Pool(name, template, Math.max(0, poolSection.getInt("count", 2))));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Réserve d'instances " + name + " invalide: " + e.getMessage());
+            }
+        }
+
+        if (pools.isEmpty()) return;
+
+        // Avec le monde des donjons, les instances y prennent leurs emplacements comme les autres donjons
+        if (plugin.getDungeonWorldManager().isEnabled()) {
+            world = plugin.getDungeonWorldManager().getWorld();
+            plugin.getLogger().info(pools.size() + " réserve(s) d'instances dans le monde des donjons");
+            return;
+        }
+
+        String worldName = plugin.getConfigManager().getInstanceWorld();
+        world = plugin.getServer().getWorld(worldName);
+        if (world == null) {
+            world = new WorldCreator(worldName)
+                    .type(WorldType.FLAT)
+                    .generateStructures(false)
+                    .createWorld();
+        }
+
+        if (world == null) {
+            plugin.getLogger().severe("Impossible de créer le monde des instances " + worldName);
+            pools.clear();
+            return;
+        }
+
+        world.setGameRule(GameRule.DO_MOB_SPAWNING, false);
+        plugin.getLogger().info(pools.size() + " réserve(s) d'instances dans le monde " + worldName);
+    }
+
+    public boolean isPool(String name) {
+        return pools.containsKey(name.toLowerCase());
+    }
+
+    public List<String> getPoolNames() {
+        List<String> names = new ArrayList<>();
+        for (Pool pool : pools.values()) {
+            names.add(pool.name);
+        }
+        return names;
+    }
+
+    // ================================
+    // REMPLISSAGE DES RÉSERVES
+    // ================================
+
+    // Complète chaque réserve en comptant les instances prêtes, occupées et en construction
+    public void fillPools() {
+        for (Pool pool : pools.values()) {
+            int missing = pool.count - getInstances(pool).size() - getPendingJobs(pool);
+
+            for (int i = 0; i < missing; i++) {
+                String name;
+                Location location;
+                if (plugin.getDungeonWorldManager().isDungeonWorld(world)) {
+                    name = pool.name + "-" + nextFreeIndex(pool.name, Collections.emptySet());
+                    location = plugin.getDungeonWorldManager().allocate();
+                } else {
+                    int slot = nextFreeSlot(pool.name);
+                    name = pool.name + "-" + slot;
+                    location = new Location(world, (double) slot * plugin.getConfigManager().getInstanceSpacing(),
+                            INSTANCE_HEIGHT, 0);
+                }
+
+                plugin.getGenerationScheduler().submitInstance(pool.name, name, location, pool.template);
+                plugin.debug("Instance " + name + " mise en file pour la réserve " + pool.name);
+            }
+        }
+    }
+
+    // Appelé une fois l'instance construite et enregistrée
+    public void onInstanceReady(Dungeon instance) {
+        claimed.remove(instance.getName());
+        plugin.debug("Instance " + instance.getName() + " prête");
+    }
+
+    // ================================
+    // ENTRÉE ET LIBÉRATION
+    // ================================
+
+    public void enterPool(Player player, String poolName) {
+        Pool pool = pools.get(poolName.toLowerCase());
+        if (pool == null) return;
+
+        // Profil encore en chargement (connexion récente) : reprendre une fois chargé
+        DungeonPlayer dungeonPlayer = plugin.getDungeonManager().getLoadedPlayer(player.getUniqueId());
+        if (dungeonPlayer == null) {
+            plugin.getDungeonManager().loadPlayerData(player.getUniqueId(), loaded -> {
+                if (player.isOnline()) {
+                    enterPool(player, poolName);
+                }
+            });
+            return;
+        }
+
+        if (dungeonPlayer.isInDungeon()) {
+            player.sendMessage(MessageUtils.getMessage("messages.dungeon.already-in-dungeon"));
+            return;
+        }
+
+        for (Dungeon instance : getInstances(pool)) {
+            if (claimed.contains(instance.getName())) continue;
+
+            player.sendMessage(MessageUtils.getMessage("messages.instance.assigned",
+                    "{pool}", pool.name, "{name}", instance.getName()));
+            plugin.getDungeonManager().enterDungeon(player, instance.getName());
+            return;
+        }
+
+        player.sendMessage(MessageUtils.getMessage("messages.instance.none-available", "{pool}", pool.name));
+        fillPools();
+    }
+
+    // Premier joueur entré : l'instance n'est plus proposée aux autres groupes
+    public void claim(Dungeon instance) {
+        claimed.add(instance.getName());
+    }
+
+    // Dernier joueur sorti : l'instance est remise à neuf depuis son instantané de blocs, ou à défaut
+    // retirée du jeu et reconstruite avec la même graine. Elle reste occupée jusqu'à ce qu'elle soit prête
+    public void release(Dungeon instance) {
+        Pool pool = pools.get(instance.getInstancePool().toLowerCase());
+        if (pool == null) {
+            rebuild(instance, null);
+            return;
+        }
+
+        plugin.getDungeonManager().resetDungeon(instance, restored -> {
+            if (restored < 0) {
+                rebuild(instance, pool);
+                return;
+            }
+
+            claimed.remove(instance.getName());
+            plugin.debug("Instance " + instance.getName() + " remise à neuf (" + restored + " blocs reposés)");
+        });
+    }
+
+    private void rebuild(Dungeon instance, Pool pool) {
+        claimed.remove(instance.getName());
+        plugin.getDungeonManager().discardInstance(instance);
+        if (pool == null) {
+            plugin.getLogger().info("Instance " + instance.getName() + " retirée : sa réserve n'existe plus");
+            return;
+        }
+
+        GenerationJob job = plugin.getGenerationScheduler().submitInstance(pool.name, instance.getName(),
+                instance.getLocation(), pool.template, instance.getSeed());
+        plugin.debug("Remise à neuf de l'instance " + instance.getName() + " (job " + job.getId() + ")");
+    }
+
+    private List<Dungeon> getInstances(Pool pool) {
+        List<Dungeon> instances = new ArrayList<>();
+        for (Dungeon dungeon : plugin.getDungeonManager().getDungeons().values()) {
+            if (pool.name.equalsIgnoreCase(dungeon.getInstancePool())) {
+                instances.add(dungeon);
+            }
+        }
+        return instances;
+    }
+
+    private int getPendingJobs(Pool pool) {
+        int pending = 0;
+        for (GenerationJob job : plugin.getGenerationScheduler().getAllJobs()) {
+            if (pool.name.equalsIgnoreCase(job.getInstancePool())) pending++;
+        }
+        return pending;
+    }
+
+    // Monde dédié aux instances : emplacement libre le plus proche de l'origine, instances prêtes et en
+    // construction comprises
+    private int nextFreeSlot(String poolName) {
+        int spacing = plugin.getConfigManager().getInstanceSpacing();
+        Set<Integer> used = new HashSet<>();
+
+        for (Dungeon dungeon : plugin.getDungeonManager().getDungeons().values()) {
+            if (dungeon.isInstance()) used.add(dungeon.getLocation().getBlockX() / spacing);
+        }
+        for (GenerationJob job : plugin.getGenerationScheduler().getAllJobs()) {
+            if (job.getInstancePool() != null) used.add(job.getLocation().getBlockX() / spacing);
+        }
+
+        return nextFreeIndex(poolName, used);
+    }
+
+    // Un donjon classique peut porter le même nom qu'une instance : passer à l'indice suivant
+    private int nextFreeIndex(String poolName, Set<Integer> used) {
+        int index = 0;
+        while (used.contains(index)
+                || plugin.getDungeonManager().getDungeon(poolName + "-" + index) != null
+                || plugin.getGenerationScheduler().isNameReserved(poolName + "-" + index)) {
+            index++;
+        }
+        return index;
+    }
+
+    // Classe interne Pool
+
+    private static class Pool {
+        private final String name;
+        private final DungeonTemplate template;
+        private final int count;
+
+        private Pool(String name, DungeonTemplate template, int count) {
+            this.name = name;
+            this.template = template;
+            this.count = count;
+        }
+    }
+}
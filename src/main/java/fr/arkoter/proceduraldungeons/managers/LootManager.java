@@ -0,0 +1,410 @@
+package fr.arkoter.proceduraldungeons.managers;
+
+import fr.arkoter.proceduraldungeons.ProceduralDungeons;
+import fr.arkoter.proceduraldungeons.utils.AliasTable;
+import fr.arkoter.proceduraldungeons.utils.LootUtils;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemFlag;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.EnchantmentStorageMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Logger;
+
+// Tables de loot-tables.yml compilées une fois (chargement ou /dungeon reload) en tirages par alias
+// Chaque objet a un prototype ItemStack préconstruit : un tirage ne fait qu'un clone et un réglage de quantité
+public class LootManager {
+
+    private static final String BASIC_CHEST = "basic-chest";
+    private static final String RARE_CHEST = "rare-chest";
+    private static final String BOSS_LOOT = "boss-loot.difficulty-";
+    private static final String BOSS_LOOT_MAX = "boss-loot.difficulty-5-plus";
+    private static final String COMMON_MONSTERS = "monster-loot.common-monsters";
+    private static final String ELITE_MONSTERS = "monster-loot.elite-monsters";
+
+    // Au-delà, les monstres puisent dans la table élite et les coffres tirent toujours la table rare
+    private static final int ELITE_DIFFICULTY = 5;
+    private static final int LARGE_DUNGEON_SIZE = 60;
+
+    private final ProceduralDungeons plugin;
+    private final File lootFile;
+    private final Random random;
+    private final Logger logger;
+
+    // Remplacé d'un seul bloc au rechargement, jamais modifié ensuite
+    private volatile CompiledLoot loot;
+
+    public LootManager(ProceduralDungeons plugin) {
+        this.plugin = plugin;
+        this.lootFile = new File(plugin.getDataFolder(), "loot-tables.yml");
+        this.random = new Random();
+        this.logger = plugin.getLogger();
+
+        reload();
+    }
+
+    // Hors serveur (benchmarks) : tables compilées depuis une configuration déjà chargée, sans plugin ni fichier
+    LootManager(YamlConfiguration config, Random random) {
+        this.plugin = null;
+        this.lootFile = null;
+        this.random = random;
+        this.logger = Logger.getLogger(LootManager.class.getName());
+        this.loot = compile(config);
+    }
+
+    public void reload() {
+        if (!lootFile.exists()) {
+            plugin.saveResource("loot-tables.yml", false);
+        }
+
+        CompiledLoot compiled = compile(YamlConfiguration.loadConfiguration(lootFile));
+        this.loot = compiled;
+
+        logger.info("Tables de loot compilées: " + compiled.tables.size());
+    }
+
+    // ================================
+    // TIRAGES
+    // ================================
+
+    public void populateChest(Inventory inventory, int difficulty, int dungeonSize) {
+        CompiledLoot current = loot;
+        inventory.clear();
+
+        List<ItemStack> items = new ArrayList<>();
+        roll(current, BASIC_CHEST, difficulty, items);
+
+        // Table rare : toujours dans les grands donjons, sinon selon la chance configurée
+        int rareChance = current.rareChestChance + current.difficultyBonusPercent * (difficulty - 1);
+        if (dungeonSize > LARGE_DUNGEON_SIZE || random.nextInt(100) < rareChance) {
+            roll(current, RARE_CHEST, difficulty, items);
+        }
+
+        for (ItemStack item : items) {
+            inventory.addItem(item);
+        }
+    }
+
+    public List<ItemStack> rollBossLoot(int difficulty) {
+        CompiledLoot current = loot;
+        String tableName = difficulty >= ELITE_DIFFICULTY ? BOSS_LOOT_MAX : BOSS_LOOT + Math.max(1, difficulty);
+
+        List<ItemStack> items = new ArrayList<>();
+        roll(current, tableName, difficulty, items);
+        return items;
+    }
+
+    // Un seul objet tiré dans la table des monstres, ou null si la table est vide
+    public ItemStack rollBonusLoot(int difficulty) {
+        CompiledLoot current = loot;
+        LootTable table = current.tables.get(difficulty >= ELITE_DIFFICULTY ? ELITE_MONSTERS : COMMON_MONSTERS);
+        if (table == null || table.sampler == null) {
+            return null;
+        }
+
+        return table.weighted[table.sampler.sample(random)].create(random, difficulty, current);
+    }
+
+    public ItemStack createBossKey(String dungeonName) {
+        ItemStack key = loot.bossKey.clone();
+        ItemMeta meta = key.getItemMeta();
+
+        if (meta != null) {
+            meta.setDisplayName(meta.getDisplayName().replace("{dungeon}", dungeonName));
+
+            List<String> lore = meta.getLore();
+            if (lore != null) {
+                List<String> replaced = new ArrayList<>(lore.size());
+                for (String line : lore) {
+                    replaced.add(line.replace("{dungeon}", dungeonName));
+                }
+                meta.setLore(replaced);
+            }
+            key.setItemMeta(meta);
+        }
+
+        return key;
+    }
+
+    private void roll(CompiledLoot current, String tableName, int difficulty, List<ItemStack> out) {
+        LootTable table = current.tables.get(tableName);
+        if (table == null) {
+            if (plugin != null) {
+                plugin.debug("Table de loot absente: " + tableName);
+            }
+            return;
+        }
+
+        for (LootEntry entry : table.guaranteed) {
+            out.add(entry.create(random, difficulty, current));
+        }
+
+        if (table.sampler == null) return;
+
+        // Nombre de tirages ajusté par la difficulté et le multiplicateur global, arrondi aléatoirement
+        int base = table.minRolls + random.nextInt(table.maxRolls - table.minRolls + 1);
+        double scaled = base * current.globalMultiplier * (1.0 + current.difficultyBonusPercent * (difficulty - 1) / 100.0);
+        int rolls = (int) scaled;
+        if (random.nextDouble() < scaled - rolls) {
+            rolls++;
+        }
+
+        for (int i = 0; i < rolls; i++) {
+            out.add(table.weighted[table.sampler.sample(random)].create(random, difficulty, current));
+        }
+    }
+
+    // ================================
+    // COMPILATION
+    // ================================
+
+    private CompiledLoot compile(YamlConfiguration config) {
+        CompiledLoot compiled = new CompiledLoot();
+
+        ConfigurationSection settings = config.getConfigurationSection("settings");
+        if (settings != null) {
+            compiled.globalMultiplier = settings.getDouble("global-chance-multiplier", 1.0);
+            compiled.difficultyBonusPercent = settings.getInt("difficulty-bonus-percent", 10);
+            compiled.rareChestChance = settings.getInt("rare-chest-chance", 25);
+            compiled.minEnchantLevel = settings.getInt("enchantment-levels.min", 1);
+            compiled.maxEnchantLevel = settings.getInt("enchantment-levels.max", 3);
+        }
+
+        // Tables simples (items directement sous la table) ou groupées (boss-loot.difficulty-1, ...)
+        ConfigurationSection tablesSection = config.getConfigurationSection("loot-tables");
+        if (tablesSection != null) {
+            for (String name : tablesSection.getKeys(false)) {
+                ConfigurationSection tableSection = tablesSection.getConfigurationSection(name);
+                if (tableSection == null) continue;
+
+                if (tableSection.contains("items")) {
+                    compileTable(compiled, name, tableSection);
+                    continue;
+                }
+
+                for (String subName : tableSection.getKeys(false)) {
+                    ConfigurationSection subSection = tableSection.getConfigurationSection(subName);
+                    if (subSection != null && subSection.contains("items")) {
+                        compileTable(compiled, name + "." + subName, subSection);
+                    }
+                }
+            }
+        }
+
+        compiled.bossKey = compileBossKey(config.getConfigurationSection("special-items.boss-key"));
+        return compiled;
+    }
+
+    private void compileTable(CompiledLoot compiled, String name, ConfigurationSection section) {
+        List<LootEntry> guaranteed = new ArrayList<>();
+        List<LootEntry> weighted = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        double totalChance = 0;
+
+        for (Map<?, ?> itemMap : section.getMapList("items")) {
+            LootEntry entry = compileEntry(name, itemMap);
+            if (entry == null) continue;
+
+            double chance = itemMap.get("chance") instanceof Number ? ((Number) itemMap.get("chance")).doubleValue() : 100.0;
+            if (chance >= 100.0) {
+                // Chance de 100 % : objet toujours donné, hors tirage
+                guaranteed.add(entry);
+            } else if (chance > 0) {
+                weighted.add(entry);
+                weights.add(chance);
+                totalChance += chance;
+            }
+        }
+
+        LootTable table = new LootTable();
+        table.guaranteed = guaranteed.toArray(new LootEntry[0]);
+        table.weighted = weighted.toArray(new LootEntry[0]);
+
+        if (!weighted.isEmpty()) {
+            double[] weightArray = new double[weights.size()];
+            for (int i = 0; i < weightArray.length; i++) {
+                weightArray[i] = weights.get(i);
+            }
+            table.sampler = new AliasTable(weightArray);
+        }
+
+        // Par défaut, autant de tirages que d'objets attendus avec les chances indépendantes d'origine
+        int expected = Math.max(1, (int) Math.round(totalChance / 100.0));
+        table.minRolls = Math.max(0, section.getInt("rolls.min", expected));
+        table.maxRolls = Math.max(table.minRolls, section.getInt("rolls.max", table.minRolls));
+
+        compiled.tables.put(name, table);
+    }
+
+    private LootEntry compileEntry(String tableName, Map<?, ?> itemMap) {
+        Material material = Material.matchMaterial(String.valueOf(itemMap.get("material")));
+        if (material == null) {
+            logger.warning("Matériau inconnu dans la table " + tableName + ": " + itemMap.get("material"));
+            return null;
+        }
+
+        LootEntry entry = new LootEntry();
+        entry.prototype = new ItemStack(material, 1);
+        entry.minAmount = Math.max(1, intValue(itemMap.get("min-amount"), 1));
+        entry.maxAmount = Math.max(entry.minAmount, intValue(itemMap.get("max-amount"), entry.minAmount));
+        entry.randomEnchant = Boolean.TRUE.equals(itemMap.get("enchanted"));
+
+        Object customName = itemMap.get("custom-name");
+        if (customName != null) {
+            ItemMeta meta = entry.prototype.getItemMeta();
+            if (meta != null) {
+                meta.setDisplayName(ChatColor.translateAlternateColorCodes('&', customName.toString()));
+                entry.prototype.setItemMeta(meta);
+            }
+        }
+
+        // Enchantements possibles, au format "NOM:min-max" ; un seul est appliqué par tirage
+        Object enchantments = itemMap.get("enchantments");
+        if (enchantments instanceof List) {
+            List<Enchantment> types = new ArrayList<>();
+            List<int[]> levels = new ArrayList<>();
+
+            for (Object value : (List<?>) enchantments) {
+                String[] parts = value.toString().split(":");
+                Enchantment enchantment = Enchantment.getByName(parts[0].trim());
+                if (enchantment == null) {
+                    logger.warning("Enchantement inconnu dans la table " + tableName + ": " + parts[0]);
+                    continue;
+                }
+
+                int min = 1;
+                int max = 1;
+                if (parts.length > 1) {
+                    String[] range = parts[1].split("-");
+                    min = intValue(range[0].trim(), 1);
+                    max = range.length > 1 ? intValue(range[1].trim(), min) : min;
+                }
+
+                types.add(enchantment);
+                levels.add(new int[]{min, Math.max(min, max)});
+            }
+
+            entry.enchantments = types.toArray(new Enchantment[0]);
+            entry.enchantmentLevels = levels.toArray(new int[0][]);
+        }
+
+        return entry;
+    }
+
+    private ItemStack compileBossKey(ConfigurationSection section) {
+        Material material = section != null ? Material.matchMaterial(section.getString("material", "TRIPWIRE_HOOK")) : null;
+        ItemStack key = new ItemStack(material != null ? material : Material.TRIPWIRE_HOOK);
+
+        ItemMeta meta = key.getItemMeta();
+        if (meta == null) return key;
+
+        String name = section != null ? section.getString("custom-name", "&6Clé du Boss - {dungeon}") : "&6Clé du Boss - {dungeon}";
+        meta.setDisplayName(ChatColor.translateAlternateColorCodes('&', name));
+
+        List<String> lore = section != null ? section.getStringList("lore") : Collections.emptyList();
+        if (lore.isEmpty()) {
+            lore = Arrays.asList("&7Une clé mystérieuse qui permet", "&7d'accéder à la salle du boss", "&7du donjon {dungeon}");
+        }
+        List<String> coloredLore = new ArrayList<>(lore.size());
+        for (String line : lore) {
+            coloredLore.add(ChatColor.translateAlternateColorCodes('&', line));
+        }
+        meta.setLore(coloredLore);
+
+        if (section != null && section.getBoolean("glow", false)) {
+            meta.addEnchant(Enchantment.DURABILITY, 1, true);
+            meta.addItemFlags(ItemFlag.HIDE_ENCHANTS);
+        }
+
+        key.setItemMeta(meta);
+        return key;
+    }
+
+    private static int intValue(Object value, int defaultValue) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
+
+    // Classe interne CompiledLoot
+
+    private static class CompiledLoot {
+        private final Map<String, LootTable> tables = new HashMap<>();
+        private ItemStack bossKey;
+        private double globalMultiplier = 1.0;
+        private int difficultyBonusPercent = 10;
+        private int rareChestChance = 25;
+        private int minEnchantLevel = 1;
+        private int maxEnchantLevel = 3;
+    }
+
+    // Classe interne LootTable
+
+    private static class LootTable {
+        private LootEntry[] guaranteed;
+        private LootEntry[] weighted;
+        private AliasTable sampler;
+        private int minRolls;
+        private int maxRolls;
+    }
+
+    // Classe interne LootEntry
+
+    private static class LootEntry {
+        private ItemStack prototype;
+        private int minAmount;
+        private int maxAmount;
+        private boolean randomEnchant;
+        private Enchantment[] enchantments;
+        private int[][] enchantmentLevels;
+
+        private ItemStack create(Random random, int difficulty, CompiledLoot settings) {
+            ItemStack item = prototype.clone();
+            int amount = minAmount + random.nextInt(maxAmount - minAmount + 1);
+            item.setAmount(Math.min(amount, item.getMaxStackSize()));
+
+            if (randomEnchant) {
+                int levelCap = Math.max(settings.minEnchantLevel, Math.min(difficulty, settings.maxEnchantLevel));
+                LootUtils.addRandomEnchantments(item, levelCap, random);
+            }
+
+            if (enchantments != null && enchantments.length > 0) {
+                int index = random.nextInt(enchantments.length);
+                int[] range = enchantmentLevels[index];
+                int level = range[0] + random.nextInt(range[1] - range[0] + 1);
+
+                ItemMeta meta = item.getItemMeta();
+                if (meta instanceof EnchantmentStorageMeta) {
+                    ((EnchantmentStorageMeta) meta).addStoredEnchant(enchantments[index], level, true);
+                    item.setItemMeta(meta);
+                } else if (meta != null) {
+                    meta.addEnchant(enchantments[index], level, true);
+                    item.setItemMeta(meta);
+                }
+            }
+
+            return item;
+        }
+    }
+}
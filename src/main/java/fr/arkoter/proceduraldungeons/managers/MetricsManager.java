@@ -0,0 +1,308 @@
+package fr.arkoter.proceduraldungeons.managers;
+
+import fr.arkoter.proceduraldungeons.ProceduralDungeons;
+import fr.arkoter.proceduraldungeons.generators.DungeonPlanner;
+import fr.arkoter.proceduraldungeons.utils.MessageUtils;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+
+// Mesures des générations de donjons, étape par étape et par tranche de taille : médiane, 95e centile
+// et maximum sur les dernières générations, affichés par /dungeon stats perf et écrits dans metrics.yml
+// Utilisé depuis le thread principal uniquement
+public class MetricsManager {
+
+    // Générations gardées par tranche pour le calcul des centiles
+    private static final int WINDOW = 256;
+
+    // Borne haute de chaque tranche de taille ; les donjons plus grands tombent dans la dernière
+    private static final int[] SIZE_BUCKETS = {50, 100, 200};
+
+    private final ProceduralDungeons plugin;
+    private final File metricsFile;
+
+    // Une série par mesure, pour chaque tranche de taille
+    private final Histogram[][] histograms;
+    private final int[] generations;
+    private BukkitTask writeTask;
+    private boolean dirty;
+
+    public MetricsManager(ProceduralDungeons plugin) {
+        this.plugin = plugin;
+        this.metricsFile = new File(plugin.getDataFolder(), "metrics.yml");
+        this.histograms = new Histogram[SIZE_BUCKETS.length + 1][Metric.values().length];
+        this.generations = new int[SIZE_BUCKETS.length + 1];
+        this.dirty = false;
+
+        for (Histogram[] bucket : histograms) {
+            for (int i = 0; i < bucket.length; i++) {
+                bucket[i] = new Histogram();
+            }
+        }
+
+        startWriteTask();
+    }
+
+    // ================================
+    // ENREGISTREMENT
+    // ================================
+
+    public void record(int size, Sample sample) {
+        int bucket = getBucket(size);
+        for (Metric metric : Metric.values()) {
+            histograms[bucket][metric.ordinal()].add(sample.values[metric.ordinal()]);
+        }
+        generations[bucket]++;
+        dirty = true;
+    }
+
+    private int getBucket(int size) {
+        for (int i = 0; i < SIZE_BUCKETS.length; i++) {
+            if (size <= SIZE_BUCKETS[i]) return i;
+        }
+        return SIZE_BUCKETS.length;
+    }
+
+    private String getBucketLabel(int bucket) {
+        if (bucket == 0) return "1-" + SIZE_BUCKETS[0];
+        if (bucket == SIZE_BUCKETS.length) return (SIZE_BUCKETS[bucket - 1] + 1) + "+";
+        return (SIZE_BUCKETS[bucket - 1] + 1) + "-" + SIZE_BUCKETS[bucket];
+    }
+
+    // ================================
+    // AFFICHAGE
+    // ================================
+
+    public void showPerformance(Player viewer) {
+        boolean empty = true;
+
+        for (int bucket = 0; bucket < histograms.length; bucket++) {
+            if (generations[bucket] == 0) continue;
+            empty = false;
+
+            viewer.sendMessage(MessageUtils.getMessage("messages.stats.perf-header",
+                    "{size}", getBucketLabel(bucket), "{count}", String.valueOf(generations[bucket])));
+            for (Metric metric : Metric.values()) {
+                Histogram histogram = histograms[bucket][metric.ordinal()];
+                viewer.sendMessage(MessageUtils.getMessage("messages.stats.perf-entry",
+                        "{metric}", metric.getDisplayName(),
+                        "{p50}", metric.format(histogram.percentile(0.50)),
+                        "{p95}", metric.format(histogram.percentile(0.95)),
+                        "{max}", metric.format(histogram.getMax())));
+            }
+        }
+
+        if (empty) {
+            viewer.sendMessage(MessageUtils.getMessage("messages.stats.perf-empty"));
+            return;
+        }
+        viewer.sendMessage(MessageUtils.getMessage("messages.stats.perf-footer"));
+    }
+
+    // ================================
+    // FICHIER DE MESURES
+    // ================================
+
+    // Le contenu est figé sur le thread principal, l'écriture se fait hors du thread principal
+    private void startWriteTask() {
+        int interval = plugin.getConfigManager().getMetricsInterval();
+        if (interval <= 0) return;
+
+        writeTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                if (!dirty) return;
+                dirty = false;
+
+                YamlConfiguration metrics = toYaml();
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        save(metrics);
+                    }
+                }.runTaskAsynchronously(plugin);
+            }
+        }.runTaskTimer(plugin, interval * 20L, interval * 20L);
+    }
+
+    private YamlConfiguration toYaml() {
+        YamlConfiguration metrics = new YamlConfiguration();
+        metrics.set("updated", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
+        metrics.set("window", WINDOW);
+
+        for (int bucket = 0; bucket < histograms.length; bucket++) {
+            if (generations[bucket] == 0) continue;
+
+            ConfigurationSection section = metrics.createSection("sizes." + getBucketLabel(bucket));
+            section.set("generations", generations[bucket]);
+            for (Metric metric : Metric.values()) {
+                Histogram histogram = histograms[bucket][metric.ordinal()];
+                String path = metric.getKey() + (metric.isTime() ? "-ms" : "");
+                section.set(path + ".p50", metric.toFileValue(histogram.percentile(0.50)));
+                section.set(path + ".p95", metric.toFileValue(histogram.percentile(0.95)));
+                section.set(path + ".max", metric.toFileValue(histogram.getMax()));
+            }
+        }
+        return metrics;
+    }
+
+    private void save(YamlConfiguration metrics) {
+        try {
+            metrics.save(metricsFile);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Impossible d'écrire metrics.yml: " + e.getMessage());
+        }
+    }
+
+    public void reload() {
+        if (writeTask != null) {
+            writeTask.cancel();
+            writeTask = null;
+        }
+        startWriteTask();
+    }
+
+    public void shutdown() {
+        if (writeTask != null) {
+            writeTask.cancel();
+            writeTask = null;
+        }
+
+        if (dirty && plugin.getConfigManager().getMetricsInterval() > 0) {
+            dirty = false;
+            save(toYaml());
+        }
+    }
+
+    // Enum interne Metric
+
+    public enum Metric {
+        MAZE("maze", "Labyrinthe", true),
+        STRUCTURE("structure", "Structure", true),
+        SPECIAL_ROOMS("special-rooms", "Salles spéciales", true),
+        BOSS_ROOM("boss-room", "Salle du boss", true),
+        TRAPS("traps", "Pièges", true),
+        MONSTERS("monsters", "Monstres", true),
+        PLACEMENT("placement", "Pose des blocs", true),
+        PERSISTENCE("persistence", "Sauvegarde", true),
+        TOTAL("total", "Total", true),
+        BLOCKS("blocks", "Blocs posés", false),
+        MONSTER_SPAWNS("monster-spawns", "Monstres prévus", false),
+        CHUNKS("chunks", "Chunks touchés", false);
+
+        private final String key;
+        private final String displayName;
+        private final boolean time;
+
+        Metric(String key, String displayName, boolean time) {
+            this.key = key;
+            this.displayName = displayName;
+            this.time = time;
+        }
+
+        // Étape de mesure correspondant à une étape du calcul du plan
+        public static Metric of(DungeonPlanner.Phase phase) {
+            switch (phase) {
+                case MAZE:
+                    return MAZE;
+                case STRUCTURE:
+                    return STRUCTURE;
+                case SPECIAL_ROOMS:
+                    return SPECIAL_ROOMS;
+                case BOSS_ROOM:
+                    return BOSS_ROOM;
+                case TRAPS:
+                    return TRAPS;
+                default:
+                    return MONSTERS;
+            }
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public boolean isTime() {
+            return time;
+        }
+
+        // Les durées sont gardées en microsecondes et affichées en millisecondes
+        private String format(long value) {
+            return time ? String.format(Locale.ROOT, "%.1fms", value / 1000.0) : String.valueOf(value);
+        }
+
+        private Object toFileValue(long value) {
+            return time ? Math.round(value / 100.0) / 10.0 : (Object) value;
+        }
+    }
+
+    // Classe interne Sample
+
+    // Mesures d'une génération, remplies au fil des étapes
+    public static class Sample {
+        private final long[] values;
+
+        public Sample() {
+            this.values = new long[Metric.values().length];
+        }
+
+        public void addNanos(Metric metric, long nanos) {
+            values[metric.ordinal()] += nanos / 1000L;
+        }
+
+        public void set(Metric metric, long value) {
+            values[metric.ordinal()] = value;
+        }
+    }
+
+    // Classe interne Histogram
+
+    // Dernières valeurs dans un tampon circulaire ; le maximum couvre toutes les générations
+    private static class Histogram {
+        private final long[] window;
+        private int count;
+        private int next;
+        private long max;
+
+        private Histogram() {
+            this.window = new long[WINDOW];
+            this.count = 0;
+            this.next = 0;
+            this.max = 0;
+        }
+
+        private void add(long value) {
+            window[next] = value;
+            next = (next + 1) % WINDOW;
+            count = Math.min(count + 1, WINDOW);
+            max = Math.max(max, value);
+        }
+
+        // Rang le plus proche : pas d'interpolation entre deux générations
+        private long percentile(double quantile) {
+            if (count == 0) return 0;
+
+            long[] sorted = Arrays.copyOf(window, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(quantile * count) - 1;
+            return sorted[Math.max(0, Math.min(index, count - 1))];
+        }
+
+        private long getMax() {
+            return max;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package fr.arkoter.proceduraldungeons.managers;
+
+import fr.arkoter.proceduraldungeons.ProceduralDungeons;
+import fr.arkoter.proceduraldungeons.models.Dungeon;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Monstres des donjons : une section n'existe en entités que lorsqu'un joueur s'en approche,
+// et redevient une liste de points d'apparition quand plus personne n'est à proximité
+// Utilisé depuis le thread principal uniquement
+public class MonsterManager {
+
+    private final ProceduralDungeons plugin;
+
+    // Étiquettes posées sur chaque monstre : elles suivent l'entité si elle est sauvegardée avec son chunk
+    private final NamespacedKey dungeonKey;
+    private final NamespacedKey roleKey;
+
+    // Sections matérialisées, avec leur donjon et les UUID de leurs monstres en jeu
+    private final Map<Dungeon.MonsterSection, ActiveSection> activeSections;
+
+    // Index inverse des monstres en jeu, par UUID d'entité
+    private final Map<UUID, ActiveMonster> activeMonsters;
+    private BukkitTask checkTask;
+
+    // Tampons réutilisés à chaque passage : aucune allocation par joueur
+    private final Set<Dungeon.MonsterSection> occupied;
+    private final List<Dungeon> nearby;
+    private final Location cursor;
+
+    public MonsterManager(ProceduralDungeons plugin) {
+        this.plugin = plugin;
+        this.dungeonKey = new NamespacedKey(plugin, "dungeon");
+        this.roleKey = new NamespacedKey(plugin, "role");
+        this.activeSections = new HashMap<>();
+        this.activeMonsters = new HashMap<>();
+        this.occupied = new HashSet<>();
+        this.nearby = new ArrayList<>();
+        this.cursor = new Location(null, 0, 0, 0);
+
+        int interval = Math.max(1, plugin.getConfigManager().getMonsterCheckInterval());
+        this.checkTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::update, interval, interval);
+    }
+
+    // ================================
+    // PROXIMITÉ DES JOUEURS
+    // ================================
+
+    // Pour chaque joueur : les donjons proches via l'index spatial, puis uniquement les sections
+    // des chunks à portée, retrouvées par leur clé
+    private void update() {
+        int radius = Math.max(1, plugin.getConfigManager().getMonsterActivationRadius());
+        int keepRadius = radius + Math.max(0, plugin.getConfigManager().getMonsterDespawnMargin());
+        double radiusSquared = (double) radius * radius;
+        double keepRadiusSquared = (double) keepRadius * keepRadius;
+
+        occupied.clear();
+
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            Location location = player.getLocation(cursor);
+            plugin.getDungeonManager().collectDungeonsNear(location, keepRadius, nearby);
+            if (nearby.isEmpty()) continue;
+
+            int minChunkX = (location.getBlockX() - keepRadius) >> 4;
+            int maxChunkX = (location.getBlockX() + keepRadius) >> 4;
+            int minChunkZ = (location.getBlockZ() - keepRadius) >> 4;
+            int maxChunkZ = (location.getBlockZ() + keepRadius) >> 4;
+
+            for (int i = 0; i < nearby.size(); i++) {
+                Dungeon dungeon = nearby.get(i);
+
+                for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                    for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                        Dungeon.MonsterSection section = dungeon.getMonsterSection(chunkX, chunkZ);
+                        if (section == null) continue;
+
+                        double distance = section.distanceSquared(location.getX(), location.getZ());
+                        if (distance <= radiusSquared && !section.isActive()) {
+                            materialize(dungeon, section);
+                        }
+                        if (distance <= keepRadiusSquared) {
+                            occupied.add(section);
+                        }
+                    }
+                }
+            }
+        }
+        nearby.clear();
+
+        // Marge entre les deux rayons : un joueur à la limite ne fait pas apparaître et disparaître en boucle
+        Iterator<Map.Entry<Dungeon.MonsterSection, ActiveSection>> iterator = activeSections.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Dungeon.MonsterSection, ActiveSection> entry = iterator.next();
+            if (occupied.contains(entry.getKey())) continue;
+
+            dematerialize(entry.getKey(), entry.getValue());
+            iterator.remove();
+        }
+        occupied.clear();
+    }
+
+    // ================================
+    // APPARITION ET RETRAIT
+    // ================================
+
+    private void materialize(Dungeon dungeon, Dungeon.MonsterSection section) {
+        World world = dungeon.getLocation().getWorld();
+
+        // Ne jamais charger un chunk pour y faire apparaître des monstres
+        if (world == null || !world.isChunkLoaded(section.getChunkX(), section.getChunkZ())) return;
+
+        ActiveSection active = new ActiveSection(dungeon);
+
+        for (Dungeon.MonsterSpawn spawn : section.getSpawns()) {
+            Location spawnLoc = spawn.getLocation();
+            if (!spawnLoc.getBlock().isPassable()) continue;
+
+            // Apparition annulée (autre plugin, protection) : le point reste pour la prochaine matérialisation
+            LivingEntity monster = spawn(spawnLoc, spawn.getType(), dungeon, spawn.getRole());
+            if (monster == null) continue;
+
+            enhanceMonster(monster, dungeon.getDifficulty());
+
+            // Jamais sauvegardé avec le chunk : le point d'apparition fait foi
+            monster.setPersistent(false);
+            monster.setRemoveWhenFarAway(false);
+
+            activeMonsters.put(monster.getUniqueId(), new ActiveMonster(dungeon, spawn.getRole(), section, spawn));
+            active.entities.add(monster.getUniqueId());
+        }
+
+        section.setActive(true);
+        activeSections.put(section, active);
+        plugin.debug("Section " + section.getChunkX() + "," + section.getChunkZ() + " du donjon "
+                + dungeon.getName() + " matérialisée");
+    }
+
+    // Les monstres encore en vie redeviennent des points d'apparition ; ceux qui ont disparu
+    // alors que leur chunk est chargé (explosion, mort sans tueur) sont retirés
+    private void dematerialize(Dungeon.MonsterSection section, ActiveSection active) {
+        Dungeon dungeon = active.dungeon;
+        World world = dungeon.getLocation().getWorld();
+        boolean chunkLoaded = world != null && world.isChunkLoaded(section.getChunkX(), section.getChunkZ());
+        boolean changed = false;
+
+        for (UUID entityId : active.entities) {
+            ActiveMonster monster = activeMonsters.remove(entityId);
+            Entity entity = plugin.getServer().getEntity(entityId);
+            if (entity != null && entity.isValid()) {
+                entity.remove();
+            } else if (chunkLoaded && monster != null) {
+                dungeon.removeMonsterSpawn(section, monster.spawn);
+                changed = true;
+            }
+        }
+        active.entities.clear();
+
+        section.setActive(false);
+        if (changed) {
+            plugin.getDungeonData().saveDungeon(dungeon);
+        }
+    }
+
+    // Monstre tué : son point d'apparition est supprimé définitivement
+    public void onMonsterDeath(LivingEntity entity) {
+        ActiveMonster active = activeMonsters.remove(entity.getUniqueId());
+        if (active == null || active.spawn == null) return;
+
+        ActiveSection section = activeSections.get(active.section);
+        if (section != null) {
+            section.entities.remove(entity.getUniqueId());
+        }
+
+        active.dungeon.removeMonsterSpawn(active.section, active.spawn);
+        plugin.getDungeonData().saveDungeon(active.dungeon);
+    }
+
+    // Donjon supprimé : retire ses monstres et son boss sans toucher aux données
+    public void despawnDungeon(Dungeon dungeon) {
+        Iterator<Map.Entry<Dungeon.MonsterSection, ActiveSection>> iterator = activeSections.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Dungeon.MonsterSection, ActiveSection> entry = iterator.next();
+            if (entry.getValue().dungeon != dungeon) continue;
+
+            removeEntities(entry.getKey(), entry.getValue());
+            iterator.remove();
+        }
+
+        // Monstres hors sections (boss)
+        Iterator<Map.Entry<UUID, ActiveMonster>> monsters = activeMonsters.entrySet().iterator();
+        while (monsters.hasNext()) {
+            Map.Entry<UUID, ActiveMonster> entry = monsters.next();
+            if (entry.getValue().dungeon != dungeon) continue;
+
+            monsters.remove();
+            Entity entity = plugin.getServer().getEntity(entry.getKey());
+            if (entity != null) {
+                entity.remove();
+            }
+        }
+    }
+
+    // ================================
+    // ÉTIQUETTES ET INDEX
+    // ================================
+
+    // Monstre apparu hors des sections (boss) : étiqueté et indexé, sans point d'apparition
+    public void track(LivingEntity entity, Dungeon dungeon, Dungeon.MonsterRole role) {
+        tag(entity, dungeon, role);
+        activeMonsters.put(entity.getUniqueId(), new ActiveMonster(dungeon, role, null, null));
+    }
+
+    // Étiqueté dans le callback d'apparition, donc avant l'EntitySpawnEvent : EntityListener laisse passer
+    // les monstres du plugin. null si le type n'est pas vivant ou si l'apparition a été annulée
+    public LivingEntity spawn(Location location, EntityType type, Dungeon dungeon, Dungeon.MonsterRole role) {
+        Class<? extends Entity> entityClass = type.getEntityClass();
+        if (entityClass == null || !LivingEntity.class.isAssignableFrom(entityClass)) return null;
+
+        Entity entity = location.getWorld().spawn(location, entityClass, spawned -> tag(spawned, dungeon, role));
+        return entity.isValid() ? (LivingEntity) entity : null;
+    }
+
+    public boolean isTagged(Entity entity) {
+        return entity.getPersistentDataContainer().has(dungeonKey, PersistentDataType.STRING);
+    }
+
+    // Donjon propriétaire de l'entité, ou null : l'index d'abord, l'étiquette pour une entité
+    // rechargée avec son chunk depuis le dernier démarrage
+    public Dungeon getDungeon(Entity entity) {
+        ActiveMonster active = activeMonsters.get(entity.getUniqueId());
+        if (active != null) return active.dungeon;
+
+        String name = entity.getPersistentDataContainer().get(dungeonKey, PersistentDataType.STRING);
+        return name != null ? plugin.getDungeonManager().getDungeon(name) : null;
+    }
+
+    public Dungeon.MonsterRole getRole(Entity entity) {
+        ActiveMonster active = activeMonsters.get(entity.getUniqueId());
+        if (active != null) return active.role;
+
+        String role = entity.getPersistentDataContainer().get(roleKey, PersistentDataType.STRING);
+        if (role == null) return null;
+
+        try {
+            return Dungeon.MonsterRole.valueOf(role);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void tag(Entity entity, Dungeon dungeon, Dungeon.MonsterRole role) {
+        PersistentDataContainer data = entity.getPersistentDataContainer();
+        data.set(dungeonKey, PersistentDataType.STRING, dungeon.getName());
+        data.set(roleKey, PersistentDataType.STRING, role.name());
+    }
+
+    public int getActiveMonsterCount() {
+        return activeMonsters.size();
+    }
+
+    public int getActiveSectionCount() {
+        return activeSections.size();
+    }
+
+    public void shutdown() {
+        if (checkTask != null) {
+            checkTask.cancel();
+            checkTask = null;
+        }
+
+        for (Map.Entry<Dungeon.MonsterSection, ActiveSection> entry : activeSections.entrySet()) {
+            dematerialize(entry.getKey(), entry.getValue());
+        }
+        activeSections.clear();
+        activeMonsters.clear();
+    }
+
+    private void removeEntities(Dungeon.MonsterSection section, ActiveSection active) {
+        for (UUID entityId : active.entities) {
+            activeMonsters.remove(entityId);
+            Entity entity = plugin.getServer().getEntity(entityId);
+            if (entity != null) {
+                entity.remove();
+            }
+        }
+        active.entities.clear();
+        section.setActive(false);
+    }
+
+    private void enhanceMonster(LivingEntity monster, int difficulty) {
+        // Augmenter la vie selon la difficulté
+        double healthMultiplier = 1.0 + (difficulty * 0.5);
+        monster.setMaxHealth(monster.getMaxHealth() * healthMultiplier);
+        monster.setHealth(monster.getMaxHealth());
+
+        // Ajouter des équipements/effets selon le type et la difficulté
+        // Cette partie peut être étendue selon les besoins
+    }
+
+    // Classe interne ActiveSection
+
+    // Section matérialisée : les UUID de ses monstres évitent de parcourir tous les monstres en jeu
+    private static class ActiveSection {
+        private final Dungeon dungeon;
+        private final List<UUID> entities;
+
+        private ActiveSection(Dungeon dungeon) {
+            this.dungeon = dungeon;
+            this.entities = new ArrayList<>();
+        }
+    }
+
+    // Classe interne ActiveMonster
+
+    // section et spawn valent null pour un monstre sans point d'apparition (boss)
+    private static class ActiveMonster {
+        private final Dungeon dungeon;
+        private final Dungeon.MonsterRole role;
+        private final Dungeon.MonsterSection section;
+        private final Dungeon.MonsterSpawn spawn;
+
+        private ActiveMonster(Dungeon dungeon, Dungeon.MonsterRole role,
+                              Dungeon.MonsterSection section, Dungeon.MonsterSpawn spawn) {
+            this.dungeon = dungeon;
+            this.role = role;
+            this.section = section;
+            this.spawn = spawn;
+        }
+    }
+}
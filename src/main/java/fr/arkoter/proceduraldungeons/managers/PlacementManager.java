@@ -0,0 +1,397 @@
+package fr.arkoter.proceduraldungeons.managers;
+
+import fr.arkoter.proceduraldungeons.ProceduralDungeons;
+import fr.arkoter.proceduraldungeons.generators.BlockQueue;
+import fr.arkoter.proceduraldungeons.generators.BlockSnapshot;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+public class PlacementManager {
+
+    // Nombre de blocs posés entre deux lectures de l'horloge
+    private static final int CLOCK_CHECK_INTERVAL = 32;
+
+    private final ProceduralDungeons plugin;
+    private final Deque<PlacementTask> tasks;
+    private final Deque<SnapshotTask> snapshots;
+    private final Deque<ChunkLoadTask> chunkLoads;
+    private BukkitTask tickTask;
+
+    public PlacementManager(ProceduralDungeons plugin) {
+        this.plugin = plugin;
+        this.tasks = new ArrayDeque<>();
+        this.snapshots = new ArrayDeque<>();
+        this.chunkLoads = new ArrayDeque<>();
+    }
+
+    // ================================
+    // FILE DE POSE
+    // ================================
+
+    // Doit être appelé depuis le thread principal
+    public PlacementTask submit(BlockQueue queue, IntConsumer progressCallback, Runnable completionCallback) {
+        return submit(queue, 0, progressCallback, completionCallback);
+    }
+
+    // Reprise d'une pose interrompue : les sections avant startSection sont considérées comme posées
+    public PlacementTask submit(BlockQueue queue, int startSection, IntConsumer progressCallback, Runnable completionCallback) {
+        return submit(queue, startSection, null, progressCallback, completionCallback);
+    }
+
+    // sectionListener est prévenu avant la pose de chaque section, tant que le chunk n'a pas encore changé
+    public PlacementTask submit(BlockQueue queue, int startSection, SectionListener sectionListener,
+                                IntConsumer progressCallback, Runnable completionCallback) {
+        PlacementTask task = new PlacementTask(queue, startSection, sectionListener, progressCallback, completionCallback);
+        tasks.addLast(task);
+        startTicking();
+
+        return task;
+    }
+
+    // Copie les chunks d'une emprise sous le même budget par tick que la pose, puis appelle callback sur le
+    // thread principal avec les copies indexées par BlockSnapshot.chunkKey. Spigot n'a pas de chargement
+    // asynchrone : un chunk absent est chargé sur le thread principal, mais jamais au-delà du budget
+    public void snapshotChunks(World world, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ,
+                               Consumer<Map<Long, ChunkSnapshot>> callback) {
+        snapshots.addLast(new SnapshotTask(world, minChunkX, minChunkZ, maxChunkX, maxChunkZ, callback));
+        startTicking();
+    }
+
+    // Charge (ou fait générer) des chunks sous le même budget par tick que la pose, puis appelle callback sur le
+    // thread principal, y compris après une annulation. Chargement synchrone réparti sur plusieurs ticks :
+    // Spigot n'expose pas de chargement asynchrone, et aucun chunk n'est chargé une fois le budget du tick épuisé
+    public void loadChunks(World world, Collection<Long> chunkKeys, BooleanSupplier cancelled, Runnable callback) {
+        chunkLoads.addLast(new ChunkLoadTask(world, chunkKeys, cancelled, callback));
+        startTicking();
+    }
+
+    private void startTicking() {
+        if (tickTask == null) {
+            tickTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    private void tick() {
+        long budget = Math.max(1, plugin.getConfigManager().getGenerationDelay()) * 1_000_000L;
+        long deadline = System.nanoTime() + budget;
+
+        // Les copies passent d'abord : courtes, elles bloquent une remise à neuf ou une sauvegarde en attente
+        while (!snapshots.isEmpty() && System.nanoTime() < deadline) {
+            SnapshotTask snapshot = snapshots.peekFirst();
+            snapshot.apply(deadline);
+
+            if (snapshot.isDone()) {
+                snapshots.pollFirst();
+                completeSnapshot(snapshot);
+            }
+        }
+
+        // Puis les chunks à générer avant la pose d'une structure
+        while (!chunkLoads.isEmpty() && System.nanoTime() < deadline) {
+            ChunkLoadTask chunkLoad = chunkLoads.peekFirst();
+            chunkLoad.apply(deadline);
+
+            if (chunkLoad.isDone()) {
+                chunkLoads.pollFirst();
+                completeChunkLoad(chunkLoad);
+            }
+        }
+
+        while (!tasks.isEmpty() && System.nanoTime() < deadline) {
+            PlacementTask task = tasks.peekFirst();
+            task.apply(deadline);
+
+            if (task.isDone()) {
+                tasks.pollFirst();
+                completeTask(task);
+            } else {
+                task.reportProgress();
+            }
+        }
+
+        if (tasks.isEmpty() && snapshots.isEmpty() && chunkLoads.isEmpty() && tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+    }
+
+    // Arrête la pose sans appeler la finalisation : la tâche garde sa position pour une reprise
+    public boolean cancel(PlacementTask task) {
+        return tasks.remove(task);
+    }
+
+    public int getPendingTaskCount() {
+        return tasks.size() + snapshots.size() + chunkLoads.size();
+    }
+
+    public void shutdown() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+
+        // Copies abandonnées : leurs suites écrivent hors du thread principal, impossible une fois le plugin arrêté
+        snapshots.clear();
+
+        // Chargements abandonnés : les générations qui les attendaient sont reprises au prochain démarrage
+        chunkLoads.clear();
+
+        // Terminer les structures en cours pour ne pas laisser de donjon à moitié construit ; les tâches
+        // reprises au prochain démarrage sont simplement abandonnées
+        while (!tasks.isEmpty()) {
+            PlacementTask task = tasks.pollFirst();
+            if (task.isResumable()) continue;
+
+            task.apply(Long.MAX_VALUE);
+            completeTask(task);
+        }
+    }
+
+    private void completeTask(PlacementTask task) {
+        try {
+            task.complete();
+        } catch (RuntimeException e) {
+            plugin.getLogger().severe("Erreur lors de la finalisation d'une structure: " + e.getMessage());
+        }
+    }
+
+    private void completeSnapshot(SnapshotTask snapshot) {
+        try {
+            snapshot.complete();
+        } catch (RuntimeException e) {
+            plugin.getLogger().severe("Erreur lors de la copie d'une emprise: " + e.getMessage());
+        }
+    }
+
+    private void completeChunkLoad(ChunkLoadTask chunkLoad) {
+        try {
+            chunkLoad.complete();
+        } catch (RuntimeException e) {
+            plugin.getLogger().severe("Erreur après le chargement de chunks: " + e.getMessage());
+        }
+    }
+
+    // Interface interne SectionListener
+
+    public interface SectionListener {
+        void beforeSection(BlockQueue.Section section, Chunk chunk);
+    }
+
+    // Classe interne PlacementTask
+
+    public static class PlacementTask {
+        private final BlockQueue queue;
+        private final List<BlockQueue.Section> sections;
+        private final SectionListener sectionListener;
+        private final IntConsumer progressCallback;
+        private final Runnable completionCallback;
+        private int sectionCursor;
+        private int blockCursor;
+        private int placed;
+        private int lastReportedProgress;
+        private boolean resumable;
+
+        // Temps passé à poser sur le thread principal, tous ticks confondus
+        private long activeNanos;
+
+        private PlacementTask(BlockQueue queue, int startSection, SectionListener sectionListener,
+                              IntConsumer progressCallback, Runnable completionCallback) {
+            this.queue = queue;
+            this.sections = queue.getSections();
+            this.sectionListener = sectionListener;
+            this.progressCallback = progressCallback;
+            this.completionCallback = completionCallback;
+            this.sectionCursor = Math.max(0, Math.min(startSection, sections.size()));
+            this.blockCursor = 0;
+            this.placed = 0;
+            this.lastReportedProgress = -1;
+            this.activeNanos = 0;
+
+            for (int i = 0; i < sectionCursor; i++) {
+                placed += sections.get(i).getCount();
+            }
+        }
+
+        // Tâche hors file, posée par l'appelant : génération complète dans un monde en mémoire (tests, benchmarks)
+        static PlacementTask standalone(BlockQueue queue) {
+            return new PlacementTask(queue, 0, null, null, null);
+        }
+
+        // Pose jusqu'à l'échéance (System.nanoTime) ; la section en cours reprend au prochain appel
+        void apply(long deadline) {
+            long start = System.nanoTime();
+            applyBlocks(deadline);
+            activeNanos += System.nanoTime() - start;
+        }
+
+        private void applyBlocks(long deadline) {
+            World world = queue.getWorld();
+
+            while (sectionCursor < sections.size()) {
+                BlockQueue.Section section = sections.get(sectionCursor);
+                Chunk chunk = world.getChunkAt(section.getChunkX(), section.getChunkZ());
+                int baseY = section.getSectionY() << 4;
+
+                if (blockCursor == 0 && sectionListener != null) {
+                    sectionListener.beforeSection(section, chunk);
+                }
+
+                // Toute la section en une passe, sans mise à jour physique bloc par bloc
+                while (blockCursor < BlockQueue.Section.VOLUME) {
+                    int index = blockCursor++;
+                    Material material = section.get(index);
+                    if (material == null) {
+                        continue;
+                    }
+
+                    chunk.getBlock(BlockQueue.Section.getLocalX(index),
+                            baseY + BlockQueue.Section.getLocalY(index),
+                            BlockQueue.Section.getLocalZ(index)).setType(material, false);
+
+                    if (++placed % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline) {
+                        return;
+                    }
+                }
+
+                sectionCursor++;
+                blockCursor = 0;
+            }
+        }
+
+        private void reportProgress() {
+            int progress = getProgress();
+            if (progress != lastReportedProgress && progressCallback != null) {
+                lastReportedProgress = progress;
+                progressCallback.accept(progress);
+            }
+        }
+
+        private void complete() {
+            if (completionCallback != null) {
+                completionCallback.run();
+            }
+        }
+
+        // Sections entièrement posées ; la section en cours sera reposée en entier à la reprise
+        public int getSectionCursor() {
+            return sectionCursor;
+        }
+
+        public int getSectionCount() {
+            return sections.size();
+        }
+
+        public long getActiveNanos() {
+            return activeNanos;
+        }
+
+        public boolean isResumable() {
+            return resumable;
+        }
+
+        public void setResumable(boolean resumable) {
+            this.resumable = resumable;
+        }
+
+        public boolean isDone() {
+            return sectionCursor >= sections.size();
+        }
+
+        public int getProgress() {
+            if (queue.isEmpty()) return 100;
+            return (int) ((long) placed * 100 / queue.size());
+        }
+    }
+
+    // Classe interne SnapshotTask
+
+    // Copie d'une emprise chunk par chunk, reprise au tick suivant une fois le budget épuisé
+    private static class SnapshotTask {
+        private final World world;
+        private final int minChunkZ;
+        private final int maxChunkX;
+        private final int maxChunkZ;
+        private final Map<Long, ChunkSnapshot> chunks;
+        private final Consumer<Map<Long, ChunkSnapshot>> callback;
+        private int chunkX;
+        private int chunkZ;
+
+        private SnapshotTask(World world, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ,
+                             Consumer<Map<Long, ChunkSnapshot>> callback) {
+            this.world = world;
+            this.minChunkZ = minChunkZ;
+            this.maxChunkX = maxChunkX;
+            this.maxChunkZ = maxChunkZ;
+            this.chunks = new HashMap<>();
+            this.callback = callback;
+            this.chunkX = minChunkX;
+            this.chunkZ = minChunkZ;
+        }
+
+        private void apply(long deadline) {
+            while (chunkX <= maxChunkX && System.nanoTime() < deadline) {
+                chunks.put(BlockSnapshot.chunkKey(chunkX, chunkZ), world.getChunkAt(chunkX, chunkZ).getChunkSnapshot());
+
+                if (++chunkZ > maxChunkZ) {
+                    chunkZ = minChunkZ;
+                    chunkX++;
+                }
+            }
+        }
+
+        private boolean isDone() {
+            return chunkX > maxChunkX;
+        }
+
+        private void complete() {
+            callback.accept(chunks);
+        }
+    }
+
+    // Classe interne ChunkLoadTask
+
+    // Chargement d'une liste de chunks, repris au tick suivant une fois le budget épuisé
+    private static class ChunkLoadTask {
+        private final World world;
+        private final Iterator<Long> chunkKeys;
+        private final BooleanSupplier cancelled;
+        private final Runnable callback;
+
+        private ChunkLoadTask(World world, Collection<Long> chunkKeys, BooleanSupplier cancelled, Runnable callback) {
+            this.world = world;
+            this.chunkKeys = new ArrayList<>(chunkKeys).iterator();
+            this.cancelled = cancelled;
+            this.callback = callback;
+        }
+
+        private void apply(long deadline) {
+            while (!isDone() && System.nanoTime() < deadline) {
+                long key = chunkKeys.next();
+                world.getChunkAt((int) (key >> 32), (int) key);
+            }
+        }
+
+        private boolean isDone() {
+            return !chunkKeys.hasNext() || cancelled.getAsBoolean();
+        }
+
+        private void complete() {
+            callback.run();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package fr.arkoter.proceduraldungeons.managers;
+
+import fr.arkoter.proceduraldungeons.ProceduralDungeons;
+import fr.arkoter.proceduraldungeons.utils.MessageUtils;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+// Temps passé sur le thread principal par chaque handler des listeners du plugin : appels, temps total
+// et pire appel par fenêtre de ticks, avec un avertissement quand un handler dépasse sa part du tick
+// Les handlers sont enregistrés par le moniteur plutôt que par registerEvents ; hors surveillance,
+// ils sont appelés directement. Utilisé depuis le thread principal uniquement
+public class TickMonitor {
+
+    private static final long TICK_NANOS = 50_000_000L;
+
+    private final ProceduralDungeons plugin;
+    private final File logFile;
+    private final List<HandlerStats> handlers;
+    private BukkitTask windowTask;
+
+    // Lu par les handlers à chaque événement : changé uniquement par reload
+    private boolean enabled;
+    private int windowTicks;
+    private long windowStart;
+
+    public TickMonitor(ProceduralDungeons plugin) {
+        this.plugin = plugin;
+        this.logFile = new File(plugin.getDataFolder(), "tick-monitor.log");
+        this.handlers = new ArrayList<>();
+        start();
+    }
+
+    // ================================
+    // ENREGISTREMENT
+    // ================================
+
+    // Même découverte que registerEvents : méthodes publiques annotées @EventHandler à un paramètre
+    public void register(Listener listener) {
+        for (Method method : listener.getClass().getMethods()) {
+            EventHandler annotation = method.getAnnotation(EventHandler.class);
+            if (annotation == null || method.getParameterCount() != 1
+                    || !Event.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                continue;
+            }
+
+            Class<? extends Event> eventClass = method.getParameterTypes()[0].asSubclass(Event.class);
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.publicLookup().unreflect(method)
+                        .asType(MethodType.methodType(void.class, Listener.class, Event.class));
+            } catch (IllegalAccessException e) {
+                plugin.getLogger().severe("Handler " + method.getName() + " inaccessible: " + e.getMessage());
+                continue;
+            }
+
+            HandlerStats stats = new HandlerStats(listener.getClass().getSimpleName() + "." + method.getName());
+            handlers.add(stats);
+
+            plugin.getServer().getPluginManager().registerEvent(eventClass, listener, annotation.priority(),
+                    new TimedExecutor(eventClass, handle, stats), plugin, annotation.ignoreCancelled());
+        }
+    }
+
+    // ================================
+    // FENÊTRES DE MESURE
+    // ================================
+
+    private void start() {
+        ConfigManager config = plugin.getConfigManager();
+        enabled = config.isTickMonitorEnabled();
+        windowTicks = Math.max(1, config.getTickMonitorWindow());
+        if (!enabled) return;
+
+        for (HandlerStats stats : handlers) {
+            stats.reset();
+        }
+        windowStart = System.currentTimeMillis();
+
+        windowTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                closeWindow();
+            }
+        }.runTaskTimer(plugin, windowTicks, windowTicks);
+    }
+
+    private void closeWindow() {
+        double threshold = plugin.getConfigManager().getTickMonitorThreshold();
+        long budget = TICK_NANOS * windowTicks;
+        String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(windowStart));
+        List<String> lines = new ArrayList<>();
+
+        for (HandlerStats stats : handlers) {
+            stats.closeWindow();
+            if (stats.lastCalls == 0) continue;
+
+            double share = stats.lastTotalNanos * 100.0 / budget;
+            lines.add(String.format(Locale.ROOT, "%s %s appels=%d total=%.3fms max=%.3fms part=%.2f%%",
+                    timestamp, stats.name, stats.lastCalls, stats.lastTotalNanos / 1_000_000.0,
+                    stats.lastMaxNanos / 1_000_000.0, share));
+
+            if (share >= threshold) {
+                String warning = String.format(Locale.ROOT, "%s utilise %.2f%% du budget de tick (seuil %.2f%%) : "
+                                + "%d appels, pire appel %.3fms sur %d ticks",
+                        stats.name, share, threshold, stats.lastCalls, stats.lastMaxNanos / 1_000_000.0, windowTicks);
+                plugin.getLogger().warning(warning);
+                lines.add(timestamp + " AVERTISSEMENT " + warning);
+            }
+        }
+        windowStart = System.currentTimeMillis();
+
+        if (lines.isEmpty()) return;
+        long maxSize = plugin.getConfigManager().getTickMonitorLogSize() * 1024L;
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                appendLog(lines, maxSize);
+            }
+        }.runTaskAsynchronously(plugin);
+    }
+
+    // Journal tournant : au-delà de la taille maximale, l'ancien journal devient tick-monitor.log.1
+    private synchronized void appendLog(List<String> lines, long maxSize) {
+        try {
+            if (maxSize > 0 && logFile.length() > maxSize) {
+                Files.move(logFile.toPath(), new File(logFile.getPath() + ".1").toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            try (Writer writer = new FileWriter(logFile, true)) {
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.write(System.lineSeparator());
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Impossible d'écrire tick-monitor.log: " + e.getMessage());
+        }
+    }
+
+    // ================================
+    // AFFICHAGE
+    // ================================
+
+    public void showTicks(Player viewer) {
+        if (!enabled) {
+            viewer.sendMessage(MessageUtils.getMessage("messages.stats.ticks-disabled"));
+            return;
+        }
+
+        long budget = TICK_NANOS * windowTicks;
+        viewer.sendMessage(MessageUtils.getMessage("messages.stats.ticks-header",
+                "{ticks}", String.valueOf(windowTicks)));
+        for (HandlerStats stats : handlers) {
+            viewer.sendMessage(MessageUtils.getMessage("messages.stats.ticks-entry",
+                    "{handler}", stats.name,
+                    "{calls}", String.valueOf(stats.lastCalls),
+                    "{total}", String.format(Locale.ROOT, "%.3f", stats.lastTotalNanos / 1_000_000.0),
+                    "{max}", String.format(Locale.ROOT, "%.3f", stats.lastMaxNanos / 1_000_000.0),
+                    "{share}", String.format(Locale.ROOT, "%.2f", stats.lastTotalNanos * 100.0 / budget),
+                    "{peak}", String.format(Locale.ROOT, "%.2f", stats.peakTotalNanos * 100.0 / budget)));
+        }
+        viewer.sendMessage(MessageUtils.getMessage("messages.stats.ticks-footer"));
+    }
+
+    public void reload() {
+        if (windowTask != null) {
+            windowTask.cancel();
+            windowTask = null;
+        }
+        start();
+    }
+
+    public void shutdown() {
+        if (windowTask != null) {
+            windowTask.cancel();
+            windowTask = null;
+        }
+    }
+
+    // Classe interne TimedExecutor
+
+    // Appel direct du handler ; chronométré sur le thread principal quand la surveillance est active.
+    // Aucune allocation par événement
+    private class TimedExecutor implements EventExecutor {
+        private final Class<? extends Event> eventClass;
+        private final MethodHandle handle;
+        private final HandlerStats stats;
+
+        private TimedExecutor(Class<? extends Event> eventClass, MethodHandle handle, HandlerStats stats) {
+            this.eventClass = eventClass;
+            this.handle = handle;
+            this.stats = stats;
+        }
+
+        @Override
+        public void execute(Listener listener, Event event) throws EventException {
+            // La liste de handlers d'un événement peut être partagée avec ses sous-classes
+            if (!eventClass.isInstance(event)) return;
+
+            if (!enabled || event.isAsynchronous()) {
+                invoke(listener, event);
+                return;
+            }
+
+            long start = System.nanoTime();
+            try {
+                invoke(listener, event);
+            } finally {
+                stats.record(System.nanoTime() - start);
+            }
+        }
+
+        private void invoke(Listener listener, Event event) throws EventException {
+            try {
+                handle.invokeExact(listener, event);
+            } catch (Throwable t) {
+                throw new EventException(t);
+            }
+        }
+    }
+
+    // Classe interne HandlerStats
+
+    private static class HandlerStats {
+        private final String name;
+
+        // Fenêtre en cours
+        private int calls;
+        private long totalNanos;
+        private long maxNanos;
+
+        // Dernière fenêtre complète, et pire fenêtre depuis l'activation
+        private int lastCalls;
+        private long lastTotalNanos;
+        private long lastMaxNanos;
+        private long peakTotalNanos;
+
+        private HandlerStats(String name) {
+            this.name = name;
+        }
+
+        private void record(long nanos) {
+            calls++;
+            totalNanos += nanos;
+            if (nanos > maxNanos) {
+                maxNanos = nanos;
+            }
+        }
+
+        private void closeWindow() {
+            lastCalls = calls;
+            lastTotalNanos = totalNanos;
+            lastMaxNanos = maxNanos;
+            peakTotalNanos = Math.max(peakTotalNanos, totalNanos);
+            calls = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+        }
+
+        private void reset() {
+            calls = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+            lastCalls = 0;
+            lastTotalNanos = 0;
+            lastMaxNanos = 0;
+            peakTotalNanos = 0;
+        }
+    }
+}
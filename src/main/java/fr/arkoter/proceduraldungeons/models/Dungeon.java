@@ -1,6 +1,9 @@
 package fr.arkoter.proceduraldungeons.models;
 
+import fr.arkoter.proceduraldungeons.utils.LocationUtils;
+import fr.arkoter.proceduraldungeons.utils.LongHashMap;
 import org.bukkit.Location;
+import org.bukkit.entity.EntityType;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -8,16 +11,51 @@ import java.util.Set;
 
 public class Dungeon {
 
+    // Rôle d'un monstre du donjon, inscrit sur l'entité
+    public enum MonsterRole {
+        REGULAR,
+        ROOM,
+        BOSS
+    }
+
     private final String name;
     private final Location location;
     private final int size;
     private int difficulty;
     private boolean bossAlive;
     private Location bossLocation;
-    private final List<Location> treasureChests;
-    private final List<Trap> traps;
+
+    // Graine de génération (0 : donjon antérieur aux graines) et template de l'assistant éventuel
+    private long seed;
+    private DungeonTemplate template;
+    private int generatorVersion;
+
+    // Réserve d'instances à laquelle appartient le donjon (null : donjon partagé classique)
+    private String instancePool;
+
+    // Donjon sauvegardé par graine : coffres et pièges sont recalculés à la première entrée,
+    // seuls les coffres ouverts et les pièges déclenchés sont gardés d'ici là
+    private boolean layoutLoaded;
+    private long[] pendingOpenedChests;
+    private long[] pendingFiredTraps;
+
+    // Indexés par clé de bloc compactée (x/y/z) pour des recherches sans copie
+    private final LongHashMap<TreasureChest> treasureChests;
+    private final LongHashMap<Trap> traps;
     private final Set<String> activePlayers;
 
+    // Points d'apparition des monstres, regroupés par colonne de chunk : un groupe n'existe
+    // en entités que lorsqu'un joueur s'en approche
+    private final LongHashMap<MonsterSection> monsterSections;
+
+    // Emprise du donjon en coordonnées de blocs (bornes incluses)
+    private final int minX;
+    private final int maxX;
+    private final int minY;
+    private final int maxY;
+    private final int minZ;
+    private final int maxZ;
+
     // Statistiques
     private int timesEntered;
     private int timesCompleted;
@@ -31,14 +69,22 @@ public class Dungeon {
         this.size = size;
         this.difficulty = difficulty;
         this.bossAlive = false;
-        this.treasureChests = new ArrayList<>();
-        this.traps = new ArrayList<>();
+        this.treasureChests = new LongHashMap<>();
+        this.traps = new LongHashMap<>();
         this.activePlayers = new HashSet<>();
+        this.monsterSections = new LongHashMap<>();
+        this.minX = location.getBlockX() - size / 2;
+        this.maxX = minX + size - 1;
+        this.minY = location.getBlockY() - size / 2;
+        this.maxY = location.getBlockY() + size / 2;
+        this.minZ = location.getBlockZ() - size / 2;
+        this.maxZ = minZ + size - 1;
         this.timesEntered = 0;
         this.timesCompleted = 0;
         this.totalMonstersKilled = 0;
         this.fastestCompletion = 0;
         this.createdAt = System.currentTimeMillis();
+        this.layoutLoaded = true;
     }
 
     // Getters et Setters de base
@@ -79,47 +125,296 @@ public class Dungeon {
         this.bossLocation = bossLocation != null ? bossLocation.clone() : null;
     }
 
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    // null pour un donjon créé sans l'assistant
+    public DungeonTemplate getTemplate() {
+        return template;
+    }
+
+    public void setTemplate(DungeonTemplate template) {
+        this.template = template;
+    }
+
+    public int getGeneratorVersion() {
+        return generatorVersion;
+    }
+
+    public void setGeneratorVersion(int generatorVersion) {
+        this.generatorVersion = generatorVersion;
+    }
+
+    public String getInstancePool() {
+        return instancePool;
+    }
+
+    public void setInstancePool(String instancePool) {
+        this.instancePool = instancePool;
+    }
+
+    public boolean isInstance() {
+        return instancePool != null;
+    }
+
+    // Disposition recalculée depuis la graine
+
+    public boolean isLayoutLoaded() {
+        return layoutLoaded;
+    }
+
+    // Chargé depuis une sauvegarde par graine : la disposition sera recalculée plus tard
+    public void setPendingLayout(long[] openedChests, long[] firedTraps) {
+        this.layoutLoaded = false;
+        this.pendingOpenedChests = openedChests;
+        this.pendingFiredTraps = firedTraps;
+    }
+
+    // Reprend coffres, pièges et boss du donjon recalculé, puis rejoue les changements sauvegardés
+    public void restoreLayout(Dungeon rebuilt) {
+        if (layoutLoaded) return;
+
+        if (rebuilt != null) {
+            for (TreasureChest chest : rebuilt.treasureChests.values()) {
+                treasureChests.put(LocationUtils.toBlockKey(chest.location), chest);
+            }
+            for (Trap trap : rebuilt.traps.values()) {
+                traps.put(trap.getBlockKey(), trap);
+            }
+            if (bossLocation == null) {
+                bossLocation = rebuilt.bossLocation;
+            }
+            for (MonsterSpawn spawn : rebuilt.getMonsterSpawns()) {
+                addMonsterSpawn(spawn);
+            }
+        }
+
+        for (long key : pendingOpenedChests) {
+            TreasureChest chest = treasureChests.get(key);
+            if (chest != null) chest.setLooted(true);
+        }
+        for (long key : pendingFiredTraps) {
+            Trap trap = traps.get(key);
+            if (trap != null) trap.setActivated(true);
+        }
+
+        pendingOpenedChests = null;
+        pendingFiredTraps = null;
+        layoutLoaded = true;
+    }
+
+    // Remise à neuf : coffres à remplir, pièges réarmés, boss à faire réapparaître. Les points
+    // d'apparition sont repris du donjon recalculé, ou gardés tels quels sans graine (rebuilt null)
+    public void resetState(Dungeon rebuilt) {
+        for (TreasureChest chest : treasureChests.values()) {
+            chest.setLooted(false);
+        }
+        for (Trap trap : traps.values()) {
+            trap.setActivated(false);
+        }
+        bossAlive = false;
+
+        if (rebuilt != null) {
+            monsterSections.clear();
+            for (MonsterSpawn spawn : rebuilt.getMonsterSpawns()) {
+                addMonsterSpawn(spawn);
+            }
+        }
+    }
+
+    public long[] getOpenedChestKeys() {
+        if (!layoutLoaded) return pendingOpenedChests.clone();
+
+        List<Long> keys = new ArrayList<>();
+        for (TreasureChest chest : treasureChests.values()) {
+            if (chest.isLooted()) keys.add(LocationUtils.toBlockKey(chest.location));
+        }
+        return keys.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    public long[] getFiredTrapKeys() {
+        if (!layoutLoaded) return pendingFiredTraps.clone();
+
+        List<Long> keys = new ArrayList<>();
+        for (Trap trap : traps.values()) {
+            if (trap.isActivated()) keys.add(trap.getBlockKey());
+        }
+        return keys.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // Emprise
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMaxX() {
+        return maxX;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMaxY() {
+        return maxY;
+    }
+
+    public int getMinZ() {
+        return minZ;
+    }
+
+    public int getMaxZ() {
+        return maxZ;
+    }
+
+    public boolean contains(Location other) {
+        if (other == null || other.getWorld() == null || !other.getWorld().equals(location.getWorld())) {
+            return false;
+        }
+
+        return contains(other.getBlockX(), other.getBlockY(), other.getBlockZ());
+    }
+
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    // Position à moins de margin blocs de l'emprise, dans le même monde
+    public boolean isNear(Location other, int margin) {
+        if (other == null || other.getWorld() == null || !other.getWorld().equals(location.getWorld())) {
+            return false;
+        }
+
+        int x = other.getBlockX();
+        int y = other.getBlockY();
+        int z = other.getBlockZ();
+        return x >= minX - margin && x <= maxX + margin
+                && y >= minY - margin && y <= maxY + margin
+                && z >= minZ - margin && z <= maxZ + margin;
+    }
+
     // Gestion des coffres au trésor
 
     public List<Location> getTreasureChests() {
-        return new ArrayList<>(treasureChests);
+        List<Location> locations = new ArrayList<>(treasureChests.size());
+        for (TreasureChest chest : treasureChests.values()) {
+            locations.add(chest.getLocation());
+        }
+        return locations;
     }
 
     public void addTreasureChest(Location location) {
-        treasureChests.add(location.clone());
+        treasureChests.put(LocationUtils.toBlockKey(location), new TreasureChest(location));
     }
 
     public void removeTreasureChest(Location location) {
-        treasureChests.removeIf(chest -> chest.equals(location));
+        treasureChests.remove(LocationUtils.toBlockKey(location));
     }
 
     public boolean hasTreasureChest(Location location) {
-        return treasureChests.contains(location);
+        return treasureChests.containsKey(LocationUtils.toBlockKey(location));
+    }
+
+    // Retourne l'état du coffre à cette position, ou null (sans copie)
+    public TreasureChest getTreasureChestAt(int x, int y, int z) {
+        return treasureChests.get(LocationUtils.toBlockKey(x, y, z));
+    }
+
+    public int getTreasureChestCount() {
+        return treasureChests.size();
     }
 
     // Gestion des pièges
 
     public List<Trap> getTraps() {
-        return new ArrayList<>(traps);
+        return traps.values();
     }
 
     public void addTrap(Location location, int type) {
-        traps.add(new Trap(location, type));
+        addTrap(new Trap(location, type));
     }
 
     public void addTrap(Trap trap) {
-        traps.add(trap);
+        traps.put(trap.getBlockKey(), trap);
     }
 
     public void removeTrap(Location location) {
-        traps.removeIf(trap -> trap.getLocation().equals(location));
+        traps.remove(LocationUtils.toBlockKey(location));
     }
 
     public Trap getTrap(Location location) {
-        return traps.stream()
-                .filter(trap -> trap.getLocation().equals(location))
-                .findFirst()
-                .orElse(null);
+        return traps.get(LocationUtils.toBlockKey(location));
+    }
+
+    // Retourne le piège à cette position, ou null (sans copie)
+    public Trap getTrapAt(int x, int y, int z) {
+        return traps.get(LocationUtils.toBlockKey(x, y, z));
+    }
+
+    public int getTrapCount() {
+        return traps.size();
+    }
+
+    // Gestion des points d'apparition
+
+    public void addMonsterSpawn(Location location, EntityType type, MonsterRole role) {
+        addMonsterSpawn(new MonsterSpawn(location, type, role));
+    }
+
+    public void addMonsterSpawn(MonsterSpawn spawn) {
+        int chunkX = spawn.location.getBlockX() >> 4;
+        int chunkZ = spawn.location.getBlockZ() >> 4;
+        long key = sectionKey(chunkX, chunkZ);
+
+        MonsterSection section = monsterSections.get(key);
+        if (section == null) {
+            section = new MonsterSection(chunkX, chunkZ);
+            monsterSections.put(key, section);
+        }
+        section.spawns.add(spawn);
+    }
+
+    // Monstre tué : son point d'apparition disparaît
+    public void removeMonsterSpawn(MonsterSection section, MonsterSpawn spawn) {
+        section.spawns.remove(spawn);
+        if (section.spawns.isEmpty()) {
+            monsterSections.remove(sectionKey(section.chunkX, section.chunkZ));
+        }
+    }
+
+    // Section d'un chunk, ou null s'il n'a aucun point d'apparition (aucune allocation)
+    public MonsterSection getMonsterSection(int chunkX, int chunkZ) {
+        return monsterSections.get(sectionKey(chunkX, chunkZ));
+    }
+
+    public List<MonsterSection> getMonsterSections() {
+        return monsterSections.values();
+    }
+
+    public List<MonsterSpawn> getMonsterSpawns() {
+        List<MonsterSpawn> spawns = new ArrayList<>();
+        for (MonsterSection section : monsterSections.values()) {
+            spawns.addAll(section.spawns);
+        }
+        return spawns;
+    }
+
+    public int getMonsterSpawnCount() {
+        int count = 0;
+        for (MonsterSection section : monsterSections.values()) {
+            count += section.spawns.size();
+        }
+        return count;
+    }
+
+    private static long sectionKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
     }
 
     // Gestion des joueurs actifs
@@ -223,15 +518,41 @@ public class Dungeon {
         }
     }
 
+    // Classe interne TreasureChest
+
+    public static class TreasureChest {
+        private final Location location;
+        private boolean looted;
+
+        public TreasureChest(Location location) {
+            this.location = location.clone();
+            this.looted = false;
+        }
+
+        public Location getLocation() {
+            return location.clone();
+        }
+
+        public boolean isLooted() {
+            return looted;
+        }
+
+        public void setLooted(boolean looted) {
+            this.looted = looted;
+        }
+    }
+
     // Classe interne Trap
 
     public static class Trap {
         private final Location location;
+        private final long blockKey;
         private final int type;
         private boolean activated;
 
         public Trap(Location location, int type) {
             this.location = location.clone();
+            this.blockKey = LocationUtils.toBlockKey(location);
             this.type = type;
             this.activated = false;
         }
@@ -240,6 +561,10 @@ public class Dungeon {
             return location.clone();
         }
 
+        public long getBlockKey() {
+            return blockKey;
+        }
+
         public int getType() {
             return type;
         }
@@ -286,6 +611,76 @@ public class Dungeon {
         }
     }
 
+    // Classe interne MonsterSpawn
+
+    public static class MonsterSpawn {
+        private final Location location;
+        private final EntityType type;
+        private final MonsterRole role;
+
+        public MonsterSpawn(Location location, EntityType type, MonsterRole role) {
+            this.location = location.clone();
+            this.type = type;
+            this.role = role;
+        }
+
+        public Location getLocation() {
+            return location.clone();
+        }
+
+        public EntityType getType() {
+            return type;
+        }
+
+        public MonsterRole getRole() {
+            return role;
+        }
+    }
+
+    // Classe interne MonsterSection
+
+    // Points d'apparition d'une colonne de chunk ; active tant que ses monstres existent en jeu
+    public static class MonsterSection {
+        private final int chunkX;
+        private final int chunkZ;
+        private final List<MonsterSpawn> spawns;
+        private boolean active;
+
+        public MonsterSection(int chunkX, int chunkZ) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.spawns = new ArrayList<>();
+            this.active = false;
+        }
+
+        public int getChunkX() {
+            return chunkX;
+        }
+
+        public int getChunkZ() {
+            return chunkZ;
+        }
+
+        public List<MonsterSpawn> getSpawns() {
+            return new ArrayList<>(spawns);
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+
+        // Distance horizontale au carré entre la position et la colonne de chunk
+        public double distanceSquared(double x, double z) {
+            double dx = Math.max(0, Math.max((chunkX << 4) - x, x - ((chunkX << 4) + 16)));
+            double dz = Math.max(0, Math.max((chunkZ << 4) - z, z - ((chunkZ << 4) + 16)));
+            return dx * dx + dz * dz;
+        }
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
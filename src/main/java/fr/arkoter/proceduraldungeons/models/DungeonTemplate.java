@@ -1,8 +1,13 @@
 package fr.arkoter.proceduraldungeons.models;
 
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.EntityType;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class DungeonTemplate {
@@ -37,6 +42,40 @@ public class DungeonTemplate {
         this.enabledRewards = session.getEnabledRewards();
     }
 
+    // Relecture d'un template sauvegardé avec une génération interrompue
+    public DungeonTemplate(String name, ConfigurationSection section) {
+        this.name = name;
+        this.size = section.getInt("size");
+        this.theme = DungeonTheme.valueOf(section.getString("theme", DungeonTheme.MEDIEVAL.name()));
+        this.difficulty = section.getInt("difficulty", 1);
+        this.treasureRooms = section.getInt("treasure-rooms");
+        this.combatRooms = section.getInt("combat-rooms");
+        this.puzzleRooms = section.getInt("puzzle-rooms");
+        this.bossRoom = section.getBoolean("boss-room", true);
+        this.trapDensity = section.getInt("trap-density", 2);
+        this.lootQuality = section.getInt("loot-quality", 2);
+        this.enabledMonsters = new HashSet<>(section.getStringList("monsters"));
+        this.enabledTraps = new HashSet<>(section.getIntegerList("traps"));
+        this.enabledRewards = new HashSet<>(section.getIntegerList("rewards"));
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("size", size);
+        values.put("theme", theme.name());
+        values.put("difficulty", difficulty);
+        values.put("treasure-rooms", treasureRooms);
+        values.put("combat-rooms", combatRooms);
+        values.put("puzzle-rooms", puzzleRooms);
+        values.put("boss-room", bossRoom);
+        values.put("trap-density", trapDensity);
+        values.put("loot-quality", lootQuality);
+        values.put("monsters", new ArrayList<>(enabledMonsters));
+        values.put("traps", new ArrayList<>(enabledTraps));
+        values.put("rewards", new ArrayList<>(enabledRewards));
+        return values;
+    }
+
     // Getters
     public String getName() { return name; }
     public int getSize() { return size; }
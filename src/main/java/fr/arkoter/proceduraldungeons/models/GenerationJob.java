@@ -0,0 +1,213 @@
+package fr.arkoter.proceduraldungeons.models;
+
+import fr.arkoter.proceduraldungeons.managers.PlacementManager;
+import org.bukkit.Location;
+
+import java.util.UUID;
+
+// Génération de donjon en file d'attente, manipulée depuis le thread principal uniquement
+public class GenerationJob {
+
+    public enum State {
+        QUEUED("En attente"),
+        GENERATING("Calcul"),
+        PLACING("Construction"),
+        FINISHING("Finalisation");
+
+        private final String displayName;
+
+        State(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    // Points de sauvegarde : l'étape indique ce qu'il reste à faire après un redémarrage
+    public enum Stage {
+        MAZE("Labyrinthe"),
+        STRUCTURE("Structure"),
+        ROOMS("Salles"),
+        POPULATE("Pièges et monstres");
+
+        private final String displayName;
+
+        Stage(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private final int id;
+    private final String dungeonName;
+    private final UUID ownerId;
+    private final boolean priority;
+    private final long queuedAt;
+
+    // Paramètres de génération : la graine suffit à recalculer le même plan
+    private final Location location;
+    private final int size;
+    private final int difficulty;
+    private final DungeonTemplate template;
+    private final long seed;
+
+    // Réserve d'instances à remplir (null pour un donjon demandé par un joueur)
+    private String instancePool;
+
+    private State state;
+    private Stage stage;
+    private int placedSections;
+    private PlacementManager.PlacementTask placement;
+    private int progress;
+    private int lastReportedPosition;
+    private boolean resumed;
+    private boolean cancelled;
+
+    public GenerationJob(int id, String dungeonName, UUID ownerId, boolean priority,
+                         Location location, int size, int difficulty, DungeonTemplate template, long seed) {
+        this.id = id;
+        this.dungeonName = dungeonName;
+        this.ownerId = ownerId;
+        this.priority = priority;
+        this.queuedAt = System.currentTimeMillis();
+        this.location = location;
+        this.size = size;
+        this.difficulty = difficulty;
+        this.template = template;
+        this.seed = seed;
+        this.state = State.QUEUED;
+        this.stage = Stage.MAZE;
+        this.placedSections = 0;
+        this.progress = 0;
+        this.lastReportedPosition = 0;
+        this.resumed = false;
+        this.cancelled = false;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getDungeonName() {
+        return dungeonName;
+    }
+
+    public UUID getOwnerId() {
+        return ownerId;
+    }
+
+    public boolean isPriority() {
+        return priority;
+    }
+
+    public long getQueuedAt() {
+        return queuedAt;
+    }
+
+    public Location getLocation() {
+        return location;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    // null pour un donjon créé sans l'assistant
+    public DungeonTemplate getTemplate() {
+        return template;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getInstancePool() {
+        return instancePool;
+    }
+
+    public void setInstancePool(String instancePool) {
+        this.instancePool = instancePool;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    public void setStage(Stage stage) {
+        this.stage = stage;
+    }
+
+    // Passe à l'étape suivante : la pose repart de la première section
+    public void advance(Stage next) {
+        this.stage = next;
+        this.placedSections = 0;
+        this.placement = null;
+    }
+
+    // Sections déjà posées pour l'étape en cours
+    public int getPlacedSections() {
+        return placement != null ? placement.getSectionCursor() : placedSections;
+    }
+
+    public void setPlacedSections(int placedSections) {
+        this.placedSections = placedSections;
+    }
+
+    public PlacementManager.PlacementTask getPlacement() {
+        return placement;
+    }
+
+    public void setPlacement(PlacementManager.PlacementTask placement) {
+        this.placement = placement;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public void setProgress(int progress) {
+        this.progress = progress;
+    }
+
+    public int getLastReportedPosition() {
+        return lastReportedPosition;
+    }
+
+    public void setLastReportedPosition(int lastReportedPosition) {
+        this.lastReportedPosition = lastReportedPosition;
+    }
+
+    // Reprise d'une génération interrompue par un arrêt du serveur
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    public void setResumed(boolean resumed) {
+        this.resumed = resumed;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+}
@@ -0,0 +1,29 @@
+package fr.arkoter.proceduraldungeons.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+// Écritures sûres des fichiers de données : le contenu complet est écrit à côté puis mis en place par
+// renommage, un arrêt brutal laisse donc l'ancien fichier ou le nouveau, jamais un fichier coupé
+public class FileUtils {
+
+    // Écrit le texte dans tempFile puis remplace target
+    public static void writeAtomically(String content, File tempFile, File target) throws IOException {
+        Files.write(tempFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        moveAtomically(tempFile, target);
+    }
+
+    // Renommage atomique quand le système de fichiers le permet, simple remplacement sinon
+    public static void moveAtomically(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
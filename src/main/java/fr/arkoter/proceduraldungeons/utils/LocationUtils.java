@@ -38,6 +38,15 @@ public class LocationUtils {
         }
     }
 
+    // Clé compacte d'un bloc : x et z sur 26 bits, y sur 12 bits
+    public static long toBlockKey(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | ((long) y & 0xFFFL);
+    }
+
+    public static long toBlockKey(Location location) {
+        return toBlockKey(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
     public static boolean isLocationSafe(Location location) {
         if (location == null || location.getWorld() == null) return false;
 
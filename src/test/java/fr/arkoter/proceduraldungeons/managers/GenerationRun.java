@@ -0,0 +1,121 @@
+package fr.arkoter.proceduraldungeons.managers;
+
+import fr.arkoter.proceduraldungeons.generators.BlockQueue;
+import fr.arkoter.proceduraldungeons.generators.DungeonPlanner;
+import fr.arkoter.proceduraldungeons.models.DungeonTemplate;
+import fr.arkoter.proceduraldungeons.models.GenerationJob;
+import fr.arkoter.proceduraldungeons.models.WizardSession;
+import org.bukkit.Location;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+// Génération complète d'un donjon dans un InMemoryWorld : calcul du plan par DungeonPlanner, puis pose
+// des trois lots de blocs par PlacementManager.PlacementTask, sans budget par tick
+// Dans le paquet de PlacementManager pour accéder à la tâche hors file ; utilisé aussi par les benchmarks JMH
+public final class GenerationRun {
+
+    // Valeurs par défaut de config.yml
+    public static final DungeonPlanner.Settings DEFAULT_SETTINGS = new DungeonPlanner.Settings(4, 5, 9, 3, 6, 12, 50);
+
+    private static final int ORIGIN_Y = 64;
+
+    private final InMemoryWorld world;
+    private final Map<GenerationJob.Stage, StageResult> stages;
+
+    private GenerationRun(InMemoryWorld world) {
+        this.world = world;
+        this.stages = new EnumMap<>(GenerationJob.Stage.class);
+    }
+
+    // Donjon simple (generateDungeonStructure) ou personnalisé (generateCustomDungeonStructure) si template
+    public static GenerationRun run(int size, int difficulty, DungeonTemplate template, long seed) {
+        InMemoryWorld world = InMemoryWorld.around("generation", 0, ORIGIN_Y, 0, size);
+        Location location = new Location(world.getWorld(), 0, ORIGIN_Y, 0);
+
+        DungeonPlanner.Plan plan = new DungeonPlanner(DEFAULT_SETTINGS)
+                .plan("generation", location, size, difficulty, template, seed);
+
+        GenerationRun run = new GenerationRun(world);
+        run.place(GenerationJob.Stage.STRUCTURE, plan.getStructure());
+        run.place(GenerationJob.Stage.ROOMS, plan.getRooms());
+        run.place(GenerationJob.Stage.POPULATE, plan.getTraps());
+        return run;
+    }
+
+    // Modèle équivalent aux choix par défaut de l'assistant de création
+    public static DungeonTemplate template(int size, int difficulty) {
+        WizardSession session = new WizardSession(new UUID(0, 0));
+        session.setName("generation");
+        session.setSize(size);
+        session.setDifficulty(difficulty);
+        return new DungeonTemplate(session);
+    }
+
+    // Pose par la vraie PlacementManager.PlacementTask, sans échéance : tout le lot en un appel
+    private void place(GenerationJob.Stage stage, BlockQueue queue) {
+        long writesBefore = world.getWrites();
+        long redundantBefore = world.getRedundantWrites();
+        long overwritesBefore = world.getOverwrites();
+
+        PlacementManager.PlacementTask task = PlacementManager.PlacementTask.standalone(queue);
+        task.apply(Long.MAX_VALUE);
+        if (!task.isDone()) {
+            throw new IllegalStateException("Pose incomplète de l'étape " + stage);
+        }
+
+        stages.put(stage, new StageResult(queue.size(),
+                world.getWrites() - writesBefore,
+                world.getRedundantWrites() - redundantBefore,
+                world.getOverwrites() - overwritesBefore));
+    }
+
+    StageResult getStage(GenerationJob.Stage stage) {
+        return stages.get(stage);
+    }
+
+    long getTotalWrites() {
+        return world.getWrites();
+    }
+
+    long getTotalRedundantWrites() {
+        return world.getRedundantWrites();
+    }
+
+    long getTotalOverwrites() {
+        return world.getOverwrites();
+    }
+
+    // Classe interne StageResult
+
+    static final class StageResult {
+        private final int queued;
+        private final long writes;
+        private final long redundantWrites;
+        private final long overwrites;
+
+        private StageResult(int queued, long writes, long redundantWrites, long overwrites) {
+            this.queued = queued;
+            this.writes = writes;
+            this.redundantWrites = redundantWrites;
+            this.overwrites = overwrites;
+        }
+
+        int getQueued() {
+            return queued;
+        }
+
+        long getWrites() {
+            return writes;
+        }
+
+        long getRedundantWrites() {
+            return redundantWrites;
+        }
+
+        long getOverwrites() {
+            return overwrites;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package fr.arkoter.proceduraldungeons.managers;
+
+import fr.arkoter.proceduraldungeons.models.DungeonTemplate;
+import fr.arkoter.proceduraldungeons.models.GenerationJob;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Génération complète dans un InMemoryWorld, comparée à des budgets d'écritures de blocs. Les compteurs
+// sont déterministes (même graine) : aucun temps n'est vérifié ici, les mesures restent aux benchmarks JMH
+class GenerationWritesTest {
+
+    private static final long SEED = 42L;
+    private static final int DIFFICULTY = 3;
+
+    private static final GenerationJob.Stage[] STAGES = {
+            GenerationJob.Stage.STRUCTURE, GenerationJob.Stage.ROOMS, GenerationJob.Stage.POPULATE
+    };
+
+    // Taille, modèle, écritures par cellule du labyrinthe, part d'écritures redondantes, part de réécritures
+    // Le monde en mémoire part de l'air : l'air posé entre sol et plafond compte comme redondant
+    @ParameterizedTest(name = "{0}x{0}, modèle personnalisé : {1}")
+    @CsvSource({
+            "50, false, 6.0, 0.35, 0.12",
+            "100, false, 5.5, 0.35, 0.04",
+            "50, true, 6.0, 0.35, 0.13",
+            "100, true, 5.5, 0.35, 0.04"
+    })
+    void writesStayWithinBudget(int size, boolean custom, double maxWritesPerCell,
+                                double maxRedundantRatio, double maxOverwriteRatio) {
+        GenerationRun run = run(size, custom);
+
+        long cells = (long) size * size;
+        double writesPerCell = (double) run.getTotalWrites() / cells;
+        double redundantRatio = (double) run.getTotalRedundantWrites() / run.getTotalWrites();
+        double overwriteRatio = (double) run.getTotalOverwrites() / run.getTotalWrites();
+
+        assertTrue(writesPerCell <= maxWritesPerCell, () -> String.format(
+                "%.2f écritures par cellule (budget %.2f)", writesPerCell, maxWritesPerCell));
+        assertTrue(redundantRatio <= maxRedundantRatio, () -> String.format(
+                "%.1f %% d'écritures redondantes (budget %.1f %%)", redundantRatio * 100, maxRedundantRatio * 100));
+        assertTrue(overwriteRatio <= maxOverwriteRatio, () -> String.format(
+                "%.1f %% de réécritures (budget %.1f %%)", overwriteRatio * 100, maxOverwriteRatio * 100));
+    }
+
+    // PlacementTask pose chaque bloc de la file exactement une fois
+    @ParameterizedTest(name = "{0}x{0}, modèle personnalisé : {1}")
+    @CsvSource({"50, false", "50, true"})
+    void everyQueuedBlockIsWritten(int size, boolean custom) {
+        GenerationRun run = run(size, custom);
+
+        for (GenerationJob.Stage stage : STAGES) {
+            GenerationRun.StageResult result = run.getStage(stage);
+            assertEquals(result.getQueued(), result.getWrites(), stage.getDisplayName());
+        }
+    }
+
+    @ParameterizedTest(name = "{0}x{0}, modèle personnalisé : {1}")
+    @CsvSource({"50, false", "50, true"})
+    void sameSeedGivesSameWrites(int size, boolean custom) {
+        GenerationRun first = run(size, custom);
+        GenerationRun second = run(size, custom);
+
+        for (GenerationJob.Stage stage : STAGES) {
+            GenerationRun.StageResult expected = first.getStage(stage);
+            GenerationRun.StageResult actual = second.getStage(stage);
+            assertEquals(expected.getWrites(), actual.getWrites(), stage.getDisplayName());
+            assertEquals(expected.getRedundantWrites(), actual.getRedundantWrites(), stage.getDisplayName());
+            assertEquals(expected.getOverwrites(), actual.getOverwrites(), stage.getDisplayName());
+        }
+    }
+
+    private static GenerationRun run(int size, boolean custom) {
+        DungeonTemplate template = custom ? GenerationRun.template(size, DIFFICULTY) : null;
+        return GenerationRun.run(size, DIFFICULTY, template, SEED);
+    }
+}
@@ -0,0 +1,240 @@
+package fr.arkoter.proceduraldungeons.managers;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Monde en mémoire pour mesurer la génération hors serveur : une boîte de blocs rangée dans un tableau
+// plat d'indices de palette. Seuls les appels dont la pose a besoin sont disponibles (World, Chunk, Block)
+// Les écritures sont comptées : total, redondantes (même matériau déjà présent) et réécritures
+public final class InMemoryWorld {
+
+    private final String name;
+    private final UUID uid;
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+
+    // Palette : l'indice 0 est l'air, état initial de toute la boîte
+    private final List<Material> palette;
+    private final Map<Material, Short> paletteIndex;
+    private final short[] blocks;
+
+    // Positions déjà écrites depuis la création du monde
+    private final BitSet written;
+    private long writes;
+    private long redundantWrites;
+    private long overwrites;
+
+    private final World world;
+
+    InMemoryWorld(String name, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.name = name;
+        this.uid = UUID.nameUUIDFromBytes(name.getBytes());
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = maxX - minX + 1;
+        this.sizeY = maxY - minY + 1;
+        this.sizeZ = maxZ - minZ + 1;
+        this.palette = new ArrayList<>();
+        this.paletteIndex = new HashMap<>();
+        this.blocks = new short[sizeX * sizeY * sizeZ];
+        this.written = new BitSet(blocks.length);
+        this.world = createWorld();
+
+        paletteId(Material.AIR);
+    }
+
+    // Boîte englobant un donjon centré sur (x, y, z), avec une marge pour les salles et les torches
+    public static InMemoryWorld around(String name, int x, int y, int z, int size) {
+        int margin = 16;
+        return new InMemoryWorld(name, x - size / 2 - margin, y - size / 2 - margin, z - size / 2 - margin,
+                x + size / 2 + margin, y + size / 2 + margin, z + size / 2 + margin);
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    // ================================
+    // BLOCS
+    // ================================
+
+    Material getType(int x, int y, int z) {
+        return palette.get(blocks[index(x, y, z)]);
+    }
+
+    void setType(int x, int y, int z, Material material) {
+        int index = index(x, y, z);
+        short id = paletteId(material);
+
+        writes++;
+        if (blocks[index] == id) {
+            redundantWrites++;
+        }
+        if (written.get(index)) {
+            overwrites++;
+        } else {
+            written.set(index);
+        }
+        blocks[index] = id;
+    }
+
+    private int index(int x, int y, int z) {
+        int localX = x - minX;
+        int localY = y - minY;
+        int localZ = z - minZ;
+        if (localX < 0 || localX >= sizeX || localY < 0 || localY >= sizeY || localZ < 0 || localZ >= sizeZ) {
+            throw new IndexOutOfBoundsException("Position hors du monde en mémoire: " + x + "," + y + "," + z);
+        }
+        return (localY * sizeZ + localZ) * sizeX + localX;
+    }
+
+    private short paletteId(Material material) {
+        Short id = paletteIndex.get(material);
+        if (id == null) {
+            id = (short) palette.size();
+            palette.add(material);
+            paletteIndex.put(material, id);
+        }
+        return id;
+    }
+
+    // ================================
+    // COMPTEURS
+    // ================================
+
+    long getWrites() {
+        return writes;
+    }
+
+    long getRedundantWrites() {
+        return redundantWrites;
+    }
+
+    long getOverwrites() {
+        return overwrites;
+    }
+
+
+    // ================================
+    // TYPES BUKKIT
+    // ================================
+
+    private World createWorld() {
+        return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getName":
+                            return name;
+                        case "getUID":
+                            return uid;
+                        case "getMinHeight":
+                            return minY;
+                        case "getMaxHeight":
+                            return minY + sizeY;
+                        case "isChunkLoaded":
+                        case "isChunkGenerated":
+                            return true;
+                        case "getChunkAt":
+                            if (args.length == 2) {
+                                return createChunk((Integer) args[0], (Integer) args[1]);
+                            }
+                            Location location = (Location) args[0];
+                            return createChunk(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+                        case "getBlockAt":
+                            if (args.length == 3) {
+                                return createBlock((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+                            }
+                            Location at = (Location) args[0];
+                            return createBlock(at.getBlockX(), at.getBlockY(), at.getBlockZ());
+                        case "getType":
+                            return getType((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+                        case "setType":
+                            setType((Integer) args[0], (Integer) args[1], (Integer) args[2], (Material) args[3]);
+                            return null;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "InMemoryWorld{" + name + "}";
+                        default:
+                            throw new UnsupportedOperationException("World." + method.getName() + " n'est pas disponible hors serveur");
+                    }
+                });
+    }
+
+    private Chunk createChunk(int chunkX, int chunkZ) {
+        return (Chunk) Proxy.newProxyInstance(Chunk.class.getClassLoader(), new Class<?>[]{Chunk.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getX":
+                            return chunkX;
+                        case "getZ":
+                            return chunkZ;
+                        case "getWorld":
+                            return world;
+                        case "isLoaded":
+                            return true;
+                        case "getBlock":
+                            return createBlock((chunkX << 4) + (Integer) args[0], (Integer) args[1],
+                                    (chunkZ << 4) + (Integer) args[2]);
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "InMemoryChunk{" + chunkX + "," + chunkZ + "}";
+                        default:
+                            throw new UnsupportedOperationException("Chunk." + method.getName() + " n'est pas disponible hors serveur");
+                    }
+                });
+    }
+
+    private Block createBlock(int x, int y, int z) {
+        return (Block) Proxy.newProxyInstance(Block.class.getClassLoader(), new Class<?>[]{Block.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getX":
+                            return x;
+                        case "getY":
+                            return y;
+                        case "getZ":
+                            return z;
+                        case "getWorld":
+                            return world;
+                        case "getLocation":
+                            return new Location(world, x, y, z);
+                        case "getType":
+                            return getType(x, y, z);
+                        case "setType":
+                            // La mise à jour physique éventuelle (second argument) n'a pas d'effet ici
+                            setType(x, y, z, (Material) args[0]);
+                            return null;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "InMemoryBlock{" + x + "," + y + "," + z + "}";
+                        default:
+                            throw new UnsupportedOperationException("Block." + method.getName() + " n'est pas disponible hors serveur");
+                    }
+                });
+    }
+}